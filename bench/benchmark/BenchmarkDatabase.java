@@ -0,0 +1,199 @@
+package benchmark;
+
+// BenchmarkDatabase.java
+import config.DatabaseConnection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Creates and seeds the data set used by the benchmarks
+ * Benchmark accounts are numbered BENCH0000001, BENCH0000002, ... so they can be
+ * removed again without touching real data. Against an embedded database
+ * (H2 or HSQLDB in MySQL mode) the minimal schema the benchmarked code needs is
+ * created first; against MySQL the regular schema must already be installed.
+ */
+public class BenchmarkDatabase {
+    public static final String ACCOUNT_PREFIX = "BENCH";
+    private static final int BATCH_SIZE = 1000;
+    private static final double OPENING_BALANCE = 1_000_000.00;
+
+    private final DatabaseConnection dbConn;
+
+    public BenchmarkDatabase() {
+        this.dbConn = DatabaseConnection.getInstance();
+    }
+
+    /**
+     * Check whether the URL points at an in-process database
+     */
+    public static boolean isEmbedded(String url) {
+        return url.startsWith("jdbc:h2:") || url.startsWith("jdbc:hsqldb:");
+    }
+
+    /**
+     * Create the accounts, account_balance_stripes, transactions and account_number_blocks
+     * tables with portable DDL
+     */
+    public void createSchema() throws SQLException {
+        String[] ddl = {
+                "CREATE TABLE IF NOT EXISTS accounts (" +
+                        "account_id INT PRIMARY KEY AUTO_INCREMENT, " +
+                        "account_number VARCHAR(20) NOT NULL UNIQUE, " +
+                        "account_holder VARCHAR(100) NOT NULL, " +
+                        "account_type VARCHAR(20) NOT NULL, " +
+                        "balance DECIMAL(15, 2) DEFAULT 0.00 NOT NULL, " +
+                        "interest_rate DECIMAL(5, 4) NOT NULL, " +
+                        "created_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP, " +
+                        "last_interest_date DATE NULL, " +
+                        "status VARCHAR(10) DEFAULT 'ACTIVE', " +
+                        "stripe_count INT DEFAULT 0 NOT NULL)",
+                "CREATE TABLE IF NOT EXISTS account_balance_stripes (" +
+                        "account_id INT NOT NULL, " +
+                        "stripe_no INT NOT NULL, " +
+                        "balance DECIMAL(15, 2) DEFAULT 0.00 NOT NULL, " +
+                        "PRIMARY KEY (account_id, stripe_no))",
+                "CREATE TABLE IF NOT EXISTS transactions (" +
+                        "transaction_id INT PRIMARY KEY AUTO_INCREMENT, " +
+                        "account_id INT NOT NULL, " +
+                        "transaction_type VARCHAR(20) NOT NULL, " +
+                        "amount DECIMAL(15, 2) NOT NULL, " +
+                        "balance_after DECIMAL(15, 2) NOT NULL, " +
+                        "transaction_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP, " +
+                        "description VARCHAR(255), " +
+                        "reference_account_id INT NULL, " +
+                        "standing_order_id INT NULL)",
+                "CREATE TABLE IF NOT EXISTS account_number_blocks (" +
+                        "node_id INT PRIMARY KEY, " +
+                        "reserved_until BIGINT NOT NULL, " +
+                        "reserved_by VARCHAR(64) NOT NULL, " +
+                        "reserved_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP)",
+                "CREATE INDEX idx_status ON accounts (status)",
+                "CREATE INDEX idx_account_history ON transactions (account_id, transaction_date, transaction_id)"
+        };
+
+        try (Connection connection = dbConn.getConnection();
+             Statement stmt = connection.createStatement()) {
+            for (String sql : ddl) {
+                try {
+                    stmt.execute(sql);
+                } catch (SQLException e) {
+                    // Index already exists from a previous run in the same database
+                    if (!sql.startsWith("CREATE INDEX")) {
+                        throw e;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Remove every benchmark account and its transactions
+     */
+    public void clear() throws SQLException {
+        try (Connection connection = dbConn.getConnection();
+             Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate("DELETE FROM transactions WHERE account_id IN " +
+                    "(SELECT account_id FROM accounts WHERE account_number LIKE '" + ACCOUNT_PREFIX + "%')");
+            stmt.executeUpdate("DELETE FROM account_balance_stripes WHERE account_id IN " +
+                    "(SELECT account_id FROM accounts WHERE account_number LIKE '" + ACCOUNT_PREFIX + "%')");
+            stmt.executeUpdate("DELETE FROM accounts WHERE account_number LIKE '" + ACCOUNT_PREFIX + "%'");
+        }
+    }
+
+    /**
+     * Insert the benchmark accounts and a history of transactions for each
+     * @param accounts Number of accounts
+     * @param transactionsPerAccount Transactions seeded per account
+     * @return account numbers of the seeded accounts
+     */
+    public List<String> seed(int accounts, int transactionsPerAccount) throws SQLException {
+        List<String> accountNumbers = new ArrayList<>(accounts);
+        for (int i = 1; i <= accounts; i++) {
+            accountNumbers.add(accountNumber(i));
+        }
+
+        String accountSql = "INSERT INTO accounts (account_number, account_holder, account_type, " +
+                "balance, interest_rate, status) VALUES (?, ?, ?, ?, ?, 'ACTIVE')";
+
+        dbConn.beginTransaction();
+        try (Connection connection = dbConn.getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(accountSql)) {
+            for (int i = 0; i < accounts; i++) {
+                boolean savings = i % 2 == 0;
+                pstmt.setString(1, accountNumbers.get(i));
+                pstmt.setString(2, "Benchmark Holder " + (i + 1));
+                pstmt.setString(3, savings ? "SAVINGS" : "CHECKING");
+                pstmt.setDouble(4, OPENING_BALANCE);
+                pstmt.setDouble(5, savings ? 0.04 : 0.01);
+                pstmt.addBatch();
+                if ((i + 1) % BATCH_SIZE == 0) {
+                    pstmt.executeBatch();
+                }
+            }
+            pstmt.executeBatch();
+            dbConn.commit();
+        } catch (SQLException e) {
+            dbConn.rollback();
+            throw e;
+        }
+
+        if (transactionsPerAccount > 0) {
+            seedTransactions(transactionsPerAccount);
+        }
+        return accountNumbers;
+    }
+
+    private void seedTransactions(int transactionsPerAccount) throws SQLException {
+        List<Integer> accountIds = new ArrayList<>();
+        try (Connection connection = dbConn.getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(
+                     "SELECT account_id FROM accounts WHERE account_number LIKE ? ORDER BY account_id")) {
+            pstmt.setString(1, ACCOUNT_PREFIX + "%");
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    accountIds.add(rs.getInt(1));
+                }
+            }
+        }
+
+        String sql = "INSERT INTO transactions (account_id, transaction_type, amount, balance_after, " +
+                "transaction_date, description) VALUES (?, 'DEPOSIT', ?, ?, ?, 'Benchmark seed')";
+        long now = System.currentTimeMillis();
+        int pending = 0;
+
+        dbConn.beginTransaction();
+        try (Connection connection = dbConn.getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            for (int accountId : accountIds) {
+                for (int t = 0; t < transactionsPerAccount; t++) {
+                    pstmt.setInt(1, accountId);
+                    pstmt.setDouble(2, 10.00);
+                    pstmt.setDouble(3, OPENING_BALANCE);
+                    // One transaction per hour going back in time
+                    pstmt.setTimestamp(4, new Timestamp(now - (transactionsPerAccount - t) * 3_600_000L));
+                    pstmt.addBatch();
+                    if (++pending == BATCH_SIZE) {
+                        pstmt.executeBatch();
+                        pending = 0;
+                    }
+                }
+            }
+            pstmt.executeBatch();
+            dbConn.commit();
+        } catch (SQLException e) {
+            dbConn.rollback();
+            throw e;
+        }
+    }
+
+    public static String accountNumber(int index) {
+        return String.format("%s%07d", ACCOUNT_PREFIX, index);
+    }
+}
@@ -0,0 +1,351 @@
+package benchmark;
+
+// BenchmarkRunner.java
+import cache.AccountSnapshotCache;
+import cache.BalanceStore;
+import config.DatabaseConfig;
+import config.DatabaseConnection;
+import dao.AccountIdCache;
+import metrics.MetricsRegistry;
+import security.SecurityUtil;
+import service.BankService;
+import service.LedgerEngine;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Throughput and latency benchmarks for the BankService hot paths
+ * Every scenario runs a warmup phase followed by timed measurement iterations,
+ * once per configured thread count. Options are JVM system properties:
+ *
+ *   bench.accounts            accounts to seed (default 1000)
+ *   bench.transactions        transactions seeded per account (default 100)
+ *   bench.threads             comma-separated thread counts (default 1,4)
+ *   bench.warmupSeconds       warmup per scenario (default 5)
+ *   bench.iterations          measurement iterations (default 5)
+ *   bench.iterationSeconds    length of one iteration (default 5)
+ *   bench.scenarios           comma-separated subset of the scenarios below (default all)
+ *   bench.seed                false reuses accounts seeded by an earlier run (default true)
+ *
+ * Database settings come from db.properties and may be overridden with -Ddb.*,
+ * e.g. -Ddb.url=jdbc:h2:mem:bench;MODE=MySQL;DB_CLOSE_DELAY=-1 -Ddb.driver=org.h2.Driver
+ */
+public class BenchmarkRunner {
+    private static final int MAX_SAMPLES_PER_THREAD = 100_000;
+
+    /**
+     * One benchmarked operation
+     * @return false when the operation was rejected (counted as a failure)
+     */
+    interface Scenario {
+        boolean run(ThreadLocalRandom random) throws Exception;
+    }
+
+    private final BankService bankService = new BankService();
+    private final Map<String, Scenario> scenarios = new LinkedHashMap<>();
+    private final PrintStream out = System.out;
+    private final PrintStream err = System.err;
+    private List<String> accountNumbers;
+
+    private final int accounts = Integer.getInteger("bench.accounts", 1000);
+    private final int transactionsPerAccount = Integer.getInteger("bench.transactions", 100);
+    private final int warmupSeconds = Integer.getInteger("bench.warmupSeconds", 5);
+    private final int iterations = Integer.getInteger("bench.iterations", 5);
+    private final int iterationSeconds = Integer.getInteger("bench.iterationSeconds", 5);
+
+    public static void main(String[] args) throws Exception {
+        new BenchmarkRunner().runAll();
+    }
+
+    private BenchmarkRunner() {
+        if (accounts < 2) {
+            throw new IllegalArgumentException("bench.accounts must be at least 2");
+        }
+        String salt = SecurityUtil.generateSalt();
+
+        scenarios.put("deposit", random -> bankService.deposit(randomAccount(random), 1.00));
+        scenarios.put("withdraw", random -> bankService.withdraw(randomAccount(random), 1.00));
+        scenarios.put("depositJournaled",
+                random -> bankService.depositAsync(randomAccount(random), 1.00).join() != null);
+        scenarios.put("depositLedger",
+                random -> ledger().deposit(randomAccount(random), 1.00).join().isCompleted());
+        scenarios.put("transfer", random -> {
+            int from = random.nextInt(accountNumbers.size());
+            int to = (from + 1 + random.nextInt(accountNumbers.size() - 1)) % accountNumbers.size();
+            return bankService.transfer(accountNumbers.get(from), accountNumbers.get(to), 1.00);
+        });
+        scenarios.put("applyInterest", random -> bankService.applyInterest(randomAccount(random)));
+        scenarios.put("getTransactionHistory",
+                random -> !bankService.getTransactionHistory(randomAccount(random)).isEmpty());
+        scenarios.put("getTransactionHistoryPage",
+                random -> !bankService.getTransactionHistoryPage(randomAccount(random), null, 0, 50).isEmpty());
+        scenarios.put("getAccount", random -> bankService.getAccount(randomAccount(random)) != null);
+        scenarios.put("getBalance", random -> {
+            if (!BalanceStore.getInstance().isLoaded() && !bankService.loadBalanceStore()) {
+                throw new IllegalStateException("Balance store could not be loaded");
+            }
+            return bankService.getBalanceCents(randomAccount(random)) != BalanceStore.MISSING;
+        });
+        scenarios.put("accountNumber", random -> bankService.generateAccountNumber() != null);
+        scenarios.put("hashPassword", random -> SecurityUtil.hashPassword("Benchmark#Pass1", salt) != null);
+    }
+
+    // Started on first use, so scenarios that write through BankService run without it
+    private LedgerEngine ledger() {
+        LedgerEngine ledger = LedgerEngine.getInstance();
+        if (!ledger.isRunning() && !ledger.start()) {
+            throw new IllegalStateException("Ledger could not load balances");
+        }
+        return ledger;
+    }
+
+    private void runAll() throws Exception {
+        DatabaseConfig.displayConfig();
+        prepareData();
+
+        List<String> selected = selectedScenarios();
+        int[] threadCounts = threadCounts();
+        List<String> report = new ArrayList<>();
+
+        for (String name : selected) {
+            for (int threads : threadCounts) {
+                out.printf("%n▶ %s, %d thread(s): warmup %ds, %d x %ds%n",
+                        name, threads, warmupSeconds, iterations, iterationSeconds);
+                String line = measure(name, scenarios.get(name), threads);
+                out.println("  " + line);
+                report.add(line);
+            }
+        }
+
+        out.println("\n=== Benchmark Results (" + accounts + " accounts, " +
+                transactionsPerAccount + " transactions/account) ===");
+        for (String line : report) {
+            out.println(line);
+        }
+
+        out.println();
+        DatabaseConnection.getInstance().getPool().displayStats();
+        AccountIdCache.getInstance().displayStats();
+        AccountSnapshotCache.getInstance().displayStats();
+        BalanceStore.getInstance().displayStats();
+        if (LedgerEngine.getInstance().isRunning()) {
+            LedgerEngine.getInstance().flush().join();
+            LedgerEngine.getInstance().displayStats();
+            LedgerEngine.getInstance().stop();
+        }
+        MetricsRegistry.getInstance().displayStats();
+        DatabaseConnection.getInstance().closeConnection();
+    }
+
+    private void prepareData() throws Exception {
+        BenchmarkDatabase database = new BenchmarkDatabase();
+        if (!Boolean.parseBoolean(System.getProperty("bench.seed", "true"))) {
+            accountNumbers = new ArrayList<>();
+            for (int i = 1; i <= accounts; i++) {
+                accountNumbers.add(BenchmarkDatabase.accountNumber(i));
+            }
+            return;
+        }
+
+        if (BenchmarkDatabase.isEmbedded(DatabaseConfig.getUrl())) {
+            database.createSchema();
+        }
+        long start = System.nanoTime();
+        database.clear();
+        accountNumbers = database.seed(accounts, transactionsPerAccount);
+        out.printf("✓ Seeded %d accounts and %d transactions in %d ms%n",
+                accounts, (long) accounts * transactionsPerAccount, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Warm up, then run the measurement iterations and summarize them
+     */
+    private String measure(String name, Scenario scenario, int threads) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        double[] throughput = new double[iterations];
+        List<long[]> samples = new ArrayList<>();
+        long operations = 0;
+        long failures = 0;
+
+        try {
+            runIteration(executor, scenario, threads, warmupSeconds);
+
+            for (int i = 0; i < iterations; i++) {
+                long iterationStart = System.nanoTime();
+                List<WorkerResult> results = runIteration(executor, scenario, threads, iterationSeconds);
+                double seconds = (System.nanoTime() - iterationStart) / 1_000_000_000.0;
+
+                long iterationOps = 0;
+                for (WorkerResult result : results) {
+                    iterationOps += result.operations;
+                    failures += result.failures;
+                    samples.add(Arrays.copyOf(result.latencies, result.sampleCount()));
+                }
+                operations += iterationOps;
+                throughput[i] = iterationOps / seconds;
+                out.printf("  iteration %d: %.1f ops/s%n", i + 1, throughput[i]);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        long[] latencies = merge(samples);
+        return String.format("%-26s threads=%-3d %10.1f ± %-8.1f ops/s | p50 %8.3f ms | p99 %8.3f ms | " +
+                        "max %8.3f ms | ops %d | failed %d",
+                name, threads, mean(throughput), stddev(throughput),
+                percentile(latencies, 0.50), percentile(latencies, 0.99),
+                percentile(latencies, 1.0), operations, failures);
+    }
+
+    private List<WorkerResult> runIteration(ExecutorService executor, Scenario scenario,
+                                            int threads, int seconds) throws Exception {
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        List<Future<WorkerResult>> futures = new ArrayList<>();
+
+        // BankService reports every operation on the console; keep that out of the timings
+        PrintStream silent = new PrintStream(OutputStream.nullOutputStream());
+        System.setOut(silent);
+        System.setErr(silent);
+        try {
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> work(scenario, deadline)));
+            }
+            List<WorkerResult> results = new ArrayList<>();
+            for (Future<WorkerResult> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } finally {
+            System.setOut(out);
+            System.setErr(err);
+        }
+    }
+
+    private WorkerResult work(Scenario scenario, long deadline) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        WorkerResult result = new WorkerResult();
+
+        while (System.nanoTime() < deadline) {
+            long start = System.nanoTime();
+            boolean ok;
+            try {
+                ok = scenario.run(random);
+            } catch (Exception e) {
+                ok = false;
+            }
+            result.record(System.nanoTime() - start, ok, random);
+        }
+        return result;
+    }
+
+    private String randomAccount(ThreadLocalRandom random) {
+        return accountNumbers.get(random.nextInt(accountNumbers.size()));
+    }
+
+    private List<String> selectedScenarios() {
+        String property = System.getProperty("bench.scenarios");
+        if (property == null || property.trim().isEmpty()) {
+            return new ArrayList<>(scenarios.keySet());
+        }
+        List<String> selected = new ArrayList<>();
+        for (String name : property.split(",")) {
+            name = name.trim();
+            if (!scenarios.containsKey(name)) {
+                throw new IllegalArgumentException("Unknown scenario: " + name + ". Available: " + scenarios.keySet());
+            }
+            selected.add(name);
+        }
+        return selected;
+    }
+
+    private static int[] threadCounts() {
+        String[] values = System.getProperty("bench.threads", "1,4").split(",");
+        int[] counts = new int[values.length];
+        for (int i = 0; i < values.length; i++) {
+            counts[i] = Integer.parseInt(values[i].trim());
+        }
+        return counts;
+    }
+
+    private static long[] merge(List<long[]> samples) {
+        int total = 0;
+        for (long[] sample : samples) {
+            total += sample.length;
+        }
+        long[] merged = new long[total];
+        int position = 0;
+        for (long[] sample : samples) {
+            System.arraycopy(sample, 0, merged, position, sample.length);
+            position += sample.length;
+        }
+        Arrays.sort(merged);
+        return merged;
+    }
+
+    private static double percentile(long[] sorted, double fraction) {
+        if (sorted.length == 0) {
+            return 0.0;
+        }
+        int index = (int) Math.ceil(fraction * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1_000_000.0;
+    }
+
+    private static double mean(double[] values) {
+        double sum = 0.0;
+        for (double value : values) {
+            sum += value;
+        }
+        return values.length == 0 ? 0.0 : sum / values.length;
+    }
+
+    private static double stddev(double[] values) {
+        if (values.length < 2) {
+            return 0.0;
+        }
+        double mean = mean(values);
+        double sum = 0.0;
+        for (double value : values) {
+            sum += (value - mean) * (value - mean);
+        }
+        return Math.sqrt(sum / (values.length - 1));
+    }
+
+    /**
+     * Counts and latency samples of one worker thread in one iteration.
+     * Latencies beyond MAX_SAMPLES_PER_THREAD are reservoir-sampled.
+     */
+    private static class WorkerResult {
+        private final long[] latencies = new long[MAX_SAMPLES_PER_THREAD];
+        private long operations;
+        private long failures;
+
+        void record(long nanos, boolean ok, ThreadLocalRandom random) {
+            if (operations < MAX_SAMPLES_PER_THREAD) {
+                latencies[(int) operations] = nanos;
+            } else {
+                long slot = random.nextLong(operations + 1);
+                if (slot < MAX_SAMPLES_PER_THREAD) {
+                    latencies[(int) slot] = nanos;
+                }
+            }
+            operations++;
+            if (!ok) {
+                failures++;
+            }
+        }
+
+        int sampleCount() {
+            return (int) Math.min(operations, MAX_SAMPLES_PER_THREAD);
+        }
+    }
+}
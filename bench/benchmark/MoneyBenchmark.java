@@ -0,0 +1,217 @@
+package benchmark;
+
+// MoneyBenchmark.java
+import model.Money;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Money arithmetic benchmark: long cents vs. BigDecimal vs. double
+ * Runs without a database. Two workloads, each in the three representations:
+ *
+ *   netting    sum a stream of signed postings into per-account nets, as
+ *              PostingNetter and LedgerEngine do for a batch window
+ *   interest   one period of interest per account, rounded half-up to cents,
+ *              as InterestPostingEngine does for a chunk
+ *
+ * Reports ns per operation, bytes allocated per operation (HotSpot only) and
+ * whether the result matches the exact long-cents result to the cent.
+ * Options are JVM system properties:
+ *
+ *   money.postings      postings per netting round (default 1000000)
+ *   money.accounts      accounts (default 10000)
+ *   money.warmup        warmup rounds per case (default 5)
+ *   money.iterations    measured rounds per case (default 5)
+ */
+public class MoneyBenchmark {
+    private static final int PERIODS_PER_YEAR = 12;
+
+    private final int postings = Integer.getInteger("money.postings", 1_000_000);
+    private final int accounts = Integer.getInteger("money.accounts", 10_000);
+    private final int warmup = Integer.getInteger("money.warmup", 5);
+    private final int iterations = Integer.getInteger("money.iterations", 5);
+
+    // Inputs, identical for every representation
+    private final int[] postingAccounts = new int[postings];
+    private final long[] postingCents = new long[postings];
+    private final double[] postingDoubles = new double[postings];
+    private final BigDecimal[] postingDecimals = new BigDecimal[postings];
+    private final long[] balanceCents = new long[accounts];
+    private final double[] balanceDoubles = new double[accounts];
+    private final BigDecimal[] balanceDecimals = new BigDecimal[accounts];
+    private final int[] rateBasisPoints = new int[accounts];
+
+    // Exact results, from the long-cents run
+    private long[] expectedNets;
+    private long expectedInterest;
+
+    private volatile long sink;
+
+    public static void main(String[] args) {
+        new MoneyBenchmark().runAll();
+    }
+
+    private MoneyBenchmark() {
+        Random random = new Random(42);
+        for (int i = 0; i < postings; i++) {
+            postingAccounts[i] = random.nextInt(accounts);
+            // Mostly small amounts with cents, a mix of credits and debits
+            long cents = 1 + random.nextInt(random.nextInt(10) == 0 ? 10_000_000 : 20_000);
+            postingCents[i] = random.nextBoolean() ? cents : -cents;
+            postingDoubles[i] = Money.toDouble(postingCents[i]);
+            postingDecimals[i] = Money.toDecimal(postingCents[i]);
+        }
+        for (int i = 0; i < accounts; i++) {
+            balanceCents[i] = random.nextInt(100_000_000);
+            balanceDoubles[i] = Money.toDouble(balanceCents[i]);
+            balanceDecimals[i] = Money.toDecimal(balanceCents[i]);
+            rateBasisPoints[i] = 50 + random.nextInt(700);
+        }
+    }
+
+    private void runAll() {
+        System.out.printf("=== Money Benchmark: %,d postings over %,d accounts ===%n", postings, accounts);
+        System.out.printf("%-22s %12s %14s %10s%n", "Case", "ns/op", "bytes/op", "exact");
+
+        expectedNets = netLong();
+        run("netting long cents", postings, () -> netLong()[0], () -> true);
+        run("netting BigDecimal", postings, () -> netDecimal()[0].unscaledValue().longValue(),
+                () -> matches(netDecimal()));
+        run("netting double", postings, () -> (long) netDouble()[0], () -> matches(netDouble()));
+
+        // Interest rounds repeat the account set so they do about as much work as a netting round
+        int repeats = Math.max(1, postings / accounts);
+        expectedInterest = interestLong();
+        run("interest long cents", accounts * repeats, repeat(repeats, this::interestLong), () -> true);
+        run("interest BigDecimal", accounts * repeats,
+                repeat(repeats, () -> Money.fromDecimal(interestDecimal())),
+                () -> Money.fromDecimal(interestDecimal()) == expectedInterest);
+        run("interest double", accounts * repeats, repeat(repeats, () -> (long) interestDouble()),
+                () -> Money.fromDouble(interestDouble()) == expectedInterest);
+    }
+
+    private void run(String name, int operations, Workload workload, ExactCheck check) {
+        for (int i = 0; i < warmup; i++) {
+            sink += workload.run();
+        }
+
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        long bytesBefore = allocatedBytes(threads);
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            sink += workload.run();
+        }
+        long elapsed = System.nanoTime() - start;
+        long bytes = bytesBefore < 0 ? -1 : allocatedBytes(threads) - bytesBefore;
+
+        long total = (long) operations * iterations;
+        System.out.printf("%-22s %12.2f %14s %10s%n", name, (double) elapsed / total,
+                bytes < 0 ? "n/a" : String.format("%.1f", (double) bytes / total), check.exact() ? "yes" : "NO");
+    }
+
+    private static Workload repeat(int times, Workload workload) {
+        return () -> {
+            long result = 0;
+            for (int i = 0; i < times; i++) {
+                result += workload.run();
+            }
+            return result;
+        };
+    }
+
+    private long[] netLong() {
+        long[] nets = new long[accounts];
+        for (int i = 0; i < postings; i++) {
+            int account = postingAccounts[i];
+            nets[account] = Money.add(nets[account], postingCents[i]);
+        }
+        return nets;
+    }
+
+    private BigDecimal[] netDecimal() {
+        BigDecimal[] nets = new BigDecimal[accounts];
+        Arrays.fill(nets, BigDecimal.ZERO.setScale(Money.SCALE));
+        for (int i = 0; i < postings; i++) {
+            int account = postingAccounts[i];
+            nets[account] = nets[account].add(postingDecimals[i]);
+        }
+        return nets;
+    }
+
+    private double[] netDouble() {
+        double[] nets = new double[accounts];
+        for (int i = 0; i < postings; i++) {
+            nets[postingAccounts[i]] += postingDoubles[i];
+        }
+        return nets;
+    }
+
+    private long interestLong() {
+        long total = 0;
+        for (int i = 0; i < accounts; i++) {
+            total += Money.applyRate(balanceCents[i], rateBasisPoints[i], PERIODS_PER_YEAR, RoundingMode.HALF_UP);
+        }
+        return total;
+    }
+
+    private BigDecimal interestDecimal() {
+        BigDecimal total = BigDecimal.ZERO;
+        BigDecimal periods = BigDecimal.valueOf(PERIODS_PER_YEAR);
+        for (int i = 0; i < accounts; i++) {
+            BigDecimal rate = BigDecimal.valueOf(rateBasisPoints[i], 4);
+            total = total.add(balanceDecimals[i].multiply(rate)
+                    .divide(periods, Money.SCALE, RoundingMode.HALF_UP));
+        }
+        return total;
+    }
+
+    private double interestDouble() {
+        double total = 0.0;
+        for (int i = 0; i < accounts; i++) {
+            total += Math.round(balanceDoubles[i] * (rateBasisPoints[i] / 10000.0) / PERIODS_PER_YEAR * 100.0) / 100.0;
+        }
+        return total;
+    }
+
+    private boolean matches(BigDecimal[] nets) {
+        for (int i = 0; i < accounts; i++) {
+            if (nets[i].unscaledValue().longValueExact() != expectedNets[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Exact only if every account's net, as a double, is the exact net to the cent
+     * without rounding: a drift of any size means the stored total is wrong
+     */
+    private boolean matches(double[] nets) {
+        for (int i = 0; i < accounts; i++) {
+            if (nets[i] * 100.0 != (double) expectedNets[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long allocatedBytes(ThreadMXBean threads) {
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
+    private interface Workload {
+        long run();
+    }
+
+    private interface ExactCheck {
+        boolean exact();
+    }
+}
@@ -15,10 +15,34 @@ CREATE TABLE accounts (
                           interest_rate DECIMAL(5, 4) NOT NULL,
                           created_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
                           status ENUM('ACTIVE', 'INACTIVE', 'CLOSED') DEFAULT 'ACTIVE',
+                          stripe_count INT NOT NULL DEFAULT 0,
+                          stripes_settled_through INT NOT NULL DEFAULT 0,
                           INDEX idx_account_number (account_number),
                           INDEX idx_account_holder (account_holder)
 );
 
+-- Table: account_balance_stripes
+-- Sub-balances of hot accounts (accounts.stripe_count > 0); the account's balance is
+-- accounts.balance plus the sum of its stripes. Consolidation rewrites balance_after of
+-- the account's transactions after accounts.stripes_settled_through and advances it.
+CREATE TABLE account_balance_stripes (
+                                         account_id INT NOT NULL,
+                                         stripe_no INT NOT NULL,
+                                         balance DECIMAL(15, 2) NOT NULL DEFAULT 0.00,
+                                         PRIMARY KEY (account_id, stripe_no),
+                                         FOREIGN KEY (account_id) REFERENCES accounts(account_id) ON DELETE CASCADE
+);
+
+-- Table: account_number_blocks
+-- Per account number generator node, the end of the last reserved block of
+-- timestamps (milliseconds since 2025-01-01 UTC); numbers are only issued below it
+CREATE TABLE account_number_blocks (
+                                       node_id INT PRIMARY KEY,
+                                       reserved_until BIGINT NOT NULL,
+                                       reserved_by VARCHAR(64) NOT NULL,
+                                       reserved_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+);
+
 -- Table: savings_accounts (extends accounts)
 CREATE TABLE savings_accounts (
                                   account_id INT PRIMARY KEY,
@@ -52,6 +76,7 @@ CREATE TABLE transactions (
                               description VARCHAR(255),
                               reference_account_id INT NULL,
                               INDEX idx_account_id (account_id),
+                              INDEX idx_account_history (account_id, transaction_date, transaction_id),
                               INDEX idx_transaction_date (transaction_date),
                               FOREIGN KEY (account_id) REFERENCES accounts(account_id) ON DELETE CASCADE,
                               FOREIGN KEY (reference_account_id) REFERENCES accounts(account_id) ON DELETE SET NULL
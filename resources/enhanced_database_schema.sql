@@ -38,11 +38,35 @@ CREATE TABLE accounts (
                           created_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
                           last_interest_date DATE NULL,
                           status ENUM('ACTIVE', 'INACTIVE', 'CLOSED') DEFAULT 'ACTIVE',
+                          stripe_count INT NOT NULL DEFAULT 0,
+                          stripes_settled_through INT NOT NULL DEFAULT 0,
                           INDEX idx_account_number (account_number),
                           INDEX idx_account_holder (account_holder),
                           INDEX idx_status (status)
 );
 
+-- Table: account_balance_stripes
+-- Sub-balances of hot accounts (accounts.stripe_count > 0); the account's balance is
+-- accounts.balance plus the sum of its stripes. Consolidation rewrites balance_after of
+-- the account's transactions after accounts.stripes_settled_through and advances it.
+CREATE TABLE account_balance_stripes (
+                                         account_id INT NOT NULL,
+                                         stripe_no INT NOT NULL,
+                                         balance DECIMAL(15, 2) NOT NULL DEFAULT 0.00,
+                                         PRIMARY KEY (account_id, stripe_no),
+                                         FOREIGN KEY (account_id) REFERENCES accounts(account_id) ON DELETE CASCADE
+);
+
+-- Table: account_number_blocks
+-- Per account number generator node, the end of the last reserved block of
+-- timestamps (milliseconds since 2025-01-01 UTC); numbers are only issued below it
+CREATE TABLE account_number_blocks (
+                                       node_id INT PRIMARY KEY,
+                                       reserved_until BIGINT NOT NULL,
+                                       reserved_by VARCHAR(64) NOT NULL,
+                                       reserved_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+);
+
 -- Table: savings_accounts
 CREATE TABLE savings_accounts (
                                   account_id INT PRIMARY KEY,
@@ -78,6 +102,7 @@ CREATE TABLE transactions (
                               reference_account_id INT NULL,
                               standing_order_id INT NULL,
                               INDEX idx_account_id (account_id),
+                              INDEX idx_account_history (account_id, transaction_date, transaction_id),
                               INDEX idx_transaction_date (transaction_date),
                               INDEX idx_transaction_type (transaction_type),
                               FOREIGN KEY (account_id) REFERENCES accounts(account_id) ON DELETE CASCADE,
@@ -111,13 +136,25 @@ CREATE TABLE standing_orders (
                                  last_execution_date DATE NULL,
                                  description VARCHAR(255),
                                  status ENUM('ACTIVE', 'PAUSED', 'CANCELLED', 'COMPLETED') DEFAULT 'ACTIVE',
+                                 claimed_by VARCHAR(64) NULL,
+                                 lease_expires_at TIMESTAMP NULL,
                                  created_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
                                  INDEX idx_next_execution (next_execution_date),
                                  INDEX idx_status (status),
+                                 INDEX idx_due (status, next_execution_date, standing_order_id),
                                  FOREIGN KEY (from_account_id) REFERENCES accounts(account_id) ON DELETE CASCADE,
                                  FOREIGN KEY (to_account_id) REFERENCES accounts(account_id) ON DELETE CASCADE
 );
 
+-- Table: standing_order_executions (one row per executed occurrence; idempotency key)
+CREATE TABLE standing_order_executions (
+                                           standing_order_id INT NOT NULL,
+                                           execution_date DATE NOT NULL,
+                                           executed_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                                           PRIMARY KEY (standing_order_id, execution_date),
+                                           FOREIGN KEY (standing_order_id) REFERENCES standing_orders(standing_order_id) ON DELETE CASCADE
+);
+
 -- Table: interest_history (track interest calculations)
 CREATE TABLE interest_history (
                                   interest_id INT PRIMARY KEY AUTO_INCREMENT,
@@ -128,11 +165,39 @@ CREATE TABLE interest_history (
                                   interest_rate DECIMAL(5, 4) NOT NULL,
                                   calculation_date DATE NOT NULL,
                                   calculation_period ENUM('DAILY', 'MONTHLY', 'QUARTERLY', 'YEARLY') NOT NULL,
+                                  period_key VARCHAR(10) NOT NULL,
                                   INDEX idx_account_id (account_id),
                                   INDEX idx_calculation_date (calculation_date),
+                                  UNIQUE KEY uk_interest_account_period (account_id, calculation_period, period_key),
                                   FOREIGN KEY (account_id) REFERENCES accounts(account_id) ON DELETE CASCADE
 );
 
+-- Table: interest_job_runs (one row per interest period run)
+CREATE TABLE interest_job_runs (
+                                   job_run_id INT PRIMARY KEY AUTO_INCREMENT,
+                                   calculation_period ENUM('DAILY', 'MONTHLY', 'QUARTERLY', 'YEARLY') NOT NULL,
+                                   period_key VARCHAR(10) NOT NULL,
+                                   status ENUM('RUNNING', 'COMPLETED', 'FAILED') NOT NULL DEFAULT 'RUNNING',
+                                   started_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                                   completed_at TIMESTAMP NULL,
+                                   UNIQUE KEY uk_job_period (calculation_period, period_key)
+);
+
+-- Table: interest_job_checkpoints (committed progress per account_id partition)
+CREATE TABLE interest_job_checkpoints (
+                                          job_run_id INT NOT NULL,
+                                          partition_no INT NOT NULL,
+                                          after_account_id INT NOT NULL,
+                                          upper_account_id INT NOT NULL,
+                                          last_account_id INT NOT NULL,
+                                          status ENUM('PENDING', 'RUNNING', 'COMPLETED', 'FAILED') NOT NULL DEFAULT 'PENDING',
+                                          accounts_credited BIGINT NOT NULL DEFAULT 0,
+                                          interest_paid DECIMAL(18, 2) NOT NULL DEFAULT 0.00,
+                                          updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+                                          PRIMARY KEY (job_run_id, partition_no),
+                                          FOREIGN KEY (job_run_id) REFERENCES interest_job_runs(job_run_id) ON DELETE CASCADE
+);
+
 -- ============================================
 -- SECURITY TABLES
 -- ============================================
@@ -234,7 +299,11 @@ BEGIN
     DECLARE cur CURSOR FOR
 SELECT account_id, balance, interest_rate
 FROM accounts
-WHERE status = 'ACTIVE' AND balance > 0;
+WHERE status = 'ACTIVE' AND balance > 0
+  AND NOT EXISTS (SELECT 1 FROM interest_history h
+                  WHERE h.account_id = accounts.account_id
+                    AND h.calculation_period = 'MONTHLY'
+                    AND h.period_key = DATE_FORMAT(CURDATE(), '%Y-%m'));
 
 DECLARE CONTINUE HANDLER FOR NOT FOUND SET done = TRUE;
 
@@ -261,9 +330,9 @@ VALUES (acc_id, 'INTEREST', interest_amt, acc_balance + interest_amt, 'Monthly i
 
 -- Record in interest history
 INSERT INTO interest_history (account_id, interest_amount, balance_before, balance_after,
-                              interest_rate, calculation_date, calculation_period)
+                              interest_rate, calculation_date, calculation_period, period_key)
 VALUES (acc_id, interest_amt, acc_balance, acc_balance + interest_amt,
-        acc_rate, CURDATE(), 'MONTHLY');
+        acc_rate, CURDATE(), 'MONTHLY', DATE_FORMAT(CURDATE(), '%Y-%m'));
 END LOOP;
 
 CLOSE cur;
@@ -91,7 +91,7 @@ public class BankingApp {
         double deposit = scanner.nextDouble();
         scanner.nextLine();
 
-        String accountNumber = "ACC" + System.currentTimeMillis();
+        String accountNumber = bankService.generateAccountNumber();
         Account account = null;
 
         switch (typeChoice) {
@@ -0,0 +1,151 @@
+package cache;
+
+// AccountSnapshotCache.java
+import config.DatabaseConfig;
+import dto.AccountDTO;
+
+import java.util.function.Function;
+
+/**
+ * Read-through cache of account snapshots keyed by account number
+ * Writers publish the committed snapshot (or invalidate it) synchronously, so
+ * changes made through this process are visible immediately. Changes made
+ * elsewhere (stored procedures, other instances) show up once the entry expires.
+ * Updates and invalidations both mark the {@link BalanceStore} entry stale once the
+ * store is loaded: writers publish after commit in no particular order, which the
+ * store cannot tell apart, so it reloads the balance on the next inquiry instead.
+ */
+public class AccountSnapshotCache {
+
+    /**
+     * How balance inquiries are served
+     */
+    public enum ConsistencyMode {
+        /** Every read goes to the database; the cache is only refreshed */
+        STRICT,
+        /** Reads may be served from a snapshot no older than the configured TTL */
+        BOUNDED_STALENESS
+    }
+
+    private static volatile AccountSnapshotCache instance;
+
+    private final BoundedCache<String, AccountDTO> cache;
+    private volatile ConsistencyMode mode;
+
+    private AccountSnapshotCache() {
+        this.cache = new BoundedCache<>("Account snapshot cache",
+                DatabaseConfig.getAccountCacheSize(), DatabaseConfig.getAccountCacheTtl());
+        this.mode = parseMode(DatabaseConfig.getAccountCacheConsistency());
+    }
+
+    /**
+     * Get singleton instance of AccountSnapshotCache
+     */
+    public static AccountSnapshotCache getInstance() {
+        if (instance == null) {
+            synchronized (AccountSnapshotCache.class) {
+                if (instance == null) {
+                    instance = new AccountSnapshotCache();
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Get an account snapshot, loading it on a miss (or always, in STRICT mode)
+     * @return a copy the caller may modify, or null if the account does not exist
+     */
+    public AccountDTO get(String accountNumber, Function<String, AccountDTO> loader) {
+        AccountDTO snapshot = null;
+        if (mode == ConsistencyMode.BOUNDED_STALENESS) {
+            snapshot = cache.get(accountNumber);
+        }
+        if (snapshot == null) {
+            AccountDTO loaded = loader.apply(accountNumber);
+            if (loaded == null) {
+                cache.invalidate(accountNumber);
+                return null;
+            }
+            snapshot = copy(loaded);
+            cache.put(accountNumber, snapshot);
+        }
+        return copy(snapshot);
+    }
+
+    /**
+     * Replace the snapshot with the state just committed by a writer
+     */
+    public void update(AccountDTO account) {
+        if (account != null) {
+            cache.put(account.getAccountNumber(), copy(account));
+            BalanceStore store = BalanceStore.getInstance();
+            if (store.isLoaded()) {
+                store.invalidate(account.getAccountId());
+            }
+        }
+    }
+
+    /**
+     * Drop the snapshot of a single account
+     */
+    public void invalidate(String accountNumber) {
+        cache.invalidate(accountNumber);
+        BalanceStore.getInstance().invalidate(accountNumber);
+    }
+
+    /**
+     * Drop every snapshot
+     */
+    public void invalidateAll() {
+        cache.invalidateAll();
+        BalanceStore store = BalanceStore.getInstance();
+        if (store.isLoaded()) {
+            store.invalidateAll();
+        }
+    }
+
+    public ConsistencyMode getMode() {
+        return mode;
+    }
+
+    public void setMode(ConsistencyMode mode) {
+        this.mode = mode;
+    }
+
+    public BoundedCache<String, AccountDTO> getCache() {
+        return cache;
+    }
+
+    /**
+     * Display cache statistics
+     */
+    public void displayStats() {
+        System.out.println(cache.getStats() + " | mode: " + mode);
+    }
+
+    private static ConsistencyMode parseMode(String value) {
+        try {
+            return ConsistencyMode.valueOf(value.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            System.out.println("⚠ Invalid cache.account.consistency: " + value + ". Using STRICT");
+            return ConsistencyMode.STRICT;
+        }
+    }
+
+    /**
+     * Snapshots are shared between threads, so callers only ever see copies
+     */
+    private static AccountDTO copy(AccountDTO source) {
+        AccountDTO copy = new AccountDTO();
+        copy.setAccountId(source.getAccountId());
+        copy.setAccountNumber(source.getAccountNumber());
+        copy.setAccountHolder(source.getAccountHolder());
+        copy.setAccountType(source.getAccountType());
+        copy.setBalanceCents(source.getBalanceCents());
+        copy.setInterestRate(source.getInterestRate());
+        copy.setCreatedDate(source.getCreatedDate());
+        copy.setStatus(source.getStatus());
+        return copy;
+    }
+}
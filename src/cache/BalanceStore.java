@@ -0,0 +1,394 @@
+package cache;
+
+// BalanceStore.java
+import config.DatabaseConfig;
+import dto.AccountDTO;
+import model.Money;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.ToIntFunction;
+
+/**
+ * Compact in-memory balance store indexed by account_id
+ * Keeps three primitive columns instead of one object per account: the balance
+ * in cents (8 bytes), a packed int with the interest rate in basis points, the
+ * account type and status flags (4 bytes), and a stamp (8 bytes), about 20 bytes
+ * per account slot. Reads allocate nothing and take no locks; writes are serialized.
+ *
+ * The stamp is the System.nanoTime() at which the balance was read from the
+ * database, or at which the entry was last invalidated. Balances are served only
+ * while younger than the account snapshot TTL (cache.account.ttl), which also
+ * bounds how long changes made by other processes go unseen. An entry is only
+ * replaced by a read that started after its stamp, so a read that raced with a
+ * writer can never put back the balance the writer replaced.
+ *
+ * Writers in this process cannot be ordered against each other after they
+ * commit, so they do not write balances here: AccountSnapshotCache invalidates
+ * the entry on every update, and the next inquiry reloads it.
+ */
+public class BalanceStore {
+    /** Returned by getBalanceCents for accounts that are absent or stale */
+    public static final long MISSING = Long.MIN_VALUE;
+
+    public static final int TYPE_UNKNOWN = 0;
+    public static final int TYPE_SAVINGS = 1;
+    public static final int TYPE_CHECKING = 2;
+    public static final int TYPE_FIXED_DEPOSIT = 3;
+
+    private static final int RATE_MASK = (1 << 20) - 1;
+    private static final int TYPE_SHIFT = 20;
+    private static final int TYPE_MASK = 0xF;
+    private static final int FLAG_PRESENT = 1 << 24;
+    private static final int FLAG_ACTIVE = 1 << 25;
+    private static final int FLAG_STALE = 1 << 26;
+    private static final int MIN_CAPACITY = 1024;
+    private static final int BYTES_PER_SLOT = Long.BYTES + Integer.BYTES + Long.BYTES;
+
+    private static volatile BalanceStore instance;
+
+    private volatile AtomicLongArray balances = new AtomicLongArray(MIN_CAPACITY);
+    private volatile AtomicIntegerArray meta = new AtomicIntegerArray(MIN_CAPACITY);
+    private volatile AtomicLongArray stamps = new AtomicLongArray(MIN_CAPACITY);
+    private volatile boolean loaded;
+    private volatile ToIntFunction<String> accountIdResolver;
+    private final long maxAgeNanos;
+    private int size;
+    // Reads started before this stamp may not write entries (0 = never)
+    private long invalidatedAllAt;
+
+    // Statistics
+    private final AtomicLong reads = new AtomicLong();
+    private final AtomicLong staleReads = new AtomicLong();
+    private final AtomicLong expiredReads = new AtomicLong();
+    private final AtomicLong rejectedWrites = new AtomicLong();
+
+    BalanceStore() {
+        this(DatabaseConfig.getAccountCacheTtl());
+    }
+
+    /**
+     * @param maxAgeMillis Longest time a balance is served after it was read (0 = no limit)
+     */
+    BalanceStore(long maxAgeMillis) {
+        this.maxAgeNanos = maxAgeMillis * 1_000_000;
+    }
+
+    /**
+     * Get singleton instance of BalanceStore
+     */
+    public static BalanceStore getInstance() {
+        if (instance == null) {
+            synchronized (BalanceStore.class) {
+                if (instance == null) {
+                    instance = new BalanceStore();
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Drop every entry before a full load; reads miss until {@link #finishLoad()}.
+     * The load's query must start after this call.
+     */
+    public synchronized void startLoad() {
+        loaded = false;
+        balances = new AtomicLongArray(MIN_CAPACITY);
+        meta = new AtomicIntegerArray(MIN_CAPACITY);
+        stamps = new AtomicLongArray(MIN_CAPACITY);
+        size = 0;
+    }
+
+    public synchronized void finishLoad() {
+        loaded = true;
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Set how account numbers are mapped to account ids for invalidations by number
+     */
+    public void setAccountIdResolver(ToIntFunction<String> accountIdResolver) {
+        this.accountIdResolver = accountIdResolver;
+    }
+
+    /**
+     * Store or replace an account read from the database
+     * @param interestRateBasisPoints Annual rate in basis points (0.0350 = 350)
+     * @param readAt System.nanoTime() taken before the read was started
+     * @return false if the entry was written or invalidated after the read started
+     */
+    public synchronized boolean put(int accountId, long balanceCents, int interestRateBasisPoints, int accountType,
+                                    boolean active, long readAt) {
+        if (accountId <= 0) {
+            return false;
+        }
+        ensureCapacity(accountId);
+        long stamp = stamps.get(accountId);
+        // Zero means never stamped (nanoTime values can be negative, so compare by difference)
+        if ((invalidatedAllAt != 0 && readAt - invalidatedAllAt <= 0) || (stamp != 0 && readAt - stamp <= 0)) {
+            rejectedWrites.incrementAndGet();
+            return false;
+        }
+        if ((meta.get(accountId) & FLAG_PRESENT) == 0) {
+            size++;
+        }
+        balances.set(accountId, balanceCents);
+        stamps.set(accountId, readAt);
+        meta.set(accountId, (interestRateBasisPoints & RATE_MASK) | (accountType & TYPE_MASK) << TYPE_SHIFT |
+                FLAG_PRESENT | (active ? FLAG_ACTIVE : 0));
+        return true;
+    }
+
+    /**
+     * Store an account read from the database, unless the entry changed since the read started
+     * @param readAt System.nanoTime() taken before the read was started
+     */
+    public boolean refresh(AccountDTO account, long readAt) {
+        return put(account.getAccountId(), account.getBalanceCents(),
+                Money.basisPoints(account.getInterestRate()), typeCode(account.getAccountType()),
+                "ACTIVE".equals(account.getStatus()), readAt);
+    }
+
+    /**
+     * Mark an entry stale; it is skipped by reads until a read started after this call refreshes it.
+     * The stamp is recorded even for accounts not in the store yet, so a read already under way
+     * cannot add them with the old balance.
+     */
+    public synchronized void invalidate(int accountId) {
+        if (accountId <= 0) {
+            return;
+        }
+        ensureCapacity(accountId);
+        stamps.set(accountId, System.nanoTime());
+        int current = meta.get(accountId);
+        if ((current & FLAG_PRESENT) != 0) {
+            meta.set(accountId, current | FLAG_STALE);
+        }
+    }
+
+    /**
+     * Mark an entry stale by account number, if a resolver has been set
+     */
+    public void invalidate(String accountNumber) {
+        ToIntFunction<String> resolver = accountIdResolver;
+        if (loaded && resolver != null) {
+            invalidate(resolver.applyAsInt(accountNumber));
+        }
+    }
+
+    /**
+     * Mark every entry stale
+     */
+    public synchronized void invalidateAll() {
+        invalidatedAllAt = System.nanoTime();
+        AtomicIntegerArray columns = meta;
+        for (int i = 0; i < columns.length(); i++) {
+            int current = columns.get(i);
+            if ((current & FLAG_PRESENT) != 0) {
+                columns.set(i, current | FLAG_STALE);
+            }
+        }
+    }
+
+    /**
+     * Remove an account, e.g. after it is closed. The removal is stamped like an
+     * invalidation, so a read already under way cannot add the account back.
+     */
+    public synchronized void remove(int accountId) {
+        if (accountId <= 0) {
+            return;
+        }
+        ensureCapacity(accountId);
+        stamps.set(accountId, System.nanoTime());
+        AtomicIntegerArray columns = meta;
+        if ((columns.get(accountId) & FLAG_PRESENT) != 0) {
+            columns.set(accountId, 0);
+            balances.set(accountId, 0);
+            size--;
+        }
+    }
+
+    /**
+     * Check whether the store holds a current balance for the account, no older than the TTL
+     */
+    public boolean contains(int accountId) {
+        AtomicIntegerArray columns = meta;
+        AtomicLongArray times = stamps;
+        return loaded && accountId > 0 && accountId < columns.length() && accountId < times.length()
+                && (columns.get(accountId) & (FLAG_PRESENT | FLAG_STALE)) == FLAG_PRESENT
+                && !isExpired(times.get(accountId));
+    }
+
+    /**
+     * Balance in cents, or {@link #MISSING} if the account is absent, stale or older than the TTL
+     */
+    public long getBalanceCents(int accountId) {
+        reads.incrementAndGet();
+        AtomicIntegerArray columns = meta;
+        AtomicLongArray values = balances;
+        AtomicLongArray times = stamps;
+        if (!loaded || accountId <= 0 || accountId >= columns.length() || accountId >= values.length()
+                || accountId >= times.length()) {
+            return MISSING;
+        }
+        int flags = columns.get(accountId);
+        if ((flags & (FLAG_PRESENT | FLAG_STALE)) != FLAG_PRESENT) {
+            if ((flags & FLAG_STALE) != 0) {
+                staleReads.incrementAndGet();
+            }
+            return MISSING;
+        }
+        long balance = values.get(accountId);
+        if (isExpired(times.get(accountId))) {
+            expiredReads.incrementAndGet();
+            return MISSING;
+        }
+        return balance;
+    }
+
+    private boolean isExpired(long readAt) {
+        return maxAgeNanos > 0 && System.nanoTime() - readAt > maxAgeNanos;
+    }
+
+    /**
+     * Annual interest rate in basis points, or 0 if the account is absent
+     */
+    public int getInterestRateBasisPoints(int accountId) {
+        return metaOf(accountId) & RATE_MASK;
+    }
+
+    public int getAccountType(int accountId) {
+        return metaOf(accountId) >>> TYPE_SHIFT & TYPE_MASK;
+    }
+
+    public boolean isActive(int accountId) {
+        return (metaOf(accountId) & FLAG_ACTIVE) != 0;
+    }
+
+    /**
+     * Visit every active account that is not stale in account_id order, without
+     * allocating per account. Entries older than the TTL are included, so this is
+     * for estimates (such as interest forecasts), not for balance inquiries.
+     * @return number of accounts visited
+     */
+    public int forEachActive(AccountVisitor visitor) {
+        AtomicIntegerArray columns = meta;
+        AtomicLongArray values = balances;
+        int limit = Math.min(columns.length(), values.length());
+        int visited = 0;
+        for (int accountId = 1; accountId < limit; accountId++) {
+            int flags = columns.get(accountId);
+            if ((flags & (FLAG_PRESENT | FLAG_ACTIVE | FLAG_STALE)) == (FLAG_PRESENT | FLAG_ACTIVE)) {
+                visitor.visit(accountId, values.get(accountId), flags & RATE_MASK, flags >>> TYPE_SHIFT & TYPE_MASK);
+                visited++;
+            }
+        }
+        return visited;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Bytes held by the columns (slots for every account_id up to the highest one)
+     */
+    public long getFootprintBytes() {
+        return (long) Math.min(meta.length(), Math.min(balances.length(), stamps.length())) * BYTES_PER_SLOT;
+    }
+
+    /**
+     * Footprint scaled to one million accounts, counting unused account_id slots
+     */
+    public double getBytesPerMillionAccounts() {
+        int accounts = size();
+        return accounts == 0 ? 0.0 : getFootprintBytes() * 1_000_000.0 / accounts;
+    }
+
+    /**
+     * Display store statistics, including memory per million accounts
+     */
+    public void displayStats() {
+        System.out.printf("Balance store: %d accounts | %.1f MB (%.1f MB per million accounts) | reads: %d | " +
+                        "stale reads: %d | expired reads: %d | rejected writes: %d | loaded: %s%n",
+                size(), getFootprintBytes() / 1_048_576.0, getBytesPerMillionAccounts() / 1_048_576.0,
+                reads.get(), staleReads.get(), expiredReads.get(), rejectedWrites.get(), loaded);
+    }
+
+    public static int typeCode(String accountType) {
+        if (accountType == null) {
+            return TYPE_UNKNOWN;
+        }
+        switch (accountType) {
+            case "SAVINGS":
+                return TYPE_SAVINGS;
+            case "CHECKING":
+                return TYPE_CHECKING;
+            case "FIXED_DEPOSIT":
+                return TYPE_FIXED_DEPOSIT;
+            default:
+                return TYPE_UNKNOWN;
+        }
+    }
+
+    public static String typeName(int typeCode) {
+        switch (typeCode) {
+            case TYPE_SAVINGS:
+                return "SAVINGS";
+            case TYPE_CHECKING:
+                return "CHECKING";
+            case TYPE_FIXED_DEPOSIT:
+                return "FIXED_DEPOSIT";
+            default:
+                return null;
+        }
+    }
+
+    private int metaOf(int accountId) {
+        AtomicIntegerArray columns = meta;
+        if (accountId <= 0 || accountId >= columns.length()) {
+            return 0;
+        }
+        return columns.get(accountId);
+    }
+
+    /**
+     * Grow the columns to hold the given account_id, doubling to amortize copies.
+     * Readers holding the old arrays keep seeing consistent, if slightly older, values.
+     */
+    private void ensureCapacity(int accountId) {
+        int capacity = meta.length();
+        if (accountId < capacity) {
+            return;
+        }
+        int newCapacity = capacity;
+        while (newCapacity <= accountId) {
+            newCapacity = newCapacity > Integer.MAX_VALUE / 2 ? Integer.MAX_VALUE - 8 : newCapacity * 2;
+        }
+
+        AtomicLongArray newBalances = new AtomicLongArray(newCapacity);
+        AtomicLongArray newStamps = new AtomicLongArray(newCapacity);
+        AtomicIntegerArray newMeta = new AtomicIntegerArray(newCapacity);
+        for (int i = 0; i < capacity; i++) {
+            newBalances.set(i, balances.get(i));
+            newStamps.set(i, stamps.get(i));
+            newMeta.set(i, meta.get(i));
+        }
+        // Balances and stamps first: a reader that sees the new meta column also finds them
+        balances = newBalances;
+        stamps = newStamps;
+        meta = newMeta;
+    }
+
+    /**
+     * Receives one account per call from {@link #forEachActive}
+     */
+    public interface AccountVisitor {
+        void visit(int accountId, long balanceCents, int interestRateBasisPoints, int accountType);
+    }
+}
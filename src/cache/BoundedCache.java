@@ -0,0 +1,204 @@
+package cache;
+
+// BoundedCache.java
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Bounded, thread-safe in-memory cache
+ * Evicts with the CLOCK (second chance) policy, an approximation of LRU that needs
+ * no global lock, and optionally expires entries after a fixed time to live.
+ */
+public class BoundedCache<K, V> {
+    private final String name;
+    private final int maxSize;
+    private final long ttlNanos;
+
+    private final ConcurrentHashMap<K, Entry<K, V>> map = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Entry<K, V>> clock = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger staleQueueEntries = new AtomicInteger();
+
+    // Statistics
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong expirations = new AtomicLong();
+
+    /**
+     * @param name Name shown in statistics
+     * @param maxSize Maximum number of entries
+     * @param ttlMillis Time to live of an entry in milliseconds (0 = never expires)
+     */
+    public BoundedCache(String name, int maxSize, long ttlMillis) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Cache size must be positive");
+        }
+        this.name = name;
+        this.maxSize = maxSize;
+        this.ttlNanos = ttlMillis * 1_000_000;
+    }
+
+    /**
+     * Get a cached value, or null if absent or expired
+     */
+    public V get(K key) {
+        Entry<K, V> entry = map.get(key);
+        if (entry == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        if (isExpired(entry)) {
+            if (map.remove(key, entry)) {
+                expirations.incrementAndGet();
+                markStale();
+            }
+            misses.incrementAndGet();
+            return null;
+        }
+        entry.referenced = true;
+        hits.incrementAndGet();
+        return entry.value;
+    }
+
+    /**
+     * Get a cached value, loading and caching it on a miss.
+     * Null results from the loader are returned but not cached.
+     */
+    public V get(K key, Function<K, V> loader) {
+        V value = get(key);
+        if (value != null) {
+            return value;
+        }
+        value = loader.apply(key);
+        if (value != null) {
+            put(key, value);
+        }
+        return value;
+    }
+
+    /**
+     * Add or replace a value
+     */
+    public void put(K key, V value) {
+        Entry<K, V> entry = new Entry<>(key, value, ttlNanos > 0 ? System.nanoTime() + ttlNanos : 0);
+        Entry<K, V> previous = map.put(key, entry);
+        if (previous != null) {
+            markStale();
+        }
+        clock.offer(entry);
+        evictIfNeeded();
+    }
+
+    /**
+     * Remove a single entry
+     */
+    public void invalidate(K key) {
+        if (map.remove(key) != null) {
+            markStale();
+        }
+    }
+
+    /**
+     * Remove all entries
+     */
+    public void invalidateAll() {
+        map.clear();
+        clock.clear();
+        staleQueueEntries.set(0);
+    }
+
+    public int size() {
+        return map.size();
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    public long getExpirations() {
+        return expirations.get();
+    }
+
+    public double getHitRatio() {
+        long total = hits.get() + misses.get();
+        return total == 0 ? 0.0 : (double) hits.get() / total;
+    }
+
+    /**
+     * One-line statistics summary
+     */
+    public String getStats() {
+        return String.format("%s: %d/%d entries | hits: %d | misses: %d | hit ratio: %.1f%% | " +
+                        "evictions: %d | expirations: %d",
+                name, size(), maxSize, getHits(), getMisses(), getHitRatio() * 100,
+                getEvictions(), getExpirations());
+    }
+
+    private boolean isExpired(Entry<K, V> entry) {
+        return entry.expiresAt != 0 && System.nanoTime() - entry.expiresAt > 0;
+    }
+
+    /**
+     * CLOCK sweep: entries referenced since the last pass get a second chance
+     */
+    private void evictIfNeeded() {
+        int budget = maxSize * 2;
+        while (map.size() > maxSize && budget-- > 0) {
+            Entry<K, V> candidate = clock.poll();
+            if (candidate == null) {
+                return;
+            }
+            if (map.get(candidate.key) != candidate) {
+                // Replaced or removed since it was queued
+                staleQueueEntries.decrementAndGet();
+                continue;
+            }
+            if (candidate.referenced && !isExpired(candidate)) {
+                candidate.referenced = false;
+                clock.offer(candidate);
+                continue;
+            }
+            if (map.remove(candidate.key, candidate)) {
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Queue nodes for removed entries are dropped lazily; purge them once they outnumber live entries
+     */
+    private void markStale() {
+        if (staleQueueEntries.incrementAndGet() > Math.max(maxSize, map.size())) {
+            staleQueueEntries.set(0);
+            clock.removeIf(entry -> map.get(entry.key) != entry);
+        }
+    }
+
+    private static final class Entry<K, V> {
+        private final K key;
+        private final V value;
+        private final long expiresAt;
+        private volatile boolean referenced;
+
+        private Entry(K key, V value, long expiresAt) {
+            this.key = key;
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,434 @@
+package config;
+
+// ConnectionPool.java
+import metrics.TimedStatements;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fixed-size JDBC connection pool
+ * Hands out connections whose close() returns them to the pool,
+ * validates idle connections, evicts surplus idle ones and reports leaks
+ */
+public class ConnectionPool {
+    private static final long VALIDATION_BYPASS_MILLIS = 500;
+    private static final long HOUSEKEEPING_PERIOD_MILLIS = 30000;
+
+    private final String url;
+    private final String user;
+    private final String password;
+    private final int minSize;
+    private final int maxSize;
+    private final long acquireTimeoutMillis;
+    private final long idleTimeoutMillis;
+    private final int validationTimeoutSeconds;
+    private final long leakDetectionThresholdMillis;
+
+    private final LinkedBlockingDeque<PooledEntry> idle = new LinkedBlockingDeque<>();
+    private final Set<PooledEntry> borrowed = ConcurrentHashMap.newKeySet();
+    private final Semaphore permits;
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean closed;
+    private volatile boolean statementTiming;
+
+    // Pool metrics
+    private final AtomicInteger totalConnections = new AtomicInteger();
+    private final AtomicInteger waitingThreads = new AtomicInteger();
+    private final AtomicLong borrowCount = new AtomicLong();
+    private final AtomicLong timeoutCount = new AtomicLong();
+    private final AtomicLong createdCount = new AtomicLong();
+    private final AtomicLong destroyedCount = new AtomicLong();
+    private final AtomicLong leakCount = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+
+    public ConnectionPool(String url, String user, String password,
+                          int minSize, int maxSize, long acquireTimeoutMillis,
+                          long idleTimeoutMillis, int validationTimeoutSeconds,
+                          long leakDetectionThresholdMillis) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Pool max size must be positive");
+        }
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.maxSize = maxSize;
+        this.minSize = Math.max(0, Math.min(minSize, maxSize));
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.validationTimeoutSeconds = validationTimeoutSeconds;
+        this.leakDetectionThresholdMillis = leakDetectionThresholdMillis;
+        this.permits = new Semaphore(maxSize, true);
+
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "ConnectionPoolHousekeeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        fillToMinimum();
+        housekeeper.scheduleWithFixedDelay(this::housekeep,
+                HOUSEKEEPING_PERIOD_MILLIS, HOUSEKEEPING_PERIOD_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Borrow a connection, waiting up to the configured acquire timeout.
+     * Closing the returned connection hands it back to the pool.
+     */
+    public Connection borrow() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+
+        long start = System.nanoTime();
+        waitingThreads.incrementAndGet();
+        try {
+            if (!permits.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                timeoutCount.incrementAndGet();
+                throw new SQLTransientConnectionException(
+                        "Timed out after " + acquireTimeoutMillis + "ms waiting for a connection " +
+                                "(active=" + getActiveConnections() + ", max=" + maxSize + ")");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a connection", e);
+        } finally {
+            waitingThreads.decrementAndGet();
+        }
+
+        try {
+            PooledEntry entry = takeValidIdle();
+            if (entry == null) {
+                entry = createEntry();
+            }
+            entry.borrowedAt = System.currentTimeMillis();
+            entry.borrowSite = leakDetectionThresholdMillis > 0
+                    ? new Throwable("Connection borrowed here") : null;
+            entry.leakReported = false;
+            borrowed.add(entry);
+
+            borrowCount.incrementAndGet();
+            totalWaitNanos.addAndGet(System.nanoTime() - start);
+            return entry.newHandle();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Return a borrowed connection to the pool
+     */
+    private void release(PooledEntry entry) {
+        borrowed.remove(entry);
+        try {
+            Connection physical = entry.connection;
+            if (closed || physical.isClosed() || totalConnections.get() > maxSize) {
+                destroy(entry);
+                return;
+            }
+            if (!physical.getAutoCommit()) {
+                // Never hand out a connection with a half-finished transaction
+                physical.rollback();
+                physical.setAutoCommit(true);
+            }
+            entry.lastUsed = System.currentTimeMillis();
+            idle.offerFirst(entry);
+        } catch (SQLException e) {
+            destroy(entry);
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Take the most recently used idle connection that is still valid
+     */
+    private PooledEntry takeValidIdle() {
+        PooledEntry entry;
+        while ((entry = idle.pollFirst()) != null) {
+            if (System.currentTimeMillis() - entry.lastUsed < VALIDATION_BYPASS_MILLIS) {
+                return entry;
+            }
+            try {
+                if (entry.connection.isValid(validationTimeoutSeconds)) {
+                    return entry;
+                }
+            } catch (SQLException ignored) {
+                // Treated as invalid below
+            }
+            destroy(entry);
+        }
+        return null;
+    }
+
+    private PooledEntry createEntry() throws SQLException {
+        Connection connection = DriverManager.getConnection(url, user, password);
+        totalConnections.incrementAndGet();
+        createdCount.incrementAndGet();
+        return new PooledEntry(connection);
+    }
+
+    private void destroy(PooledEntry entry) {
+        totalConnections.decrementAndGet();
+        destroyedCount.incrementAndGet();
+        try {
+            entry.connection.close();
+        } catch (SQLException ignored) {
+            // Connection is being discarded anyway
+        }
+    }
+
+    private void fillToMinimum() {
+        while (!closed && totalConnections.get() < minSize) {
+            try {
+                PooledEntry entry = createEntry();
+                entry.lastUsed = System.currentTimeMillis();
+                idle.offerLast(entry);
+            } catch (SQLException e) {
+                System.err.println("✗ Could not open pooled connection: " + e.getMessage());
+                return;
+            }
+        }
+    }
+
+    /**
+     * Periodic maintenance: idle eviction, minimum size top-up and leak detection
+     */
+    private void housekeep() {
+        try {
+            long now = System.currentTimeMillis();
+
+            if (idleTimeoutMillis > 0) {
+                for (PooledEntry entry : idle) {
+                    if (totalConnections.get() <= minSize) {
+                        break;
+                    }
+                    if (now - entry.lastUsed > idleTimeoutMillis && idle.remove(entry)) {
+                        destroy(entry);
+                    }
+                }
+            }
+
+            fillToMinimum();
+
+            if (leakDetectionThresholdMillis > 0) {
+                for (PooledEntry entry : borrowed) {
+                    if (!entry.leakReported && now - entry.borrowedAt > leakDetectionThresholdMillis) {
+                        entry.leakReported = true;
+                        leakCount.incrementAndGet();
+                        System.err.println("⚠ Possible connection leak: connection held for " +
+                                (now - entry.borrowedAt) + "ms");
+                        Throwable site = entry.borrowSite;
+                        if (site != null) {
+                            site.printStackTrace();
+                        }
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            System.err.println("✗ Connection pool housekeeping failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Close all idle connections and stop accepting borrowers.
+     * Connections still borrowed are closed when they are returned.
+     */
+    public void shutdown() {
+        closed = true;
+        housekeeper.shutdownNow();
+        PooledEntry entry;
+        while ((entry = idle.pollFirst()) != null) {
+            destroy(entry);
+        }
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Time every statement execution on pooled connections (bank_sql_seconds)
+     */
+    public void setStatementTiming(boolean statementTiming) {
+        this.statementTiming = statementTiming;
+    }
+
+    public boolean isStatementTiming() {
+        return statementTiming;
+    }
+
+    // Metrics
+
+    public int getActiveConnections() {
+        return borrowed.size();
+    }
+
+    public int getIdleConnections() {
+        return idle.size();
+    }
+
+    public int getTotalConnections() {
+        return totalConnections.get();
+    }
+
+    public int getThreadsAwaitingConnection() {
+        return waitingThreads.get();
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public long getBorrowCount() {
+        return borrowCount.get();
+    }
+
+    public long getTimeoutCount() {
+        return timeoutCount.get();
+    }
+
+    public long getCreatedCount() {
+        return createdCount.get();
+    }
+
+    public long getDestroyedCount() {
+        return destroyedCount.get();
+    }
+
+    public long getLeakCount() {
+        return leakCount.get();
+    }
+
+    public double getAverageWaitMillis() {
+        long borrows = borrowCount.get();
+        return borrows == 0 ? 0.0 : totalWaitNanos.get() / 1_000_000.0 / borrows;
+    }
+
+    /**
+     * Display pool statistics
+     */
+    public void displayStats() {
+        System.out.println("\n=== Connection Pool Statistics ===");
+        System.out.println("Active: " + getActiveConnections() + " | Idle: " + getIdleConnections() +
+                " | Total: " + getTotalConnections() + " / " + maxSize);
+        System.out.println("Waiting Threads: " + getThreadsAwaitingConnection());
+        System.out.println("Borrowed: " + getBorrowCount() + " | Timeouts: " + getTimeoutCount() +
+                " | Leaks: " + getLeakCount());
+        System.out.println("Created: " + getCreatedCount() + " | Destroyed: " + getDestroyedCount());
+        System.out.printf("Average Wait: %.3f ms%n", getAverageWaitMillis());
+    }
+
+    /**
+     * Wrap a connection so that close() is ignored.
+     * Used to share a transaction-bound connection with DAOs that close what they borrow.
+     */
+    static Connection nonClosing(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "close":
+                            return null;
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "toString":
+                            return "NonClosing[" + connection + "]";
+                        default:
+                            return invoke(connection, method, args);
+                    }
+                });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * A physical connection owned by the pool
+     */
+    private final class PooledEntry {
+        private final Connection connection;
+        private volatile long lastUsed;
+        private volatile long borrowedAt;
+        private volatile Throwable borrowSite;
+        private volatile boolean leakReported;
+
+        private PooledEntry(Connection connection) {
+            this.connection = connection;
+        }
+
+        private Connection newHandle() {
+            return (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class},
+                    new Handle(this));
+        }
+    }
+
+    /**
+     * Logical connection handed to callers; close() releases the physical connection
+     */
+    private final class Handle implements InvocationHandler {
+        private final PooledEntry entry;
+        private boolean released;
+
+        private Handle(PooledEntry entry) {
+            this.entry = entry;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!released) {
+                        released = true;
+                        release(entry);
+                    }
+                    return null;
+                case "isClosed":
+                    return released || entry.connection.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Pooled[" + entry.connection + "]";
+                default:
+                    if (released) {
+                        throw new SQLException("Connection has already been returned to the pool");
+                    }
+                    Object result = ConnectionPool.invoke(entry.connection, method, args);
+                    if (statementTiming && result instanceof Statement) {
+                        String sql = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : null;
+                        return TimedStatements.wrap((Statement) result, method.getReturnType(), sql);
+                    }
+                    return result;
+            }
+        }
+    }
+}
@@ -3,6 +3,7 @@ package config;
 // DatabaseConfig.java
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
 import java.util.Properties;
 
 /**
@@ -19,6 +20,40 @@ public class DatabaseConfig {
     private static final String DEFAULT_PASSWORD = "";
     private static final String DEFAULT_DRIVER = "com.mysql.cj.jdbc.Driver";
 
+    // Default connection pool configuration
+    private static final int DEFAULT_POOL_MIN_SIZE = 5;
+    private static final int DEFAULT_POOL_MAX_SIZE = 20;
+    private static final long DEFAULT_POOL_TIMEOUT = 30000;
+    private static final long DEFAULT_POOL_IDLE_TIMEOUT = 600000;
+    private static final int DEFAULT_POOL_VALIDATION_TIMEOUT = 5;
+    private static final long DEFAULT_POOL_LEAK_THRESHOLD = 60000;
+
+    // Default retry configuration for transactions that lose a lock conflict
+    private static final int DEFAULT_RETRY_MAX_ATTEMPTS = 5;
+    private static final long DEFAULT_RETRY_BACKOFF = 10;
+    private static final long DEFAULT_RETRY_MAX_BACKOFF = 200;
+    private static final long DEFAULT_STRIPE_CONSOLIDATION_INTERVAL = 60000;
+    private static final long DEFAULT_STRIPE_REGISTRY_REFRESH = 30000;
+    private static final long DEFAULT_JOURNAL_BATCH_SIZE = 200;
+    private static final long DEFAULT_JOURNAL_MAX_LATENCY = 5;
+    private static final long DEFAULT_JOURNAL_QUEUE_CAPACITY = 10000;
+    private static final long DEFAULT_SCHEDULER_LEASE_SECONDS = 300;
+    private static final long DEFAULT_SCHEDULER_THREADS = 4;
+    private static final long DEFAULT_CATCH_UP_MAX_OCCURRENCES = 366;
+    private static final long DEFAULT_CATCH_UP_RATE = 1000;
+    private static final boolean DEFAULT_METRICS_SQL_TIMING = true;
+    private static final long DEFAULT_LEDGER_BATCH_SIZE = 1000;
+    private static final long DEFAULT_LEDGER_FLUSH_INTERVAL = 10;
+    private static final long DEFAULT_LEDGER_QUEUE_CAPACITY = 65536;
+    private static final long DEFAULT_ACCOUNT_NUMBER_NODE_ID = 0;
+    private static final long DEFAULT_ACCOUNT_NUMBER_BLOCK_MILLIS = 60000;
+
+    // Default cache configuration
+    private static final int DEFAULT_ACCOUNT_ID_CACHE_SIZE = 100000;
+    private static final int DEFAULT_ACCOUNT_CACHE_SIZE = 10000;
+    private static final long DEFAULT_ACCOUNT_CACHE_TTL = 5000;
+    private static final String DEFAULT_ACCOUNT_CACHE_CONSISTENCY = "BOUNDED_STALENESS";
+
     static {
         loadProperties();
     }
@@ -34,6 +69,19 @@ public class DatabaseConfig {
             System.out.println("⚠ Configuration file not found. Using default settings.");
             setDefaultProperties();
         }
+        applySystemOverrides();
+    }
+
+    /**
+     * Let -Ddb.* and -Dcache.* JVM options override the file, e.g. to point a
+     * benchmark run at an embedded database
+     */
+    private static void applySystemOverrides() {
+        for (String key : System.getProperties().stringPropertyNames()) {
+            if (key.startsWith("db.") || key.startsWith("cache.")) {
+                properties.setProperty(key, System.getProperty(key));
+            }
+        }
     }
 
     /**
@@ -53,6 +101,14 @@ public class DatabaseConfig {
         return properties.getProperty("db.url", DEFAULT_URL);
     }
 
+    /**
+     * Check whether db.url lets one statement string carry several SQL statements
+     * (allowMultiQueries=true), so hot paths can save a round trip
+     */
+    public static boolean isMultiQueriesEnabled() {
+        return getUrl().contains("allowMultiQueries=true");
+    }
+
     /**
      * Get database username
      */
@@ -74,6 +130,240 @@ public class DatabaseConfig {
         return properties.getProperty("db.driver", DEFAULT_DRIVER);
     }
 
+    /**
+     * Get minimum number of pooled connections kept open
+     */
+    public static int getPoolMinSize() {
+        return (int) getLongProperty("db.pool.minSize", DEFAULT_POOL_MIN_SIZE);
+    }
+
+    /**
+     * Get maximum number of pooled connections
+     */
+    public static int getPoolMaxSize() {
+        return (int) getLongProperty("db.pool.maxSize", DEFAULT_POOL_MAX_SIZE);
+    }
+
+    /**
+     * Get maximum time in milliseconds to wait for a pooled connection
+     */
+    public static long getPoolTimeout() {
+        return getLongProperty("db.pool.timeout", DEFAULT_POOL_TIMEOUT);
+    }
+
+    /**
+     * Get time in milliseconds after which idle connections above the minimum are closed
+     */
+    public static long getPoolIdleTimeout() {
+        return getLongProperty("db.pool.idleTimeout", DEFAULT_POOL_IDLE_TIMEOUT);
+    }
+
+    /**
+     * Get timeout in seconds used when validating a connection
+     */
+    public static int getPoolValidationTimeout() {
+        return (int) getLongProperty("db.pool.validationTimeout", DEFAULT_POOL_VALIDATION_TIMEOUT);
+    }
+
+    /**
+     * Get time in milliseconds a connection may stay borrowed before a leak is reported (0 disables)
+     */
+    public static long getPoolLeakDetectionThreshold() {
+        return getLongProperty("db.pool.leakDetectionThreshold", DEFAULT_POOL_LEAK_THRESHOLD);
+    }
+
+    /**
+     * Get maximum attempts for a transaction that hits a deadlock or lock wait timeout
+     */
+    public static int getRetryMaxAttempts() {
+        return (int) getLongProperty("db.retry.maxAttempts", DEFAULT_RETRY_MAX_ATTEMPTS);
+    }
+
+    /**
+     * Get backoff before the first retry in milliseconds (doubles on each retry)
+     */
+    public static long getRetryBackoff() {
+        return getLongProperty("db.retry.backoff", DEFAULT_RETRY_BACKOFF);
+    }
+
+    /**
+     * Get upper bound of the retry backoff in milliseconds
+     */
+    public static long getRetryMaxBackoff() {
+        return getLongProperty("db.retry.maxBackoff", DEFAULT_RETRY_MAX_BACKOFF);
+    }
+
+    /**
+     * Get interval in milliseconds between consolidations of striped account balances
+     */
+    public static long getStripeConsolidationInterval() {
+        return getLongProperty("db.stripes.consolidationInterval", DEFAULT_STRIPE_CONSOLIDATION_INTERVAL);
+    }
+
+    /**
+     * Get age in milliseconds after which the list of striped accounts is reloaded
+     */
+    public static long getStripeRegistryRefresh() {
+        return getLongProperty("db.stripes.registryRefresh", DEFAULT_STRIPE_REGISTRY_REFRESH);
+    }
+
+    /**
+     * Get maximum number of postings the journal writer commits together
+     */
+    public static int getJournalBatchSize() {
+        return (int) getLongProperty("db.journal.batchSize", DEFAULT_JOURNAL_BATCH_SIZE);
+    }
+
+    /**
+     * Get maximum milliseconds a posting waits in the journal for others to share its commit
+     */
+    public static long getJournalMaxLatency() {
+        return getLongProperty("db.journal.maxLatency", DEFAULT_JOURNAL_MAX_LATENCY);
+    }
+
+    /**
+     * Get number of postings the journal queues before submitters block
+     */
+    public static int getJournalQueueCapacity() {
+        return (int) getLongProperty("db.journal.queueCapacity", DEFAULT_JOURNAL_QUEUE_CAPACITY);
+    }
+
+    /**
+     * Get number of worker threads shared by scheduled jobs
+     */
+    public static int getSchedulerThreads() {
+        return (int) getLongProperty("db.scheduler.threads", DEFAULT_SCHEDULER_THREADS);
+    }
+
+    /**
+     * Get the name this node claims scheduled work under (default pid@hostname)
+     */
+    public static String getSchedulerNodeId() {
+        String nodeId = properties.getProperty("db.scheduler.nodeId", "").trim();
+        if (nodeId.isEmpty()) {
+            nodeId = ManagementFactory.getRuntimeMXBean().getName();
+        }
+        return nodeId.length() > 64 ? nodeId.substring(0, 64) : nodeId;
+    }
+
+    /**
+     * Get seconds a claim on scheduled work lasts before other nodes may take it over
+     */
+    public static int getSchedulerLeaseSeconds() {
+        return (int) getLongProperty("db.scheduler.leaseSeconds", DEFAULT_SCHEDULER_LEASE_SECONDS);
+    }
+
+    /**
+     * Get most missed occurrences of one standing order paid in a catch-up run
+     */
+    public static int getCatchUpMaxOccurrences() {
+        return (int) getLongProperty("db.scheduler.catchUpMaxOccurrences", DEFAULT_CATCH_UP_MAX_OCCURRENCES);
+    }
+
+    /**
+     * Get maximum standing order payments per second in a catch-up run (0 = no limit)
+     */
+    public static long getCatchUpRate() {
+        return getLongProperty("db.scheduler.catchUpRate", DEFAULT_CATCH_UP_RATE);
+    }
+
+    /**
+     * Get number of in-memory ledger shards (default one per CPU)
+     */
+    public static int getLedgerShards() {
+        return (int) getLongProperty("db.ledger.shards", Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Get most ledger postings written in one write-behind transaction
+     */
+    public static int getLedgerBatchSize() {
+        return (int) getLongProperty("db.ledger.batchSize", DEFAULT_LEDGER_BATCH_SIZE);
+    }
+
+    /**
+     * Get longest time in milliseconds an applied ledger posting waits to be written
+     */
+    public static long getLedgerFlushInterval() {
+        return getLongProperty("db.ledger.flushInterval", DEFAULT_LEDGER_FLUSH_INTERVAL);
+    }
+
+    /**
+     * Get ledger postings queued per shard before submitters block
+     */
+    public static int getLedgerQueueCapacity() {
+        return (int) getLongProperty("db.ledger.queueCapacity", DEFAULT_LEDGER_QUEUE_CAPACITY);
+    }
+
+    /**
+     * Get this node's account number generator id (0-1023, unique per running process)
+     */
+    public static int getAccountNumberNodeId() {
+        return (int) getLongProperty("db.accountNumber.nodeId", DEFAULT_ACCOUNT_NUMBER_NODE_ID);
+    }
+
+    /**
+     * Get milliseconds of account number timestamps reserved per database round trip
+     */
+    public static long getAccountNumberBlockMillis() {
+        return getLongProperty("db.accountNumber.blockMillis", DEFAULT_ACCOUNT_NUMBER_BLOCK_MILLIS);
+    }
+
+    /**
+     * Check whether every JDBC statement execution is timed (bank_sql_seconds)
+     */
+    public static boolean isSqlTimingEnabled() {
+        String value = properties.getProperty("db.metrics.sqlTiming");
+        if (value == null || value.trim().isEmpty()) {
+            return DEFAULT_METRICS_SQL_TIMING;
+        }
+        return Boolean.parseBoolean(value.trim());
+    }
+
+    /**
+     * Get maximum number of account_number to account_id mappings kept in memory
+     */
+    public static int getAccountIdCacheSize() {
+        return (int) getLongProperty("cache.accountId.maxSize", DEFAULT_ACCOUNT_ID_CACHE_SIZE);
+    }
+
+    /**
+     * Get maximum number of account snapshots kept in memory
+     */
+    public static int getAccountCacheSize() {
+        return (int) getLongProperty("cache.account.maxSize", DEFAULT_ACCOUNT_CACHE_SIZE);
+    }
+
+    /**
+     * Get maximum age of an account snapshot in milliseconds
+     */
+    public static long getAccountCacheTtl() {
+        return getLongProperty("cache.account.ttl", DEFAULT_ACCOUNT_CACHE_TTL);
+    }
+
+    /**
+     * Get account snapshot consistency mode (STRICT or BOUNDED_STALENESS)
+     */
+    public static String getAccountCacheConsistency() {
+        return properties.getProperty("cache.account.consistency", DEFAULT_ACCOUNT_CACHE_CONSISTENCY).trim();
+    }
+
+    /**
+     * Read a numeric property, falling back to the default when missing or malformed
+     */
+    private static long getLongProperty(String key, long defaultValue) {
+        String value = properties.getProperty(key);
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            System.out.println("⚠ Invalid value for " + key + ": " + value + ". Using " + defaultValue);
+            return defaultValue;
+        }
+    }
+
     /**
      * Display current configuration (without password)
      */
@@ -83,5 +373,7 @@ public class DatabaseConfig {
         System.out.println("User: " + getUser());
         System.out.println("Driver: " + getDriver());
         System.out.println("Password: " + (getPassword().isEmpty() ? "(empty)" : "********"));
+        System.out.println("Pool: min=" + getPoolMinSize() + ", max=" + getPoolMaxSize() +
+                ", timeout=" + getPoolTimeout() + "ms");
     }
 }
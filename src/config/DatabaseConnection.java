@@ -1,17 +1,26 @@
 package config;
 
 // DatabaseConnection.java
+import metrics.MetricsRegistry;
+
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.sql.SQLTransactionRollbackException;
 
 /**
  * Database Connection Manager using Singleton Pattern
- * Manages JDBC connections to the database
+ * Owns the JDBC connection pool and binds transactions to the calling thread
  */
 public class DatabaseConnection {
-    private static DatabaseConnection instance;
-    private Connection connection;
+    // MySQL error codes for a deadlock victim and an expired row lock wait
+    private static final int ER_LOCK_DEADLOCK = 1213;
+    private static final int ER_LOCK_WAIT_TIMEOUT = 1205;
+
+    private static volatile DatabaseConnection instance;
+    private ConnectionPool pool;
+
+    // Connection bound to the current thread between beginTransaction() and commit()/rollback()
+    private final ThreadLocal<TransactionContext> currentTransaction = new ThreadLocal<>();
 
     /**
      * Private constructor to prevent instantiation
@@ -21,24 +30,50 @@ public class DatabaseConnection {
             // Load JDBC driver
             Class.forName(DatabaseConfig.getDriver());
 
-            // Establish connection
-            this.connection = DriverManager.getConnection(
+            // Open the connection pool
+            this.pool = new ConnectionPool(
                     DatabaseConfig.getUrl(),
                     DatabaseConfig.getUser(),
-                    DatabaseConfig.getPassword()
+                    DatabaseConfig.getPassword(),
+                    DatabaseConfig.getPoolMinSize(),
+                    DatabaseConfig.getPoolMaxSize(),
+                    DatabaseConfig.getPoolTimeout(),
+                    DatabaseConfig.getPoolIdleTimeout(),
+                    DatabaseConfig.getPoolValidationTimeout(),
+                    DatabaseConfig.getPoolLeakDetectionThreshold()
             );
 
-            System.out.println("✓ Database connection established successfully");
+            pool.setStatementTiming(DatabaseConfig.isSqlTimingEnabled());
+            registerPoolMetrics(pool);
+
+            System.out.println("✓ Database connection pool initialized (" +
+                    pool.getTotalConnections() + " open, max " + pool.getMaxSize() + ")");
 
         } catch (ClassNotFoundException e) {
             System.err.println("✗ JDBC Driver not found: " + e.getMessage());
             System.err.println("Please add MySQL Connector/J to your classpath");
-        } catch (SQLException e) {
-            System.err.println("✗ Database connection failed: " + e.getMessage());
-            System.err.println("Please check your database configuration");
         }
     }
 
+    /**
+     * Expose pool gauges and the timeout counter in the metrics registry (bank_pool_*)
+     */
+    private static void registerPoolMetrics(ConnectionPool pool) {
+        MetricsRegistry metrics = MetricsRegistry.getInstance();
+        metrics.gauge("bank_pool_active_connections", "Connections borrowed from the pool", null, null,
+                pool::getActiveConnections);
+        metrics.gauge("bank_pool_idle_connections", "Idle connections in the pool", null, null,
+                pool::getIdleConnections);
+        metrics.gauge("bank_pool_total_connections", "Open physical connections", null, null,
+                pool::getTotalConnections);
+        metrics.gauge("bank_pool_waiting_threads", "Threads waiting for a connection", null, null,
+                pool::getThreadsAwaitingConnection);
+        metrics.counter("bank_pool_timeouts_total", "Borrow attempts that timed out", null, null,
+                pool::getTimeoutCount);
+        metrics.gauge("bank_pool_average_wait_millis", "Average time to borrow a connection", null, null,
+                pool::getAverageWaitMillis);
+    }
+
     /**
      * Get singleton instance of DatabaseConnection
      */
@@ -54,32 +89,34 @@ public class DatabaseConnection {
     }
 
     /**
-     * Get the active connection
+     * Get a connection for a single operation.
+     * Inside a transaction this is the thread's transaction connection; otherwise
+     * a pooled connection. Callers must close it to return it to the pool.
      */
-    public Connection getConnection() {
-        try {
-            // Check if connection is closed or invalid
-            if (connection == null || connection.isClosed()) {
-                // Reconnect
-                connection = DriverManager.getConnection(
-                        DatabaseConfig.getUrl(),
-                        DatabaseConfig.getUser(),
-                        DatabaseConfig.getPassword()
-                );
-                System.out.println("✓ Database reconnected successfully");
-            }
-        } catch (SQLException e) {
-            System.err.println("✗ Error checking connection: " + e.getMessage());
+    public Connection getConnection() throws SQLException {
+        TransactionContext tx = currentTransaction.get();
+        if (tx != null) {
+            return ConnectionPool.nonClosing(tx.connection);
         }
-        return connection;
+        return getPool().borrow();
+    }
+
+    /**
+     * Get the underlying connection pool
+     */
+    public ConnectionPool getPool() throws SQLException {
+        if (pool == null) {
+            throw new SQLException("Connection pool is not initialized");
+        }
+        return pool;
     }
 
     /**
      * Test database connection
      */
     public boolean testConnection() {
-        try {
-            return connection != null && !connection.isClosed() && connection.isValid(5);
+        try (Connection connection = getConnection()) {
+            return connection.isValid(5);
         } catch (SQLException e) {
             System.err.println("✗ Connection test failed: " + e.getMessage());
             return false;
@@ -87,49 +124,129 @@ public class DatabaseConnection {
     }
 
     /**
-     * Close database connection
+     * Close all pooled connections
      */
     public void closeConnection() {
-        try {
-            if (connection != null && !connection.isClosed()) {
-                connection.close();
-                System.out.println("✓ Database connection closed");
-            }
-        } catch (SQLException e) {
-            System.err.println("✗ Error closing connection: " + e.getMessage());
+        if (pool != null && !pool.isClosed()) {
+            pool.shutdown();
+            System.out.println("✓ Database connection pool closed");
         }
     }
 
     /**
-     * Begin transaction
+     * Begin transaction on the current thread.
+     * Nested calls join the outer transaction.
      */
     public void beginTransaction() throws SQLException {
-        if (connection != null) {
+        TransactionContext tx = currentTransaction.get();
+        if (tx != null) {
+            tx.depth++;
+            return;
+        }
+
+        Connection connection = getPool().borrow();
+        try {
             connection.setAutoCommit(false);
+        } catch (SQLException e) {
+            connection.close();
+            throw e;
         }
+        currentTransaction.set(new TransactionContext(connection));
     }
 
     /**
-     * Commit transaction
+     * Commit transaction.
+     * A nested commit only leaves the inner scope; the outermost one commits.
      */
     public void commit() throws SQLException {
-        if (connection != null) {
-            connection.commit();
-            connection.setAutoCommit(true);
+        TransactionContext tx = currentTransaction.get();
+        if (tx == null) {
+            return;
+        }
+        if (tx.depth > 0) {
+            tx.depth--;
+            return;
+        }
+
+        currentTransaction.remove();
+        try {
+            if (tx.rollbackOnly) {
+                tx.connection.rollback();
+                throw new SQLException("Transaction was rolled back by a nested operation");
+            }
+            tx.connection.commit();
+        } finally {
+            tx.connection.close();
         }
     }
 
     /**
-     * Rollback transaction
+     * Rollback transaction.
+     * A nested rollback marks the whole transaction for rollback.
      */
     public void rollback() {
+        TransactionContext tx = currentTransaction.get();
+        if (tx == null) {
+            return;
+        }
+        if (tx.depth > 0) {
+            tx.depth--;
+            tx.rollbackOnly = true;
+            return;
+        }
+
+        currentTransaction.remove();
         try {
-            if (connection != null) {
-                connection.rollback();
-                connection.setAutoCommit(true);
-            }
+            tx.connection.rollback();
         } catch (SQLException e) {
             System.err.println("✗ Error during rollback: " + e.getMessage());
+        } finally {
+            try {
+                tx.connection.close();
+            } catch (SQLException e) {
+                System.err.println("✗ Error releasing connection: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Check whether the current thread has an open transaction
+     */
+    public boolean isInTransaction() {
+        return currentTransaction.get() != null;
+    }
+
+    /**
+     * Check whether a failure was caused by lock contention (deadlock or lock wait
+     * timeout), in which case the whole transaction can safely be retried
+     */
+    public static boolean isLockConflict(SQLException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLTransactionRollbackException) {
+                return true;
+            }
+            if (cause instanceof SQLException) {
+                SQLException sqlException = (SQLException) cause;
+                if (sqlException.getErrorCode() == ER_LOCK_DEADLOCK
+                        || sqlException.getErrorCode() == ER_LOCK_WAIT_TIMEOUT
+                        || "40001".equals(sqlException.getSQLState())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Per-thread transaction state
+     */
+    private static final class TransactionContext {
+        private final Connection connection;
+        private int depth;
+        private boolean rollbackOnly;
+
+        private TransactionContext(Connection connection) {
+            this.connection = connection;
         }
     }
-}
\ No newline at end of file
+}
@@ -1,33 +1,71 @@
 package dao;
 
+import cache.BalanceStore;
+import config.DatabaseConfig;
 import config.DatabaseConnection;
 import dto.AccountDTO;
 import model.Account;
 import model.CheckingAccount;
 import model.FixedDepositAccount;
+import model.Money;
 import model.SavingsAccount;
 
+import java.math.BigDecimal;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.Consumer;
 
 public class AccountDAO {
-    private Connection connection;
+    // Default overdraft allowed on checking accounts, in cents
+    private static final long CHECKING_OVERDRAFT_LIMIT_CENTS = 50_000L;
+    public static final int DEFAULT_SCAN_PAGE_SIZE = 1000;
+
+    // Account columns plus the part of the balance held in stripes (hot accounts only)
+    private static final String SELECT_ACCOUNTS = "SELECT a.*, " + BalanceStripeDAO.stripeTotalSql("a") +
+            " AS stripe_balance FROM accounts a ";
+
+    // Credits always apply; debits must keep the balance at or above the account's floor
+    private static final String WITHDRAWAL_FLOOR_PREDICATE = "(? >= 0 OR balance + ? + " +
+            BalanceStripeDAO.stripeTotalSql("accounts") + " >= " +
+            "CASE account_type WHEN 'SAVINGS' THEN ? WHEN 'CHECKING' THEN ? ELSE 0 END)";
+    private static final int STREAM_FETCH_SIZE = 1000;
+
+    private static final String APPLY_DELTA_SQL = "UPDATE accounts SET balance = balance + ? " +
+            "WHERE account_number = ? AND " + WITHDRAWAL_FLOOR_PREDICATE;
+    // The change and the row it produced in one round trip; ROW_COUNT() drops the row
+    // when the UPDATE matched nothing (unknown account or insufficient funds)
+    private static final String APPLY_DELTA_AND_READ_SQL = APPLY_DELTA_SQL + "; " +
+            SELECT_ACCOUNTS + "WHERE a.account_number = ? AND ROW_COUNT() > 0";
+
+    private final DatabaseConnection dbConn;
+    private final BalanceStripeDAO stripeDAO;
+    private final boolean multiQueries;
 
     public AccountDAO() {
-        this.connection = DatabaseConnection.getInstance().getConnection();
+        this.dbConn = DatabaseConnection.getInstance();
+        this.stripeDAO = new BalanceStripeDAO();
+        this.multiQueries = DatabaseConfig.isMultiQueriesEnabled();
     }
 
     public boolean createAccount(Account account) {
         String sql = "INSERT INTO accounts (account_number, account_holder, account_type, " +
                 "balance, interest_rate, status) VALUES (?, ?, ?, ?, ?, ?)";
 
-        try (PreparedStatement pstmt = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+        try (Connection connection = dbConn.getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             pstmt.setString(1, account.getAccountNumber());
             pstmt.setString(2, account.getAccountHolder());
             pstmt.setString(3, account.getAccountType().toUpperCase().replace(" ", "_"));
-            pstmt.setDouble(4, account.getBalance());
-            pstmt.setDouble(5, account.getInterestRate());
+            pstmt.setBigDecimal(4, Money.toDecimal(account.getBalanceCents()));
+            pstmt.setBigDecimal(5, rateDecimal(account.getInterestRate()));
             pstmt.setString(6, "ACTIVE");
 
             int affectedRows = pstmt.executeUpdate();
@@ -36,7 +74,7 @@ public class AccountDAO {
                 try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
                     if (generatedKeys.next()) {
                         int accountId = generatedKeys.getInt(1);
-                        createAccountSpecificEntry(accountId, account);
+                        createAccountSpecificEntry(connection, accountId, account);
                         return true;
                     }
                 }
@@ -47,19 +85,19 @@ public class AccountDAO {
         return false;
     }
 
-    private void createAccountSpecificEntry(int accountId, Account account) throws SQLException {
+    private void createAccountSpecificEntry(Connection connection, int accountId, Account account) throws SQLException {
         if (account instanceof SavingsAccount) {
             String sql = "INSERT INTO savings_accounts (account_id, minimum_balance) VALUES (?, ?)";
             try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
                 pstmt.setInt(1, accountId);
-                pstmt.setDouble(2, SavingsAccount.getMinimumBalance());
+                pstmt.setBigDecimal(2, Money.toDecimal(SavingsAccount.getMinimumBalanceCents()));
                 pstmt.executeUpdate();
             }
         } else if (account instanceof CheckingAccount) {
             String sql = "INSERT INTO checking_accounts (account_id, overdraft_limit) VALUES (?, ?)";
             try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
                 pstmt.setInt(1, accountId);
-                pstmt.setDouble(2, ((CheckingAccount) account).getOverdraftLimit());
+                pstmt.setBigDecimal(2, Money.toDecimal(((CheckingAccount) account).getOverdraftLimitCents()));
                 pstmt.executeUpdate();
             }
         } else if (account instanceof FixedDepositAccount) {
@@ -74,28 +112,197 @@ public class AccountDAO {
         }
     }
 
-    public AccountDTO getAccountByNumber(String accountNumber) {
-        String sql = "SELECT * FROM accounts WHERE account_number = ?";
+    /**
+     * Insert many accounts and their type-specific rows on the current transaction:
+     * one JDBC batch into accounts (a multi-row INSERT with rewriteBatchedStatements)
+     * and one per account type table. Failures are thrown to the caller.
+     * @return generated account_id of each account, in list order
+     */
+    public int[] insertAccounts(List<? extends Account> accounts) throws SQLException {
+        int[] ids = new int[accounts.size()];
+        if (accounts.isEmpty()) {
+            return ids;
+        }
+
+        String sql = "INSERT INTO accounts (account_number, account_holder, account_type, " +
+                "balance, interest_rate, status) VALUES (?, ?, ?, ?, ?, 'ACTIVE')";
+
+        try (Connection connection = dbConn.getConnection()) {
+            int keys = 0;
+            try (PreparedStatement pstmt = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+                for (Account account : accounts) {
+                    pstmt.setString(1, account.getAccountNumber());
+                    pstmt.setString(2, account.getAccountHolder());
+                    pstmt.setString(3, account.getAccountType().toUpperCase().replace(" ", "_"));
+                    pstmt.setBigDecimal(4, Money.toDecimal(account.getBalanceCents()));
+                    pstmt.setBigDecimal(5, rateDecimal(account.getInterestRate()));
+                    pstmt.addBatch();
+                }
+                pstmt.executeBatch();
+
+                try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
+                    while (keys < ids.length && generatedKeys.next()) {
+                        ids[keys++] = generatedKeys.getInt(1);
+                    }
+                }
+            }
+            // Drivers that return no keys for a batch: look the new rows up by number
+            if (keys < ids.length) {
+                resolveAccountIds(connection, accounts, ids);
+            }
+
+            insertAccountSpecificEntries(connection, accounts, ids);
+        }
+        return ids;
+    }
 
+    private void resolveAccountIds(Connection connection, List<? extends Account> accounts, int[] ids)
+            throws SQLException {
+        Map<String, Integer> byNumber = new HashMap<>();
+        String sql = "SELECT account_id, account_number FROM accounts WHERE account_number IN " +
+                placeholders(accounts.size());
         try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setString(1, accountNumber);
+            for (int i = 0; i < accounts.size(); i++) {
+                pstmt.setString(i + 1, accounts.get(i).getAccountNumber());
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    byNumber.put(rs.getString("account_number"), rs.getInt("account_id"));
+                }
+            }
+        }
+        for (int i = 0; i < accounts.size(); i++) {
+            Integer id = byNumber.get(accounts.get(i).getAccountNumber());
+            if (id == null) {
+                throw new SQLException("Inserted account not found: " + accounts.get(i).getAccountNumber());
+            }
+            ids[i] = id;
+        }
+    }
+
+    private void insertAccountSpecificEntries(Connection connection, List<? extends Account> accounts, int[] ids)
+            throws SQLException {
+        String savingsSql = "INSERT INTO savings_accounts (account_id, minimum_balance) VALUES (?, ?)";
+        String checkingSql = "INSERT INTO checking_accounts (account_id, overdraft_limit) VALUES (?, ?)";
+        String fixedDepositSql = "INSERT INTO fixed_deposit_accounts (account_id, term_months, maturity_date) " +
+                "VALUES (?, ?, ?)";
+
+        try (PreparedStatement savings = connection.prepareStatement(savingsSql);
+             PreparedStatement checking = connection.prepareStatement(checkingSql);
+             PreparedStatement fixedDeposit = connection.prepareStatement(fixedDepositSql)) {
+            int savingsRows = 0;
+            int checkingRows = 0;
+            int fixedDepositRows = 0;
+            for (int i = 0; i < accounts.size(); i++) {
+                Account account = accounts.get(i);
+                if (account instanceof SavingsAccount) {
+                    savings.setInt(1, ids[i]);
+                    savings.setBigDecimal(2, Money.toDecimal(SavingsAccount.getMinimumBalanceCents()));
+                    savings.addBatch();
+                    savingsRows++;
+                } else if (account instanceof CheckingAccount) {
+                    checking.setInt(1, ids[i]);
+                    checking.setBigDecimal(2, Money.toDecimal(((CheckingAccount) account).getOverdraftLimitCents()));
+                    checking.addBatch();
+                    checkingRows++;
+                } else if (account instanceof FixedDepositAccount) {
+                    FixedDepositAccount fd = (FixedDepositAccount) account;
+                    fixedDeposit.setInt(1, ids[i]);
+                    fixedDeposit.setInt(2, fd.getTermMonths());
+                    fixedDeposit.setDate(3, Date.valueOf(fd.getMaturityDate().toLocalDate()));
+                    fixedDeposit.addBatch();
+                    fixedDepositRows++;
+                }
+            }
+            if (savingsRows > 0) {
+                savings.executeBatch();
+            }
+            if (checkingRows > 0) {
+                checking.executeBatch();
+            }
+            if (fixedDepositRows > 0) {
+                fixedDeposit.executeBatch();
+            }
+        }
+    }
+
+    /**
+     * Get which of the given account numbers already exist
+     */
+    public Set<String> findExistingAccountNumbers(List<String> accountNumbers) throws SQLException {
+        Set<String> existing = new HashSet<>();
+        if (accountNumbers.isEmpty()) {
+            return existing;
+        }
+
+        String sql = "SELECT account_number FROM accounts WHERE account_number IN " +
+                placeholders(accountNumbers.size());
 
+        try (Connection connection = dbConn.getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            for (int i = 0; i < accountNumbers.size(); i++) {
+                pstmt.setString(i + 1, accountNumbers.get(i));
+            }
             try (ResultSet rs = pstmt.executeQuery()) {
-                if (rs.next()) {
-                    return mapResultSetToAccount(rs);
+                while (rs.next()) {
+                    existing.add(rs.getString(1));
                 }
             }
+        }
+        return existing;
+    }
+
+    private static String placeholders(int count) {
+        StringBuilder sql = new StringBuilder("(");
+        for (int i = 0; i < count; i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+        }
+        return sql.append(")").toString();
+    }
+
+    public AccountDTO getAccountByNumber(String accountNumber) {
+        try {
+            return findAccountByNumber(accountNumber);
         } catch (SQLException e) {
             System.err.println("Error retrieving account: " + e.getMessage());
         }
         return null;
     }
 
+    /**
+     * Same as getAccountByNumber, but failures are thrown so a caller in the middle
+     * of a transaction can tell a missing account from a failed read
+     * @return the account, or null if there is no such account
+     */
+    public AccountDTO findAccountByNumber(String accountNumber) throws SQLException {
+        String sql = SELECT_ACCOUNTS + "WHERE a.account_number = ?";
+
+        try (Connection connection = dbConn.getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            pstmt.setString(1, accountNumber);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    AccountDTO account = mapResultSetToAccount(rs);
+                    AccountIdCache.getInstance().put(account.getAccountNumber(), account.getAccountId());
+                    return account;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Get all accounts, newest first.
+     * Loads the whole book into memory; full scans should use
+     * {@link #forEachAccount} or {@link #iterateAccounts} instead.
+     */
     public List<AccountDTO> getAllAccounts() {
         List<AccountDTO> accounts = new ArrayList<>();
-        String sql = "SELECT * FROM accounts ORDER BY created_date DESC";
+        String sql = SELECT_ACCOUNTS + "ORDER BY a.created_date DESC";
 
-        try (Statement stmt = connection.createStatement();
+        try (Connection connection = dbConn.getConnection();
+             Statement stmt = connection.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
 
             while (rs.next()) {
@@ -107,11 +314,154 @@ public class AccountDAO {
         return accounts;
     }
 
+    /**
+     * Pass every account with the given status (null = all) to the action in
+     * account_id order, reading rows from a server-side cursor in blocks of
+     * STREAM_FETCH_SIZE. The cursor keeps its connection busy until the scan ends,
+     * so the action should not run long transactions of its own.
+     * @return number of accounts visited
+     */
+    public int forEachAccount(String status, Consumer<AccountDTO> action) {
+        return forEachAccount(status, false, action);
+    }
+
+    /**
+     * Same as forEachAccount; newestFirst walks the cursor in descending
+     * account_id order, which is creation order reversed
+     * @return number of accounts visited
+     */
+    public int forEachAccount(String status, boolean newestFirst, Consumer<AccountDTO> action) {
+        try {
+            return scanAccounts(status, newestFirst, action);
+        } catch (SQLException e) {
+            System.err.println("Error streaming accounts: " + e.getMessage());
+            return 0;
+        }
+    }
+
+    /**
+     * Same as forEachAccount, but failures are thrown so callers that need every
+     * account (such as the in-memory ledger) can tell a partial scan from a full one
+     * @return number of accounts visited
+     */
+    public int streamAccounts(String status, Consumer<AccountDTO> action) throws SQLException {
+        return scanAccounts(status, false, action);
+    }
+
+    private int scanAccounts(String status, boolean newestFirst, Consumer<AccountDTO> action) throws SQLException {
+        String sql = SELECT_ACCOUNTS + (status == null ? "" : "WHERE a.status = ? ") +
+                "ORDER BY a.account_id" + (newestFirst ? " DESC" : "");
+        int count = 0;
+
+        try (Connection connection = dbConn.getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(sql,
+                     ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            pstmt.setFetchSize(STREAM_FETCH_SIZE);
+            if (status != null) {
+                pstmt.setString(1, status);
+            }
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    action.accept(mapResultSetToAccount(rs));
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Fill the balance store with every account, streaming primitive columns only:
+     * balances and rates are converted to cents and basis points by the database
+     * and type and status to codes, so no object is built per account.
+     * @return number of accounts loaded, or -1 if the load failed
+     */
+    public int loadBalances(BalanceStore store) {
+        String sql = "SELECT a.account_id, " +
+                "CAST(ROUND((a.balance + " + BalanceStripeDAO.stripeTotalSql("a") + ") * 100) AS SIGNED) AS balance_cents, " +
+                "CAST(ROUND(a.interest_rate * 10000) AS SIGNED) AS rate_bp, " +
+                "CASE a.account_type WHEN 'SAVINGS' THEN " + BalanceStore.TYPE_SAVINGS +
+                " WHEN 'CHECKING' THEN " + BalanceStore.TYPE_CHECKING +
+                " WHEN 'FIXED_DEPOSIT' THEN " + BalanceStore.TYPE_FIXED_DEPOSIT +
+                " ELSE " + BalanceStore.TYPE_UNKNOWN + " END AS type_code, " +
+                "CASE WHEN a.status = 'ACTIVE' THEN 1 ELSE 0 END AS active " +
+                "FROM accounts a ORDER BY a.account_id";
+        int count = 0;
+
+        // Every row is stamped with the time the scan started; invalidations after it win
+        long readAt = System.nanoTime();
+        store.startLoad();
+        try (Connection connection = dbConn.getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(sql,
+                     ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            pstmt.setFetchSize(STREAM_FETCH_SIZE);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    store.put(rs.getInt(1), rs.getLong(2), rs.getInt(3), rs.getInt(4), rs.getInt(5) == 1, readAt);
+                    count++;
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error loading balances: " + e.getMessage());
+            return -1;
+        }
+        store.finishLoad();
+        return count;
+    }
+
+    /**
+     * Get the next page of accounts with account_id greater than afterAccountId.
+     * Failures are thrown, so an empty page always means there are no more accounts.
+     * @param status Status to filter on, or null for all accounts
+     */
+    public List<AccountDTO> getAccountsAfter(int afterAccountId, String status, int limit) throws SQLException {
+        List<AccountDTO> accounts = new ArrayList<>();
+        String sql = SELECT_ACCOUNTS + "WHERE a.account_id > ? " +
+                (status == null ? "" : "AND a.status = ? ") +
+                "ORDER BY a.account_id LIMIT ?";
+
+        try (Connection connection = dbConn.getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            int index = 1;
+            pstmt.setInt(index++, afterAccountId);
+            if (status != null) {
+                pstmt.setString(index++, status);
+            }
+            pstmt.setInt(index, limit);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    accounts.add(mapResultSetToAccount(rs));
+                }
+            }
+        }
+        return accounts;
+    }
+
+    /**
+     * Iterate over every account with the given status (null = all) in account_id
+     * order, fetching keyset pages lazily. Only one page is held in memory and no
+     * connection stays open between pages, so callers may write while iterating.
+     * A page that cannot be read makes hasNext() throw an IllegalStateException
+     * with the SQLException as its cause, rather than ending the iteration early.
+     */
+    public Iterable<AccountDTO> iterateAccounts(String status, int pageSize) {
+        return () -> new AccountIterator(status, pageSize);
+    }
+
+    /**
+     * Set the balance of an account. For a striped account the stripes keep their
+     * amounts and accounts.balance takes the remainder, so the total is newBalance.
+     */
     public boolean updateBalance(String accountNumber, double newBalance) {
-        String sql = "UPDATE accounts SET balance = ? WHERE account_number = ?";
+        String sql = "UPDATE accounts SET balance = ? - " + BalanceStripeDAO.stripeTotalSql("accounts") +
+                " WHERE account_number = ?";
 
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setDouble(1, newBalance);
+        try (Connection connection = dbConn.getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            pstmt.setBigDecimal(1, Money.toDecimal(Money.fromDouble(newBalance)));
             pstmt.setString(2, accountNumber);
 
             return pstmt.executeUpdate() > 0;
@@ -121,12 +471,233 @@ public class AccountDAO {
         return false;
     }
 
+    /**
+     * Add a (possibly negative) amount to the balance in one statement.
+     * Debits only apply when the account stays at or above its withdrawal floor:
+     * the savings minimum balance, the checking overdraft limit, or zero otherwise.
+     * Run inside a transaction so the returned balance is the one this call produced.
+     * @return the updated account, or null if it was not found or funds are insufficient
+     */
+    public AccountDTO adjustBalance(String accountNumber, double delta) {
+        return adjustBalanceCents(accountNumber, Money.fromDouble(delta));
+    }
+
+    /**
+     * Same as adjustBalance with the change in cents
+     */
+    public AccountDTO adjustBalanceCents(String accountNumber, long deltaCents) {
+        try {
+            return applyBalanceDeltaCents(accountNumber, deltaCents);
+        } catch (SQLException e) {
+            System.err.println("Error adjusting balance: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Same as adjustBalance, but failures are thrown so callers that post several
+     * changes in one transaction can tell a lock conflict from a rejected posting
+     * @return the updated account, or null if it was not found or funds are insufficient
+     */
+    public AccountDTO applyBalanceDelta(String accountNumber, double delta) throws SQLException {
+        return applyBalanceDeltaCents(accountNumber, Money.fromDouble(delta));
+    }
+
+    /**
+     * Same as applyBalanceDelta with the change in cents. With allowMultiQueries=true
+     * in db.url the UPDATE and the read of the updated row go to the server as one
+     * round trip; otherwise the row is read back with a second statement.
+     * For a credit to a striped account the returned balance misses concurrent
+     * uncommitted stripe credits; consolidation settles the balance_after recorded from it.
+     */
+    public AccountDTO applyBalanceDeltaCents(String accountNumber, long deltaCents) throws SQLException {
+        // A stripe that is gone (striping changed elsewhere) falls back to the row update
+        if (deltaCents > 0 && stripeDAO.hasStripedAccounts()) {
+            int accountId = AccountIdCache.getInstance().getAccountId(accountNumber);
+            if (accountId != -1 && stripeDAO.isStriped(accountId) && stripeDAO.creditStripe(accountId, deltaCents)) {
+                return readBack(accountNumber);
+            }
+        }
+
+        try (Connection connection = dbConn.getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(
+                     multiQueries ? APPLY_DELTA_AND_READ_SQL : APPLY_DELTA_SQL)) {
+            pstmt.setBigDecimal(1, Money.toDecimal(deltaCents));
+            pstmt.setString(2, accountNumber);
+            setWithdrawalFloorParameters(pstmt, 3, deltaCents);
+
+            if (!multiQueries) {
+                return pstmt.executeUpdate() == 0 ? null : readBack(accountNumber);
+            }
+
+            pstmt.setString(7, accountNumber);
+            boolean isResultSet = pstmt.execute();
+            while (!isResultSet && pstmt.getUpdateCount() != -1) {
+                isResultSet = pstmt.getMoreResults();
+            }
+            if (!isResultSet) {
+                throw new SQLException("No account row returned for balance change of " + accountNumber);
+            }
+            try (ResultSet rs = pstmt.getResultSet()) {
+                if (!rs.next()) {
+                    return null;
+                }
+                AccountDTO account = mapResultSetToAccount(rs);
+                AccountIdCache.getInstance().put(account.getAccountNumber(), account.getAccountId());
+                return account;
+            }
+        }
+    }
+
+    /**
+     * Read an account just updated by this transaction; a row that is gone is a failure
+     */
+    private AccountDTO readBack(String accountNumber) throws SQLException {
+        AccountDTO account = findAccountByNumber(accountNumber);
+        if (account == null) {
+            throw new SQLException("Could not read back balance of account " + accountNumber);
+        }
+        return account;
+    }
+
+    /**
+     * Add a (possibly negative) amount to the balance of an account already locked
+     * by the current transaction, with the same withdrawal floor as adjustBalance.
+     * Credits to a striped account go to a stripe and need no lock on the account,
+     * unless the account is no longer striped.
+     * Failures are thrown so callers can tell lock conflicts from insufficient funds.
+     * @return false if the account was not found or funds are insufficient
+     */
+    public boolean adjustLockedBalance(int accountId, double delta) throws SQLException {
+        return adjustLockedBalanceCents(accountId, Money.fromDouble(delta));
+    }
+
+    /**
+     * Same as adjustLockedBalance with the change in cents
+     */
+    public boolean adjustLockedBalanceCents(int accountId, long deltaCents) throws SQLException {
+        if (deltaCents > 0 && stripeDAO.isStriped(accountId) && stripeDAO.creditStripe(accountId, deltaCents)) {
+            return true;
+        }
+
+        String sql = "UPDATE accounts SET balance = balance + ? " +
+                "WHERE account_id = ? AND " + WITHDRAWAL_FLOOR_PREDICATE;
+
+        try (Connection connection = dbConn.getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            pstmt.setBigDecimal(1, Money.toDecimal(deltaCents));
+            pstmt.setInt(2, accountId);
+            setWithdrawalFloorParameters(pstmt, 3, deltaCents);
+            return pstmt.executeUpdate() > 0;
+        }
+    }
+
+    /**
+     * Lock account rows for the rest of the current transaction.
+     * Rows are locked in ascending account_id order, so transactions that lock
+     * overlapping sets through this method cannot deadlock with each other.
+     * @return the locked accounts in account_id order (missing ids are left out)
+     */
+    public List<AccountDTO> lockAccounts(int... accountIds) throws SQLException {
+        List<AccountDTO> accounts = new ArrayList<>();
+        if (accountIds.length == 0) {
+            return accounts;
+        }
+
+        int[] ordered = accountIds.clone();
+        Arrays.sort(ordered);
+
+        StringBuilder sql = new StringBuilder(SELECT_ACCOUNTS + "WHERE a.account_id IN (");
+        for (int i = 0; i < ordered.length; i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+        }
+        sql.append(") ORDER BY a.account_id FOR UPDATE");
+
+        try (Connection connection = dbConn.getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(sql.toString())) {
+            for (int i = 0; i < ordered.length; i++) {
+                pstmt.setInt(i + 1, ordered[i]);
+            }
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    accounts.add(mapResultSetToAccount(rs));
+                }
+            }
+        }
+        return accounts;
+    }
+
+    /**
+     * Apply net balance changes to many accounts with one JDBC batch on the current
+     * transaction. The accounts must already be locked and the deltas checked
+     * against {@link #getWithdrawalFloor}, so no floor predicate is applied here.
+     * @param deltas Net change in cents per account_id
+     */
+    public void applyBalanceDeltas(Map<Integer, Long> deltas) throws SQLException {
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        String sql = "UPDATE accounts SET balance = balance + ? WHERE account_id = ?";
+
+        try (Connection connection = dbConn.getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            for (Map.Entry<Integer, Long> delta : deltas.entrySet()) {
+                pstmt.setBigDecimal(1, Money.toDecimal(delta.getValue()));
+                pstmt.setInt(2, delta.getKey());
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+        }
+    }
+
+    /**
+     * Annual interest rate as bound to interest_rate DECIMAL(5, 4)
+     */
+    private static BigDecimal rateDecimal(double rate) {
+        return Money.rateDecimal(Money.basisPoints(rate));
+    }
+
+    /**
+     * Lowest balance a debit may leave on an account of the given type,
+     * matching the predicate used by adjustBalance
+     */
+    public static double getWithdrawalFloor(String accountType) {
+        return Money.toDouble(getWithdrawalFloorCents(accountType));
+    }
+
+    /**
+     * Same floor in cents
+     */
+    public static long getWithdrawalFloorCents(String accountType) {
+        if ("SAVINGS".equals(accountType)) {
+            return SavingsAccount.getMinimumBalanceCents();
+        }
+        if ("CHECKING".equals(accountType)) {
+            return -CHECKING_OVERDRAFT_LIMIT_CENTS;
+        }
+        return 0L;
+    }
+
+    private static void setWithdrawalFloorParameters(PreparedStatement pstmt, int index, long deltaCents)
+            throws SQLException {
+        BigDecimal delta = Money.toDecimal(deltaCents);
+        pstmt.setBigDecimal(index, delta);
+        pstmt.setBigDecimal(index + 1, delta);
+        pstmt.setBigDecimal(index + 2, Money.toDecimal(SavingsAccount.getMinimumBalanceCents()));
+        pstmt.setBigDecimal(index + 3, Money.toDecimal(-CHECKING_OVERDRAFT_LIMIT_CENTS));
+    }
+
     public boolean deleteAccount(String accountNumber) {
         String sql = "DELETE FROM accounts WHERE account_number = ?";
 
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (Connection connection = dbConn.getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(sql)) {
             pstmt.setString(1, accountNumber);
-            return pstmt.executeUpdate() > 0;
+            boolean deleted = pstmt.executeUpdate() > 0;
+            AccountIdCache.getInstance().invalidate(accountNumber);
+            return deleted;
         } catch (SQLException e) {
             System.err.println("Error deleting account: " + e.getMessage());
         }
@@ -135,9 +706,10 @@ public class AccountDAO {
 
     public List<AccountDTO> getAccountsByHolder(String holderName) {
         List<AccountDTO> accounts = new ArrayList<>();
-        String sql = "SELECT * FROM accounts WHERE account_holder LIKE ?";
+        String sql = SELECT_ACCOUNTS + "WHERE a.account_holder LIKE ?";
 
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (Connection connection = dbConn.getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(sql)) {
             pstmt.setString(1, "%" + holderName + "%");
 
             try (ResultSet rs = pstmt.executeQuery()) {
@@ -157,10 +729,57 @@ public class AccountDAO {
         account.setAccountNumber(rs.getString("account_number"));
         account.setAccountHolder(rs.getString("account_holder"));
         account.setAccountType(rs.getString("account_type"));
-        account.setBalance(rs.getDouble("balance"));
+        account.setBalanceCents(Money.add(Money.fromDecimal(rs.getBigDecimal("balance")),
+                Money.fromDecimal(rs.getBigDecimal("stripe_balance"))));
         account.setInterestRate(rs.getDouble("interest_rate"));
         account.setCreatedDate(rs.getTimestamp("created_date"));
         account.setStatus(rs.getString("status"));
         return account;
     }
+
+    /**
+     * Keyset iterator backing {@link #iterateAccounts}
+     */
+    private class AccountIterator implements Iterator<AccountDTO> {
+        private final String status;
+        private final int pageSize;
+        private List<AccountDTO> page = new ArrayList<>();
+        private int position;
+        private int lastAccountId;
+        private boolean exhausted;
+
+        AccountIterator(String status, int pageSize) {
+            this.status = status;
+            this.pageSize = pageSize;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (position < page.size()) {
+                return true;
+            }
+            if (exhausted) {
+                return false;
+            }
+            try {
+                page = getAccountsAfter(lastAccountId, status, pageSize);
+            } catch (SQLException e) {
+                throw new IllegalStateException("Error retrieving accounts after id " + lastAccountId + ": " +
+                        e.getMessage(), e);
+            }
+            position = 0;
+            exhausted = page.size() < pageSize;
+            return !page.isEmpty();
+        }
+
+        @Override
+        public AccountDTO next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            AccountDTO account = page.get(position++);
+            lastAccountId = account.getAccountId();
+            return account;
+        }
+    }
 }
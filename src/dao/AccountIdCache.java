@@ -0,0 +1,93 @@
+package dao;
+
+// AccountIdCache.java
+import cache.BoundedCache;
+import config.DatabaseConfig;
+import config.DatabaseConnection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Shared account_number to account_id cache for all DAOs
+ * Account numbers never change, so a mapping stays valid until the account is deleted.
+ */
+public class AccountIdCache {
+    private static volatile AccountIdCache instance;
+
+    private final BoundedCache<String, Integer> cache;
+    private final DatabaseConnection dbConn;
+
+    private AccountIdCache() {
+        this.cache = new BoundedCache<>("Account ID cache", DatabaseConfig.getAccountIdCacheSize(), 0);
+        this.dbConn = DatabaseConnection.getInstance();
+    }
+
+    /**
+     * Get singleton instance of AccountIdCache
+     */
+    public static AccountIdCache getInstance() {
+        if (instance == null) {
+            synchronized (AccountIdCache.class) {
+                if (instance == null) {
+                    instance = new AccountIdCache();
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Resolve an account number, querying the database only on a cache miss
+     * @return the account_id, or -1 if the account does not exist
+     */
+    public int getAccountId(String accountNumber) {
+        Integer accountId = cache.get(accountNumber, this::loadAccountId);
+        return accountId == null ? -1 : accountId;
+    }
+
+    /**
+     * Record a mapping already read from the database
+     */
+    public void put(String accountNumber, int accountId) {
+        cache.put(accountNumber, accountId);
+    }
+
+    /**
+     * Forget a mapping, e.g. after the account is deleted
+     */
+    public void invalidate(String accountNumber) {
+        cache.invalidate(accountNumber);
+    }
+
+    public BoundedCache<String, Integer> getCache() {
+        return cache;
+    }
+
+    /**
+     * Display cache statistics
+     */
+    public void displayStats() {
+        System.out.println(cache.getStats());
+    }
+
+    private Integer loadAccountId(String accountNumber) {
+        String sql = "SELECT account_id FROM accounts WHERE account_number = ?";
+
+        try (Connection connection = dbConn.getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            pstmt.setString(1, accountNumber);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    return rs.getInt("account_id");
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("✗ Error fetching account ID: " + e.getMessage());
+        }
+        return null;
+    }
+}
@@ -0,0 +1,84 @@
+package dao;
+
+// AccountNumberBlockDAO.java
+import config.DatabaseConnection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+
+/**
+ * Data Access Object for account number blocks
+ * Each account number generator node reserves ranges of timestamps ("ticks", in
+ * milliseconds since the generator epoch) before issuing numbers in them. The
+ * table keeps, per node id, the end of the last reserved range, so a restarted
+ * node or a second process with the same node id never reuses a timestamp.
+ */
+public class AccountNumberBlockDAO {
+    private final DatabaseConnection dbConn;
+
+    public AccountNumberBlockDAO() {
+        this.dbConn = DatabaseConnection.getInstance();
+    }
+
+    /**
+     * Reserve the next block of ticks for a node.
+     * Runs in its own short transaction on a separate pooled connection, so the
+     * reservation is durable even if the caller's transaction rolls back.
+     * @param fromTick Earliest tick the caller wants to use
+     * @param ticks Length of the block
+     * @param owner Name of the reserving process, for diagnostics
+     * @return first tick of the reserved block; the block ends at the returned tick + ticks
+     */
+    public long reserveBlock(int nodeId, long fromTick, long ticks, String owner) throws SQLException {
+        String selectSql = "SELECT reserved_until FROM account_number_blocks WHERE node_id = ? FOR UPDATE";
+        String insertSql = "INSERT INTO account_number_blocks (node_id, reserved_until, reserved_by) VALUES (?, ?, ?)";
+        String updateSql = "UPDATE account_number_blocks SET reserved_until = ?, reserved_by = ? WHERE node_id = ?";
+
+        for (int attempt = 1; ; attempt++) {
+            try (Connection connection = dbConn.getPool().borrow()) {
+                connection.setAutoCommit(false);
+                try {
+                    long start = fromTick;
+                    boolean exists;
+                    try (PreparedStatement pstmt = connection.prepareStatement(selectSql)) {
+                        pstmt.setInt(1, nodeId);
+                        try (ResultSet rs = pstmt.executeQuery()) {
+                            exists = rs.next();
+                            if (exists) {
+                                start = Math.max(fromTick, rs.getLong(1));
+                            }
+                        }
+                    }
+
+                    try (PreparedStatement pstmt = connection.prepareStatement(exists ? updateSql : insertSql)) {
+                        if (exists) {
+                            pstmt.setLong(1, start + ticks);
+                            pstmt.setString(2, owner);
+                            pstmt.setInt(3, nodeId);
+                        } else {
+                            pstmt.setInt(1, nodeId);
+                            pstmt.setLong(2, start + ticks);
+                            pstmt.setString(3, owner);
+                        }
+                        pstmt.executeUpdate();
+                    }
+
+                    connection.commit();
+                    return start;
+                } catch (SQLIntegrityConstraintViolationException e) {
+                    connection.rollback();
+                    // Another process created the row first; the next attempt takes the update path
+                    if (attempt > 1) {
+                        throw e;
+                    }
+                } catch (SQLException e) {
+                    connection.rollback();
+                    throw e;
+                }
+            }
+        }
+    }
+}
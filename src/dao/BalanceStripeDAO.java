@@ -0,0 +1,373 @@
+package dao;
+
+// BalanceStripeDAO.java
+import config.DatabaseConfig;
+import config.DatabaseConnection;
+import model.Money;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Data Access Object for striped (hot) account balances
+ * A striped account keeps part of its balance in N rows of account_balance_stripes.
+ * Credits go to a random stripe, so concurrent credits rarely wait on the same row
+ * lock and never lock the accounts row. The account's balance is always
+ * accounts.balance plus the sum of its stripes; debits are applied to
+ * accounts.balance and checked against that total. Consolidation periodically
+ * folds the stripes back into accounts.balance.
+ *
+ * Concurrent stripe credits do not see each other, so the balance_after each one
+ * records is only provisional: two deposits of 10 to an account at 100 may both
+ * record 110. Consolidation settles the history: it rewrites balance_after of
+ * the account's rows posted since the last consolidation (tracked in
+ * accounts.stripes_settled_through) as a running balance ending at the exact
+ * total, so the history adds up again once the stripes are folded.
+ *
+ * Which accounts are striped is read from accounts.stripe_count and reloaded
+ * every db.stripes.registryRefresh milliseconds, so striping changed by another
+ * process is picked up. A credit whose stripe no longer exists re-reads the
+ * account's stripe count and falls back to the accounts row.
+ */
+public class BalanceStripeDAO {
+    /**
+     * SQL expression for the stripe total of the accounts row aliased {@code alias}
+     */
+    public static String stripeTotalSql(String alias) {
+        return "CASE WHEN " + alias + ".stripe_count > 0 THEN COALESCE((SELECT SUM(s.balance) " +
+                "FROM account_balance_stripes s WHERE s.account_id = " + alias + ".account_id), 0) ELSE 0 END";
+    }
+
+    // account_id -> stripe count of the striped accounts
+    private static final Map<Integer, Integer> stripeCounts = new ConcurrentHashMap<>();
+    // System.nanoTime() of the last registry load, 0 = never
+    private static volatile long registryLoadedAt;
+
+    private final DatabaseConnection dbConn;
+
+    public BalanceStripeDAO() {
+        this.dbConn = DatabaseConnection.getInstance();
+    }
+
+    /**
+     * Check whether credits to an account should go to its stripes
+     */
+    public boolean isStriped(int accountId) {
+        loadRegistry();
+        return stripeCounts.containsKey(accountId);
+    }
+
+    /**
+     * Check whether any account is striped, so callers can skip the account_id
+     * lookup isStriped needs when none is
+     */
+    public boolean hasStripedAccounts() {
+        loadRegistry();
+        return !stripeCounts.isEmpty();
+    }
+
+    public int getStripeCount(int accountId) {
+        loadRegistry();
+        return stripeCounts.getOrDefault(accountId, 0);
+    }
+
+    /**
+     * Get the ids of all striped accounts
+     */
+    public List<Integer> getStripedAccountIds() {
+        loadRegistry();
+        return new ArrayList<>(stripeCounts.keySet());
+    }
+
+    /**
+     * Add a credit to one randomly chosen stripe.
+     * Runs on the current transaction; the stripe row stays locked until it ends.
+     * If the stripe is gone (striping was changed by another process), the stripe
+     * count is re-read and the credit retried once.
+     * @return false if the account has no stripes; the caller credits the accounts row
+     */
+    public boolean creditStripe(int accountId, long amountCents) throws SQLException {
+        int stripes = getStripeCount(accountId);
+        if (stripes == 0) {
+            return false;
+        }
+
+        String sql = "UPDATE account_balance_stripes SET balance = balance + ? " +
+                "WHERE account_id = ? AND stripe_no = ?";
+
+        try (Connection connection = dbConn.getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            pstmt.setBigDecimal(1, Money.toDecimal(amountCents));
+            pstmt.setInt(2, accountId);
+            pstmt.setInt(3, ThreadLocalRandom.current().nextInt(stripes));
+            if (pstmt.executeUpdate() > 0) {
+                return true;
+            }
+
+            stripes = reloadStripeCount(connection, accountId);
+            if (stripes == 0) {
+                return false;
+            }
+            pstmt.setInt(3, ThreadLocalRandom.current().nextInt(stripes));
+            return pstmt.executeUpdate() > 0;
+        }
+    }
+
+    /**
+     * Re-read one account's stripe count into the registry
+     */
+    private int reloadStripeCount(Connection connection, int accountId) throws SQLException {
+        int stripes = 0;
+        try (PreparedStatement pstmt = connection.prepareStatement(
+                "SELECT stripe_count FROM accounts WHERE account_id = ?")) {
+            pstmt.setInt(1, accountId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    stripes = rs.getInt(1);
+                }
+            }
+        }
+        if (stripes > 0) {
+            stripeCounts.put(accountId, stripes);
+        } else {
+            stripeCounts.remove(accountId);
+        }
+        return stripes;
+    }
+
+    /**
+     * Split an account's future credits over the given number of stripes.
+     * Existing stripes are consolidated first, so the balance is unchanged.
+     */
+    public boolean enableStriping(int accountId, int stripes) {
+        if (stripes <= 0) {
+            throw new IllegalArgumentException("Stripe count must be positive");
+        }
+        String insertSql = "INSERT INTO account_balance_stripes (account_id, stripe_no, balance) VALUES (?, ?, 0)";
+
+        try {
+            dbConn.beginTransaction();
+            consolidate(accountId);
+            deleteStripes(accountId);
+
+            try (Connection connection = dbConn.getConnection();
+                 PreparedStatement pstmt = connection.prepareStatement(insertSql)) {
+                for (int stripe = 0; stripe < stripes; stripe++) {
+                    pstmt.setInt(1, accountId);
+                    pstmt.setInt(2, stripe);
+                    pstmt.addBatch();
+                }
+                pstmt.executeBatch();
+            }
+            setStripeCount(accountId, stripes);
+
+            dbConn.commit();
+            stripeCounts.put(accountId, stripes);
+            return true;
+
+        } catch (SQLException e) {
+            dbConn.rollback();
+            System.err.println("✗ Error enabling balance striping: " + e.getMessage());
+        }
+        return false;
+    }
+
+    /**
+     * Fold the stripes back into accounts.balance and stop striping the account
+     */
+    public boolean disableStriping(int accountId) {
+        try {
+            dbConn.beginTransaction();
+            consolidate(accountId);
+            deleteStripes(accountId);
+            setStripeCount(accountId, 0);
+            dbConn.commit();
+            stripeCounts.remove(accountId);
+            return true;
+
+        } catch (SQLException e) {
+            dbConn.rollback();
+            System.err.println("✗ Error disabling balance striping: " + e.getMessage());
+        }
+        return false;
+    }
+
+    /**
+     * Move the stripe total into accounts.balance on the current transaction and
+     * settle the balance_after of the rows posted since the last consolidation.
+     * Locks the accounts row first and the stripes second, the same order debits
+     * use, so consolidation cannot deadlock with postings. Every posting takes one
+     * of those locks before it inserts its row, so once both are held no row of
+     * the account is left uncommitted.
+     * @return the amount moved, in cents
+     */
+    public long consolidate(int accountId) throws SQLException {
+        String lockAccountSql = "SELECT balance, stripe_count, stripes_settled_through FROM accounts " +
+                "WHERE account_id = ? FOR UPDATE";
+        String sumSql = "SELECT COALESCE(SUM(balance), 0) FROM account_balance_stripes " +
+                "WHERE account_id = ? FOR UPDATE";
+        String moveSql = "UPDATE accounts SET balance = balance + ? WHERE account_id = ?";
+        String resetSql = "UPDATE account_balance_stripes SET balance = 0 WHERE account_id = ? AND balance <> 0";
+
+        try (Connection connection = dbConn.getConnection();
+             PreparedStatement lockAccount = connection.prepareStatement(lockAccountSql);
+             PreparedStatement sum = connection.prepareStatement(sumSql);
+             PreparedStatement move = connection.prepareStatement(moveSql);
+             PreparedStatement reset = connection.prepareStatement(resetSql)) {
+
+            long balanceCents;
+            boolean striped;
+            int settledThrough;
+            lockAccount.setInt(1, accountId);
+            try (ResultSet rs = lockAccount.executeQuery()) {
+                if (!rs.next()) {
+                    return 0L;
+                }
+                balanceCents = Money.fromDecimal(rs.getBigDecimal("balance"));
+                striped = rs.getInt("stripe_count") > 0;
+                settledThrough = rs.getInt("stripes_settled_through");
+            }
+
+            long totalCents;
+            sum.setInt(1, accountId);
+            try (ResultSet rs = sum.executeQuery()) {
+                totalCents = rs.next() ? Money.fromDecimal(rs.getBigDecimal(1)) : 0L;
+            }
+
+            if (totalCents != 0L) {
+                move.setBigDecimal(1, Money.toDecimal(totalCents));
+                move.setInt(2, accountId);
+                move.executeUpdate();
+
+                reset.setInt(1, accountId);
+                reset.executeUpdate();
+            }
+            // An account that was never striped has no provisional rows
+            if (striped) {
+                settleBalanceAfter(connection, accountId, settledThrough, Money.add(balanceCents, totalCents));
+            }
+            return totalCents;
+        }
+    }
+
+    /**
+     * Rewrite balance_after of the account's rows after settledThrough, newest
+     * first, as the running balance that ends at the exact balance, and move the
+     * settled mark to the newest row. Rows that already agree are left alone.
+     * @param balanceCents Balance of the account with the stripes folded in
+     */
+    private void settleBalanceAfter(Connection connection, int accountId, int settledThrough, long balanceCents)
+            throws SQLException {
+        String rowsSql = "SELECT transaction_id, transaction_type, amount, balance_after FROM transactions " +
+                "WHERE account_id = ? AND transaction_id > ? ORDER BY transaction_id DESC FOR UPDATE";
+        String rewriteSql = "UPDATE transactions SET balance_after = ? WHERE transaction_id = ?";
+        String markSql = "UPDATE accounts SET stripes_settled_through = ? WHERE account_id = ?";
+
+        int newest = settledThrough;
+        long running = balanceCents;
+        try (PreparedStatement rows = connection.prepareStatement(rowsSql);
+             PreparedStatement rewrite = connection.prepareStatement(rewriteSql)) {
+            rows.setInt(1, accountId);
+            rows.setInt(2, settledThrough);
+            int rewritten = 0;
+            try (ResultSet rs = rows.executeQuery()) {
+                while (rs.next()) {
+                    int transactionId = rs.getInt("transaction_id");
+                    newest = Math.max(newest, transactionId);
+                    if (Money.fromDecimal(rs.getBigDecimal("balance_after")) != running) {
+                        rewrite.setBigDecimal(1, Money.toDecimal(running));
+                        rewrite.setInt(2, transactionId);
+                        rewrite.addBatch();
+                        rewritten++;
+                    }
+                    long amount = Money.fromDecimal(rs.getBigDecimal("amount"));
+                    running = isDebit(rs.getString("transaction_type"))
+                            ? Money.add(running, amount) : Money.subtract(running, amount);
+                }
+            }
+            if (rewritten > 0) {
+                rewrite.executeBatch();
+            }
+        }
+        if (newest == settledThrough) {
+            return;
+        }
+        try (PreparedStatement mark = connection.prepareStatement(markSql)) {
+            mark.setInt(1, newest);
+            mark.setInt(2, accountId);
+            mark.executeUpdate();
+        }
+    }
+
+    private static boolean isDebit(String transactionType) {
+        return "WITHDRAWAL".equals(transactionType) || "TRANSFER_OUT".equals(transactionType);
+    }
+
+    private void deleteStripes(int accountId) throws SQLException {
+        try (Connection connection = dbConn.getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(
+                     "DELETE FROM account_balance_stripes WHERE account_id = ?")) {
+            pstmt.setInt(1, accountId);
+            pstmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Set the stripe count. Rows already posted were written under the account
+     * lock and are exact, so settling starts after the newest of them.
+     */
+    private void setStripeCount(int accountId, int stripes) throws SQLException {
+        try (Connection connection = dbConn.getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(
+                     "UPDATE accounts SET stripe_count = ?, stripes_settled_through = " +
+                             "(SELECT COALESCE(MAX(transaction_id), 0) FROM transactions WHERE account_id = ?) " +
+                             "WHERE account_id = ?")) {
+            pstmt.setInt(1, stripes);
+            pstmt.setInt(2, accountId);
+            pstmt.setInt(3, accountId);
+            pstmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Load the striped accounts, again once the last load is older than db.stripes.registryRefresh.
+     * A failed reload keeps the previous registry and is retried on the next call.
+     */
+    private void loadRegistry() {
+        long refreshNanos = TimeUnit.MILLISECONDS.toNanos(DatabaseConfig.getStripeRegistryRefresh());
+        long loadedAt = registryLoadedAt;
+        if (loadedAt != 0 && System.nanoTime() - loadedAt < refreshNanos) {
+            return;
+        }
+        synchronized (stripeCounts) {
+            if (registryLoadedAt != loadedAt) {
+                return;
+            }
+            String sql = "SELECT account_id, stripe_count FROM accounts WHERE stripe_count > 0";
+
+            // Own pooled connection, so the reload does not join the caller's transaction
+            try (Connection connection = dbConn.getPool().borrow();
+                 PreparedStatement pstmt = connection.prepareStatement(sql);
+                 ResultSet rs = pstmt.executeQuery()) {
+                Map<Integer, Integer> loaded = new HashMap<>();
+                while (rs.next()) {
+                    loaded.put(rs.getInt("account_id"), rs.getInt("stripe_count"));
+                }
+                stripeCounts.keySet().retainAll(loaded.keySet());
+                stripeCounts.putAll(loaded);
+                registryLoadedAt = Math.max(1L, System.nanoTime());
+            } catch (SQLException e) {
+                System.err.println("✗ Error loading striped accounts: " + e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package dao;
+
+// InterestDAO.java
+import config.DatabaseConnection;
+import dto.AccountDTO;
+import dto.InterestPostingDTO;
+import model.Money;
+
+import java.math.BigDecimal;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Data Access Object for batch interest posting
+ * Reads accounts in keyset-ordered chunks and writes postings with JDBC batches
+ */
+public class InterestDAO {
+    private final DatabaseConnection dbConn;
+
+    public InterestDAO() {
+        this.dbConn = DatabaseConnection.getInstance();
+    }
+
+    /**
+     * Lock the next chunk of interest-bearing accounts after the given account_id
+     * that have not yet been credited for the period.
+     * Must be called inside a transaction; rows stay locked until it ends.
+     * @param afterAccountId Exclusive lower bound (last account_id already processed)
+     * @param upperAccountId Inclusive upper bound of the range being processed
+     * @param limit Maximum number of accounts to return
+     */
+    public List<AccountDTO> lockInterestChunk(int afterAccountId, int upperAccountId,
+                                              String calculationPeriod, String periodKey, int limit)
+            throws SQLException {
+        List<AccountDTO> accounts = new ArrayList<>();
+
+        String sql = "SELECT a.account_id, a.account_number, a.account_type, a.interest_rate, " +
+                "a.balance + " + BalanceStripeDAO.stripeTotalSql("a") + " AS balance " +
+                "FROM accounts a WHERE a.account_id > ? AND a.account_id <= ? " +
+                "AND a.status = 'ACTIVE' AND a.balance + " + BalanceStripeDAO.stripeTotalSql("a") + " > 0 " +
+                "AND NOT EXISTS (SELECT 1 FROM interest_history h WHERE h.account_id = a.account_id " +
+                "AND h.calculation_period = ? AND h.period_key = ?) " +
+                "ORDER BY a.account_id LIMIT ? FOR UPDATE";
+
+        try (Connection connection = dbConn.getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            pstmt.setInt(1, afterAccountId);
+            pstmt.setInt(2, upperAccountId);
+            pstmt.setString(3, calculationPeriod);
+            pstmt.setString(4, periodKey);
+            pstmt.setInt(5, limit);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    AccountDTO account = new AccountDTO();
+                    account.setAccountId(rs.getInt("account_id"));
+                    account.setAccountNumber(rs.getString("account_number"));
+                    account.setAccountType(rs.getString("account_type"));
+                    account.setBalanceCents(Money.fromDecimal(rs.getBigDecimal("balance")));
+                    account.setInterestRate(rs.getDouble("interest_rate"));
+                    accounts.add(account);
+                }
+            }
+        }
+        return accounts;
+    }
+
+    /**
+     * Write a chunk of interest postings: balance credits, transaction rows and
+     * interest history, each as a single JDBC batch on the current transaction.
+     * The unique (account, period) key on interest_history rejects a second posting.
+     */
+    public void postInterestBatch(List<InterestPostingDTO> postings, String calculationPeriod, String periodKey)
+            throws SQLException {
+        if (postings.isEmpty()) {
+            return;
+        }
+
+        String updateSql = "UPDATE accounts SET balance = balance + ?, " +
+                "last_interest_date = CURDATE() WHERE account_id = ?";
+        String transactionSql = "INSERT INTO transactions (account_id, transaction_type, amount, " +
+                "balance_after, description) VALUES (?, 'INTEREST', ?, ?, ?)";
+        String historySql = "INSERT INTO interest_history (account_id, interest_amount, balance_before, " +
+                "balance_after, interest_rate, calculation_date, calculation_period, period_key) " +
+                "VALUES (?, ?, ?, ?, ?, CURDATE(), ?, ?)";
+        String description = capitalize(calculationPeriod) + " interest credit";
+
+        try (Connection connection = dbConn.getConnection();
+             PreparedStatement update = connection.prepareStatement(updateSql);
+             PreparedStatement transaction = connection.prepareStatement(transactionSql);
+             PreparedStatement history = connection.prepareStatement(historySql)) {
+
+            for (InterestPostingDTO posting : postings) {
+                BigDecimal interest = Money.toDecimal(posting.getInterestAmountCents());
+                BigDecimal balanceAfter = Money.toDecimal(posting.getBalanceAfterCents());
+                update.setBigDecimal(1, interest);
+                update.setInt(2, posting.getAccountId());
+                update.addBatch();
+
+                transaction.setInt(1, posting.getAccountId());
+                transaction.setBigDecimal(2, interest);
+                transaction.setBigDecimal(3, balanceAfter);
+                transaction.setString(4, description);
+                transaction.addBatch();
+
+                history.setInt(1, posting.getAccountId());
+                history.setBigDecimal(2, interest);
+                history.setBigDecimal(3, Money.toDecimal(posting.getBalanceBeforeCents()));
+                history.setBigDecimal(4, balanceAfter);
+                history.setBigDecimal(5, Money.rateDecimal(Money.basisPoints(posting.getInterestRate())));
+                history.setString(6, calculationPeriod);
+                history.setString(7, periodKey);
+                history.addBatch();
+            }
+
+            // History first: a duplicate (account, period) fails the chunk before any balance moves
+            history.executeBatch();
+            update.executeBatch();
+            transaction.executeBatch();
+        }
+    }
+
+    /**
+     * Get the lowest and highest account_id of active accounts
+     * @return two-element array {min, max}, both 0 when there are no active accounts
+     * @throws SQLException if the range cannot be read; callers must not mistake that for an empty bank
+     */
+    public int[] getActiveAccountIdRange() throws SQLException {
+        String sql = "SELECT COALESCE(MIN(account_id), 0), COALESCE(MAX(account_id), 0) " +
+                "FROM accounts WHERE status = 'ACTIVE'";
+
+        try (Connection connection = dbConn.getConnection();
+             Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            if (rs.next()) {
+                return new int[]{rs.getInt(1), rs.getInt(2)};
+            }
+        }
+        return new int[]{0, 0};
+    }
+
+    private static String capitalize(String period) {
+        String lower = period.toLowerCase();
+        return Character.toUpperCase(lower.charAt(0)) + lower.substring(1);
+    }
+}
@@ -0,0 +1,205 @@
+package dao;
+
+// InterestJobDAO.java
+import config.DatabaseConnection;
+import dto.InterestCheckpointDTO;
+import dto.InterestJobRunDTO;
+import model.Money;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Data Access Object for interest job runs and their partition checkpoints
+ * Lets an interrupted interest run resume from the last committed account_id
+ */
+public class InterestJobDAO {
+    private final DatabaseConnection dbConn;
+
+    public InterestJobDAO() {
+        this.dbConn = DatabaseConnection.getInstance();
+    }
+
+    /**
+     * Get the job run for a calculation period, or null if none was started
+     */
+    public InterestJobRunDTO getJobRun(String calculationPeriod, String periodKey) {
+        String sql = "SELECT * FROM interest_job_runs WHERE calculation_period = ? AND period_key = ?";
+
+        try (Connection connection = dbConn.getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            pstmt.setString(1, calculationPeriod);
+            pstmt.setString(2, periodKey);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    return mapResultSetToJobRun(rs);
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("✗ Error retrieving interest job run: " + e.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * Create a job run and its partition checkpoints in one transaction
+     * @return the new job_run_id, or -1 if it could not be created
+     */
+    public int createJobRun(String calculationPeriod, String periodKey, List<InterestCheckpointDTO> checkpoints) {
+        String jobSql = "INSERT INTO interest_job_runs (calculation_period, period_key, status) " +
+                "VALUES (?, ?, 'RUNNING')";
+        String checkpointSql = "INSERT INTO interest_job_checkpoints (job_run_id, partition_no, " +
+                "after_account_id, upper_account_id, last_account_id, status) VALUES (?, ?, ?, ?, ?, 'PENDING')";
+
+        try {
+            dbConn.beginTransaction();
+
+            int jobRunId;
+            try (Connection connection = dbConn.getConnection();
+                 PreparedStatement pstmt = connection.prepareStatement(jobSql, Statement.RETURN_GENERATED_KEYS)) {
+                pstmt.setString(1, calculationPeriod);
+                pstmt.setString(2, periodKey);
+                pstmt.executeUpdate();
+
+                try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
+                    if (!generatedKeys.next()) {
+                        dbConn.rollback();
+                        return -1;
+                    }
+                    jobRunId = generatedKeys.getInt(1);
+                }
+            }
+
+            try (Connection connection = dbConn.getConnection();
+                 PreparedStatement pstmt = connection.prepareStatement(checkpointSql)) {
+                for (InterestCheckpointDTO checkpoint : checkpoints) {
+                    pstmt.setInt(1, jobRunId);
+                    pstmt.setInt(2, checkpoint.getPartitionNo());
+                    pstmt.setInt(3, checkpoint.getAfterAccountId());
+                    pstmt.setInt(4, checkpoint.getUpperAccountId());
+                    pstmt.setInt(5, checkpoint.getLastAccountId());
+                    pstmt.addBatch();
+                }
+                pstmt.executeBatch();
+            }
+
+            dbConn.commit();
+            return jobRunId;
+
+        } catch (SQLIntegrityConstraintViolationException e) {
+            dbConn.rollback();
+            System.out.println("⚠ Interest job for " + calculationPeriod + " " + periodKey +
+                    " was started by another process");
+        } catch (SQLException e) {
+            dbConn.rollback();
+            System.err.println("✗ Error creating interest job run: " + e.getMessage());
+        }
+        return -1;
+    }
+
+    /**
+     * Get all partition checkpoints of a job run
+     */
+    public List<InterestCheckpointDTO> getCheckpoints(int jobRunId) {
+        List<InterestCheckpointDTO> checkpoints = new ArrayList<>();
+        String sql = "SELECT * FROM interest_job_checkpoints WHERE job_run_id = ? ORDER BY partition_no";
+
+        try (Connection connection = dbConn.getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            pstmt.setInt(1, jobRunId);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    checkpoints.add(mapResultSetToCheckpoint(rs));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("✗ Error retrieving interest checkpoints: " + e.getMessage());
+        }
+        return checkpoints;
+    }
+
+    /**
+     * Advance a partition checkpoint.
+     * Called inside the chunk transaction so progress commits atomically with the postings.
+     */
+    public void saveCheckpoint(int jobRunId, int partitionNo, int lastAccountId,
+                               long accountsCredited, long interestPaidCents) throws SQLException {
+        String sql = "UPDATE interest_job_checkpoints SET last_account_id = ?, " +
+                "accounts_credited = accounts_credited + ?, interest_paid = interest_paid + ? " +
+                "WHERE job_run_id = ? AND partition_no = ?";
+
+        try (Connection connection = dbConn.getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            pstmt.setInt(1, lastAccountId);
+            pstmt.setLong(2, accountsCredited);
+            pstmt.setBigDecimal(3, Money.toDecimal(interestPaidCents));
+            pstmt.setInt(4, jobRunId);
+            pstmt.setInt(5, partitionNo);
+            pstmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Update the status of a partition checkpoint
+     */
+    public boolean updateCheckpointStatus(int jobRunId, int partitionNo, String status) {
+        String sql = "UPDATE interest_job_checkpoints SET status = ? WHERE job_run_id = ? AND partition_no = ?";
+
+        try (Connection connection = dbConn.getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            pstmt.setString(1, status);
+            pstmt.setInt(2, jobRunId);
+            pstmt.setInt(3, partitionNo);
+            return pstmt.executeUpdate() > 0;
+        } catch (SQLException e) {
+            System.err.println("✗ Error updating interest checkpoint: " + e.getMessage());
+        }
+        return false;
+    }
+
+    /**
+     * Update the status of a job run, stamping completion time when it completes
+     */
+    public boolean updateJobRunStatus(int jobRunId, String status) {
+        String sql = "UPDATE interest_job_runs SET status = ?, " +
+                "completed_at = IF(? = 'COMPLETED', CURRENT_TIMESTAMP, NULL) WHERE job_run_id = ?";
+
+        try (Connection connection = dbConn.getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            pstmt.setString(1, status);
+            pstmt.setString(2, status);
+            pstmt.setInt(3, jobRunId);
+            return pstmt.executeUpdate() > 0;
+        } catch (SQLException e) {
+            System.err.println("✗ Error updating interest job run: " + e.getMessage());
+        }
+        return false;
+    }
+
+    private InterestJobRunDTO mapResultSetToJobRun(ResultSet rs) throws SQLException {
+        InterestJobRunDTO job = new InterestJobRunDTO();
+        job.setJobRunId(rs.getInt("job_run_id"));
+        job.setCalculationPeriod(rs.getString("calculation_period"));
+        job.setPeriodKey(rs.getString("period_key"));
+        job.setStatus(rs.getString("status"));
+        job.setStartedAt(rs.getTimestamp("started_at"));
+        job.setCompletedAt(rs.getTimestamp("completed_at"));
+        return job;
+    }
+
+    private InterestCheckpointDTO mapResultSetToCheckpoint(ResultSet rs) throws SQLException {
+        InterestCheckpointDTO checkpoint = new InterestCheckpointDTO();
+        checkpoint.setJobRunId(rs.getInt("job_run_id"));
+        checkpoint.setPartitionNo(rs.getInt("partition_no"));
+        checkpoint.setAfterAccountId(rs.getInt("after_account_id"));
+        checkpoint.setUpperAccountId(rs.getInt("upper_account_id"));
+        checkpoint.setLastAccountId(rs.getInt("last_account_id"));
+        checkpoint.setStatus(rs.getString("status"));
+        checkpoint.setAccountsCredited(rs.getLong("accounts_credited"));
+        checkpoint.setInterestPaid(Money.toDouble(Money.fromDecimal(rs.getBigDecimal("interest_paid"))));
+        return checkpoint;
+    }
+}
@@ -2,11 +2,16 @@ package dao;
 
 import config.DatabaseConnection;
 import dto.StandingOrderDTO;
+import model.Money;
 
 import java.sql.*;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Data Access Object for Standing Orders
@@ -25,10 +30,10 @@ import java.util.List;
  * Implements recurring payment functionality
  */
 public class StandingOrderDAO {
-    private Connection connection;
+    private final DatabaseConnection dbConn;
 
     public StandingOrderDAO() {
-        this.connection = DatabaseConnection.getInstance().getConnection();
+        this.dbConn = DatabaseConnection.getInstance();
     }
 
     /**
@@ -39,10 +44,11 @@ public class StandingOrderDAO {
                 "frequency, start_date, end_date, next_execution_date, description, status) " +
                 "VALUES (?, ?, ?, ?, ?, ?, ?, ?, 'ACTIVE')";
 
-        try (PreparedStatement pstmt = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+        try (Connection connection = dbConn.getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             pstmt.setInt(1, standingOrder.getFromAccountId());
             pstmt.setInt(2, standingOrder.getToAccountId());
-            pstmt.setDouble(3, standingOrder.getAmount());
+            pstmt.setBigDecimal(3, Money.toDecimal(standingOrder.getAmountCents()));
             pstmt.setString(4, standingOrder.getFrequency());
             pstmt.setDate(5, Date.valueOf(standingOrder.getStartDate()));
 
@@ -87,7 +93,8 @@ public class StandingOrderDAO {
                 "WHERE so.status = 'ACTIVE' " +
                 "AND so.next_execution_date <= CURDATE()";
 
-        try (Statement stmt = connection.createStatement();
+        try (Connection connection = dbConn.getConnection();
+             Statement stmt = connection.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
 
             while (rs.next()) {
@@ -99,6 +106,213 @@ public class StandingOrderDAO {
         return orders;
     }
 
+    /**
+     * Claim the next chunk of unclaimed due orders on the current transaction.
+     * Rows another node is claiming right now are skipped (SKIP LOCKED) rather than
+     * waited for, and claims whose lease has expired (e.g. of a crashed node) are
+     * taken over, so several nodes drain the due orders in parallel. A node may
+     * re-claim its own unexpired claims, e.g. when retrying a chunk.
+     * @param afterOrderId Exclusive lower bound (last standing_order_id this run claimed)
+     * @return ids of the claimed orders in ascending order
+     */
+    public List<Integer> claimDueChunk(String owner, int afterOrderId, LocalDate asOf, int limit,
+                                      int leaseSeconds) throws SQLException {
+        List<Integer> ids = new ArrayList<>();
+
+        String selectSql = "SELECT standing_order_id FROM standing_orders " +
+                "WHERE status = 'ACTIVE' AND next_execution_date <= ? AND standing_order_id > ? " +
+                "AND (claimed_by IS NULL OR claimed_by = ? OR lease_expires_at < NOW()) " +
+                "ORDER BY standing_order_id LIMIT ? FOR UPDATE SKIP LOCKED";
+
+        try (Connection connection = dbConn.getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(selectSql)) {
+            pstmt.setDate(1, Date.valueOf(asOf));
+            pstmt.setInt(2, afterOrderId);
+            pstmt.setString(3, owner);
+            pstmt.setInt(4, limit);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    ids.add(rs.getInt(1));
+                }
+            }
+        }
+        if (ids.isEmpty()) {
+            return ids;
+        }
+
+        String claimSql = "UPDATE standing_orders SET claimed_by = ?, " +
+                "lease_expires_at = TIMESTAMPADD(SECOND, ?, NOW()) WHERE standing_order_id IN " + placeholders(ids.size());
+
+        try (Connection connection = dbConn.getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(claimSql)) {
+            pstmt.setString(1, owner);
+            pstmt.setInt(2, leaseSeconds);
+            for (int i = 0; i < ids.size(); i++) {
+                pstmt.setInt(i + 3, ids.get(i));
+            }
+            pstmt.executeUpdate();
+        }
+        return ids;
+    }
+
+    /**
+     * Lock claimed orders for execution on the current transaction.
+     * Orders that are no longer claimed by this owner (the lease expired and another
+     * node took them over) or no longer due are left out.
+     */
+    public List<StandingOrderDTO> lockClaimedOrders(List<Integer> ids, String owner, LocalDate asOf)
+            throws SQLException {
+        List<StandingOrderDTO> orders = new ArrayList<>();
+        if (ids.isEmpty()) {
+            return orders;
+        }
+
+        String sql = "SELECT so.*, " +
+                "a1.account_number as from_account_number, " +
+                "a2.account_number as to_account_number " +
+                "FROM standing_orders so " +
+                "JOIN accounts a1 ON so.from_account_id = a1.account_id " +
+                "JOIN accounts a2 ON so.to_account_id = a2.account_id " +
+                "WHERE so.standing_order_id IN " + placeholders(ids.size()) + " " +
+                "AND so.claimed_by = ? AND so.status = 'ACTIVE' AND so.next_execution_date <= ? " +
+                "ORDER BY so.standing_order_id FOR UPDATE OF so";
+
+        try (Connection connection = dbConn.getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            int index = 1;
+            for (int id : ids) {
+                pstmt.setInt(index++, id);
+            }
+            pstmt.setString(index++, owner);
+            pstmt.setDate(index, Date.valueOf(asOf));
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    orders.add(mapResultSetToStandingOrder(rs));
+                }
+            }
+        }
+        return orders;
+    }
+
+    /**
+     * Release this owner's claims on the given orders on the current transaction,
+     * so the next run (on any node) can take them without waiting for the lease
+     */
+    public void releaseClaims(List<Integer> ids, String owner) throws SQLException {
+        if (ids.isEmpty()) {
+            return;
+        }
+
+        String sql = "UPDATE standing_orders SET claimed_by = NULL, lease_expires_at = NULL " +
+                "WHERE standing_order_id IN " + placeholders(ids.size()) + " AND claimed_by = ?";
+
+        try (Connection connection = dbConn.getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            int index = 1;
+            for (int id : ids) {
+                pstmt.setInt(index++, id);
+            }
+            pstmt.setString(index, owner);
+            pstmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Get the occurrences already executed for the given orders on or after a date
+     * (the idempotency keys in standing_order_executions)
+     * @return execution dates by standing_order_id
+     */
+    public Map<Integer, Set<LocalDate>> getExecutedOccurrences(List<Integer> orderIds, LocalDate fromDate)
+            throws SQLException {
+        Map<Integer, Set<LocalDate>> occurrences = new HashMap<>();
+        if (orderIds.isEmpty()) {
+            return occurrences;
+        }
+
+        String sql = "SELECT standing_order_id, execution_date FROM standing_order_executions " +
+                "WHERE standing_order_id IN " + placeholders(orderIds.size()) + " AND execution_date >= ?";
+
+        try (Connection connection = dbConn.getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            int index = 1;
+            for (int id : orderIds) {
+                pstmt.setInt(index++, id);
+            }
+            pstmt.setDate(index, Date.valueOf(fromDate));
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    occurrences.computeIfAbsent(rs.getInt("standing_order_id"), id -> new HashSet<>())
+                            .add(rs.getDate("execution_date").toLocalDate());
+                }
+            }
+        }
+        return occurrences;
+    }
+
+    /**
+     * Record executed occurrences as one JDBC batch on the current transaction.
+     * The (standing_order_id, execution_date) key rejects a second execution.
+     */
+    public void insertExecutions(Map<Integer, List<LocalDate>> occurrences) throws SQLException {
+        if (occurrences.isEmpty()) {
+            return;
+        }
+
+        String sql = "INSERT INTO standing_order_executions (standing_order_id, execution_date) VALUES (?, ?)";
+
+        try (Connection connection = dbConn.getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            for (Map.Entry<Integer, List<LocalDate>> order : occurrences.entrySet()) {
+                for (LocalDate date : order.getValue()) {
+                    pstmt.setInt(1, order.getKey());
+                    pstmt.setDate(2, Date.valueOf(date));
+                    pstmt.addBatch();
+                }
+            }
+            pstmt.executeBatch();
+        }
+    }
+
+    private static String placeholders(int count) {
+        StringBuilder sql = new StringBuilder("(");
+        for (int i = 0; i < count; i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+        }
+        return sql.append(")").toString();
+    }
+
+    /**
+     * Write next_execution_date, last_execution_date and status of executed orders
+     * and release their claims, as one JDBC batch on the current transaction
+     */
+    public void advanceStandingOrders(List<StandingOrderDTO> orders) throws SQLException {
+        if (orders.isEmpty()) {
+            return;
+        }
+
+        String sql = "UPDATE standing_orders SET next_execution_date = ?, last_execution_date = ?, " +
+                "status = ?, claimed_by = NULL, lease_expires_at = NULL WHERE standing_order_id = ?";
+
+        try (Connection connection = dbConn.getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            for (StandingOrderDTO order : orders) {
+                pstmt.setDate(1, Date.valueOf(order.getNextExecutionDate()));
+                if (order.getLastExecutionDate() != null) {
+                    pstmt.setDate(2, Date.valueOf(order.getLastExecutionDate()));
+                } else {
+                    pstmt.setNull(2, Types.DATE);
+                }
+                pstmt.setString(3, order.getStatus());
+                pstmt.setInt(4, order.getStandingOrderId());
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+        }
+    }
+
     /**
      * Get standing orders for a specific account
      */
@@ -114,7 +328,8 @@ public class StandingOrderDAO {
                 "WHERE (a1.account_number = ? OR a2.account_number = ?) " +
                 "AND so.status = 'ACTIVE'";
 
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (Connection connection = dbConn.getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(sql)) {
             pstmt.setString(1, accountNumber);
             pstmt.setString(2, accountNumber);
 
@@ -130,13 +345,15 @@ public class StandingOrderDAO {
     }
 
     /**
-     * Update next execution date after processing
+     * Update next execution date after processing and release any claim
      */
     public boolean updateNextExecutionDate(int standingOrderId, LocalDate nextDate) {
         String sql = "UPDATE standing_orders SET next_execution_date = ?, " +
-                "last_execution_date = CURDATE() WHERE standing_order_id = ?";
+                "last_execution_date = CURDATE(), claimed_by = NULL, lease_expires_at = NULL " +
+                "WHERE standing_order_id = ?";
 
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (Connection connection = dbConn.getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(sql)) {
             pstmt.setDate(1, Date.valueOf(nextDate));
             pstmt.setInt(2, standingOrderId);
 
@@ -153,7 +370,8 @@ public class StandingOrderDAO {
     public boolean cancelStandingOrder(int standingOrderId) {
         String sql = "UPDATE standing_orders SET status = 'CANCELLED' WHERE standing_order_id = ?";
 
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (Connection connection = dbConn.getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(sql)) {
             pstmt.setInt(1, standingOrderId);
 
             int affectedRows = pstmt.executeUpdate();
@@ -174,7 +392,8 @@ public class StandingOrderDAO {
         String sql = "UPDATE standing_orders SET status = 'COMPLETED' " +
                 "WHERE status = 'ACTIVE' AND end_date IS NOT NULL AND end_date < CURDATE()";
 
-        try (Statement stmt = connection.createStatement()) {
+        try (Connection connection = dbConn.getConnection();
+             Statement stmt = connection.createStatement()) {
             return stmt.executeUpdate(sql);
         } catch (SQLException e) {
             System.err.println("✗ Error completing expired orders: " + e.getMessage());
@@ -186,20 +405,7 @@ public class StandingOrderDAO {
      * Get account ID by account number
      */
     public int getAccountId(String accountNumber) {
-        String sql = "SELECT account_id FROM accounts WHERE account_number = ?";
-
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setString(1, accountNumber);
-
-            try (ResultSet rs = pstmt.executeQuery()) {
-                if (rs.next()) {
-                    return rs.getInt("account_id");
-                }
-            }
-        } catch (SQLException e) {
-            System.err.println("✗ Error getting account ID: " + e.getMessage());
-        }
-        return -1;
+        return AccountIdCache.getInstance().getAccountId(accountNumber);
     }
 
     /**
@@ -212,7 +418,7 @@ public class StandingOrderDAO {
         order.setToAccountId(rs.getInt("to_account_id"));
         order.setFromAccountNumber(rs.getString("from_account_number"));
         order.setToAccountNumber(rs.getString("to_account_number"));
-        order.setAmount(rs.getDouble("amount"));
+        order.setAmountCents(Money.fromDecimal(rs.getBigDecimal("amount")));
         order.setFrequency(rs.getString("frequency"));
         order.setStartDate(rs.getDate("start_date").toLocalDate());
 
@@ -3,24 +3,46 @@ package dao;
 // TransactionDAO.java
 import config.DatabaseConnection;
 import dto.TransactionDTO;
+import dto.TransactionPageDTO;
+import model.Money;
 
+import java.math.BigDecimal;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Data Access Object for Transaction operations
  * Handles all transaction-related database operations
  */
 public class TransactionDAO {
-    private Connection connection;
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int STREAM_FETCH_SIZE = 500;
+    private static final String HISTORY_SQL = "SELECT * FROM transactions WHERE account_id = ? " +
+            "ORDER BY transaction_date DESC, transaction_id DESC";
+
+    private final DatabaseConnection dbConn;
 
     public TransactionDAO() {
-        this.connection = DatabaseConnection.getInstance().getConnection();
+        this.dbConn = DatabaseConnection.getInstance();
     }
 
     public boolean recordTransaction(String accountNumber, String transactionType,
                                      double amount, double balanceAfter, String description) {
+        return recordTransactionCents(accountNumber, transactionType, Money.fromDouble(amount),
+                Money.fromDouble(balanceAfter), description);
+    }
+
+    /**
+     * Same as recordTransaction with amounts in cents
+     */
+    public boolean recordTransactionCents(String accountNumber, String transactionType,
+                                          long amountCents, long balanceAfterCents, String description) {
 
         int accountId = getAccountId(accountNumber);
         if (accountId == -1) {
@@ -28,14 +50,33 @@ public class TransactionDAO {
             return false;
         }
 
+        return recordTransactionCents(accountId, transactionType, amountCents, balanceAfterCents, description);
+    }
+
+    /**
+     * Record a transaction for an account whose id is already known
+     */
+    public boolean recordTransaction(int accountId, String transactionType,
+                                     double amount, double balanceAfter, String description) {
+        return recordTransactionCents(accountId, transactionType, Money.fromDouble(amount),
+                Money.fromDouble(balanceAfter), description);
+    }
+
+    /**
+     * Same as recordTransaction with amounts in cents
+     */
+    public boolean recordTransactionCents(int accountId, String transactionType,
+                                          long amountCents, long balanceAfterCents, String description) {
+
         String sql = "INSERT INTO transactions (account_id, transaction_type, amount, " +
                 "balance_after, description) VALUES (?, ?, ?, ?, ?)";
 
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (Connection connection = dbConn.getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(sql)) {
             pstmt.setInt(1, accountId);
             pstmt.setString(2, transactionType.toUpperCase());
-            pstmt.setDouble(3, amount);
-            pstmt.setDouble(4, balanceAfter);
+            pstmt.setBigDecimal(3, Money.toDecimal(amountCents));
+            pstmt.setBigDecimal(4, Money.toDecimal(balanceAfterCents));
             pstmt.setString(5, description);
 
             return pstmt.executeUpdate() > 0;
@@ -49,45 +90,26 @@ public class TransactionDAO {
     public boolean recordTransfer(String fromAcc, String toAcc,
                                   double amount, double fromBalance, double toBalance) {
 
-        DatabaseConnection dbConn = DatabaseConnection.getInstance();
-
-        try {
-            dbConn.beginTransaction();
-
-            int fromId = getAccountId(fromAcc);
-            int toId = getAccountId(toAcc);
+        int fromId = getAccountId(fromAcc);
+        int toId = getAccountId(toAcc);
 
-            if (fromId == -1 || toId == -1) {
-                dbConn.rollback();
-                return false;
-            }
+        if (fromId == -1 || toId == -1) {
+            return false;
+        }
 
-            String sqlOut = "INSERT INTO transactions " +
-                    "(account_id, transaction_type, amount, balance_after, description, reference_account_id) " +
-                    "VALUES (?, 'TRANSFER_OUT', ?, ?, ?, ?)";
-
-            try (PreparedStatement pstmt = connection.prepareStatement(sqlOut)) {
-                pstmt.setInt(1, fromId);
-                pstmt.setDouble(2, amount);
-                pstmt.setDouble(3, fromBalance);
-                pstmt.setString(4, "Transfer to " + toAcc);
-                pstmt.setInt(5, toId);
-                pstmt.executeUpdate();
-            }
+        return recordTransfer(fromId, fromAcc, toId, toAcc, amount, fromBalance, toBalance);
+    }
 
-            String sqlIn = "INSERT INTO transactions " +
-                    "(account_id, transaction_type, amount, balance_after, description, reference_account_id) " +
-                    "VALUES (?, 'TRANSFER_IN', ?, ?, ?, ?)";
-
-            try (PreparedStatement pstmt = connection.prepareStatement(sqlIn)) {
-                pstmt.setInt(1, toId);
-                pstmt.setDouble(2, amount);
-                pstmt.setDouble(3, toBalance);
-                pstmt.setString(4, "Transfer from " + fromAcc);
-                pstmt.setInt(5, fromId);
-                pstmt.executeUpdate();
-            }
+    /**
+     * Record both legs of a transfer between accounts whose ids are already known
+     */
+    public boolean recordTransfer(int fromId, String fromAcc, int toId, String toAcc,
+                                  double amount, double fromBalance, double toBalance) {
 
+        try {
+            dbConn.beginTransaction();
+            insertTransferLegs(fromId, fromAcc, toId, toAcc, Money.fromDouble(amount),
+                    Money.fromDouble(fromBalance), Money.fromDouble(toBalance));
             dbConn.commit();
             return true;
 
@@ -98,15 +120,89 @@ public class TransactionDAO {
         return false;
     }
 
+    /**
+     * Insert the TRANSFER_OUT and TRANSFER_IN rows on the current transaction.
+     * Amounts are in cents. Failures are thrown so the caller decides whether to
+     * retry or roll back.
+     */
+    public void insertTransferLegs(int fromId, String fromAcc, int toId, String toAcc,
+                                   long amountCents, long fromBalanceCents, long toBalanceCents) throws SQLException {
+        String sql = "INSERT INTO transactions " +
+                "(account_id, transaction_type, amount, balance_after, description, reference_account_id) " +
+                "VALUES (?, ?, ?, ?, ?, ?)";
+
+        BigDecimal decimalAmount = Money.toDecimal(amountCents);
+        try (Connection connection = dbConn.getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            pstmt.setInt(1, fromId);
+            pstmt.setString(2, "TRANSFER_OUT");
+            pstmt.setBigDecimal(3, decimalAmount);
+            pstmt.setBigDecimal(4, Money.toDecimal(fromBalanceCents));
+            pstmt.setString(5, "Transfer to " + toAcc);
+            pstmt.setInt(6, toId);
+            pstmt.addBatch();
+
+            pstmt.setInt(1, toId);
+            pstmt.setString(2, "TRANSFER_IN");
+            pstmt.setBigDecimal(3, decimalAmount);
+            pstmt.setBigDecimal(4, Money.toDecimal(toBalanceCents));
+            pstmt.setString(5, "Transfer from " + fromAcc);
+            pstmt.setInt(6, fromId);
+            pstmt.addBatch();
+
+            pstmt.executeBatch();
+        }
+    }
+
+    /**
+     * Insert many transaction rows with one JDBC batch on the current transaction.
+     * Uses account_id, transaction_type, amount, balance_after, description and
+     * reference_account_id of each DTO; failures are thrown to the caller.
+     */
+    public void insertTransactionBatch(List<TransactionDTO> transactions) throws SQLException {
+        if (transactions.isEmpty()) {
+            return;
+        }
+
+        String sql = "INSERT INTO transactions " +
+                "(account_id, transaction_type, amount, balance_after, description, reference_account_id) " +
+                "VALUES (?, ?, ?, ?, ?, ?)";
+
+        try (Connection connection = dbConn.getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            for (TransactionDTO transaction : transactions) {
+                pstmt.setInt(1, transaction.getAccountId());
+                pstmt.setString(2, transaction.getTransactionType());
+                pstmt.setBigDecimal(3, Money.toDecimal(transaction.getAmountCents()));
+                pstmt.setBigDecimal(4, Money.toDecimal(transaction.getBalanceAfterCents()));
+                pstmt.setString(5, transaction.getDescription());
+                if (transaction.getReferenceAccountId() == null) {
+                    pstmt.setNull(6, Types.INTEGER);
+                } else {
+                    pstmt.setInt(6, transaction.getReferenceAccountId());
+                }
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+        }
+    }
+
+    /**
+     * Get the complete transaction history of an account, newest first.
+     * Loads every row into memory; prefer {@link #getTransactionHistoryPage} or
+     * {@link #forEachTransaction} for accounts with a long history.
+     */
     public List<TransactionDTO> getTransactionHistory(String accountNumber) {
         List<TransactionDTO> list = new ArrayList<>();
 
-        String sql = "SELECT t.* FROM transactions t " +
-                "JOIN accounts a ON t.account_id = a.account_id " +
-                "WHERE a.account_number = ? ORDER BY t.transaction_date DESC";
+        int accountId = getAccountId(accountNumber);
+        if (accountId == -1) {
+            return list;
+        }
 
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setString(1, accountNumber);
+        try (Connection connection = dbConn.getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(HISTORY_SQL)) {
+            pstmt.setInt(1, accountId);
 
             try (ResultSet rs = pstmt.executeQuery()) {
                 while (rs.next()) {
@@ -119,6 +215,168 @@ public class TransactionDAO {
         return list;
     }
 
+    /**
+     * Get one page of an account's transaction history, newest first.
+     * Pages are addressed by keyset rather than OFFSET, so every page costs the same
+     * index range scan no matter how deep into the history it is.
+     * @param afterDate transaction_date of the last row already seen, or null for the first page
+     * @param afterTransactionId transaction_id of the last row already seen (ignored for the first page)
+     * @param pageSize Maximum number of rows to return
+     * @throws IllegalStateException wrapping the SQLException if the page cannot be read,
+     *         so a failure is never mistaken for the last page
+     */
+    public TransactionPageDTO getTransactionHistoryPage(String accountNumber, Timestamp afterDate,
+                                                        int afterTransactionId, int pageSize) {
+        List<TransactionDTO> list = new ArrayList<>();
+
+        int accountId = getAccountId(accountNumber);
+        if (accountId == -1) {
+            return new TransactionPageDTO(list, false);
+        }
+
+        String sql = "SELECT * FROM transactions WHERE account_id = ? " +
+                (afterDate == null ? "" :
+                        "AND (transaction_date < ? OR (transaction_date = ? AND transaction_id < ?)) ") +
+                "ORDER BY transaction_date DESC, transaction_id DESC LIMIT ?";
+
+        try (Connection connection = dbConn.getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            int index = 1;
+            pstmt.setInt(index++, accountId);
+            if (afterDate != null) {
+                pstmt.setTimestamp(index++, afterDate);
+                pstmt.setTimestamp(index++, afterDate);
+                pstmt.setInt(index++, afterTransactionId);
+            }
+            // One extra row tells whether another page follows
+            pstmt.setInt(index, pageSize + 1);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    list.add(mapResultSetToTransaction(rs));
+                }
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Error retrieving transactions of " + accountNumber + ": " +
+                    e.getMessage(), e);
+        }
+
+        boolean hasMore = list.size() > pageSize;
+        if (hasMore) {
+            list.remove(pageSize);
+        }
+        return new TransactionPageDTO(list, hasMore);
+    }
+
+    /**
+     * Pass every transaction of an account, newest first, to the action without
+     * holding the history in memory. Rows are fetched from a server-side cursor
+     * in blocks of STREAM_FETCH_SIZE (requires useCursorFetch=true in db.url).
+     * @return number of transactions visited
+     * @throws IllegalStateException wrapping the SQLException if the history cannot be read to the end
+     */
+    public int forEachTransaction(String accountNumber, Consumer<TransactionDTO> action) {
+        int accountId = getAccountId(accountNumber);
+        if (accountId == -1) {
+            return 0;
+        }
+
+        int count = 0;
+
+        try (Connection connection = dbConn.getConnection();
+             PreparedStatement pstmt = prepareHistory(connection, accountId)) {
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    action.accept(mapResultSetToTransaction(rs));
+                    count++;
+                }
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Error streaming transactions of " + accountNumber + " after " +
+                    count + " rows: " + e.getMessage(), e);
+        }
+        return count;
+    }
+
+    /**
+     * Every transaction of an account, newest first, read lazily from the same
+     * cursor as {@link #forEachTransaction}. The stream holds a connection until
+     * it is closed, so use it in try-with-resources; closing it closes the
+     * result set, statement and connection. A read error is thrown from the
+     * terminal operation as an IllegalStateException wrapping the SQLException,
+     * rather than ending the stream as if the history were complete.
+     */
+    public Stream<TransactionDTO> streamTransactions(String accountNumber) {
+        int accountId = getAccountId(accountNumber);
+        if (accountId == -1) {
+            return Stream.empty();
+        }
+
+        Connection connection = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+        try {
+            connection = dbConn.getConnection();
+            pstmt = prepareHistory(connection, accountId);
+            rs = pstmt.executeQuery();
+        } catch (SQLException e) {
+            close(rs, pstmt, connection);
+            throw new IllegalStateException("Error streaming transactions of " + accountNumber + ": " +
+                    e.getMessage(), e);
+        }
+
+        ResultSet cursor = rs;
+        Spliterator<TransactionDTO> rows = new Spliterators.AbstractSpliterator<TransactionDTO>(
+                Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(Consumer<? super TransactionDTO> action) {
+                try {
+                    if (!cursor.next()) {
+                        return false;
+                    }
+                    action.accept(mapResultSetToTransaction(cursor));
+                    return true;
+                } catch (SQLException e) {
+                    throw new IllegalStateException("Error streaming transactions of " + accountNumber + ": " +
+                            e.getMessage(), e);
+                }
+            }
+        };
+        PreparedStatement statement = pstmt;
+        Connection streamConnection = connection;
+        return StreamSupport.stream(rows, false).onClose(() -> close(cursor, statement, streamConnection));
+    }
+
+    private PreparedStatement prepareHistory(Connection connection, int accountId) throws SQLException {
+        PreparedStatement pstmt = connection.prepareStatement(HISTORY_SQL,
+                ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        try {
+            pstmt.setFetchSize(STREAM_FETCH_SIZE);
+            pstmt.setInt(1, accountId);
+        } catch (SQLException e) {
+            pstmt.close();
+            throw e;
+        }
+        return pstmt;
+    }
+
+    /**
+     * Close JDBC resources in reverse order of opening, skipping nulls
+     */
+    private static void close(AutoCloseable... resources) {
+        for (AutoCloseable resource : resources) {
+            if (resource == null) {
+                continue;
+            }
+            try {
+                resource.close();
+            } catch (Exception e) {
+                System.err.println("✗ Error closing transaction stream: " + e.getMessage());
+            }
+        }
+    }
+
     public List<TransactionDTO> getRecentTransactions(int limit) {
         List<TransactionDTO> list = new ArrayList<>();
 
@@ -126,7 +384,8 @@ public class TransactionDAO {
                 "FROM transactions t JOIN accounts a ON t.account_id = a.account_id " +
                 "ORDER BY t.transaction_date DESC LIMIT ?";
 
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (Connection connection = dbConn.getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(sql)) {
             pstmt.setInt(1, limit);
 
             try (ResultSet rs = pstmt.executeQuery()) {
@@ -144,18 +403,7 @@ public class TransactionDAO {
     }
 
     private int getAccountId(String accountNumber) {
-        String sql = "SELECT account_id FROM accounts WHERE account_number = ?";
-
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setString(1, accountNumber);
-
-            try (ResultSet rs = pstmt.executeQuery()) {
-                if (rs.next()) return rs.getInt("account_id");
-            }
-        } catch (SQLException e) {
-            System.err.println("✗ Error fetching account ID: " + e.getMessage());
-        }
-        return -1;
+        return AccountIdCache.getInstance().getAccountId(accountNumber);
     }
 
     private TransactionDTO mapResultSetToTransaction(ResultSet rs) throws SQLException {
@@ -163,8 +411,8 @@ public class TransactionDAO {
         dto.setTransactionId(rs.getInt("transaction_id"));
         dto.setAccountId(rs.getInt("account_id"));
         dto.setTransactionType(rs.getString("transaction_type"));
-        dto.setAmount(rs.getDouble("amount"));
-        dto.setBalanceAfter(rs.getDouble("balance_after"));
+        dto.setAmountCents(Money.fromDecimal(rs.getBigDecimal("amount")));
+        dto.setBalanceAfterCents(Money.fromDecimal(rs.getBigDecimal("balance_after")));
         dto.setTransactionDate(rs.getTimestamp("transaction_date"));
         dto.setDescription(rs.getString("description"));
         return dto;
@@ -12,10 +12,10 @@ import java.sql.*;
  */
 public class UserDAO {
 
-    private final Connection connection;
+    private final DatabaseConnection dbConn;
 
     public UserDAO() {
-        this.connection = DatabaseConnection.getInstance().getConnection();
+        this.dbConn = DatabaseConnection.getInstance();
     }
 
     public boolean registerUser(String username, String password, String email,
@@ -33,8 +33,8 @@ public class UserDAO {
                 "(username, password_hash, password_salt, email, full_name, role, status) " +
                 "VALUES (?, ?, ?, ?, ?, ?, 'ACTIVE')";
 
-        try (PreparedStatement pstmt =
-                     connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+        try (Connection connection = dbConn.getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
 
             pstmt.setString(1, username);
             pstmt.setString(2, hash);
@@ -57,7 +57,8 @@ public class UserDAO {
 
         String sql = "SELECT * FROM users WHERE username = ? AND status = 'ACTIVE'";
 
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (Connection connection = dbConn.getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(sql)) {
             pstmt.setString(1, username);
 
             ResultSet rs = pstmt.executeQuery();
@@ -92,7 +93,8 @@ public class UserDAO {
 
         String sql = "UPDATE users SET password_hash = ?, password_salt = ? WHERE user_id = ?";
 
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (Connection connection = dbConn.getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(sql)) {
             pstmt.setString(1, hash);
             pstmt.setString(2, salt);
             pstmt.setInt(3, user.getUserId());
@@ -109,7 +111,8 @@ public class UserDAO {
         String sql = "SELECT user_id, username, email, full_name, role, status, " +
                 "created_date, last_login FROM users WHERE username = ?";
 
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (Connection connection = dbConn.getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(sql)) {
             pstmt.setString(1, username);
             ResultSet rs = pstmt.executeQuery();
 
@@ -126,7 +129,8 @@ public class UserDAO {
 
         String sql = "UPDATE users SET status = 'LOCKED' WHERE username = ?";
 
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (Connection connection = dbConn.getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(sql)) {
             pstmt.setString(1, username);
             return pstmt.executeUpdate() > 0;
 
@@ -140,7 +144,8 @@ public class UserDAO {
 
         String sql = "UPDATE users SET last_login = CURRENT_TIMESTAMP WHERE user_id = ?";
 
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (Connection connection = dbConn.getConnection();
+             PreparedStatement pstmt = connection.prepareStatement(sql)) {
             pstmt.setInt(1, userId);
             pstmt.executeUpdate();
         } catch (SQLException e) {
@@ -1,5 +1,7 @@
 package dto;
 
+import model.Money;
+
 import java.sql.Timestamp;
 
 public class AccountDTO {
@@ -7,7 +9,7 @@ public class AccountDTO {
     private String accountNumber;
     private String accountHolder;
     private String accountType;
-    private double balance;
+    private long balanceCents;
     private double interestRate;
     private Timestamp createdDate;
     private String status;
@@ -24,8 +26,11 @@ public class AccountDTO {
     public String getAccountType() { return accountType; }
     public void setAccountType(String accountType) { this.accountType = accountType; }
 
-    public double getBalance() { return balance; }
-    public void setBalance(double balance) { this.balance = balance; }
+    public long getBalanceCents() { return balanceCents; }
+    public void setBalanceCents(long balanceCents) { this.balanceCents = balanceCents; }
+
+    public double getBalance() { return Money.toDouble(balanceCents); }
+    public void setBalance(double balance) { this.balanceCents = Money.fromDouble(balance); }
 
     public double getInterestRate() { return interestRate; }
     public void setInterestRate(double interestRate) { this.interestRate = interestRate; }
@@ -40,7 +45,7 @@ public class AccountDTO {
     public String toString() {
         return String.format(
                 "%s | %s | %s | Balance: %.2f | Status: %s",
-                accountNumber, accountHolder, accountType, balance, status
+                accountNumber, accountHolder, accountType, getBalance(), status
         );
     }
 }
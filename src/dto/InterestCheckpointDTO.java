@@ -0,0 +1,60 @@
+package dto;
+
+// InterestCheckpointDTO.java
+
+/**
+ * Data Transfer Object for the committed progress of one account_id partition of an interest job
+ */
+public class InterestCheckpointDTO {
+    private int jobRunId;
+    private int partitionNo;
+    private int afterAccountId;
+    private int upperAccountId;
+    private int lastAccountId;
+    private String status; // PENDING, RUNNING, COMPLETED, FAILED
+    private long accountsCredited;
+    private double interestPaid;
+
+    public InterestCheckpointDTO() {
+    }
+
+    public InterestCheckpointDTO(int partitionNo, int afterAccountId, int upperAccountId) {
+        this.partitionNo = partitionNo;
+        this.afterAccountId = afterAccountId;
+        this.upperAccountId = upperAccountId;
+        this.lastAccountId = afterAccountId;
+        this.status = "PENDING";
+    }
+
+    // Getters and Setters
+    public int getJobRunId() { return jobRunId; }
+    public void setJobRunId(int jobRunId) { this.jobRunId = jobRunId; }
+
+    public int getPartitionNo() { return partitionNo; }
+    public void setPartitionNo(int partitionNo) { this.partitionNo = partitionNo; }
+
+    public int getAfterAccountId() { return afterAccountId; }
+    public void setAfterAccountId(int afterAccountId) { this.afterAccountId = afterAccountId; }
+
+    public int getUpperAccountId() { return upperAccountId; }
+    public void setUpperAccountId(int upperAccountId) { this.upperAccountId = upperAccountId; }
+
+    public int getLastAccountId() { return lastAccountId; }
+    public void setLastAccountId(int lastAccountId) { this.lastAccountId = lastAccountId; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public long getAccountsCredited() { return accountsCredited; }
+    public void setAccountsCredited(long accountsCredited) { this.accountsCredited = accountsCredited; }
+
+    public double getInterestPaid() { return interestPaid; }
+    public void setInterestPaid(double interestPaid) { this.interestPaid = interestPaid; }
+
+    @Override
+    public String toString() {
+        return String.format("Partition %d (%d, %d] | Last: %d | %s | %d credited | $%.2f",
+                partitionNo, afterAccountId, upperAccountId, lastAccountId, status,
+                accountsCredited, interestPaid);
+    }
+}
@@ -0,0 +1,45 @@
+package dto;
+
+// InterestJobRunDTO.java
+import java.sql.Timestamp;
+
+/**
+ * Data Transfer Object for an interest job run (one per calculation period)
+ */
+public class InterestJobRunDTO {
+    private int jobRunId;
+    private String calculationPeriod;
+    private String periodKey;
+    private String status; // RUNNING, COMPLETED, FAILED
+    private Timestamp startedAt;
+    private Timestamp completedAt;
+
+    // Getters and Setters
+    public int getJobRunId() { return jobRunId; }
+    public void setJobRunId(int jobRunId) { this.jobRunId = jobRunId; }
+
+    public String getCalculationPeriod() { return calculationPeriod; }
+    public void setCalculationPeriod(String calculationPeriod) { this.calculationPeriod = calculationPeriod; }
+
+    public String getPeriodKey() { return periodKey; }
+    public void setPeriodKey(String periodKey) { this.periodKey = periodKey; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public Timestamp getStartedAt() { return startedAt; }
+    public void setStartedAt(Timestamp startedAt) { this.startedAt = startedAt; }
+
+    public Timestamp getCompletedAt() { return completedAt; }
+    public void setCompletedAt(Timestamp completedAt) { this.completedAt = completedAt; }
+
+    public boolean isCompleted() {
+        return "COMPLETED".equals(status);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Job #%d | %s %s | %s | Started: %s",
+                jobRunId, calculationPeriod, periodKey, status, startedAt);
+    }
+}
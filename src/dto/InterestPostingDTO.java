@@ -0,0 +1,58 @@
+package dto;
+
+// InterestPostingDTO.java
+import model.Money;
+
+/**
+ * Data Transfer Object for a single interest credit produced by a batch run
+ */
+public class InterestPostingDTO {
+    private int accountId;
+    private String accountNumber;
+    private long balanceBeforeCents;
+    private long interestAmountCents;
+    private long balanceAfterCents;
+    private double interestRate;
+
+    public InterestPostingDTO() {
+    }
+
+    public InterestPostingDTO(int accountId, String accountNumber, long balanceBeforeCents,
+                              long interestAmountCents, double interestRate) {
+        this.accountId = accountId;
+        this.accountNumber = accountNumber;
+        this.balanceBeforeCents = balanceBeforeCents;
+        this.interestAmountCents = interestAmountCents;
+        this.balanceAfterCents = Money.add(balanceBeforeCents, interestAmountCents);
+        this.interestRate = interestRate;
+    }
+
+    // Getters and Setters
+    public int getAccountId() { return accountId; }
+    public void setAccountId(int accountId) { this.accountId = accountId; }
+
+    public String getAccountNumber() { return accountNumber; }
+    public void setAccountNumber(String accountNumber) { this.accountNumber = accountNumber; }
+
+    public long getBalanceBeforeCents() { return balanceBeforeCents; }
+    public void setBalanceBeforeCents(long balanceBeforeCents) { this.balanceBeforeCents = balanceBeforeCents; }
+
+    public long getInterestAmountCents() { return interestAmountCents; }
+    public void setInterestAmountCents(long interestAmountCents) { this.interestAmountCents = interestAmountCents; }
+
+    public long getBalanceAfterCents() { return balanceAfterCents; }
+    public void setBalanceAfterCents(long balanceAfterCents) { this.balanceAfterCents = balanceAfterCents; }
+
+    public double getBalanceBefore() { return Money.toDouble(balanceBeforeCents); }
+    public double getInterestAmount() { return Money.toDouble(interestAmountCents); }
+    public double getBalanceAfter() { return Money.toDouble(balanceAfterCents); }
+
+    public double getInterestRate() { return interestRate; }
+    public void setInterestRate(double interestRate) { this.interestRate = interestRate; }
+
+    @Override
+    public String toString() {
+        return String.format("%s | Interest: %.2f | Balance: %.2f -> %.2f",
+                accountNumber, getInterestAmount(), getBalanceBefore(), getBalanceAfter());
+    }
+}
@@ -3,6 +3,8 @@ package dto;
 import java.time.LocalDate;
 
 // StandingOrderDTO.java
+import model.Money;
+
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 
@@ -16,7 +18,7 @@ public class StandingOrderDTO {
     private int toAccountId;
     private String fromAccountNumber;
     private String toAccountNumber;
-    private double amount;
+    private long amountCents;
     private String frequency; // DAILY, WEEKLY, MONTHLY, QUARTERLY, YEARLY
     private LocalDate startDate;
     private LocalDate endDate;
@@ -40,7 +42,7 @@ public class StandingOrderDTO {
                             LocalDate nextExecutionDate, String description) {
         this.fromAccountId = fromAccountId;
         this.toAccountId = toAccountId;
-        this.amount = amount;
+        this.amountCents = Money.fromDouble(amount);
         this.frequency = frequency;
         this.startDate = startDate;
         this.endDate = endDate;
@@ -91,12 +93,20 @@ public class StandingOrderDTO {
         this.toAccountNumber = toAccountNumber;
     }
 
+    public long getAmountCents() {
+        return amountCents;
+    }
+
+    public void setAmountCents(long amountCents) {
+        this.amountCents = amountCents;
+    }
+
     public double getAmount() {
-        return amount;
+        return Money.toDouble(amountCents);
     }
 
     public void setAmount(double amount) {
-        this.amount = amount;
+        this.amountCents = Money.fromDouble(amount);
     }
 
     public String getFrequency() {
@@ -290,7 +300,7 @@ public class StandingOrderDTO {
         System.out.println("Order ID:          " + standingOrderId);
         System.out.println("From Account:      " + fromAccountNumber);
         System.out.println("To Account:        " + toAccountNumber);
-        System.out.printf("Amount:            $%.2f%n", amount);
+        System.out.printf("Amount:            $%.2f%n", getAmount());
         System.out.println("Frequency:         " + getFrequencyDescription());
         System.out.println("Start Date:        " + startDate.format(formatter));
 
@@ -325,7 +335,7 @@ public class StandingOrderDTO {
                 standingOrderId,
                 fromAccountNumber != null ? fromAccountNumber : "ID:" + fromAccountId,
                 toAccountNumber != null ? toAccountNumber : "ID:" + toAccountId,
-                amount,
+                getAmount(),
                 frequency,
                 nextExecutionDate,
                 status);
@@ -336,7 +346,7 @@ public class StandingOrderDTO {
      */
     public String toCompactString() {
         return String.format("#%d: $%.2f %s (%s)",
-                standingOrderId, amount, frequency, status);
+                standingOrderId, getAmount(), frequency, status);
     }
 
     /**
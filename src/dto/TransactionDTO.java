@@ -1,6 +1,8 @@
 package dto;
 
 // TransactionDTO.java
+import model.Money;
+
 import java.sql.Timestamp;
 
 /**
@@ -12,10 +14,11 @@ public class TransactionDTO {
     private String accountNumber;
     private String accountHolder;
     private String transactionType;
-    private double amount;
-    private double balanceAfter;
+    private long amountCents;
+    private long balanceAfterCents;
     private Timestamp transactionDate;
     private String description;
+    private Integer referenceAccountId;
 
     // Getters and Setters
     public int getTransactionId() { return transactionId; }
@@ -33,11 +36,17 @@ public class TransactionDTO {
     public String getTransactionType() { return transactionType; }
     public void setTransactionType(String transactionType) { this.transactionType = transactionType; }
 
-    public double getAmount() { return amount; }
-    public void setAmount(double amount) { this.amount = amount; }
+    public long getAmountCents() { return amountCents; }
+    public void setAmountCents(long amountCents) { this.amountCents = amountCents; }
+
+    public long getBalanceAfterCents() { return balanceAfterCents; }
+    public void setBalanceAfterCents(long balanceAfterCents) { this.balanceAfterCents = balanceAfterCents; }
 
-    public double getBalanceAfter() { return balanceAfter; }
-    public void setBalanceAfter(double balanceAfter) { this.balanceAfter = balanceAfter; }
+    public double getAmount() { return Money.toDouble(amountCents); }
+    public void setAmount(double amount) { this.amountCents = Money.fromDouble(amount); }
+
+    public double getBalanceAfter() { return Money.toDouble(balanceAfterCents); }
+    public void setBalanceAfter(double balanceAfter) { this.balanceAfterCents = Money.fromDouble(balanceAfter); }
 
     public Timestamp getTransactionDate() { return transactionDate; }
     public void setTransactionDate(Timestamp transactionDate) { this.transactionDate = transactionDate; }
@@ -45,10 +54,13 @@ public class TransactionDTO {
     public String getDescription() { return description; }
     public void setDescription(String description) { this.description = description; }
 
+    public Integer getReferenceAccountId() { return referenceAccountId; }
+    public void setReferenceAccountId(Integer referenceAccountId) { this.referenceAccountId = referenceAccountId; }
+
     @Override
     public String toString() {
         return String.format("[%s] %s: %.2f | Balance: %.2f | %s",
-                transactionDate, transactionType, amount, balanceAfter,
+                transactionDate, transactionType, getAmount(), getBalanceAfter(),
                 description != null ? description : "");
     }
 }
@@ -0,0 +1,43 @@
+package dto;
+
+// TransactionPageDTO.java
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * One page of an account's transaction history, newest first
+ * Pass getNextDate() and getNextTransactionId() back to fetch the following page.
+ */
+public class TransactionPageDTO {
+    private final List<TransactionDTO> transactions;
+    private final boolean hasMore;
+
+    public TransactionPageDTO(List<TransactionDTO> transactions, boolean hasMore) {
+        this.transactions = transactions;
+        this.hasMore = hasMore;
+    }
+
+    public List<TransactionDTO> getTransactions() { return transactions; }
+
+    public boolean hasMore() { return hasMore; }
+
+    public boolean isEmpty() { return transactions.isEmpty(); }
+
+    /**
+     * Keyset cursor: transaction_date of the last row on this page, or null if the page is empty
+     */
+    public Timestamp getNextDate() {
+        return transactions.isEmpty() ? null : last().getTransactionDate();
+    }
+
+    /**
+     * Keyset cursor: transaction_id of the last row on this page, or 0 if the page is empty
+     */
+    public int getNextTransactionId() {
+        return transactions.isEmpty() ? 0 : last().getTransactionId();
+    }
+
+    private TransactionDTO last() {
+        return transactions.get(transactions.size() - 1);
+    }
+}
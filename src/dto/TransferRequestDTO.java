@@ -0,0 +1,62 @@
+package dto;
+
+// TransferRequestDTO.java
+import model.Money;
+
+/**
+ * Data Transfer Object for one entry of a bulk transfer or payment file
+ */
+public class TransferRequestDTO {
+    private int lineNumber;
+    private String fromAccountNumber;
+    private String toAccountNumber;
+    // Amount in cents; 0 for an amount that is not a finite number
+    private long amountCents;
+    private String reference;
+
+    public TransferRequestDTO() {
+    }
+
+    public TransferRequestDTO(String fromAccountNumber, String toAccountNumber, long amountCents, String reference) {
+        this.fromAccountNumber = fromAccountNumber;
+        this.toAccountNumber = toAccountNumber;
+        this.amountCents = amountCents;
+        this.reference = reference;
+    }
+
+    public TransferRequestDTO(String fromAccountNumber, String toAccountNumber, double amount, String reference) {
+        this(fromAccountNumber, toAccountNumber, 0L, reference);
+        setAmount(amount);
+    }
+
+    // Getters and Setters
+    public int getLineNumber() { return lineNumber; }
+    public void setLineNumber(int lineNumber) { this.lineNumber = lineNumber; }
+
+    public String getFromAccountNumber() { return fromAccountNumber; }
+    public void setFromAccountNumber(String fromAccountNumber) { this.fromAccountNumber = fromAccountNumber; }
+
+    public String getToAccountNumber() { return toAccountNumber; }
+    public void setToAccountNumber(String toAccountNumber) { this.toAccountNumber = toAccountNumber; }
+
+    public double getAmount() { return Money.toDouble(amountCents); }
+
+    /**
+     * Set the amount, rounded half-up to cents; an amount that is not finite reads as 0
+     */
+    public void setAmount(double amount) {
+        this.amountCents = Double.isFinite(amount) ? Money.fromDouble(amount) : 0L;
+    }
+
+    public long getAmountCents() { return amountCents; }
+    public void setAmountCents(long amountCents) { this.amountCents = amountCents; }
+
+    public String getReference() { return reference; }
+    public void setReference(String reference) { this.reference = reference; }
+
+    @Override
+    public String toString() {
+        return String.format("%s -> %s: $%.2f%s", fromAccountNumber, toAccountNumber, getAmount(),
+                reference != null && !reference.isEmpty() ? " (" + reference + ")" : "");
+    }
+}
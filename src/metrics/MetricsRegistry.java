@@ -0,0 +1,309 @@
+package metrics;
+
+// MetricsRegistry.java
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+import java.util.function.LongSupplier;
+import javax.management.ObjectName;
+
+/**
+ * Process-wide registry of counters, gauges and latency histograms
+ * Metrics are created once and kept for the life of the process; callers hold
+ * on to the returned objects, so recording never touches the registry maps.
+ * Each metric has a family name and at most one label, and the registry can be
+ * dumped in Prometheus text format or read through the JMX MBean
+ * {@value #MBEAN_NAME}.
+ *
+ * Families used by the application:
+ *   bank_operation_seconds{operation}   BankService calls
+ *   bank_sql_seconds{statement}         JDBC statement executions, by verb and table
+ *   bank_pool_*                         connection pool gauges, bank_pool_timeouts_total
+ *   bank_scheduler_run_seconds{job}     scheduled job runs
+ */
+public class MetricsRegistry {
+    public static final String MBEAN_NAME = "banking:type=Metrics";
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    private static volatile MetricsRegistry instance;
+
+    private final Map<String, Family> families = new ConcurrentHashMap<>();
+
+    MetricsRegistry() {
+    }
+
+    /**
+     * Get the shared registry; the first call registers its JMX MBean
+     */
+    public static MetricsRegistry getInstance() {
+        if (instance == null) {
+            synchronized (MetricsRegistry.class) {
+                if (instance == null) {
+                    instance = new MetricsRegistry();
+                    instance.registerMBean();
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Get or create a counter
+     */
+    public LongAdder counter(String name, String help, String label, String labelValue) {
+        return (LongAdder) family(name, help, Type.COUNTER).metrics
+                .computeIfAbsent(labelValue(label, labelValue), key -> new LongAdder());
+    }
+
+    /**
+     * Register a counter whose total is kept by its owner and read on every dump;
+     * a later registration replaces an earlier one
+     */
+    public void counter(String name, String help, String label, String labelValue, LongSupplier total) {
+        family(name, help, Type.COUNTER).metrics.put(labelValue(label, labelValue), total);
+    }
+
+    /**
+     * Get or create a latency histogram
+     */
+    public LatencyHistogram histogram(String name, String help, String label, String labelValue) {
+        return (LatencyHistogram) family(name, help, Type.SUMMARY).metrics
+                .computeIfAbsent(labelValue(label, labelValue), key -> new LatencyHistogram());
+    }
+
+    /**
+     * Register a gauge read on every dump; a later registration replaces an earlier one
+     */
+    public void gauge(String name, String help, String label, String labelValue, DoubleSupplier value) {
+        family(name, help, Type.GAUGE).metrics.put(labelValue(label, labelValue), value);
+    }
+
+    /**
+     * Latency and errors of a BankService operation
+     */
+    public OperationMetrics operation(String operation) {
+        return new OperationMetrics(operation,
+                histogram("bank_operation_seconds", "BankService call latency", "operation", operation),
+                counter("bank_operation_errors_total", "BankService calls that failed", "operation", operation));
+    }
+
+    /**
+     * Latency and errors of a JDBC statement, named verb_table (e.g. update_accounts)
+     */
+    public OperationMetrics sqlStatement(String statement) {
+        return new OperationMetrics(statement,
+                histogram("bank_sql_seconds", "JDBC statement execution latency", "statement", statement),
+                counter("bank_sql_errors_total", "JDBC statement executions that failed", "statement", statement));
+    }
+
+    /**
+     * Dump every metric in Prometheus text exposition format.
+     * Histograms are exposed as summaries in seconds.
+     */
+    public String toPrometheus() {
+        StringBuilder out = new StringBuilder();
+        for (Family family : sortedFamilies()) {
+            out.append("# HELP ").append(family.name).append(' ').append(family.help).append('\n');
+            out.append("# TYPE ").append(family.name).append(' ')
+                    .append(family.type.name().toLowerCase(Locale.ROOT)).append('\n');
+
+            for (Map.Entry<LabelKey, Object> entry : new TreeMap<>(family.metrics).entrySet()) {
+                LabelKey key = entry.getKey();
+                Object metric = entry.getValue();
+                switch (family.type) {
+                    case COUNTER:
+                        sample(out, family.name, key, null, total(metric));
+                        break;
+                    case GAUGE:
+                        sample(out, family.name, key, null, ((DoubleSupplier) metric).getAsDouble());
+                        break;
+                    case SUMMARY:
+                        LatencyHistogram histogram = (LatencyHistogram) metric;
+                        for (double quantile : QUANTILES) {
+                            sample(out, family.name, key, "quantile=\"" + quantile + "\"",
+                                    histogram.getValueAtQuantile(quantile) / 1e9);
+                        }
+                        sample(out, family.name + "_sum", key, null, histogram.getSumNanos() / 1e9);
+                        sample(out, family.name + "_count", key, null, histogram.getCount());
+                        break;
+                }
+            }
+        }
+        return out.toString();
+    }
+
+    /**
+     * Display latency percentiles and counters in a readable table
+     */
+    public void displayStats() {
+        System.out.println("\n=== Metrics ===");
+        for (Family family : sortedFamilies()) {
+            for (Map.Entry<LabelKey, Object> entry : new TreeMap<>(family.metrics).entrySet()) {
+                String name = family.name + entry.getKey();
+                Object metric = entry.getValue();
+                if (metric instanceof LatencyHistogram) {
+                    LatencyHistogram histogram = (LatencyHistogram) metric;
+                    if (histogram.getCount() > 0) {
+                        System.out.printf("%-60s n=%-8d p50=%.3f ms  p99=%.3f ms  max=%.3f ms%n", name,
+                                histogram.getCount(), histogram.getValueAtQuantile(0.5) / 1e6,
+                                histogram.getValueAtQuantile(0.99) / 1e6, histogram.getMaxNanos() / 1e6);
+                    }
+                } else if (metric instanceof LongAdder || metric instanceof LongSupplier) {
+                    long value = total(metric);
+                    if (value > 0) {
+                        System.out.printf("%-60s %d%n", name, value);
+                    }
+                } else {
+                    System.out.printf("%-60s %s%n", name, format(((DoubleSupplier) metric).getAsDouble()));
+                }
+            }
+        }
+    }
+
+    /**
+     * Flat view used by the MBean: one attribute per sample, named like the
+     * Prometheus series (quantiles as name{label}.p99, in milliseconds)
+     */
+    Map<String, Object> snapshot() {
+        Map<String, Object> values = new TreeMap<>();
+        for (Family family : sortedFamilies()) {
+            for (Map.Entry<LabelKey, Object> entry : family.metrics.entrySet()) {
+                String name = family.name + entry.getKey();
+                Object metric = entry.getValue();
+                if (metric instanceof LatencyHistogram) {
+                    LatencyHistogram histogram = (LatencyHistogram) metric;
+                    values.put(name + ".count", histogram.getCount());
+                    values.put(name + ".p50", histogram.getValueAtQuantile(0.5) / 1e6);
+                    values.put(name + ".p99", histogram.getValueAtQuantile(0.99) / 1e6);
+                    values.put(name + ".max", histogram.getMaxNanos() / 1e6);
+                } else if (metric instanceof LongAdder || metric instanceof LongSupplier) {
+                    values.put(name, total(metric));
+                } else {
+                    values.put(name, ((DoubleSupplier) metric).getAsDouble());
+                }
+            }
+        }
+        return values;
+    }
+
+    private void registerMBean() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(new MetricsMBean(this), new ObjectName(MBEAN_NAME));
+        } catch (Exception e) {
+            System.out.println("⚠ Metrics MBean not registered: " + e.getMessage());
+        }
+    }
+
+    private Family family(String name, String help, Type type) {
+        Family family = families.computeIfAbsent(name, key -> new Family(name, help, type));
+        if (family.type != type) {
+            throw new IllegalArgumentException("Metric " + name + " is already a " + family.type);
+        }
+        return family;
+    }
+
+    private List<Family> sortedFamilies() {
+        List<Family> sorted = new ArrayList<>(families.values());
+        sorted.sort((a, b) -> a.name.compareTo(b.name));
+        return sorted;
+    }
+
+    /**
+     * Value of a counter, owned by the registry or read from its owner
+     */
+    private static long total(Object counter) {
+        return counter instanceof LongAdder ? ((LongAdder) counter).sum() : ((LongSupplier) counter).getAsLong();
+    }
+
+    private static LabelKey labelValue(String label, String value) {
+        return label == null ? LabelKey.NONE : new LabelKey(label, value);
+    }
+
+    private static void sample(StringBuilder out, String name, LabelKey key, String extraLabel, double value) {
+        out.append(name);
+        if (key != LabelKey.NONE || extraLabel != null) {
+            out.append('{');
+            if (key != LabelKey.NONE) {
+                out.append(key.label).append("=\"").append(escape(key.value)).append('"');
+            }
+            if (extraLabel != null) {
+                out.append(key != LabelKey.NONE ? "," : "").append(extraLabel);
+            }
+            out.append('}');
+        }
+        out.append(' ').append(format(value)).append('\n');
+    }
+
+    private static String format(double value) {
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            return Long.toString((long) value);
+        }
+        return Double.toString(value);
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private enum Type {
+        COUNTER,
+        GAUGE,
+        SUMMARY
+    }
+
+    private static final class Family {
+        private final String name;
+        private final String help;
+        private final Type type;
+        private final Map<LabelKey, Object> metrics = new ConcurrentHashMap<>();
+
+        private Family(String name, String help, Type type) {
+            this.name = name;
+            this.help = help;
+            this.type = type;
+        }
+    }
+
+    private static final class LabelKey implements Comparable<LabelKey> {
+        private static final LabelKey NONE = new LabelKey("", "");
+
+        private final String label;
+        private final String value;
+
+        private LabelKey(String label, String value) {
+            this.label = label;
+            this.value = value == null ? "" : value;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof LabelKey)) {
+                return false;
+            }
+            LabelKey key = (LabelKey) other;
+            return label.equals(key.label) && value.equals(key.value);
+        }
+
+        @Override
+        public int hashCode() {
+            return label.hashCode() * 31 + value.hashCode();
+        }
+
+        @Override
+        public int compareTo(LabelKey other) {
+            int byLabel = label.compareTo(other.label);
+            return byLabel != 0 ? byLabel : value.compareTo(other.value);
+        }
+
+        @Override
+        public String toString() {
+            return this == NONE ? "" : "{" + label + "=" + value + "}";
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package metrics;
+
+// OperationMetrics.java
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Latency histogram plus error counter for one named operation
+ */
+public class OperationMetrics {
+    private final String name;
+    private final LatencyHistogram latency;
+    private final LongAdder errors;
+
+    OperationMetrics(String name, LatencyHistogram latency, LongAdder errors) {
+        this.name = name;
+        this.latency = latency;
+        this.errors = errors;
+    }
+
+    /**
+     * Record one call that started at the given System.nanoTime() reading
+     */
+    public void record(long startNanos, boolean success) {
+        latency.recordSince(startNanos);
+        if (!success) {
+            errors.increment();
+        }
+    }
+
+    /**
+     * Run and time an operation; a false result or an exception counts as an error
+     */
+    public boolean time(BooleanSupplier operation) {
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            success = operation.getAsBoolean();
+            return success;
+        } finally {
+            record(start, success);
+        }
+    }
+
+    /**
+     * Run and time an operation; only an exception counts as an error
+     */
+    public <T> T timeCall(Supplier<T> operation) {
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            T result = operation.get();
+            success = true;
+            return result;
+        } finally {
+            record(start, success);
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    public long getErrorCount() {
+        return errors.sum();
+    }
+}
@@ -0,0 +1,131 @@
+package metrics;
+
+// TimedStatements.java
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Statement;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Wraps JDBC statements so every execution is timed in bank_sql_seconds
+ * Statements are named by verb and first table (select_accounts, update_accounts,
+ * insert_transactions), which keeps the label set small however many distinct
+ * SQL strings the DAOs use. A prepared statement is named once when prepared;
+ * a plain Statement is named from the SQL passed to each execute call.
+ */
+public final class TimedStatements {
+    private static final int MAX_CACHED_NAMES = 1024;
+    private static final Map<String, OperationMetrics> BY_SQL = new ConcurrentHashMap<>();
+
+    private TimedStatements() {
+    }
+
+    /**
+     * Wrap a statement returned by prepareStatement, prepareCall or createStatement
+     * @param type The interface the statement was returned as
+     * @param sql SQL it was prepared with, or null for a plain Statement
+     */
+    public static Statement wrap(Statement statement, Class<?> type, String sql) {
+        if (!Statement.class.isAssignableFrom(type) || !type.isInterface()) {
+            return statement;
+        }
+        OperationMetrics prepared = sql == null ? null : metricsFor(sql);
+        return (Statement) Proxy.newProxyInstance(
+                type.getClassLoader(),
+                new Class<?>[]{type},
+                (proxy, method, args) -> {
+                    String name = method.getName();
+                    if (!name.startsWith("execute")) {
+                        return invoke(statement, method, args, proxy);
+                    }
+                    OperationMetrics metrics = prepared;
+                    if (args != null && args.length > 0 && args[0] instanceof String) {
+                        metrics = metricsFor((String) args[0]);
+                    } else if (metrics == null) {
+                        metrics = metricsFor("batch");
+                    }
+
+                    long start = System.nanoTime();
+                    boolean success = false;
+                    try {
+                        Object result = invoke(statement, method, args, proxy);
+                        success = true;
+                        return result;
+                    } finally {
+                        metrics.record(start, success);
+                    }
+                });
+    }
+
+    /**
+     * Statement name used as the metric label, e.g. "update_accounts"
+     */
+    static String statementName(String sql) {
+        String[] words = sql.trim().toLowerCase(Locale.ROOT).split("[\\s(),;]+");
+        if (words.length == 0 || words[0].isEmpty()) {
+            return "other";
+        }
+        String verb = words[0];
+        String keyword;
+        switch (verb) {
+            case "select":
+            case "delete":
+                keyword = "from";
+                break;
+            case "insert":
+            case "replace":
+                keyword = "into";
+                break;
+            case "update":
+            case "call":
+                return verb + "_" + table(words, 1);
+            default:
+                return verb;
+        }
+        for (int i = 1; i < words.length - 1; i++) {
+            if (words[i].equals(keyword)) {
+                return verb + "_" + table(words, i + 1);
+            }
+        }
+        return verb;
+    }
+
+    private static String table(String[] words, int index) {
+        if (index >= words.length) {
+            return "unknown";
+        }
+        String table = words[index].replace("`", "");
+        int dot = table.lastIndexOf('.');
+        return dot >= 0 ? table.substring(dot + 1) : table;
+    }
+
+    private static OperationMetrics metricsFor(String sql) {
+        OperationMetrics metrics = BY_SQL.get(sql);
+        if (metrics == null) {
+            metrics = MetricsRegistry.getInstance().sqlStatement(statementName(sql));
+            // Ad hoc SQL must not grow the cache without bound; the registry entry is shared anyway
+            if (BY_SQL.size() < MAX_CACHED_NAMES) {
+                BY_SQL.put(sql, metrics);
+            }
+        }
+        return metrics;
+    }
+
+    private static Object invoke(Statement target, Method method, Object[] args, Object proxy) throws Throwable {
+        switch (method.getName()) {
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            default:
+                try {
+                    return method.invoke(target, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+        }
+    }
+}
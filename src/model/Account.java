@@ -1,22 +1,23 @@
 package model;
 
 // Account.java
+import java.math.RoundingMode;
 import java.util.ArrayList;
 import java.util.List;
 
 public abstract class Account {
     protected String accountNumber;
     protected String accountHolder;
-    protected double balance;
+    protected long balanceCents;
     protected List<Transaction> transactionHistory;
     protected double interestRate;
 
     public Account(String accountNumber, String accountHolder, double initialDeposit) {
         this.accountNumber = accountNumber;
         this.accountHolder = accountHolder;
-        this.balance = initialDeposit;
+        this.balanceCents = Money.fromDouble(initialDeposit);
         this.transactionHistory = new ArrayList<>();
-        addTransaction("Initial Deposit", initialDeposit);
+        addTransaction("Initial Deposit", balanceCents);
     }
 
     public String getAccountNumber() {
@@ -28,7 +29,11 @@ public abstract class Account {
     }
 
     public double getBalance() {
-        return balance;
+        return Money.toDouble(balanceCents);
+    }
+
+    public long getBalanceCents() {
+        return balanceCents;
     }
 
     public double getInterestRate() {
@@ -40,9 +45,10 @@ public abstract class Account {
             System.out.println("Deposit amount must be positive!");
             return;
         }
-        balance += amount;
-        addTransaction("Deposit", amount);
-        System.out.printf("Deposited $%.2f successfully. New balance: $%.2f%n", amount, balance);
+        long cents = Money.fromDouble(amount);
+        balanceCents = Money.add(balanceCents, cents);
+        addTransaction("Deposit", cents);
+        System.out.printf("Deposited $%.2f successfully. New balance: $%.2f%n", Money.toDouble(cents), getBalance());
     }
 
     public boolean withdraw(double amount) {
@@ -50,24 +56,35 @@ public abstract class Account {
             System.out.println("Withdrawal amount must be positive!");
             return false;
         }
-        if (canWithdraw(amount)) {
-            balance -= amount;
-            addTransaction("Withdrawal", amount);
-            System.out.printf("Withdrew $%.2f successfully. New balance: $%.2f%n", amount, balance);
+        long cents = Money.fromDouble(amount);
+        if (canWithdraw(cents)) {
+            balanceCents = Money.subtract(balanceCents, cents);
+            addTransaction("Withdrawal", cents);
+            System.out.printf("Withdrew $%.2f successfully. New balance: $%.2f%n", Money.toDouble(cents), getBalance());
             return true;
         }
         System.out.println("Insufficient funds!");
         return false;
     }
 
-    protected abstract boolean canWithdraw(double amount);
+    protected abstract boolean canWithdraw(long amountCents);
 
     public abstract void calculateInterest();
 
     public abstract String getAccountType();
 
-    protected void addTransaction(String type, double amount) {
-        transactionHistory.add(new Transaction(type, amount, balance));
+    protected void addTransaction(String type, long amountCents) {
+        transactionHistory.add(new Transaction(type, amountCents, balanceCents));
+    }
+
+    /**
+     * Credit one month of interest on the current balance, rounded half-up to cents
+     */
+    protected void creditMonthlyInterest() {
+        long interest = Money.applyRate(balanceCents, Money.basisPoints(interestRate), 12, RoundingMode.HALF_UP);
+        balanceCents = Money.add(balanceCents, interest);
+        addTransaction("Interest Credit", interest);
+        System.out.printf("Interest of $%.2f credited. New balance: $%.2f%n", Money.toDouble(interest), getBalance());
     }
 
     public void displayTransactionHistory() {
@@ -86,7 +103,7 @@ public abstract class Account {
         System.out.println("Account Number: " + accountNumber);
         System.out.println("Account Holder: " + accountHolder);
         System.out.println("Account Type: " + getAccountType());
-        System.out.printf("Current Balance: $%.2f%n", balance);
+        System.out.printf("Current Balance: $%.2f%n", getBalance());
         System.out.printf("Interest Rate: %.2f%%%n", interestRate * 100);
     }
 }
\ No newline at end of file
@@ -2,26 +2,23 @@ package model;
 
 // CheckingAccount.java
 public class CheckingAccount extends Account {
-    private double overdraftLimit;
+    private long overdraftLimitCents;
 
     public CheckingAccount(String accountNumber, String accountHolder, double initialDeposit) {
         super(accountNumber, accountHolder, initialDeposit);
         this.interestRate = 0.01; // 1% annual interest
-        this.overdraftLimit = 500.0;
+        this.overdraftLimitCents = 50_000L;
     }
 
     @Override
-    protected boolean canWithdraw(double amount) {
-        return (balance - amount) >= -overdraftLimit;
+    protected boolean canWithdraw(long amountCents) {
+        return (balanceCents - amountCents) >= -overdraftLimitCents;
     }
 
     @Override
     public void calculateInterest() {
-        if (balance > 0) {
-            double interest = balance * interestRate / 12; // Monthly interest
-            balance += interest;
-            addTransaction("Interest Credit", interest);
-            System.out.printf("Interest of $%.2f credited. New balance: $%.2f%n", interest, balance);
+        if (balanceCents > 0) {
+            creditMonthlyInterest();
         }
     }
 
@@ -31,10 +28,14 @@ public class CheckingAccount extends Account {
     }
 
     public double getOverdraftLimit() {
-        return overdraftLimit;
+        return Money.toDouble(overdraftLimitCents);
+    }
+
+    public long getOverdraftLimitCents() {
+        return overdraftLimitCents;
     }
 
     public void setOverdraftLimit(double overdraftLimit) {
-        this.overdraftLimit = overdraftLimit;
+        this.overdraftLimitCents = Money.fromDouble(overdraftLimit);
     }
 }
\ No newline at end of file
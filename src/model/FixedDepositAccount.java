@@ -17,22 +17,19 @@ public class FixedDepositAccount extends Account {
     }
 
     @Override
-    protected boolean canWithdraw(double amount) {
+    protected boolean canWithdraw(long amountCents) {
         if (LocalDateTime.now().isBefore(maturityDate)) {
             System.out.println("Cannot withdraw before maturity date!");
             System.out.println("Maturity Date: " +
                     maturityDate.format(DateTimeFormatter.ofPattern("yyyy-MM-dd")));
             return false;
         }
-        return balance >= amount;
+        return balanceCents >= amountCents;
     }
 
     @Override
     public void calculateInterest() {
-        double interest = balance * interestRate / 12; // Monthly interest
-        balance += interest;
-        addTransaction("Interest Credit", interest);
-        System.out.printf("Interest of $%.2f credited. New balance: $%.2f%n", interest, balance);
+        creditMonthlyInterest();
     }
 
     @Override
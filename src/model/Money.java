@@ -0,0 +1,167 @@
+package model;
+
+// Money.java
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Fixed-point money in long minor units (cents)
+ * Amounts are plain longs holding cents, matching the DECIMAL(15,2) columns one
+ * to one, so sums and nets are exact and arithmetic allocates nothing. Doubles
+ * appear only at the edges (user input and display) and are rounded half-up to
+ * the nearest cent once, on the way in. Rate calculations take an explicit
+ * RoundingMode; rates are held in basis points (0.0350 = 350), matching the
+ * DECIMAL(5,4) interest_rate column.
+ *
+ * Overflowing operations throw ArithmeticException rather than wrapping.
+ */
+public final class Money {
+    public static final int SCALE = 2;
+    public static final long CENTS_PER_UNIT = 100L;
+    public static final long BASIS_POINTS_PER_UNIT = 10_000L;
+
+    // A scaled double this close to a whole number of cents is taken as that number
+    private static final double CENT_TOLERANCE = 1e-6;
+    private static final double MAX_EXACT_CENTS = 1L << 52;
+    // Offset mapping [-2^31, 2^31) onto [0, 2^32) for a branch-free range check
+    private static final long SMALL = 1L << 31;
+
+    private Money() {
+    }
+
+    /**
+     * Cents for an amount given as a double, rounded half-up (away from zero)
+     */
+    public static long fromDouble(double amount) {
+        if (Double.isNaN(amount) || Double.isInfinite(amount)) {
+            throw new ArithmeticException("Not a money amount: " + amount);
+        }
+        double scaled = amount * CENTS_PER_UNIT;
+        double whole = Math.rint(scaled);
+        if (Math.abs(scaled - whole) < CENT_TOLERANCE && Math.abs(whole) < MAX_EXACT_CENTS) {
+            return (long) whole;
+        }
+        // Sub-cent input such as 1.005: round the decimal the user typed, not its binary approximation
+        return fromDecimal(BigDecimal.valueOf(amount));
+    }
+
+    /**
+     * Cents for a DECIMAL value read from JDBC, rounded half-up; null reads as zero
+     */
+    public static long fromDecimal(BigDecimal amount) {
+        if (amount == null) {
+            return 0L;
+        }
+        return amount.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    /**
+     * DECIMAL value for binding to a JDBC parameter
+     */
+    public static BigDecimal toDecimal(long cents) {
+        return BigDecimal.valueOf(cents, SCALE);
+    }
+
+    /**
+     * Double view for display and the double-based APIs; exact to the cent below 2^53 cents
+     */
+    public static double toDouble(long cents) {
+        return cents / (double) CENTS_PER_UNIT;
+    }
+
+    public static long add(long a, long b) {
+        return Math.addExact(a, b);
+    }
+
+    public static long subtract(long a, long b) {
+        return Math.subtractExact(a, b);
+    }
+
+    /**
+     * Annual rate as a double (0.035) in basis points (350)
+     */
+    public static int basisPoints(double annualRate) {
+        return Math.toIntExact(Math.round(annualRate * BASIS_POINTS_PER_UNIT));
+    }
+
+    /**
+     * Annual rate in basis points as a DECIMAL(5, 4) value for binding (350 -> 0.0350)
+     */
+    public static BigDecimal rateDecimal(int rateBasisPoints) {
+        return BigDecimal.valueOf(rateBasisPoints, 4);
+    }
+
+    /**
+     * Interest for one period: cents * rate / periodsPerYear, rounded with the given mode.
+     * Computed in integer arithmetic; only products beyond 64 bits fall back to BigDecimal.
+     * @param rateBasisPoints Annual rate in basis points
+     */
+    public static long applyRate(long cents, long rateBasisPoints, int periodsPerYear, RoundingMode mode) {
+        if (periodsPerYear <= 0) {
+            throw new IllegalArgumentException("Periods per year must be positive");
+        }
+        long divisor = BASIS_POINTS_PER_UNIT * periodsPerYear;
+        // Both factors below 2^31 (balances up to $21M, any sane rate): the product fits
+        if (((cents + SMALL) | (rateBasisPoints + SMALL)) >>> 32 == 0) {
+            return divide(cents * rateBasisPoints, divisor, mode);
+        }
+        long high = Math.multiplyHigh(cents, rateBasisPoints);
+        long product = cents * rateBasisPoints;
+        if ((high == 0 && product >= 0) || (high == -1 && product < 0)) {
+            return divide(product, divisor, mode);
+        }
+        return BigDecimal.valueOf(cents).multiply(BigDecimal.valueOf(rateBasisPoints))
+                .divide(BigDecimal.valueOf(divisor), 0, mode).longValueExact();
+    }
+
+    /**
+     * dividend / divisor rounded with the given mode, for a positive divisor
+     */
+    public static long divide(long dividend, long divisor, RoundingMode mode) {
+        if (divisor <= 0) {
+            throw new IllegalArgumentException("Divisor must be positive");
+        }
+        long quotient = dividend / divisor;
+        long remainder = dividend % divisor;
+        if (remainder == 0) {
+            return quotient;
+        }
+        long away = dividend < 0 ? quotient - 1 : quotient + 1;
+        // The common case, kept out of the switch
+        if (mode == RoundingMode.HALF_UP) {
+            long rest = Math.abs(remainder);
+            return rest >= divisor - rest ? away : quotient;
+        }
+        switch (mode) {
+            case DOWN:
+                return quotient;
+            case UP:
+                return away;
+            case FLOOR:
+                return dividend < 0 ? away : quotient;
+            case CEILING:
+                return dividend < 0 ? quotient : away;
+            case UNNECESSARY:
+                throw new ArithmeticException("Rounding necessary: " + dividend + " / " + divisor);
+            default:
+                long rest = Math.abs(remainder);
+                int half = Long.compare(rest, divisor - rest);
+                if (half != 0) {
+                    return half > 0 ? away : quotient;
+                }
+                if (mode == RoundingMode.HALF_DOWN) {
+                    return quotient;
+                }
+                return (quotient & 1) == 0 ? quotient : away;
+        }
+    }
+
+    /**
+     * Plain decimal text, e.g. "-12.05"
+     */
+    public static String toString(long cents) {
+        long units = Math.abs(cents / CENTS_PER_UNIT);
+        long fraction = Math.abs(cents % CENTS_PER_UNIT);
+        return (cents < 0 ? "-" : "") + units + (fraction < 10 ? ".0" : ".") + fraction;
+    }
+}
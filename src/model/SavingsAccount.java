@@ -2,7 +2,7 @@ package model;
 
 // SavingsAccount.java
 public class SavingsAccount extends Account {
-    private static final double MIN_BALANCE = 100.0;
+    private static final long MIN_BALANCE_CENTS = 10_000L;
 
     public SavingsAccount(String accountNumber, String accountHolder, double initialDeposit) {
         super(accountNumber, accountHolder, initialDeposit);
@@ -10,16 +10,13 @@ public class SavingsAccount extends Account {
     }
 
     @Override
-    protected boolean canWithdraw(double amount) {
-        return (balance - amount) >= MIN_BALANCE;
+    protected boolean canWithdraw(long amountCents) {
+        return (balanceCents - amountCents) >= MIN_BALANCE_CENTS;
     }
 
     @Override
     public void calculateInterest() {
-        double interest = balance * interestRate / 12; // Monthly interest
-        balance += interest;
-        addTransaction("Interest Credit", interest);
-        System.out.printf("Interest of $%.2f credited. New balance: $%.2f%n", interest, balance);
+        creditMonthlyInterest();
     }
 
     @Override
@@ -28,6 +25,10 @@ public class SavingsAccount extends Account {
     }
 
     public static double getMinimumBalance() {
-        return MIN_BALANCE;
+        return Money.toDouble(MIN_BALANCE_CENTS);
+    }
+
+    public static long getMinimumBalanceCents() {
+        return MIN_BALANCE_CENTS;
     }
 }
\ No newline at end of file
@@ -7,14 +7,14 @@ import java.time.format.DateTimeFormatter;
 
 public class Transaction {
     private String type;
-    private double amount;
+    private long amountCents;
     private LocalDateTime timestamp;
-    private double balanceAfter;
+    private long balanceAfterCents;
 
-    public Transaction(String type, double amount, double balanceAfter) {
+    public Transaction(String type, long amountCents, long balanceAfterCents) {
         this.type = type;
-        this.amount = amount;
-        this.balanceAfter = balanceAfter;
+        this.amountCents = amountCents;
+        this.balanceAfterCents = balanceAfterCents;
         this.timestamp = LocalDateTime.now();
     }
 
@@ -23,7 +23,11 @@ public class Transaction {
     }
 
     public double getAmount() {
-        return amount;
+        return Money.toDouble(amountCents);
+    }
+
+    public long getAmountCents() {
+        return amountCents;
     }
 
     public LocalDateTime getTimestamp() {
@@ -31,13 +35,17 @@ public class Transaction {
     }
 
     public double getBalanceAfter() {
-        return balanceAfter;
+        return Money.toDouble(balanceAfterCents);
+    }
+
+    public long getBalanceAfterCents() {
+        return balanceAfterCents;
     }
 
     @Override
     public String toString() {
         DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
         return String.format("[%s] %s: $%.2f | Balance: $%.2f",
-                timestamp.format(formatter), type, amount, balanceAfter);
+                timestamp.format(formatter), type, getAmount(), getBalanceAfter());
     }
 }
\ No newline at end of file
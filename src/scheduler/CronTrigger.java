@@ -0,0 +1,131 @@
+package scheduler;
+
+// CronTrigger.java
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.BitSet;
+
+/**
+ * Cron-style trigger with five fields: minute hour day-of-month month day-of-week
+ *
+ * Each field accepts *, a value, a range (1-5), a list (1,15) and a step
+ * (*&#47;15, 0-30/10). Day-of-week runs from 0 (Sunday) to 6; 7 is also Sunday.
+ * As in cron, when both day fields are restricted a day matches either one.
+ *
+ * Examples: "0 2 1 * *" (02:00 on the 1st of every month),
+ * "30 * * * 1-5" (half past every hour on weekdays).
+ */
+public class CronTrigger implements Trigger {
+    private static final int MAX_DAYS_AHEAD = 366 * 5;
+
+    private final String expression;
+    private final BitSet minutes;
+    private final BitSet hours;
+    private final BitSet daysOfMonth;
+    private final BitSet months;
+    private final BitSet daysOfWeek;
+    private final boolean anyDayOfMonth;
+    private final boolean anyDayOfWeek;
+
+    public CronTrigger(String expression) {
+        String[] fields = expression.trim().split("\\s+");
+        if (fields.length != 5) {
+            throw new IllegalArgumentException("Cron expression needs 5 fields: " + expression);
+        }
+        this.expression = expression.trim();
+        this.minutes = parseField(fields[0], 0, 59);
+        this.hours = parseField(fields[1], 0, 23);
+        this.daysOfMonth = parseField(fields[2], 1, 31);
+        this.months = parseField(fields[3], 1, 12);
+        this.daysOfWeek = parseField(fields[4], 0, 7);
+        if (daysOfWeek.get(7)) {
+            daysOfWeek.set(0);
+        }
+        this.anyDayOfMonth = fields[2].equals("*");
+        this.anyDayOfWeek = fields[4].equals("*");
+    }
+
+    @Override
+    public LocalDateTime nextFireTime(LocalDateTime lastFireTime) {
+        LocalDateTime after = lastFireTime.withSecond(0).withNano(0).plusMinutes(1);
+        LocalDate day = after.toLocalDate();
+
+        for (int i = 0; i <= MAX_DAYS_AHEAD; i++, day = day.plusDays(1)) {
+            if (!matchesDay(day)) {
+                continue;
+            }
+            int fromHour = i == 0 ? after.getHour() : 0;
+            for (int hour = hours.nextSetBit(fromHour); hour >= 0; hour = hours.nextSetBit(hour + 1)) {
+                int fromMinute = i == 0 && hour == after.getHour() ? after.getMinute() : 0;
+                int minute = minutes.nextSetBit(fromMinute);
+                if (minute >= 0) {
+                    return day.atTime(hour, minute);
+                }
+            }
+        }
+        return null;
+    }
+
+    private boolean matchesDay(LocalDate day) {
+        if (!months.get(day.getMonthValue())) {
+            return false;
+        }
+        boolean dayOfMonth = daysOfMonth.get(day.getDayOfMonth());
+        boolean dayOfWeek = daysOfWeek.get(day.getDayOfWeek().getValue() % 7);
+        if (anyDayOfMonth || anyDayOfWeek) {
+            return dayOfMonth && dayOfWeek;
+        }
+        return dayOfMonth || dayOfWeek;
+    }
+
+    private static BitSet parseField(String field, int min, int max) {
+        BitSet values = new BitSet(max + 1);
+        for (String part : field.split(",")) {
+            int step = 1;
+            String range = part;
+            int slash = part.indexOf('/');
+            if (slash >= 0) {
+                step = parseValue(part.substring(slash + 1), 1, max, field);
+                range = part.substring(0, slash);
+            }
+
+            int from;
+            int to;
+            if (range.equals("*")) {
+                from = min;
+                to = max;
+            } else if (range.contains("-")) {
+                String[] bounds = range.split("-", 2);
+                from = parseValue(bounds[0], min, max, field);
+                to = parseValue(bounds[1], min, max, field);
+            } else {
+                from = parseValue(range, min, max, field);
+                to = slash >= 0 ? max : from;
+            }
+            if (from > to) {
+                throw new IllegalArgumentException("Invalid cron range: " + field);
+            }
+            for (int value = from; value <= to; value += step) {
+                values.set(value);
+            }
+        }
+        return values;
+    }
+
+    private static int parseValue(String value, int min, int max, String field) {
+        try {
+            int parsed = Integer.parseInt(value);
+            if (parsed < min || parsed > max) {
+                throw new IllegalArgumentException("Cron value out of range " + min + "-" + max + ": " + field);
+            }
+            return parsed;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cron field: " + field);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "cron \"" + expression + "\"";
+    }
+}
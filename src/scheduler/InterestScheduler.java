@@ -1,37 +1,50 @@
 package scheduler;
 
 // InterestScheduler.java
+import cache.BalanceStore;
 import dto.AccountDTO;
 import service.BankService;
+import service.InterestPostingEngine;
+import service.PartitionedInterestRunner;
 
 import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
-import java.util.Timer;
-import java.util.TimerTask;
-import java.util.List;
 
 /**
  * Automated Interest Calculation Scheduler
  * Calculates and applies interest to savings accounts based on time periods
  */
 public class InterestScheduler {
-    private Timer timer;
+    private SchedulerRuntime runtime;
+    private SchedulerRuntime.ScheduledJob job;
     private BankService bankService;
     private boolean isRunning;
 
     // Interest calculation modes
     public enum CalculationMode {
-        DAILY,
-        MONTHLY,
-        QUARTERLY,
-        YEARLY
+        DAILY(365),
+        MONTHLY(12),
+        QUARTERLY(4),
+        YEARLY(1);
+
+        private final int periodsPerYear;
+
+        CalculationMode(int periodsPerYear) {
+            this.periodsPerYear = periodsPerYear;
+        }
+
+        public int getPeriodsPerYear() {
+            return periodsPerYear;
+        }
     }
 
     private CalculationMode calculationMode;
+    private int chunkSize = InterestPostingEngine.DEFAULT_CHUNK_SIZE;
+    private int parallelism = 1;
 
     public InterestScheduler(BankService bankService) {
         this.bankService = bankService;
-        this.timer = new Timer("InterestSchedulerThread", true);
+        this.runtime = SchedulerRuntime.getInstance();
         this.isRunning = false;
         this.calculationMode = CalculationMode.MONTHLY; // Default to monthly
     }
@@ -42,21 +55,20 @@ public class InterestScheduler {
      * @param periodMillis Period between executions
      */
     public void start(long delayMillis, long periodMillis) {
+        start(Trigger.fixedRate(delayMillis, periodMillis));
+    }
+
+    /**
+     * Start the interest calculation scheduler on a custom schedule,
+     * e.g. Trigger.cron("0 2 1 * *") for 02:00 on the first of every month
+     */
+    public void start(Trigger trigger) {
         if (isRunning) {
             System.out.println("⚠ Interest scheduler is already running");
             return;
         }
 
-        timer.scheduleAtFixedRate(new TimerTask() {
-            @Override
-            public void run() {
-                try {
-                    calculateAndApplyInterest();
-                } catch (Exception e) {
-                    System.err.println("✗ Error in interest calculation: " + e.getMessage());
-                }
-            }
-        }, delayMillis, periodMillis);
+        job = runtime.schedule("interest", trigger, this::calculateAndApplyInterest);
 
         isRunning = true;
         System.out.println("✓ Interest scheduler started (Mode: " + calculationMode + ")");
@@ -73,10 +85,12 @@ public class InterestScheduler {
 
     /**
      * Stop the interest calculation scheduler
+     * A run in progress finishes; no new runs start.
      */
     public void stop() {
-        if (timer != null) {
-            timer.cancel();
+        if (job != null) {
+            job.cancel();
+            job = null;
             isRunning = false;
             System.out.println("✓ Interest scheduler stopped");
         }
@@ -89,6 +103,23 @@ public class InterestScheduler {
         this.calculationMode = mode;
     }
 
+    /**
+     * Set number of accounts posted per batch transaction
+     */
+    public void setChunkSize(int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Set number of account_id partitions posted concurrently (1 = single-threaded)
+     */
+    public void setParallelism(int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Parallelism must be positive");
+        }
+        this.parallelism = parallelism;
+    }
+
     /**
      * Calculate and apply interest to all eligible accounts
      */
@@ -99,62 +130,36 @@ public class InterestScheduler {
         System.out.println("Time: " + LocalDate.now());
         System.out.println("Mode: " + calculationMode);
 
-        List<AccountDTO> accounts = bankService.getAllAccounts();
-        int accountsProcessed = 0;
-        double totalInterestPaid = 0.0;
-
-        for (AccountDTO account : accounts) {
-            if (!"ACTIVE".equals(account.getStatus())) {
-                continue; // Skip inactive accounts
-            }
-
-            double interest = calculateInterest(account);
-
-            if (interest > 0) {
-                boolean applied = bankService.applyInterest(account.getAccountNumber());
-                if (applied) {
-                    accountsProcessed++;
-                    totalInterestPaid += interest;
-                }
-            }
+        String periodKey = InterestPostingEngine.periodKey(calculationMode.name(), LocalDate.now());
+        InterestPostingEngine engine = new InterestPostingEngine(
+                calculationMode.name(), calculationMode.getPeriodsPerYear(), periodKey, chunkSize);
+        BalanceStore store = BalanceStore.getInstance();
+        if (store.isLoaded()) {
+            InterestPostingEngine.Forecast forecast = engine.forecast(store);
+            System.out.printf("Forecast: $%.2f to %d accounts%n", forecast.getTotalInterest(), forecast.getAccounts());
         }
+        int partitionCount = parallelism == 1 ? 1 : parallelism * 4;
+        PartitionedInterestRunner runner = new PartitionedInterestRunner(engine, parallelism, partitionCount);
 
-        System.out.println("\n=== Interest Calculation Summary ===");
-        System.out.println("Accounts Processed: " + accountsProcessed);
-        System.out.printf("Total Interest Paid: $%.2f%n", totalInterestPaid);
-        System.out.println("═══════════════════════════════════════\n");
-    }
+        // Resumes from the stored checkpoints if this period was interrupted earlier
+        long start = System.currentTimeMillis();
+        boolean complete = runner.run();
+        long elapsed = Math.max(1, System.currentTimeMillis() - start);
 
-    /**
-     * Calculate interest based on account type and calculation mode
-     */
-    private double calculateInterest(AccountDTO account) {
-        double balance = account.getBalance();
-        double annualRate = account.getInterestRate();
-
-        // Don't calculate interest on zero or negative balances
-        if (balance <= 0) {
-            return 0.0;
+        if (parallelism > 1) {
+            runner.displayProgress();
         }
 
-        double interest = 0.0;
-
-        switch (calculationMode) {
-            case DAILY:
-                interest = balance * annualRate / 365;
-                break;
-            case MONTHLY:
-                interest = balance * annualRate / 12;
-                break;
-            case QUARTERLY:
-                interest = balance * annualRate / 4;
-                break;
-            case YEARLY:
-                interest = balance * annualRate;
-                break;
+        System.out.println("\n=== Interest Calculation Summary ===");
+        System.out.println("Period: " + periodKey);
+        System.out.println("Accounts Processed: " + runner.getAccountsCredited());
+        System.out.printf("Total Interest Paid: $%.2f%n", runner.getTotalInterest());
+        System.out.printf("Throughput: %.0f accounts/sec (%d ms, %d threads)%n",
+                runner.getAccountsCredited() * 1000.0 / elapsed, elapsed, parallelism);
+        if (!complete) {
+            System.err.println("✗ Interest run incomplete; it will resume from its checkpoints on the next run");
         }
-
-        return interest;
+        System.out.println("═══════════════════════════════════════\n");
     }
 
     /**
@@ -223,6 +228,13 @@ public class InterestScheduler {
         return projection.toString();
     }
 
+    /**
+     * Get run statistics of the scheduled job, or null if not started
+     */
+    public SchedulerRuntime.ScheduledJob getJob() {
+        return job;
+    }
+
     /**
      * Check if scheduler is running
      */
@@ -0,0 +1,282 @@
+package scheduler;
+
+// SchedulerRuntime.java
+import config.DatabaseConfig;
+import metrics.LatencyHistogram;
+import metrics.MetricsRegistry;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Shared runtime for scheduled jobs
+ * One trigger thread only decides when jobs fire; the jobs themselves run on a
+ * worker pool, so a slow or failing job does not delay the others. Each job has
+ * a bound on concurrent runs (1 by default): a firing that would exceed it is
+ * skipped rather than queued, so runs of a job never pile up behind each other.
+ * Shutdown stops the triggers and waits for runs in flight to finish.
+ */
+public class SchedulerRuntime {
+    private static volatile SchedulerRuntime instance;
+
+    private final ScheduledExecutorService triggers;
+    private final ExecutorService workers;
+    private final Map<String, ScheduledJob> jobs = new ConcurrentHashMap<>();
+    private volatile boolean shutdown;
+
+    /**
+     * @param workerThreads Jobs that may run at the same time across the runtime
+     */
+    public SchedulerRuntime(int workerThreads) {
+        if (workerThreads <= 0) {
+            throw new IllegalArgumentException("Worker threads must be positive");
+        }
+        this.triggers = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "SchedulerTrigger");
+            thread.setDaemon(true);
+            return thread;
+        });
+        AtomicInteger workerCount = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(workerThreads, r -> {
+            Thread thread = new Thread(r, "SchedulerWorker-" + workerCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Get the shared runtime, sized by db.scheduler.threads
+     */
+    public static SchedulerRuntime getInstance() {
+        if (instance == null) {
+            synchronized (SchedulerRuntime.class) {
+                if (instance == null) {
+                    instance = new SchedulerRuntime(DatabaseConfig.getSchedulerThreads());
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Schedule a job that never runs concurrently with itself
+     */
+    public ScheduledJob schedule(String name, Trigger trigger, Runnable task) {
+        return schedule(name, trigger, 1, task);
+    }
+
+    /**
+     * Schedule a job
+     * @param name Unique job name, used in logs and statistics
+     * @param maxConcurrentRuns Runs of this job allowed in flight at once; further firings are skipped
+     */
+    public ScheduledJob schedule(String name, Trigger trigger, int maxConcurrentRuns, Runnable task) {
+        if (shutdown) {
+            throw new IllegalStateException("Scheduler runtime is shut down");
+        }
+        if (maxConcurrentRuns <= 0) {
+            throw new IllegalArgumentException("Max concurrent runs must be positive");
+        }
+        ScheduledJob job = new ScheduledJob(name, trigger, maxConcurrentRuns, task);
+        ScheduledJob existing = jobs.putIfAbsent(name, job);
+        if (existing != null && !existing.isCancelled()) {
+            throw new IllegalStateException("Job already scheduled: " + name);
+        }
+        jobs.put(name, job);
+        job.arm(trigger.firstFireTime(LocalDateTime.now()));
+        return job;
+    }
+
+    public ScheduledJob getJob(String name) {
+        return jobs.get(name);
+    }
+
+    public List<ScheduledJob> getJobs() {
+        return new ArrayList<>(jobs.values());
+    }
+
+    /**
+     * Stop all triggers and wait for runs in flight to finish
+     * @return true if every run finished within the timeout
+     */
+    public boolean shutdown(long timeoutMillis) {
+        shutdown = true;
+        for (ScheduledJob job : jobs.values()) {
+            job.cancel();
+        }
+        triggers.shutdownNow();
+        workers.shutdown();
+        try {
+            if (workers.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                System.out.println("✓ Scheduler runtime stopped");
+                return true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        workers.shutdownNow();
+        System.err.println("✗ Scheduler runtime stopped with runs still in flight");
+        return false;
+    }
+
+    public boolean isShutdown() {
+        return shutdown;
+    }
+
+    /**
+     * Display per-job run statistics
+     */
+    public void displayStats() {
+        System.out.println("\n=== Scheduled Jobs ===");
+        if (jobs.isEmpty()) {
+            System.out.println("No jobs scheduled.");
+        }
+        for (ScheduledJob job : jobs.values()) {
+            System.out.println(job);
+        }
+    }
+
+    /**
+     * A job registered with the runtime, with its run statistics
+     */
+    public class ScheduledJob {
+        private final String name;
+        private final Trigger trigger;
+        private final Runnable task;
+        private final Semaphore permits;
+        private volatile ScheduledFuture<?> nextFiring;
+        private volatile LocalDateTime nextFireTime;
+        private volatile boolean cancelled;
+
+        // Statistics
+        private final AtomicLong runs = new AtomicLong();
+        private final AtomicLong failures = new AtomicLong();
+        private final AtomicLong skipped = new AtomicLong();
+        private final AtomicLong totalNanos = new AtomicLong();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private volatile long lastNanos;
+        private volatile LocalDateTime lastStart;
+        private volatile Throwable lastFailure;
+
+        // Registry metrics, shared by every job scheduled under the same name
+        private final LatencyHistogram runLatency;
+        private final LongAdder failureTotal;
+        private final LongAdder skippedTotal;
+
+        ScheduledJob(String name, Trigger trigger, int maxConcurrentRuns, Runnable task) {
+            this.name = name;
+            this.trigger = trigger;
+            this.task = task;
+            this.permits = new Semaphore(maxConcurrentRuns);
+
+            MetricsRegistry metrics = MetricsRegistry.getInstance();
+            this.runLatency = metrics.histogram("bank_scheduler_run_seconds", "Scheduled job run time", "job", name);
+            this.failureTotal = metrics.counter("bank_scheduler_failures_total", "Scheduled job runs that failed",
+                    "job", name);
+            this.skippedTotal = metrics.counter("bank_scheduler_skipped_total",
+                    "Firings skipped because the previous run was still in progress", "job", name);
+        }
+
+        private synchronized void arm(LocalDateTime fireTime) {
+            nextFireTime = fireTime;
+            if (cancelled || fireTime == null || shutdown) {
+                return;
+            }
+            long delay = Math.max(0, Duration.between(LocalDateTime.now(), fireTime).toMillis());
+            try {
+                nextFiring = triggers.schedule(() -> fire(fireTime), delay, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                // Runtime is shutting down
+            }
+        }
+
+        private void fire(LocalDateTime fireTime) {
+            if (cancelled) {
+                return;
+            }
+            if (permits.tryAcquire()) {
+                try {
+                    workers.execute(this::run);
+                } catch (RejectedExecutionException e) {
+                    permits.release();
+                }
+            } else {
+                skipped.incrementAndGet();
+                skippedTotal.increment();
+                System.out.println("⚠ Skipping " + name + ": previous run still in progress");
+            }
+            arm(trigger.nextFireTime(fireTime));
+        }
+
+        private void run() {
+            long start = System.nanoTime();
+            lastStart = LocalDateTime.now();
+            try {
+                task.run();
+            } catch (Throwable t) {
+                failures.incrementAndGet();
+                failureTotal.increment();
+                lastFailure = t;
+                System.err.println("✗ Scheduled job " + name + " failed: " + t.getMessage());
+            } finally {
+                long elapsed = System.nanoTime() - start;
+                lastNanos = elapsed;
+                totalNanos.addAndGet(elapsed);
+                maxNanos.accumulateAndGet(elapsed, Math::max);
+                runLatency.record(elapsed);
+                runs.incrementAndGet();
+                permits.release();
+            }
+        }
+
+        /**
+         * Stop future firings; a run in flight is allowed to finish
+         */
+        public synchronized void cancel() {
+            cancelled = true;
+            if (nextFiring != null) {
+                nextFiring.cancel(false);
+            }
+        }
+
+        public String getName() { return name; }
+        public Trigger getTrigger() { return trigger; }
+        public boolean isCancelled() { return cancelled; }
+        public LocalDateTime getNextFireTime() { return cancelled ? null : nextFireTime; }
+        public LocalDateTime getLastStart() { return lastStart; }
+        public long getRunCount() { return runs.get(); }
+        public long getFailureCount() { return failures.get(); }
+        public long getSkippedCount() { return skipped.get(); }
+        public long getLastRunMillis() { return lastNanos / 1_000_000; }
+        public long getMaxRunMillis() { return maxNanos.get() / 1_000_000; }
+        public Throwable getLastFailure() { return lastFailure; }
+
+        public long getAverageRunMillis() {
+            long count = runs.get();
+            return count == 0 ? 0 : totalNanos.get() / count / 1_000_000;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s (%s) | Runs: %d, failed %d, skipped %d | Last: %d ms, avg %d ms, max %d ms | " +
+                            "Next: %s",
+                    name, trigger, getRunCount(), getFailureCount(), getSkippedCount(), getLastRunMillis(),
+                    getAverageRunMillis(), getMaxRunMillis(),
+                    getNextFireTime() == null ? "-" : getNextFireTime().withNano(0));
+        }
+    }
+}
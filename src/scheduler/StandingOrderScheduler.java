@@ -1,21 +1,19 @@
 package scheduler;
 
 // StandingOrderScheduler.java
+import config.DatabaseConfig;
 import dao.StandingOrderDAO;
 import dto.AccountDTO;
 import dto.StandingOrderDTO;
 import service.BankService;
+import service.StandingOrderBatchProcessor;
 
 import java.time.LocalDate;
 import java.util.List;
-import java.util.Timer;
-import java.util.TimerTask;
 
 // StandingOrderScheduler.java
 import java.time.LocalDate;
 import java.util.List;
-import java.util.Timer;
-import java.util.TimerTask;
 
 // Import the standalone DTO classes
 // Make sure these files are in the correct package/directory
@@ -25,15 +23,17 @@ import java.util.TimerTask;
  * Executes scheduled payments automatically
  */
 public class StandingOrderScheduler {
-    private Timer timer;
+    private SchedulerRuntime runtime;
+    private SchedulerRuntime.ScheduledJob job;
     private StandingOrderDAO standingOrderDAO;
     private BankService bankService;
+    private StandingOrderBatchProcessor batchProcessor;
     private boolean isRunning;
 
     public StandingOrderScheduler(StandingOrderDAO standingOrderDAO, BankService bankService) {
         this.standingOrderDAO = standingOrderDAO;
         this.bankService = bankService;
-        this.timer = new Timer("StandingOrderSchedulerThread", true);
+        this.runtime = SchedulerRuntime.getInstance();
         this.isRunning = false;
     }
 
@@ -42,25 +42,29 @@ public class StandingOrderScheduler {
      * Checks every hour for due payments
      */
     public void start() {
+        // Check every hour (in production)
+        // For testing, check every minute: 60 * 1000
+        long checkIntervalMillis = 60 * 60 * 1000; // 1 hour
+
+        start(Trigger.fixedRate(0, checkIntervalMillis));
+    }
+
+    /**
+     * Start the standing order scheduler on a custom schedule, e.g. Trigger.cron("0 6 * * *")
+     */
+    public void start(Trigger trigger) {
         if (isRunning) {
             System.out.println("⚠ Standing order scheduler is already running");
             return;
         }
 
-        // Check every hour (in production)
-        // For testing, check every minute: 60 * 1000
-        long checkIntervalMillis = 60 * 60 * 1000; // 1 hour
-
-        timer.scheduleAtFixedRate(new TimerTask() {
-            @Override
-            public void run() {
-                try {
-                    processStandingOrders();
-                } catch (Exception e) {
-                    System.err.println("✗ Error processing standing orders: " + e.getMessage());
-                }
+        job = runtime.schedule("standing-orders", trigger, () -> {
+            if (batchProcessor != null) {
+                processStandingOrdersBatched();
+            } else {
+                processStandingOrders();
             }
-        }, 0, checkIntervalMillis);
+        });
 
         isRunning = true;
         System.out.println("✓ Standing order scheduler started");
@@ -68,120 +72,101 @@ public class StandingOrderScheduler {
 
     /**
      * Stop the scheduler
+     * A run in progress finishes; no new runs start.
      */
     public void stop() {
-        if (timer != null) {
-            timer.cancel();
+        if (job != null) {
+            job.cancel();
+            job = null;
             isRunning = false;
             System.out.println("✓ Standing order scheduler stopped");
         }
     }
 
     /**
-     * Process all due standing orders
+     * Process all due standing orders, one order per transaction.
+     * Each order is claimed with a lease, so schedulers on other nodes skip it, and
+     * then executed by {@link StandingOrderBatchProcessor}: the claim is checked, the
+     * payment posted, the occurrence recorded in standing_order_executions and the
+     * order advanced in the same transaction.
      */
-    public void processStandingOrders() {
+    public StandingOrderBatchProcessor.RunResult processStandingOrders() {
         System.out.println("\n╔════════════════════════════════════════╗");
         System.out.println("║  Processing Standing Orders            ║");
         System.out.println("╚════════════════════════════════════════╝");
         System.out.println("Time: " + LocalDate.now());
 
-        // Get all due standing orders
-        List<StandingOrderDTO> dueOrders = standingOrderDAO.getDueStandingOrders();
-
-        if (dueOrders.isEmpty()) {
+        StandingOrderBatchProcessor.RunResult result = new StandingOrderBatchProcessor(1).process(LocalDate.now());
+        if (result.getOrdersScanned() == 0 && result.isSuccessful()) {
             System.out.println("No standing orders due for processing.");
-            return;
-        }
-
-        System.out.println("Found " + dueOrders.size() + " standing order(s) to process\n");
-
-        int successCount = 0;
-        int failCount = 0;
-
-        for (StandingOrderDTO order : dueOrders) {
-            if (processStandingOrder(order)) {
-                successCount++;
-            } else {
-                failCount++;
-            }
+            return result;
         }
 
         // Complete expired orders
         int completedCount = standingOrderDAO.completeExpiredStandingOrders();
 
         System.out.println("\n=== Standing Order Processing Summary ===");
-        System.out.println("Successfully Processed: " + successCount);
-        System.out.println("Failed: " + failCount);
+        System.out.println(result);
         System.out.println("Completed (Expired): " + completedCount);
         System.out.println("═══════════════════════════════════════\n");
+        return result;
     }
 
     /**
-     * Process a single standing order
+     * Use batched execution for scheduled runs
+     * @param chunkSize Orders per transaction, or 0 to switch back to one order per transaction
      */
-    private boolean processStandingOrder(StandingOrderDTO order) {
-        System.out.println("\nProcessing: " + order);
-
-        try {
-            // Execute the transfer
-            boolean success = bankService.transfer(
-                    order.getFromAccountNumber(),
-                    order.getToAccountNumber(),
-                    order.getAmount()
-            );
-
-            if (success) {
-                // Calculate next execution date
-                LocalDate nextDate = calculateNextExecutionDate(
-                        order.getNextExecutionDate(),
-                        order.getFrequency()
-                );
-
-                // Check if next date exceeds end date
-                if (order.getEndDate() != null && nextDate.isAfter(order.getEndDate())) {
-                    // Complete the standing order
-                    standingOrderDAO.cancelStandingOrder(order.getStandingOrderId());
-                    System.out.println("✓ Standing order completed (end date reached)");
-                } else {
-                    // Update next execution date
-                    standingOrderDAO.updateNextExecutionDate(
-                            order.getStandingOrderId(),
-                            nextDate
-                    );
-                    System.out.println("✓ Standing order processed. Next execution: " + nextDate);
-                }
+    public void setBatchMode(int chunkSize) {
+        this.batchProcessor = chunkSize > 0 ? new StandingOrderBatchProcessor(chunkSize) : null;
+    }
 
-                return true;
-            } else {
-                System.err.println("✗ Failed to execute standing order payment");
-                return false;
-            }
+    /**
+     * Process all due standing orders in chunks, see {@link StandingOrderBatchProcessor}
+     */
+    public StandingOrderBatchProcessor.RunResult processStandingOrdersBatched() {
+        System.out.println("\n╔════════════════════════════════════════╗");
+        System.out.println("║  Processing Standing Orders (Batched)  ║");
+        System.out.println("╚════════════════════════════════════════╝");
+        System.out.println("Time: " + LocalDate.now());
 
-        } catch (Exception e) {
-            System.err.println("✗ Error processing standing order: " + e.getMessage());
-            return false;
-        }
+        StandingOrderBatchProcessor processor = batchProcessor != null
+                ? batchProcessor : new StandingOrderBatchProcessor();
+        StandingOrderBatchProcessor.RunResult result = processor.process(LocalDate.now());
+
+        // Complete expired orders
+        int completedCount = standingOrderDAO.completeExpiredStandingOrders();
+
+        System.out.println("\n=== Standing Order Processing Summary ===");
+        System.out.println(result);
+        System.out.println("Completed (Expired): " + completedCount);
+        System.out.println("═══════════════════════════════════════\n");
+        return result;
     }
 
     /**
-     * Calculate next execution date based on frequency
+     * Pay every occurrence missed while the scheduler was down, up to today and
+     * each order's end date, in one batched pass limited to db.scheduler.catchUpRate
+     * payments per second
      */
-    private LocalDate calculateNextExecutionDate(LocalDate currentDate, String frequency) {
-        switch (frequency.toUpperCase()) {
-            case "DAILY":
-                return currentDate.plusDays(1);
-            case "WEEKLY":
-                return currentDate.plusWeeks(1);
-            case "MONTHLY":
-                return currentDate.plusMonths(1);
-            case "QUARTERLY":
-                return currentDate.plusMonths(3);
-            case "YEARLY":
-                return currentDate.plusYears(1);
-            default:
-                return currentDate.plusMonths(1); // Default to monthly
-        }
+    public StandingOrderBatchProcessor.RunResult catchUpStandingOrders() {
+        System.out.println("\n╔════════════════════════════════════════╗");
+        System.out.println("║  Catching Up Standing Orders           ║");
+        System.out.println("╚════════════════════════════════════════╝");
+        System.out.println("Time: " + LocalDate.now());
+
+        StandingOrderBatchProcessor processor = new StandingOrderBatchProcessor(
+                batchProcessor != null ? batchProcessor.getChunkSize() : StandingOrderBatchProcessor.DEFAULT_CHUNK_SIZE);
+        processor.setCatchUp(DatabaseConfig.getCatchUpMaxOccurrences(), DatabaseConfig.getCatchUpRate());
+        StandingOrderBatchProcessor.RunResult result = processor.process(LocalDate.now());
+
+        // Complete expired orders
+        int completedCount = standingOrderDAO.completeExpiredStandingOrders();
+
+        System.out.println("\n=== Standing Order Catch-Up Summary ===");
+        System.out.println(result);
+        System.out.println("Completed (Expired): " + completedCount);
+        System.out.println("═══════════════════════════════════════\n");
+        return result;
     }
 
     /**
@@ -275,6 +260,13 @@ public class StandingOrderScheduler {
         }
     }
 
+    /**
+     * Get run statistics of the scheduled job, or null if not started
+     */
+    public SchedulerRuntime.ScheduledJob getJob() {
+        return job;
+    }
+
     /**
      * Check if scheduler is running
      */
@@ -0,0 +1,72 @@
+package scheduler;
+
+// StripeConsolidationScheduler.java
+import config.DatabaseConnection;
+import dao.BalanceStripeDAO;
+
+import java.sql.SQLException;
+
+/**
+ * Periodically folds the balance stripes of hot accounts back into accounts.balance
+ * Keeps the stripe rows small and the stored account balance close to the total.
+ */
+public class StripeConsolidationScheduler {
+    private SchedulerRuntime.ScheduledJob job;
+    private BalanceStripeDAO stripeDAO;
+    private boolean isRunning;
+
+    public StripeConsolidationScheduler() {
+        this.stripeDAO = new BalanceStripeDAO();
+        this.isRunning = false;
+    }
+
+    /**
+     * Start consolidating every periodMillis
+     */
+    public void start(long periodMillis) {
+        if (isRunning) {
+            System.out.println("⚠ Stripe consolidation scheduler is already running");
+            return;
+        }
+
+        job = SchedulerRuntime.getInstance().schedule("stripe-consolidation",
+                Trigger.fixedRate(periodMillis, periodMillis), this::consolidateAll);
+
+        isRunning = true;
+        System.out.println("✓ Stripe consolidation scheduler started");
+    }
+
+    /**
+     * Stop the scheduler
+     */
+    public void stop() {
+        if (job != null) {
+            job.cancel();
+            job = null;
+            isRunning = false;
+            System.out.println("✓ Stripe consolidation scheduler stopped");
+        }
+    }
+
+    /**
+     * Consolidate every striped account, one short transaction each
+     * @return number of accounts consolidated
+     */
+    public int consolidateAll() {
+        DatabaseConnection dbConn = DatabaseConnection.getInstance();
+        int consolidated = 0;
+
+        for (int accountId : stripeDAO.getStripedAccountIds()) {
+            try {
+                dbConn.beginTransaction();
+                stripeDAO.consolidate(accountId);
+                dbConn.commit();
+                consolidated++;
+            } catch (SQLException e) {
+                dbConn.rollback();
+                System.err.println("✗ Error consolidating account " + accountId + ": " + e.getMessage());
+            }
+        }
+        return consolidated;
+    }
+}
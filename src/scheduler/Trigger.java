@@ -0,0 +1,66 @@
+package scheduler;
+
+// Trigger.java
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * When a scheduled job fires
+ * Times are local to the JVM's default time zone.
+ */
+public interface Trigger {
+
+    /**
+     * Time of the first firing for a job scheduled at the given time
+     */
+    default LocalDateTime firstFireTime(LocalDateTime now) {
+        return nextFireTime(now);
+    }
+
+    /**
+     * Time of the firing after the given one
+     * @return null when the job should not fire again
+     */
+    LocalDateTime nextFireTime(LocalDateTime lastFireTime);
+
+    /**
+     * Fire after an initial delay, then every period, measured from the scheduled
+     * (not the actual) start of the previous firing
+     */
+    static Trigger fixedRate(long initialDelayMillis, long periodMillis) {
+        if (initialDelayMillis < 0 || periodMillis <= 0) {
+            throw new IllegalArgumentException("Invalid fixed rate trigger");
+        }
+        return new Trigger() {
+            @Override
+            public LocalDateTime firstFireTime(LocalDateTime now) {
+                return now.plus(initialDelayMillis, ChronoUnit.MILLIS);
+            }
+
+            @Override
+            public LocalDateTime nextFireTime(LocalDateTime lastFireTime) {
+                return lastFireTime.plus(periodMillis, ChronoUnit.MILLIS);
+            }
+
+            @Override
+            public String toString() {
+                return "every " + periodMillis + " ms";
+            }
+        };
+    }
+
+    /**
+     * Fire every day at the given time
+     */
+    static Trigger daily(LocalTime time) {
+        return cron(time.getMinute() + " " + time.getHour() + " * * *");
+    }
+
+    /**
+     * Fire on the given schedule, see {@link CronTrigger}
+     */
+    static Trigger cron(String expression) {
+        return new CronTrigger(expression);
+    }
+}
@@ -0,0 +1,267 @@
+package service;
+
+// AccountNumberGenerator.java
+import config.DatabaseConfig;
+import dao.AccountNumberBlockDAO;
+
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free, collision-free account number generator
+ * Each number packs a millisecond timestamp, the node id and a sequence into a
+ * 63-bit id:
+ *
+ *   41 bits  milliseconds ("ticks") since 2025-01-01 UTC, about 69 years
+ *   10 bits  node id (db.accountNumber.nodeId, 0-1023)
+ *   12 bits  sequence, 4096 numbers per millisecond per node
+ *
+ * written as 19 zero-padded digits plus a Luhn check digit, which fits the
+ * VARCHAR(20) account_number column. Nodes never collide with each other; within
+ * a node a number costs one CAS. When a millisecond's sequence runs out the
+ * generator moves on to the next millisecond, and a clock that steps backwards
+ * never makes it reuse one.
+ *
+ * Ticks are reserved in blocks of db.accountNumber.blockMillis in the
+ * account_number_blocks table, one database round trip per block instead of per
+ * number. A restarted node starts after its last reserved block, so numbers stay
+ * unique across restarts and clock changes. If the table cannot be reached the
+ * generator warns and relies on the clock alone.
+ */
+public class AccountNumberGenerator {
+    public static final int LENGTH = 20;
+    public static final int NODE_BITS = 10;
+    public static final int SEQUENCE_BITS = 12;
+    public static final int MAX_NODE_ID = (1 << NODE_BITS) - 1;
+    /** Most numbers handed out by one call to {@link #next(int)} */
+    public static final int MAX_BATCH = 1 << 20;
+
+    // 2025-01-01T00:00:00Z
+    private static final long EPOCH_MILLIS = 1_735_689_600_000L;
+    private static final long TICK_LIMIT = 1L << 41;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    private static final int ID_DIGITS = LENGTH - 1;
+
+    private static volatile AccountNumberGenerator instance;
+
+    private final int nodeId;
+    private final long blockMillis;
+    private final String owner;
+    private AccountNumberBlockDAO blockDAO;
+
+    // Last value handed out, tick << SEQUENCE_BITS | sequence; never decreases
+    private final AtomicLong last = new AtomicLong();
+    // First tick past the reserved block
+    private volatile long reservedUntil;
+
+    // Statistics
+    private final LongAdder issued = new LongAdder();
+    private final AtomicLong blocksReserved = new AtomicLong();
+
+    /**
+     * @param blockDAO Where ticks are reserved, or null to rely on the clock alone
+     */
+    public AccountNumberGenerator(int nodeId, long blockMillis, AccountNumberBlockDAO blockDAO) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Account number node id must be between 0 and " + MAX_NODE_ID);
+        }
+        if (blockMillis <= 0) {
+            throw new IllegalArgumentException("Account number block must be positive");
+        }
+        this.nodeId = nodeId;
+        this.blockMillis = blockMillis;
+        this.owner = DatabaseConfig.getSchedulerNodeId();
+        this.blockDAO = blockDAO;
+        if (blockDAO == null) {
+            reservedUntil = TICK_LIMIT;
+        }
+    }
+
+    /**
+     * Get singleton instance of AccountNumberGenerator
+     */
+    public static AccountNumberGenerator getInstance() {
+        if (instance == null) {
+            synchronized (AccountNumberGenerator.class) {
+                if (instance == null) {
+                    instance = new AccountNumberGenerator(DatabaseConfig.getAccountNumberNodeId(),
+                            DatabaseConfig.getAccountNumberBlockMillis(), new AccountNumberBlockDAO());
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Next account number, e.g. "00012345678901234567" + check digit
+     */
+    public String next() {
+        return format(toId(claim(1)));
+    }
+
+    /**
+     * A run of account numbers claimed with a single CAS, for bulk account creation
+     */
+    public String[] next(int count) {
+        if (count < 1 || count > MAX_BATCH) {
+            throw new IllegalArgumentException("Batch size must be between 1 and " + MAX_BATCH);
+        }
+        long first = claim(count);
+        String[] numbers = new String[count];
+        for (int i = 0; i < count; i++) {
+            numbers[i] = format(toId(first + i));
+        }
+        return numbers;
+    }
+
+    /**
+     * Next id without the decimal formatting
+     */
+    public long nextId() {
+        return toId(claim(1));
+    }
+
+    /**
+     * Claim count consecutive values and return the first.
+     * A value is tick << SEQUENCE_BITS | sequence, so running past a tick's last
+     * sequence number simply carries into the next tick.
+     */
+    private long claim(int count) {
+        while (true) {
+            long current = last.get();
+            long first = Math.max(current + 1, currentTick() << SEQUENCE_BITS);
+            long end = first + count - 1;
+            long endTick = end >>> SEQUENCE_BITS;
+            if (endTick >= reservedUntil) {
+                reserve(first >>> SEQUENCE_BITS, endTick);
+                continue;
+            }
+            if (last.compareAndSet(current, end)) {
+                issued.add(count);
+                return first;
+            }
+        }
+    }
+
+    /**
+     * Reserve a block covering endTick. If the block starts later than fromTick
+     * (the node id was used after this point before), skip ahead to its start.
+     */
+    private synchronized void reserve(long fromTick, long endTick) {
+        if (endTick < reservedUntil) {
+            return;
+        }
+        if (endTick >= TICK_LIMIT) {
+            throw new IllegalStateException("Account number timestamps exhausted");
+        }
+        long ticks = Math.max(blockMillis, endTick - fromTick + 1);
+        try {
+            long start = blockDAO.reserveBlock(nodeId, fromTick, ticks, owner);
+            // Raise the floor before publishing the block, so no value below its start passes the check
+            last.accumulateAndGet((start << SEQUENCE_BITS) - 1, Math::max);
+            reservedUntil = Math.min(start + ticks, TICK_LIMIT);
+            blocksReserved.incrementAndGet();
+        } catch (SQLException e) {
+            System.out.println("⚠ Account number blocks could not be reserved (" + e.getMessage() +
+                    "). Numbers from node " + nodeId + " rely on the clock alone");
+            blockDAO = null;
+            reservedUntil = TICK_LIMIT;
+        }
+    }
+
+    private long toId(long value) {
+        return (value >>> SEQUENCE_BITS) << (NODE_BITS + SEQUENCE_BITS)
+                | (long) nodeId << SEQUENCE_BITS
+                | (value & SEQUENCE_MASK);
+    }
+
+    private static long currentTick() {
+        return Math.max(0L, System.currentTimeMillis() - EPOCH_MILLIS);
+    }
+
+    /**
+     * Account number for an id: 19 zero-padded digits and a Luhn check digit
+     */
+    public static String format(long id) {
+        if (id < 0) {
+            throw new IllegalArgumentException("Account number id must not be negative");
+        }
+        char[] digits = new char[LENGTH];
+        long rest = id;
+        for (int i = ID_DIGITS - 1; i >= 0; i--) {
+            digits[i] = (char) ('0' + rest % 10);
+            rest /= 10;
+        }
+        // Luhn: double every second digit, starting with the one next to the check digit
+        int sum = 0;
+        for (int i = ID_DIGITS - 1, position = 0; i >= 0; i--, position++) {
+            sum += luhnDigit(digits[i] - '0', position % 2 == 0);
+        }
+        digits[ID_DIGITS] = (char) ('0' + (10 - sum % 10) % 10);
+        return new String(digits);
+    }
+
+    /**
+     * Check the length, digits and Luhn check digit of a generated account number.
+     * Numbers created before the generator (e.g. "ACC...") do not pass.
+     */
+    public static boolean isValid(String accountNumber) {
+        if (accountNumber == null || accountNumber.length() != LENGTH) {
+            return false;
+        }
+        int sum = 0;
+        for (int i = LENGTH - 1, position = 0; i >= 0; i--, position++) {
+            char c = accountNumber.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+            sum += luhnDigit(c - '0', position % 2 == 1);
+        }
+        return sum % 10 == 0;
+    }
+
+    /**
+     * Issue time of a generated account number
+     */
+    public static Instant issuedAt(String accountNumber) {
+        long id = Long.parseLong(accountNumber.substring(0, ID_DIGITS));
+        return Instant.ofEpochMilli(EPOCH_MILLIS + (id >>> (NODE_BITS + SEQUENCE_BITS)));
+    }
+
+    /**
+     * Node id a generated account number was issued by
+     */
+    public static int nodeOf(String accountNumber) {
+        long id = Long.parseLong(accountNumber.substring(0, ID_DIGITS));
+        return (int) (id >>> SEQUENCE_BITS) & MAX_NODE_ID;
+    }
+
+    private static int luhnDigit(int digit, boolean doubled) {
+        if (!doubled) {
+            return digit;
+        }
+        int twice = digit * 2;
+        return twice > 9 ? twice - 9 : twice;
+    }
+
+    public int getNodeId() {
+        return nodeId;
+    }
+
+    public long getIssuedCount() {
+        return issued.sum();
+    }
+
+    /**
+     * Display generator statistics
+     */
+    public void displayStats() {
+        long until = reservedUntil;
+        System.out.printf("Account numbers: node %d | issued: %d | blocks reserved: %d | reserved until: %s%n",
+                nodeId, issued.sum(), blocksReserved.get(),
+                until >= TICK_LIMIT ? "unlimited (clock only)"
+                        : until == 0 ? "none" : Instant.ofEpochMilli(EPOCH_MILLIS + until).toString());
+    }
+}
@@ -0,0 +1,372 @@
+package service;
+
+// AccountOnboardingProcessor.java
+import config.DatabaseConfig;
+import config.DatabaseConnection;
+import dao.AccountDAO;
+import dao.AccountIdCache;
+import dao.TransactionDAO;
+import dto.TransactionDTO;
+import model.Account;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Bulk account onboarding for migrations and portfolio imports
+ * Accounts are validated up front, then created in chunks of one transaction
+ * each: one multi-row insert into accounts with the ids read back as generated
+ * keys, one insert per account type table and one batch of INITIAL_DEPOSIT
+ * transaction rows keyed by those ids. A chunk that fails for a reason other
+ * than lock contention is retried one account at a time, so a bad row fails on
+ * its own and the rest of its chunk is still created.
+ */
+public class AccountOnboardingProcessor {
+    public static final int DEFAULT_CHUNK_SIZE = 1000;
+
+    // Column sizes of accounts.account_number and accounts.account_holder
+    private static final int MAX_ACCOUNT_NUMBER_LENGTH = 20;
+    private static final int MAX_ACCOUNT_HOLDER_LENGTH = 100;
+
+    private final AccountDAO accountDAO;
+    private final TransactionDAO transactionDAO;
+    private final DatabaseConnection dbConn;
+    private final int chunkSize;
+    private final int maxAttempts;
+
+    public AccountOnboardingProcessor() {
+        this(DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * @param chunkSize Accounts created per transaction
+     */
+    public AccountOnboardingProcessor(int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive");
+        }
+        this.accountDAO = new AccountDAO();
+        this.transactionDAO = new TransactionDAO();
+        this.dbConn = DatabaseConnection.getInstance();
+        this.chunkSize = chunkSize;
+        this.maxAttempts = DatabaseConfig.getRetryMaxAttempts();
+    }
+
+    public OnboardingResult process(List<? extends Account> accounts) {
+        return process(accounts, null);
+    }
+
+    /**
+     * Create a list of accounts. Each account succeeds or fails on its own.
+     * @param listener Called after every chunk, may be null
+     * @return per-account results in submission order
+     */
+    public OnboardingResult process(List<? extends Account> accounts, ProgressListener listener) {
+        long start = System.nanoTime();
+        ItemResult[] results = new ItemResult[accounts.size()];
+        OnboardingResult onboarding = new OnboardingResult(accounts.size());
+        Set<String> seen = new HashSet<>();
+
+        for (int from = 0; from < accounts.size(); from += chunkSize) {
+            int to = Math.min(accounts.size(), from + chunkSize);
+            processChunk(accounts, from, to, results, onboarding, seen);
+            onboarding.processed = to;
+            onboarding.elapsedNanos = System.nanoTime() - start;
+            if (listener != null) {
+                listener.chunkProcessed(onboarding);
+            }
+        }
+
+        onboarding.items = Collections.unmodifiableList(Arrays.asList(results));
+        onboarding.elapsedNanos = System.nanoTime() - start;
+        return onboarding;
+    }
+
+    /**
+     * Validate and create accounts [from, to)
+     */
+    private void processChunk(List<? extends Account> accounts, int from, int to, ItemResult[] results,
+                              OnboardingResult onboarding, Set<String> seen) {
+        List<Integer> pending = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            Account account = accounts.get(i);
+            String problem = validate(account);
+            if (problem != null) {
+                onboarding.record(results, new ItemResult(i, account, Outcome.INVALID, problem, -1));
+            } else if (!seen.add(account.getAccountNumber())) {
+                onboarding.record(results, new ItemResult(i, account, Outcome.DUPLICATE,
+                        "Account number repeated in batch", -1));
+            } else {
+                pending.add(i);
+            }
+        }
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        List<String> numbers = new ArrayList<>(pending.size());
+        for (int i : pending) {
+            numbers.add(accounts.get(i).getAccountNumber());
+        }
+        Set<String> existing;
+        try {
+            existing = accountDAO.findExistingAccountNumbers(numbers);
+        } catch (SQLException e) {
+            System.err.println("✗ Onboarding chunk starting at item " + (from + 1) + " failed: " + e.getMessage());
+            for (int i : pending) {
+                onboarding.record(results, new ItemResult(i, accounts.get(i), Outcome.FAILED, e.getMessage(), -1));
+            }
+            return;
+        }
+        if (!existing.isEmpty()) {
+            List<Integer> fresh = new ArrayList<>(pending.size());
+            for (int i : pending) {
+                if (existing.contains(accounts.get(i).getAccountNumber())) {
+                    onboarding.record(results, new ItemResult(i, accounts.get(i), Outcome.DUPLICATE,
+                            "Account number already exists", -1));
+                } else {
+                    fresh.add(i);
+                }
+            }
+            pending = fresh;
+            if (pending.isEmpty()) {
+                return;
+            }
+        }
+
+        SQLException failure = create(accounts, pending, results, onboarding);
+        if (failure == null) {
+            return;
+        }
+        // Inside an enclosing transaction the failure has already doomed it; nothing can be isolated
+        if (pending.size() == 1 || dbConn.isInTransaction()) {
+            for (int i : pending) {
+                onboarding.record(results, new ItemResult(i, accounts.get(i), Outcome.FAILED,
+                        failure.getMessage(), -1));
+            }
+            return;
+        }
+
+        System.out.println("⚠ Onboarding chunk starting at item " + (from + 1) + " failed (" +
+                failure.getMessage() + "); creating its accounts one at a time");
+        onboarding.chunksSplit++;
+        for (int i : pending) {
+            SQLException rowFailure = create(accounts, Collections.singletonList(i), results, onboarding);
+            if (rowFailure != null) {
+                onboarding.record(results, new ItemResult(i, accounts.get(i), Outcome.FAILED,
+                        rowFailure.getMessage(), -1));
+            }
+        }
+    }
+
+    /**
+     * Create the given accounts in one transaction, retrying lock conflicts
+     * @return null if the transaction committed, otherwise the final failure
+     */
+    private SQLException create(List<? extends Account> accounts, List<Integer> indexes, ItemResult[] results,
+                                OnboardingResult onboarding) {
+        int attempts = dbConn.isInTransaction() ? 1 : maxAttempts;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                insertChunk(accounts, indexes, results, onboarding);
+                return null;
+
+            } catch (SQLException e) {
+                dbConn.rollback();
+                if (DatabaseConnection.isLockConflict(e) && attempt < attempts
+                        && TransferEngine.backoff(attempt, DatabaseConfig.getRetryBackoff(),
+                        DatabaseConfig.getRetryMaxBackoff())) {
+                    continue;
+                }
+                return e;
+            }
+        }
+    }
+
+    /**
+     * One attempt at inserting accounts, type rows and opening deposits in a single transaction
+     */
+    private void insertChunk(List<? extends Account> accounts, List<Integer> indexes, ItemResult[] results,
+                             OnboardingResult onboarding) throws SQLException {
+        List<Account> chunk = new ArrayList<>(indexes.size());
+        for (int i : indexes) {
+            chunk.add(accounts.get(i));
+        }
+
+        dbConn.beginTransaction();
+
+        int[] ids = accountDAO.insertAccounts(chunk);
+        List<TransactionDTO> deposits = new ArrayList<>(chunk.size());
+        for (int k = 0; k < chunk.size(); k++) {
+            TransactionDTO deposit = new TransactionDTO();
+            deposit.setAccountId(ids[k]);
+            deposit.setAccountNumber(chunk.get(k).getAccountNumber());
+            deposit.setTransactionType("INITIAL_DEPOSIT");
+            deposit.setAmountCents(chunk.get(k).getBalanceCents());
+            deposit.setBalanceAfterCents(chunk.get(k).getBalanceCents());
+            deposit.setDescription("Account opening deposit");
+            deposits.add(deposit);
+        }
+        transactionDAO.insertTransactionBatch(deposits);
+
+        dbConn.commit();
+        onboarding.chunksCommitted++;
+
+        AccountIdCache idCache = AccountIdCache.getInstance();
+        for (int k = 0; k < chunk.size(); k++) {
+            int i = indexes.get(k);
+            idCache.put(chunk.get(k).getAccountNumber(), ids[k]);
+            onboarding.record(results, new ItemResult(i, chunk.get(k), Outcome.CREATED, null, ids[k]));
+        }
+    }
+
+    /**
+     * @return why the account cannot be created, or null if it can
+     */
+    private static String validate(Account account) {
+        if (account == null) {
+            return "Missing account";
+        }
+        String number = account.getAccountNumber();
+        if (number == null || number.trim().isEmpty() || number.length() > MAX_ACCOUNT_NUMBER_LENGTH) {
+            return "Invalid account number";
+        }
+        String holder = account.getAccountHolder();
+        if (holder == null || holder.trim().isEmpty() || holder.length() > MAX_ACCOUNT_HOLDER_LENGTH) {
+            return "Invalid account holder";
+        }
+        if (account.getBalanceCents() < 0) {
+            return "Negative opening balance";
+        }
+        return null;
+    }
+
+    /**
+     * Outcome of one account
+     */
+    public enum Outcome {
+        CREATED,
+        INVALID,
+        DUPLICATE,
+        FAILED
+    }
+
+    /**
+     * Callback for progress reporting after each chunk
+     */
+    public interface ProgressListener {
+        void chunkProcessed(OnboardingResult progress);
+    }
+
+    /**
+     * Result for one submitted account
+     */
+    public static class ItemResult {
+        private final int index;
+        private final Account account;
+        private final Outcome outcome;
+        private final String message;
+        private final int accountId;
+
+        ItemResult(int index, Account account, Outcome outcome, String message, int accountId) {
+            this.index = index;
+            this.account = account;
+            this.outcome = outcome;
+            this.message = message;
+            this.accountId = accountId;
+        }
+
+        /** Position in the submitted list, from 0 */
+        public int getIndex() { return index; }
+        public Account getAccount() { return account; }
+        public Outcome getOutcome() { return outcome; }
+        public boolean isCreated() { return outcome == Outcome.CREATED; }
+        public String getMessage() { return message; }
+        /** Generated account_id, or -1 if the account was not created */
+        public int getAccountId() { return accountId; }
+
+        @Override
+        public String toString() {
+            String number = account == null ? "-" : account.getAccountNumber();
+            return "Item " + (index + 1) + ": " + number + " → " + outcome +
+                    (message != null ? " (" + message + ")" : "");
+        }
+    }
+
+    /**
+     * Outcome of a whole onboarding run; also passed to the listener while it runs
+     */
+    public static class OnboardingResult {
+        private final int submitted;
+        private final int[] counts = new int[Outcome.values().length];
+        private List<ItemResult> items = Collections.emptyList();
+        private int processed;
+        private int chunksCommitted;
+        private int chunksSplit;
+        private long elapsedNanos;
+
+        OnboardingResult(int submitted) {
+            this.submitted = submitted;
+        }
+
+        private void record(ItemResult[] results, ItemResult item) {
+            results[item.getIndex()] = item;
+            counts[item.getOutcome().ordinal()]++;
+        }
+
+        /** Per-account results in submission order; empty until the run finishes */
+        public List<ItemResult> getItems() { return items; }
+        public int getSubmitted() { return submitted; }
+        public int getProcessed() { return processed; }
+        public int getChunksCommitted() { return chunksCommitted; }
+        /** Chunks that failed as a whole and were retried one account at a time */
+        public int getChunksSplit() { return chunksSplit; }
+        public long getElapsedMillis() { return elapsedNanos / 1_000_000; }
+
+        public int count(Outcome outcome) {
+            return counts[outcome.ordinal()];
+        }
+
+        public int getCreatedCount() {
+            return count(Outcome.CREATED);
+        }
+
+        /**
+         * Fraction of submitted accounts processed so far
+         */
+        public double getProgress() {
+            return submitted == 0 ? 1.0 : (double) processed / submitted;
+        }
+
+        /**
+         * Results other than CREATED
+         */
+        public List<ItemResult> getRejected() {
+            List<ItemResult> rejected = new ArrayList<>();
+            for (ItemResult item : items) {
+                if (!item.isCreated()) {
+                    rejected.add(item);
+                }
+            }
+            return rejected;
+        }
+
+        public double getAccountsPerSecond() {
+            return elapsedNanos == 0 ? 0.0 : getCreatedCount() * 1_000_000_000.0 / elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Accounts: %d submitted, %d created, %d invalid, %d duplicate, %d failed | " +
+                            "Chunks: %d committed, %d split | %d ms (%.0f accounts/sec)",
+                    submitted, getCreatedCount(), count(Outcome.INVALID), count(Outcome.DUPLICATE),
+                    count(Outcome.FAILED), chunksCommitted, chunksSplit, getElapsedMillis(),
+                    getAccountsPerSecond());
+        }
+    }
+}
@@ -1,43 +1,87 @@
 package service;
 
 // BankService.java
+import cache.AccountSnapshotCache;
+import cache.BalanceStore;
 import config.DatabaseConnection;
 import dao.AccountDAO;
+import dao.AccountIdCache;
+import dao.BalanceStripeDAO;
 import dao.TransactionDAO;
 import dto.AccountDTO;
 import dto.TransactionDTO;
+import dto.TransactionPageDTO;
+import dto.TransferRequestDTO;
+import metrics.MetricsRegistry;
+import metrics.OperationMetrics;
 import model.Account;
-import model.SavingsAccount;
+import model.Money;
 
+import java.io.IOException;
+import java.math.RoundingMode;
+import java.sql.Timestamp;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 /**
  * Service layer for banking operations
  * Coordinates between domain objects and DAOs
  */
 public class BankService {
+    // Latency and error counts per operation (bank_operation_seconds)
+    private static final MetricsRegistry METRICS = MetricsRegistry.getInstance();
+    private static final OperationMetrics CREATE_ACCOUNT = METRICS.operation("createAccount");
+    private static final OperationMetrics CREATE_ACCOUNTS = METRICS.operation("createAccounts");
+    private static final OperationMetrics DEPOSIT = METRICS.operation("deposit");
+    private static final OperationMetrics WITHDRAW = METRICS.operation("withdraw");
+    private static final OperationMetrics TRANSFER = METRICS.operation("transfer");
+    private static final OperationMetrics TRANSFER_BATCH = METRICS.operation("transferBatch");
+    private static final OperationMetrics APPLY_INTEREST = METRICS.operation("applyInterest");
+    private static final OperationMetrics GET_ACCOUNT = METRICS.operation("getAccount");
+    private static final OperationMetrics GET_BALANCE = METRICS.operation("getBalance");
+    private static final OperationMetrics TRANSACTION_HISTORY = METRICS.operation("getTransactionHistory");
+    private static final OperationMetrics TRANSACTION_HISTORY_PAGE = METRICS.operation("getTransactionHistoryPage");
+    private static final OperationMetrics CLOSE_ACCOUNT = METRICS.operation("closeAccount");
+
     private AccountDAO accountDAO;
     private TransactionDAO transactionDAO;
+    private AccountSnapshotCache snapshots;
+    private TransferEngine transferEngine;
 
     public BankService() {
         this.accountDAO = new AccountDAO();
         this.transactionDAO = new TransactionDAO();
+        this.snapshots = AccountSnapshotCache.getInstance();
+        this.transferEngine = new TransferEngine();
+    }
+
+    /**
+     * Issue a new account number, unique across nodes and restarts
+     */
+    public String generateAccountNumber() {
+        return AccountNumberGenerator.getInstance().next();
     }
 
     /**
      * Create a new account
      */
     public boolean createAccount(Account account) {
+        return CREATE_ACCOUNT.time(() -> doCreateAccount(account));
+    }
+
+    private boolean doCreateAccount(Account account) {
         // Save to database
         boolean created = accountDAO.createAccount(account);
 
         if (created) {
             // Record initial deposit transaction
-            transactionDAO.recordTransaction(
+            transactionDAO.recordTransactionCents(
                     account.getAccountNumber(),
                     "INITIAL_DEPOSIT",
-                    account.getBalance(),
-                    account.getBalance(),
+                    account.getBalanceCents(),
+                    account.getBalanceCents(),
                     "Account opening deposit"
             );
         }
@@ -45,40 +89,65 @@ public class BankService {
         return created;
     }
 
+    /**
+     * Create many accounts in chunked, batched transactions, e.g. to migrate a portfolio.
+     * Prints progress every 10% of the list.
+     * @return per-account results in submission order
+     */
+    public AccountOnboardingProcessor.OnboardingResult createAccounts(List<? extends Account> accounts) {
+        int[] reported = {0};
+        return CREATE_ACCOUNTS.timeCall(() -> new AccountOnboardingProcessor().process(accounts, progress -> {
+            int percent = (int) (progress.getProgress() * 100);
+            if (percent / 10 > reported[0] / 10) {
+                reported[0] = percent;
+                System.out.printf("  Onboarded %d/%d accounts (%d%%, %.0f accounts/sec)%n",
+                        progress.getProcessed(), progress.getSubmitted(), percent, progress.getAccountsPerSecond());
+            }
+        }));
+    }
+
     /**
      * Deposit money into account
      */
     public boolean deposit(String accountNumber, double amount) {
-        if (amount <= 0) {
-            System.out.println("✗ Deposit amount must be positive!");
-            return false;
-        }
+        return DEPOSIT.time(() -> doDeposit(accountNumber, amount));
+    }
 
-        // Get current account details
-        AccountDTO accountDTO = accountDAO.getAccountByNumber(accountNumber);
-        if (accountDTO == null) {
-            System.out.println("✗ Account not found!");
+    private boolean doDeposit(String accountNumber, double amount) {
+        long cents = toCents(amount);
+        if (cents <= 0) {
+            System.out.println("✗ Deposit amount must be positive!");
             return false;
         }
 
-        // Calculate new balance
-        double newBalance = accountDTO.getBalance() + amount;
+        DatabaseConnection dbConn = DatabaseConnection.getInstance();
+        try {
+            dbConn.beginTransaction();
 
-        // Update balance in database
-        boolean updated = accountDAO.updateBalance(accountNumber, newBalance);
+            // Credit the balance in place
+            AccountDTO updated = accountDAO.adjustBalanceCents(accountNumber, cents);
+            if (updated == null) {
+                dbConn.rollback();
+                System.out.println("✗ Account not found!");
+                return false;
+            }
 
-        if (updated) {
             // Record transaction
-            transactionDAO.recordTransaction(
-                    accountNumber,
-                    "DEPOSIT",
-                    amount,
-                    newBalance,
-                    "Cash deposit"
-            );
+            if (!transactionDAO.recordTransactionCents(updated.getAccountId(), "DEPOSIT",
+                    cents, updated.getBalanceCents(), "Cash deposit")) {
+                dbConn.rollback();
+                return false;
+            }
+
+            dbConn.commit();
+            publishSnapshot(updated);
             System.out.printf("✓ Deposited $%.2f successfully. New balance: $%.2f%n",
-                    amount, newBalance);
+                    Money.toDouble(cents), updated.getBalance());
             return true;
+
+        } catch (Exception e) {
+            dbConn.rollback();
+            System.err.println("✗ Deposit failed: " + e.getMessage());
         }
 
         return false;
@@ -88,129 +157,213 @@ public class BankService {
      * Withdraw money from account
      */
     public boolean withdraw(String accountNumber, double amount) {
-        if (amount <= 0) {
-            System.out.println("✗ Withdrawal amount must be positive!");
-            return false;
-        }
-
-        // Get current account details
-        AccountDTO accountDTO = accountDAO.getAccountByNumber(accountNumber);
-        if (accountDTO == null) {
-            System.out.println("✗ Account not found!");
-            return false;
-        }
+        return WITHDRAW.time(() -> doWithdraw(accountNumber, amount));
+    }
 
-        // Check if withdrawal is allowed
-        if (!canWithdraw(accountDTO, amount)) {
-            System.out.println("✗ Insufficient funds or minimum balance requirement not met!");
+    private boolean doWithdraw(String accountNumber, double amount) {
+        long cents = toCents(amount);
+        if (cents <= 0) {
+            System.out.println("✗ Withdrawal amount must be positive!");
             return false;
         }
 
-        // Calculate new balance
-        double newBalance = accountDTO.getBalance() - amount;
+        DatabaseConnection dbConn = DatabaseConnection.getInstance();
+        try {
+            dbConn.beginTransaction();
 
-        // Update balance in database
-        boolean updated = accountDAO.updateBalance(accountNumber, newBalance);
+            // Debit the balance only if the account's withdrawal rules allow it
+            AccountDTO updated = accountDAO.adjustBalanceCents(accountNumber, -cents);
+            if (updated == null) {
+                dbConn.rollback();
+                if (accountDAO.getAccountByNumber(accountNumber) == null) {
+                    System.out.println("✗ Account not found!");
+                } else {
+                    System.out.println("✗ Insufficient funds or minimum balance requirement not met!");
+                }
+                return false;
+            }
 
-        if (updated) {
             // Record transaction
-            transactionDAO.recordTransaction(
-                    accountNumber,
-                    "WITHDRAWAL",
-                    amount,
-                    newBalance,
-                    "Cash withdrawal"
-            );
+            if (!transactionDAO.recordTransactionCents(updated.getAccountId(), "WITHDRAWAL",
+                    cents, updated.getBalanceCents(), "Cash withdrawal")) {
+                dbConn.rollback();
+                return false;
+            }
+
+            dbConn.commit();
+            publishSnapshot(updated);
             System.out.printf("✓ Withdrew $%.2f successfully. New balance: $%.2f%n",
-                    amount, newBalance);
+                    Money.toDouble(cents), updated.getBalance());
             return true;
+
+        } catch (Exception e) {
+            dbConn.rollback();
+            System.err.println("✗ Withdrawal failed: " + e.getMessage());
         }
 
         return false;
     }
 
     /**
-     * Transfer money between accounts
+     * Deposit through the group-committed journal
+     * The deposit shares its commit with other queued postings, see {@link TransactionJournal}.
+     * @return future of the updated account, or of null if the account was not found
      */
-    public boolean transfer(String fromAccountNumber, String toAccountNumber, double amount) {
-        if (amount <= 0) {
-            System.out.println("✗ Transfer amount must be positive!");
-            return false;
+    public CompletableFuture<AccountDTO> depositAsync(String accountNumber, double amount) {
+        long cents = toCents(amount);
+        if (cents <= 0) {
+            return CompletableFuture.completedFuture(null);
         }
+        return TransactionJournal.getInstance().postCents(accountNumber, "DEPOSIT", cents, "Cash deposit")
+                .thenApply(this::publishJournaled);
+    }
 
-        // Get account details
-        AccountDTO fromAccount = accountDAO.getAccountByNumber(fromAccountNumber);
-        AccountDTO toAccount = accountDAO.getAccountByNumber(toAccountNumber);
-
-        if (fromAccount == null || toAccount == null) {
-            System.out.println("✗ One or both accounts not found!");
-            return false;
+    /**
+     * Withdraw through the group-committed journal
+     * @return future of the updated account, or of null if the account was not found
+     *         or funds are insufficient
+     */
+    public CompletableFuture<AccountDTO> withdrawAsync(String accountNumber, double amount) {
+        long cents = toCents(amount);
+        if (cents <= 0) {
+            return CompletableFuture.completedFuture(null);
         }
+        return TransactionJournal.getInstance().postCents(accountNumber, "WITHDRAWAL", -cents, "Cash withdrawal")
+                .thenApply(this::publishJournaled);
+    }
 
-        // Check if withdrawal is allowed
-        if (!canWithdraw(fromAccount, amount)) {
-            System.out.println("✗ Insufficient funds in source account!");
-            return false;
+    /**
+     * Amount requested by a caller in cents, or 0 if it is not a positive finite amount
+     */
+    private static long toCents(double amount) {
+        return Double.isFinite(amount) && amount > 0 ? Money.fromDouble(amount) : 0L;
+    }
+
+    private AccountDTO publishJournaled(AccountDTO account) {
+        if (account != null) {
+            snapshots.update(account);
         }
+        return account;
+    }
 
-        // Calculate new balances
-        double fromNewBalance = fromAccount.getBalance() - amount;
-        double toNewBalance = toAccount.getBalance() + amount;
+    /**
+     * Transfer money between accounts
+     * Safe to call from many threads at once, see {@link TransferEngine}.
+     */
+    public boolean transfer(String fromAccountNumber, String toAccountNumber, double amount) {
+        return TRANSFER.time(() -> doTransfer(fromAccountNumber, toAccountNumber, amount));
+    }
 
-        // Update both balances
-        DatabaseConnection dbConn = DatabaseConnection.getInstance();
-        try {
-            dbConn.beginTransaction();
+    private boolean doTransfer(String fromAccountNumber, String toAccountNumber, double amount) {
+        long cents = toCents(amount);
+        if (cents <= 0) {
+            System.out.println("✗ Transfer amount must be positive!");
+            return false;
+        }
 
-            accountDAO.updateBalance(fromAccountNumber, fromNewBalance);
-            accountDAO.updateBalance(toAccountNumber, toNewBalance);
+        TransferEngine.TransferResult result = transferEngine.transferCents(fromAccountNumber, toAccountNumber, cents);
+        switch (result.getOutcome()) {
+            case COMPLETED:
+                publishSnapshot(result.getFromAccount());
+                publishSnapshot(result.getToAccount());
+                System.out.printf("✓ Transferred $%.2f from %s to %s successfully%n",
+                        Money.toDouble(cents), fromAccountNumber, toAccountNumber);
+                return true;
+            case ACCOUNT_NOT_FOUND:
+                System.out.println("✗ One or both accounts not found!");
+                return false;
+            case SAME_ACCOUNT:
+                System.out.println("✗ Cannot transfer to the same account!");
+                return false;
+            case INSUFFICIENT_FUNDS:
+                System.out.println("✗ Insufficient funds in source account!");
+                return false;
+            default:
+                System.err.println("✗ Transfer failed after " + result.getAttempts() + " attempt(s): " +
+                        result.getFailure().getMessage());
+                return false;
+        }
+    }
 
-            // Record transfer transactions
-            transactionDAO.recordTransfer(fromAccountNumber, toAccountNumber,
-                    amount, fromNewBalance, toNewBalance);
+    /**
+     * Post many transfers in chunked, batched transactions
+     * @return per-request results in submission order
+     */
+    public BatchTransferProcessor.BatchResult transferBatch(List<TransferRequestDTO> requests) {
+        return TRANSFER_BATCH.timeCall(() -> new BatchTransferProcessor().process(requests));
+    }
 
-            dbConn.commit();
-            System.out.printf("✓ Transferred $%.2f from %s to %s successfully%n",
-                    amount, fromAccountNumber, toAccountNumber);
-            return true;
+    /**
+     * Load a CSV or fixed-width payment file and post its transfers
+     * @return the batch result, or null if the file could not be read
+     */
+    public BatchTransferProcessor.BatchResult processPaymentFile(String path) {
+        PaymentFileLoader.LoadResult loaded;
+        try {
+            loaded = new PaymentFileLoader().load(path);
+        } catch (IOException e) {
+            System.err.println("✗ Cannot read payment file: " + e.getMessage());
+            return null;
+        }
 
-        } catch (Exception e) {
-            dbConn.rollback();
-            System.err.println("✗ Transfer failed: " + e.getMessage());
+        System.out.println("\n=== Processing Payment File " + path + " ===");
+        for (String error : loaded.getErrors()) {
+            System.out.println("✗ " + error);
         }
 
-        return false;
+        BatchTransferProcessor.BatchResult result = transferBatch(loaded.getRequests());
+        for (BatchTransferProcessor.ItemResult rejected : result.getRejected()) {
+            System.out.println("✗ " + rejected);
+        }
+        System.out.println("✓ " + result);
+        return result;
     }
 
     /**
      * Apply interest to an account
      */
     public boolean applyInterest(String accountNumber) {
+        return APPLY_INTEREST.time(() -> doApplyInterest(accountNumber));
+    }
+
+    private boolean doApplyInterest(String accountNumber) {
         AccountDTO accountDTO = accountDAO.getAccountByNumber(accountNumber);
         if (accountDTO == null) {
             System.out.println("✗ Account not found!");
             return false;
         }
 
-        // Calculate monthly interest
-        double interest = accountDTO.getBalance() * accountDTO.getInterestRate() / 12;
-        double newBalance = accountDTO.getBalance() + interest;
+        // Calculate monthly interest, rounded half-up to cents
+        long interest = Money.applyRate(accountDTO.getBalanceCents(),
+                Money.basisPoints(accountDTO.getInterestRate()), 12, RoundingMode.HALF_UP);
 
-        // Update balance
-        boolean updated = accountDAO.updateBalance(accountNumber, newBalance);
+        DatabaseConnection dbConn = DatabaseConnection.getInstance();
+        try {
+            dbConn.beginTransaction();
+
+            // Credit interest as a delta so concurrent postings are not overwritten
+            AccountDTO updated = accountDAO.adjustBalanceCents(accountNumber, interest);
+            if (updated == null) {
+                dbConn.rollback();
+                return false;
+            }
 
-        if (updated) {
             // Record interest transaction
-            transactionDAO.recordTransaction(
-                    accountNumber,
-                    "INTEREST",
-                    interest,
-                    newBalance,
-                    "Monthly interest credit"
-            );
+            if (!transactionDAO.recordTransactionCents(updated.getAccountId(), "INTEREST",
+                    interest, updated.getBalanceCents(), "Monthly interest credit")) {
+                dbConn.rollback();
+                return false;
+            }
+
+            dbConn.commit();
+            publishSnapshot(updated);
             System.out.printf("✓ Interest of $%.2f credited to %s. New balance: $%.2f%n",
-                    interest, accountNumber, newBalance);
+                    Money.toDouble(interest), accountNumber, updated.getBalance());
             return true;
+
+        } catch (Exception e) {
+            dbConn.rollback();
+            System.err.println("✗ Interest posting failed: " + e.getMessage());
         }
 
         return false;
@@ -220,13 +373,18 @@ public class BankService {
      * Apply interest to all active accounts
      */
     public void applyInterestToAll() {
-        List<AccountDTO> accounts = accountDAO.getAllAccounts();
         System.out.println("\n=== Applying Monthly Interest to All Accounts ===");
 
-        for (AccountDTO account : accounts) {
-            if ("ACTIVE".equals(account.getStatus())) {
-                applyInterest(account.getAccountNumber());
-            }
+        String periodKey = InterestPostingEngine.periodKey("MONTHLY", LocalDate.now());
+        InterestPostingEngine engine = new InterestPostingEngine(
+                "MONTHLY", 12, periodKey, InterestPostingEngine.DEFAULT_CHUNK_SIZE);
+        PartitionedInterestRunner runner = new PartitionedInterestRunner(engine, 1, 1);
+
+        if (runner.run()) {
+            System.out.printf("✓ Interest for %s: %d accounts credited, $%.2f paid%n",
+                    periodKey, runner.getAccountsCredited(), runner.getTotalInterest());
+        } else {
+            System.out.println("✗ Interest run incomplete; run it again to resume from the last checkpoint");
         }
     }
 
@@ -234,7 +392,72 @@ public class BankService {
      * Get account details
      */
     public AccountDTO getAccount(String accountNumber) {
-        return accountDAO.getAccountByNumber(accountNumber);
+        return GET_ACCOUNT.timeCall(() -> snapshots.get(accountNumber, accountDAO::getAccountByNumber));
+    }
+
+    /**
+     * Balance inquiry served from the balance store when it holds an entry younger
+     * than the snapshot TTL, otherwise from the database (which then refreshes the
+     * store). Without a loaded store inquiries go through the account snapshot cache;
+     * in STRICT consistency mode every inquiry reads the database.
+     * @return balance in cents, or BalanceStore.MISSING if the account does not exist
+     */
+    public long getBalanceCents(String accountNumber) {
+        // Timed like OperationMetrics.timeCall, without boxing the balance
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            long balance = readBalanceCents(accountNumber);
+            success = true;
+            return balance;
+        } finally {
+            GET_BALANCE.record(start, success);
+        }
+    }
+
+    private long readBalanceCents(String accountNumber) {
+        BalanceStore store = BalanceStore.getInstance();
+        if (store.isLoaded() && snapshots.getMode() == AccountSnapshotCache.ConsistencyMode.BOUNDED_STALENESS) {
+            int accountId = AccountIdCache.getInstance().getAccountId(accountNumber);
+            if (accountId == -1) {
+                return BalanceStore.MISSING;
+            }
+            long balance = store.getBalanceCents(accountId);
+            if (balance != BalanceStore.MISSING) {
+                return balance;
+            }
+
+            // Not from the snapshot cache: its copy may be older than the store entry it would replace
+            long readAt = System.nanoTime();
+            AccountDTO account = accountDAO.getAccountByNumber(accountNumber);
+            if (account == null) {
+                return BalanceStore.MISSING;
+            }
+            store.refresh(account, readAt);
+            return account.getBalanceCents();
+        }
+
+        AccountDTO account = snapshots.get(accountNumber, accountDAO::getAccountByNumber);
+        return account == null ? BalanceStore.MISSING : account.getBalanceCents();
+    }
+
+    /**
+     * Load every account balance into the in-memory balance store
+     * @return false if the balances could not be loaded
+     */
+    public boolean loadBalanceStore() {
+        BalanceStore store = BalanceStore.getInstance();
+        store.setAccountIdResolver(AccountIdCache.getInstance()::getAccountId);
+        long start = System.currentTimeMillis();
+        int loaded = accountDAO.loadBalances(store);
+        if (loaded < 0) {
+            System.out.println("✗ Balance store could not be loaded");
+            return false;
+        }
+        System.out.println("✓ Balance store loaded: " + loaded + " accounts in " +
+                (System.currentTimeMillis() - start) + " ms");
+        store.displayStats();
+        return true;
     }
 
     /**
@@ -248,65 +471,57 @@ public class BankService {
      * Get transaction history
      */
     public List<TransactionDTO> getTransactionHistory(String accountNumber) {
-        return transactionDAO.getTransactionHistory(accountNumber);
+        return TRANSACTION_HISTORY.timeCall(() -> transactionDAO.getTransactionHistory(accountNumber));
+    }
+
+    /**
+     * Get one page of transaction history, newest first
+     * @param afterDate Cursor from the previous page, or null for the first page
+     * @throws IllegalStateException if the page cannot be read
+     */
+    public TransactionPageDTO getTransactionHistoryPage(String accountNumber, Timestamp afterDate,
+                                                        int afterTransactionId, int pageSize) {
+        return TRANSACTION_HISTORY_PAGE.timeCall(() ->
+                transactionDAO.getTransactionHistoryPage(accountNumber, afterDate, afterTransactionId, pageSize));
     }
 
     /**
      * Display transaction history
+     * Rows are streamed straight to the console instead of being collected first.
      */
     public void displayTransactionHistory(String accountNumber) {
-        List<TransactionDTO> transactions = getTransactionHistory(accountNumber);
-
         System.out.println("\n=== Transaction History for " + accountNumber + " ===");
-        if (transactions.isEmpty()) {
+        int count;
+        try {
+            count = transactionDAO.forEachTransaction(accountNumber, System.out::println);
+        } catch (IllegalStateException e) {
+            // Rows already printed stay on screen; say that the list is cut short
+            System.err.println("✗ " + e.getMessage());
+            return;
+        }
+        if (count == 0) {
             System.out.println("No transactions found.");
-        } else {
-            for (TransactionDTO transaction : transactions) {
-                System.out.println(transaction);
-            }
         }
     }
 
     /**
-     * Display all accounts
+     * Display all accounts, newest first
      */
     public void displayAllAccounts() {
-        List<AccountDTO> accounts = getAllAccounts();
-
         System.out.println("\n=== All Accounts ===");
-        if (accounts.isEmpty()) {
+        int count = accountDAO.forEachAccount(null, true, System.out::println);
+        if (count == 0) {
             System.out.println("No accounts in the system.");
-        } else {
-            for (AccountDTO account : accounts) {
-                System.out.println(account);
-            }
         }
     }
 
     /**
-     * Check if withdrawal is allowed based on account type
+     * Visit every account with the given status (null = all) in account_id order
+     * without loading the whole book
+     * @return number of accounts visited
      */
-    private boolean canWithdraw(AccountDTO accountDTO, double amount) {
-        String accountType = accountDTO.getAccountType();
-        double currentBalance = accountDTO.getBalance();
-
-        switch (accountType) {
-            case "SAVINGS":
-                // Savings account must maintain minimum balance
-                return (currentBalance - amount) >= SavingsAccount.getMinimumBalance();
-
-            case "CHECKING":
-                // Checking account allows overdraft
-                return (currentBalance - amount) >= -500.0; // Default overdraft limit
-
-            case "FIXED_DEPOSIT":
-                // Would need to check maturity date from database
-                // For now, allow withdrawal if sufficient balance
-                return currentBalance >= amount;
-
-            default:
-                return currentBalance >= amount;
-        }
+    public int forEachAccount(String status, Consumer<AccountDTO> action) {
+        return accountDAO.forEachAccount(status, action);
     }
 
     /**
@@ -318,8 +533,70 @@ public class BankService {
 
     /**
      * Close account
+     * The account_id is resolved before the delete, which drops it from the id cache.
      */
     public boolean closeAccount(String accountNumber) {
-        return accountDAO.deleteAccount(accountNumber);
+        return CLOSE_ACCOUNT.time(() -> {
+            int accountId = AccountIdCache.getInstance().getAccountId(accountNumber);
+            boolean closed = accountDAO.deleteAccount(accountNumber);
+            snapshots.invalidate(accountNumber);
+            if (closed && accountId != -1) {
+                BalanceStore.getInstance().remove(accountId);
+            }
+            return closed;
+        });
+    }
+
+    /**
+     * Spread credits to a hot account over several balance rows
+     * The balance is unchanged; reads keep returning the total.
+     */
+    public boolean enableBalanceStriping(String accountNumber, int stripes) {
+        int accountId = AccountIdCache.getInstance().getAccountId(accountNumber);
+        if (accountId == -1) {
+            System.out.println("✗ Account not found!");
+            return false;
+        }
+        boolean enabled = new BalanceStripeDAO().enableStriping(accountId, stripes);
+        snapshots.invalidate(accountNumber);
+        return enabled;
+    }
+
+    /**
+     * Fold a striped account back into a single balance row
+     */
+    public boolean disableBalanceStriping(String accountNumber) {
+        int accountId = AccountIdCache.getInstance().getAccountId(accountNumber);
+        if (accountId == -1) {
+            System.out.println("✗ Account not found!");
+            return false;
+        }
+        boolean disabled = new BalanceStripeDAO().disableStriping(accountId);
+        snapshots.invalidate(accountNumber);
+        return disabled;
+    }
+
+    public TransferEngine getTransferEngine() {
+        return transferEngine;
+    }
+
+    /**
+     * Display per-operation latency percentiles, SQL timings and pool gauges
+     */
+    public void displayMetrics() {
+        METRICS.displayStats();
+    }
+
+    /**
+     * Make a committed balance change visible to cached balance inquiries.
+     * Inside an enclosing transaction the change may still roll back, so the
+     * snapshot is dropped instead of replaced.
+     */
+    private void publishSnapshot(AccountDTO account) {
+        if (DatabaseConnection.getInstance().isInTransaction()) {
+            snapshots.invalidate(account.getAccountNumber());
+        } else {
+            snapshots.update(account);
+        }
     }
 }
\ No newline at end of file
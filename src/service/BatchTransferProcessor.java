@@ -0,0 +1,318 @@
+package service;
+
+// BatchTransferProcessor.java
+import cache.AccountSnapshotCache;
+import config.DatabaseConfig;
+import config.DatabaseConnection;
+import dao.AccountDAO;
+import dao.AccountIdCache;
+import dto.AccountDTO;
+import dto.TransferRequestDTO;
+import model.Money;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Bulk transfer processor for payroll and payment files
+ * Requests are validated and resolved up front, then posted in chunks of one
+ * transaction each: every account touched by the chunk is locked once in
+ * account_id order, requests are applied in submission order against the locked
+ * balances, and the chunk is written through a {@link PostingNetter}: one net
+ * balance update per account and one JDBC batch of transaction rows.
+ */
+public class BatchTransferProcessor {
+    public static final int DEFAULT_CHUNK_SIZE = 500;
+
+    private final AccountDAO accountDAO;
+    private final DatabaseConnection dbConn;
+    private final int chunkSize;
+    private final int maxAttempts;
+
+    public BatchTransferProcessor() {
+        this(DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * @param chunkSize Requests posted per transaction
+     */
+    public BatchTransferProcessor(int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive");
+        }
+        this.accountDAO = new AccountDAO();
+        this.dbConn = DatabaseConnection.getInstance();
+        this.chunkSize = chunkSize;
+        this.maxAttempts = DatabaseConfig.getRetryMaxAttempts();
+    }
+
+    /**
+     * Post a list of transfers. Each request succeeds or fails on its own;
+     * a chunk that fails for a database reason fails all of its requests.
+     * @return per-request results in submission order
+     */
+    public BatchResult process(List<TransferRequestDTO> requests) {
+        long start = System.nanoTime();
+        ItemResult[] results = new ItemResult[requests.size()];
+        BatchResult batch = new BatchResult();
+
+        for (int from = 0; from < requests.size(); from += chunkSize) {
+            int to = Math.min(requests.size(), from + chunkSize);
+            if (processChunk(requests, from, to, results, batch)) {
+                batch.chunksCommitted++;
+            }
+        }
+
+        batch.items = Collections.unmodifiableList(Arrays.asList(results));
+        batch.elapsedNanos = System.nanoTime() - start;
+        return batch;
+    }
+
+    /**
+     * Validate, resolve and post requests [from, to)
+     * @return true if the chunk transaction committed
+     */
+    private boolean processChunk(List<TransferRequestDTO> requests, int from, int to, ItemResult[] results,
+                                 BatchResult batch) {
+        AccountIdCache idCache = AccountIdCache.getInstance();
+        List<Integer> pending = new ArrayList<>();
+        int[] fromIds = new int[to - from];
+        int[] toIds = new int[to - from];
+
+        for (int i = from; i < to; i++) {
+            TransferRequestDTO request = requests.get(i);
+            if (request.getAmountCents() <= 0
+                    || request.getFromAccountNumber() == null || request.getToAccountNumber() == null) {
+                results[i] = new ItemResult(request, TransferEngine.Outcome.INVALID, "Invalid amount or account");
+                continue;
+            }
+            int fromId = idCache.getAccountId(request.getFromAccountNumber());
+            int toId = idCache.getAccountId(request.getToAccountNumber());
+            if (fromId == -1 || toId == -1) {
+                results[i] = new ItemResult(request, TransferEngine.Outcome.ACCOUNT_NOT_FOUND, "Account not found");
+                continue;
+            }
+            if (fromId == toId) {
+                results[i] = new ItemResult(request, TransferEngine.Outcome.SAME_ACCOUNT, "Same account");
+                continue;
+            }
+            fromIds[i - from] = fromId;
+            toIds[i - from] = toId;
+            pending.add(i);
+        }
+
+        if (pending.isEmpty()) {
+            return false;
+        }
+
+        int attempts = dbConn.isInTransaction() ? 1 : maxAttempts;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                Map<Integer, ItemResult> staged = postChunk(requests, pending, from, fromIds, toIds, batch);
+                for (Map.Entry<Integer, ItemResult> entry : staged.entrySet()) {
+                    results[entry.getKey()] = entry.getValue();
+                }
+                return true;
+
+            } catch (SQLException | RuntimeException e) {
+                // Also on unchecked failures, or the thread stays bound to the chunk's transaction
+                dbConn.rollback();
+                if (e instanceof SQLException && DatabaseConnection.isLockConflict((SQLException) e)
+                        && attempt < attempts && TransferEngine.backoff(attempt, DatabaseConfig.getRetryBackoff(),
+                        DatabaseConfig.getRetryMaxBackoff())) {
+                    continue;
+                }
+                System.err.println("✗ Transfer chunk starting at item " + (from + 1) + " failed: " + e.getMessage());
+                for (int i : pending) {
+                    results[i] = new ItemResult(requests.get(i), TransferEngine.Outcome.FAILED, e.getMessage());
+                }
+                return false;
+
+            } catch (Error e) {
+                dbConn.rollback();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * One attempt at posting a chunk in a single transaction
+     * @return results of the pending requests, by request index
+     */
+    private Map<Integer, ItemResult> postChunk(List<TransferRequestDTO> requests, List<Integer> pending, int from,
+                                               int[] fromIds, int[] toIds, BatchResult batch)
+            throws SQLException {
+        TreeSet<Integer> accountIds = new TreeSet<>();
+        for (int i : pending) {
+            accountIds.add(fromIds[i - from]);
+            accountIds.add(toIds[i - from]);
+        }
+
+        dbConn.beginTransaction();
+
+        PostingNetter netter = new PostingNetter();
+        for (AccountDTO account : accountDAO.lockAccounts(toArray(accountIds))) {
+            netter.open(account);
+        }
+
+        Map<Integer, ItemResult> staged = new HashMap<>();
+        for (int i : pending) {
+            TransferRequestDTO request = requests.get(i);
+            int sourceId = fromIds[i - from];
+            int targetId = toIds[i - from];
+            if (!netter.isOpen(sourceId) || !netter.isOpen(targetId)) {
+                staged.put(i, new ItemResult(request, TransferEngine.Outcome.ACCOUNT_NOT_FOUND, "Account not found"));
+                continue;
+            }
+
+            long amount = request.getAmountCents();
+            if (!netter.canDebit(sourceId, amount)) {
+                staged.put(i, new ItemResult(request, TransferEngine.Outcome.INSUFFICIENT_FUNDS, "Insufficient funds"));
+                continue;
+            }
+
+            String reference = request.getReference() == null || request.getReference().isEmpty()
+                    ? "" : " (" + request.getReference() + ")";
+            long sourceBalance = netter.debit(sourceId, "TRANSFER_OUT", amount,
+                    "Transfer to " + request.getToAccountNumber() + reference, targetId);
+            long targetBalance = netter.credit(targetId, "TRANSFER_IN", amount,
+                    "Transfer from " + request.getFromAccountNumber() + reference, sourceId);
+
+            staged.put(i, new ItemResult(request, TransferEngine.Outcome.COMPLETED, null,
+                    sourceBalance, targetBalance));
+        }
+
+        List<String> changed = netter.flush();
+        dbConn.commit();
+        batch.postings += netter.getPostingsFlushed();
+        batch.balanceUpdates += netter.getBalanceUpdates();
+
+        AccountSnapshotCache snapshots = AccountSnapshotCache.getInstance();
+        for (String accountNumber : changed) {
+            snapshots.invalidate(accountNumber);
+        }
+        return staged;
+    }
+
+    private static int[] toArray(TreeSet<Integer> ids) {
+        int[] array = new int[ids.size()];
+        int index = 0;
+        for (int id : ids) {
+            array[index++] = id;
+        }
+        return array;
+    }
+
+    /**
+     * Outcome of one request
+     */
+    public static class ItemResult {
+        private final TransferRequestDTO request;
+        private final TransferEngine.Outcome outcome;
+        private final String message;
+        private final long fromBalance;
+        private final long toBalance;
+
+        ItemResult(TransferRequestDTO request, TransferEngine.Outcome outcome, String message) {
+            this(request, outcome, message, 0L, 0L);
+        }
+
+        /**
+         * @param fromBalance Source balance after the transfer, in cents
+         * @param toBalance Target balance after the transfer, in cents
+         */
+        ItemResult(TransferRequestDTO request, TransferEngine.Outcome outcome, String message,
+                   long fromBalance, long toBalance) {
+            this.request = request;
+            this.outcome = outcome;
+            this.message = message;
+            this.fromBalance = fromBalance;
+            this.toBalance = toBalance;
+        }
+
+        public TransferRequestDTO getRequest() { return request; }
+        public TransferEngine.Outcome getOutcome() { return outcome; }
+        public boolean isCompleted() { return outcome == TransferEngine.Outcome.COMPLETED; }
+        public String getMessage() { return message; }
+        public double getFromBalance() { return Money.toDouble(fromBalance); }
+        public double getToBalance() { return Money.toDouble(toBalance); }
+
+        @Override
+        public String toString() {
+            String line = request.getLineNumber() > 0 ? "Line " + request.getLineNumber() + ": " : "";
+            return line + request + " → " + outcome + (message != null ? " (" + message + ")" : "");
+        }
+    }
+
+    /**
+     * Outcome of a whole batch
+     */
+    public static class BatchResult {
+        private List<ItemResult> items = Collections.emptyList();
+        private int chunksCommitted;
+        private long postings;
+        private long balanceUpdates;
+        private long elapsedNanos;
+
+        public List<ItemResult> getItems() { return items; }
+        public int getChunksCommitted() { return chunksCommitted; }
+        public long getPostings() { return postings; }
+        public long getBalanceUpdates() { return balanceUpdates; }
+        public long getElapsedMillis() { return elapsedNanos / 1_000_000; }
+
+        public int count(TransferEngine.Outcome outcome) {
+            int count = 0;
+            for (ItemResult item : items) {
+                if (item.getOutcome() == outcome) {
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        public int getCompletedCount() {
+            return count(TransferEngine.Outcome.COMPLETED);
+        }
+
+        public double getCompletedAmount() {
+            long total = 0L;
+            for (ItemResult item : items) {
+                if (item.isCompleted()) {
+                    total = Money.add(total, item.getRequest().getAmountCents());
+                }
+            }
+            return Money.toDouble(total);
+        }
+
+        /**
+         * Results other than COMPLETED
+         */
+        public List<ItemResult> getRejected() {
+            List<ItemResult> rejected = new ArrayList<>();
+            for (ItemResult item : items) {
+                if (!item.isCompleted()) {
+                    rejected.add(item);
+                }
+            }
+            return rejected;
+        }
+
+        public double getTransfersPerSecond() {
+            return elapsedNanos == 0 ? 0.0 : getCompletedCount() * 1_000_000_000.0 / elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Transfers: %d submitted, %d completed ($%.2f), %d rejected | " +
+                            "Chunks: %d | Postings: %d netted into %d balance updates | %d ms (%.0f transfers/sec)",
+                    items.size(), getCompletedCount(), getCompletedAmount(), items.size() - getCompletedCount(),
+                    chunksCommitted, postings, balanceUpdates, getElapsedMillis(), getTransfersPerSecond());
+        }
+    }
+}
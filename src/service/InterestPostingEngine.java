@@ -0,0 +1,296 @@
+package service;
+
+// InterestPostingEngine.java
+import cache.AccountSnapshotCache;
+import cache.BalanceStore;
+import config.DatabaseConnection;
+import dao.InterestDAO;
+import dto.AccountDTO;
+import dto.InterestPostingDTO;
+import model.Money;
+
+import java.math.RoundingMode;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Batch interest posting engine
+ * Walks the accounts table in account_id order, one chunk per transaction,
+ * writing balance credits, transaction rows and interest history as JDBC batches.
+ * Accounts already credited for the period key are skipped, so reruns are idempotent.
+ * Interest is computed in cents and rounded with the engine's rounding mode
+ * (half-up unless set otherwise), so a run's total is the exact sum of its postings.
+ */
+public class InterestPostingEngine {
+    public static final int DEFAULT_CHUNK_SIZE = 1000;
+
+    private final InterestDAO interestDAO;
+    private final String calculationPeriod;
+    private final int periodsPerYear;
+    private final String periodKey;
+    private final int chunkSize;
+    private RoundingMode roundingMode = RoundingMode.HALF_UP;
+
+    /**
+     * @param calculationPeriod Period recorded in interest_history (DAILY, MONTHLY, QUARTERLY, YEARLY)
+     * @param periodsPerYear Divisor applied to the annual rate for one period
+     * @param periodKey Identifies the period being credited, see {@link #periodKey(String, LocalDate)}
+     * @param chunkSize Accounts locked and posted per transaction
+     */
+    public InterestPostingEngine(String calculationPeriod, int periodsPerYear, String periodKey, int chunkSize) {
+        if (periodsPerYear <= 0 || chunkSize <= 0) {
+            throw new IllegalArgumentException("Periods per year and chunk size must be positive");
+        }
+        this.interestDAO = new InterestDAO();
+        this.calculationPeriod = calculationPeriod;
+        this.periodsPerYear = periodsPerYear;
+        this.periodKey = periodKey;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Post interest to every eligible account
+     */
+    public RunResult run() {
+        return processRange(0, Integer.MAX_VALUE, null, null);
+    }
+
+    /**
+     * Post interest to eligible accounts with afterAccountId < account_id <= upperAccountId.
+     * Each chunk commits independently; on failure the run stops and the result
+     * records the last committed account_id so the range can be resumed.
+     * @param checkpoint Saves progress inside each chunk transaction, may be null
+     * @param listener Notified after every committed chunk, may be null
+     */
+    public RunResult processRange(int afterAccountId, int upperAccountId,
+                                  ChunkCheckpoint checkpoint, ProgressListener listener) {
+        DatabaseConnection dbConn = DatabaseConnection.getInstance();
+        RunResult result = new RunResult(afterAccountId);
+        long start = System.nanoTime();
+
+        int lastAccountId = afterAccountId;
+        while (true) {
+            try {
+                dbConn.beginTransaction();
+
+                List<AccountDTO> chunk = interestDAO.lockInterestChunk(
+                        lastAccountId, upperAccountId, calculationPeriod, periodKey, chunkSize);
+                if (chunk.isEmpty()) {
+                    dbConn.commit();
+                    break;
+                }
+
+                List<InterestPostingDTO> postings = new ArrayList<>(chunk.size());
+                long chunkInterest = 0L;
+                for (AccountDTO account : chunk) {
+                    long interest = calculateInterestCents(account.getBalanceCents(),
+                            Money.basisPoints(account.getInterestRate()));
+                    if (interest > 0) {
+                        postings.add(new InterestPostingDTO(account.getAccountId(), account.getAccountNumber(),
+                                account.getBalanceCents(), interest, account.getInterestRate()));
+                        chunkInterest = Money.add(chunkInterest, interest);
+                    }
+                }
+
+                int chunkLastAccountId = chunk.get(chunk.size() - 1).getAccountId();
+                interestDAO.postInterestBatch(postings, calculationPeriod, periodKey);
+                if (checkpoint != null) {
+                    checkpoint.save(chunkLastAccountId, postings.size(), chunkInterest);
+                }
+                dbConn.commit();
+                invalidateSnapshots(postings);
+
+                lastAccountId = chunkLastAccountId;
+                result.chunkCommitted(chunk.size(), postings, lastAccountId);
+                if (listener != null) {
+                    listener.chunkCommitted(result);
+                }
+
+                if (chunk.size() < chunkSize) {
+                    break;
+                }
+
+            } catch (SQLException | RuntimeException e) {
+                // Also on unchecked failures, or the worker thread stays bound to this transaction
+                dbConn.rollback();
+                result.failure = e;
+                System.err.println("✗ Interest chunk after account " + lastAccountId +
+                        " failed: " + e.getMessage());
+                break;
+            }
+        }
+
+        result.elapsedNanos = System.nanoTime() - start;
+        return result;
+    }
+
+    /**
+     * Drop cached snapshots of the accounts credited by a committed chunk
+     */
+    private void invalidateSnapshots(List<InterestPostingDTO> postings) {
+        AccountSnapshotCache snapshots = AccountSnapshotCache.getInstance();
+        for (InterestPostingDTO posting : postings) {
+            snapshots.invalidate(posting.getAccountNumber());
+        }
+    }
+
+    /**
+     * Interest for one period, rounded to cents with the engine's rounding mode
+     */
+    public double calculateInterest(double balance, double annualRate) {
+        return Money.toDouble(calculateInterestCents(Money.fromDouble(balance), Money.basisPoints(annualRate)));
+    }
+
+    /**
+     * Interest for one period in cents, from a balance in cents and a rate in basis
+     * points, computed in integer arithmetic
+     */
+    public long calculateInterestCents(long balanceCents, int annualRateBasisPoints) {
+        if (balanceCents <= 0) {
+            return 0;
+        }
+        return Money.applyRate(balanceCents, annualRateBasisPoints, periodsPerYear, roundingMode);
+    }
+
+    /**
+     * Set how sub-cent interest is rounded (HALF_UP by default, HALF_EVEN for banker's rounding)
+     */
+    public void setRoundingMode(RoundingMode roundingMode) {
+        this.roundingMode = roundingMode;
+    }
+
+    public RoundingMode getRoundingMode() {
+        return roundingMode;
+    }
+
+    /**
+     * Interest a run would post, computed from the in-memory balance store without
+     * querying accounts or building an object per account. Accounts already
+     * credited for the period and stale store entries are not taken into account.
+     */
+    public Forecast forecast(BalanceStore store) {
+        Forecast forecast = new Forecast();
+        store.forEachActive((accountId, balanceCents, rateBasisPoints, accountType) -> {
+            long interest = calculateInterestCents(balanceCents, rateBasisPoints);
+            if (interest > 0) {
+                forecast.accounts++;
+                forecast.interestCents += interest;
+            }
+        });
+        return forecast;
+    }
+
+    /**
+     * Key of the period containing the given date:
+     * 2026-10-16 (DAILY), 2026-10 (MONTHLY), 2026-Q4 (QUARTERLY), 2026 (YEARLY)
+     */
+    public static String periodKey(String calculationPeriod, LocalDate date) {
+        switch (calculationPeriod) {
+            case "DAILY":
+                return date.toString();
+            case "QUARTERLY":
+                return date.getYear() + "-Q" + ((date.getMonthValue() - 1) / 3 + 1);
+            case "YEARLY":
+                return String.valueOf(date.getYear());
+            case "MONTHLY":
+            default:
+                return String.format("%d-%02d", date.getYear(), date.getMonthValue());
+        }
+    }
+
+    public String getCalculationPeriod() {
+        return calculationPeriod;
+    }
+
+    public String getPeriodKey() {
+        return periodKey;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * Accounts and total interest a run is expected to credit
+     */
+    public static class Forecast {
+        private long accounts;
+        private long interestCents;
+
+        public long getAccounts() { return accounts; }
+        public long getInterestCents() { return interestCents; }
+
+        public double getTotalInterest() {
+            return interestCents / 100.0;
+        }
+    }
+
+    /**
+     * Persists range progress as part of the chunk transaction
+     */
+    public interface ChunkCheckpoint {
+        void save(int lastAccountId, int accountsCredited, long interestCents) throws SQLException;
+    }
+
+    /**
+     * Callback for progress reporting after each committed chunk
+     */
+    public interface ProgressListener {
+        void chunkCommitted(RunResult progress);
+    }
+
+    /**
+     * Outcome of a run or range
+     */
+    public static class RunResult {
+        private final int startAccountId;
+        private int lastAccountId;
+        private long accountsScanned;
+        private long accountsCredited;
+        private long totalInterestCents;
+        private int chunksCommitted;
+        private long elapsedNanos;
+        private Exception failure;
+
+        RunResult(int startAccountId) {
+            this.startAccountId = startAccountId;
+            this.lastAccountId = startAccountId;
+        }
+
+        void chunkCommitted(int scanned, List<InterestPostingDTO> postings, int lastAccountId) {
+            this.accountsScanned += scanned;
+            this.accountsCredited += postings.size();
+            for (InterestPostingDTO posting : postings) {
+                this.totalInterestCents = Money.add(totalInterestCents, posting.getInterestAmountCents());
+            }
+            this.chunksCommitted++;
+            this.lastAccountId = lastAccountId;
+        }
+
+        public int getStartAccountId() { return startAccountId; }
+        public int getLastAccountId() { return lastAccountId; }
+        public long getAccountsScanned() { return accountsScanned; }
+        public long getAccountsCredited() { return accountsCredited; }
+        public long getTotalInterestCents() { return totalInterestCents; }
+        public double getTotalInterest() { return Money.toDouble(totalInterestCents); }
+        public int getChunksCommitted() { return chunksCommitted; }
+        public long getElapsedMillis() { return elapsedNanos / 1_000_000; }
+        public boolean isSuccessful() { return failure == null; }
+        public Exception getFailure() { return failure; }
+
+        public double getAccountsPerSecond() {
+            return elapsedNanos == 0 ? 0.0 : accountsScanned * 1_000_000_000.0 / elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Accounts: %d scanned, %d credited | Interest: $%.2f | " +
+                            "Chunks: %d | %d ms (%.0f accounts/sec)%s",
+                    accountsScanned, accountsCredited, getTotalInterest(), chunksCommitted,
+                    getElapsedMillis(), getAccountsPerSecond(),
+                    failure == null ? "" : " | FAILED after account " + lastAccountId);
+        }
+    }
+}
@@ -0,0 +1,954 @@
+package service;
+
+// LedgerEngine.java
+import cache.AccountSnapshotCache;
+import config.DatabaseConfig;
+import config.DatabaseConnection;
+import dao.AccountDAO;
+import dao.AccountIdCache;
+import dao.TransactionDAO;
+import dto.AccountDTO;
+import dto.TransactionDTO;
+import metrics.MetricsRegistry;
+import model.Money;
+
+import java.sql.SQLException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory ledger with write-behind persistence
+ *
+ * Balances of all accounts are held in memory, split into shards by account
+ * number. Each shard has one thread that owns its accounts: postings are queued
+ * to the shard and applied there one after another, so the hot path takes no
+ * locks and does no I/O. A transfer between shards is debited on the source
+ * shard and then credited on the destination shard.
+ *
+ * Applied postings are handed to a writer thread per shard in batches of up to
+ * batchSize, or every flushInterval milliseconds. The writer commits each batch
+ * in one transaction (net balance change per account plus the transaction rows).
+ * Both legs of a transfer travel with the credit and are written in the batch of
+ * the shard that applies it, so a transfer is never half written, even between
+ * shards; its debit row may be committed after later postings of the source
+ * account. Postings are acknowledged when applied in memory; call
+ * {@link #flush()} to wait until they are durable. Postings not yet written are
+ * lost if the process dies.
+ *
+ * Transient write failures (lock conflicts, lost connections) are retried until
+ * they succeed, or up to the retry limit once the engine is stopping. A batch
+ * that fails otherwise is written one posting at a time (a transfer's legs
+ * together); postings that still cannot be written are reverted in memory,
+ * reported and kept in {@link #getUnwrittenPostings()}.
+ *
+ * State is loaded from the accounts table by {@link #start()}. Accounts opened
+ * later are looked up by the submitting thread on first use and handed to the
+ * shard with the posting, so shard threads never wait on the database; unknown
+ * account numbers are rejected before they are queued. While the engine runs
+ * it must be the only writer of the balances it holds: deposits, withdrawals
+ * and transfers through BankService or the schedulers would not be seen by the
+ * in-memory balances.
+ */
+public class LedgerEngine {
+    private static final int MAX_PENDING_BATCHES = 4;
+    private static final int DRAIN_LIMIT = 1024;
+
+    private static final Result NOT_FOUND = new Result(TransferEngine.Outcome.ACCOUNT_NOT_FOUND, 0L);
+    private static final Result INVALID = new Result(TransferEngine.Outcome.INVALID, 0L);
+    private static final Result SAME_ACCOUNT = new Result(TransferEngine.Outcome.SAME_ACCOUNT, 0L);
+
+    private static volatile LedgerEngine instance;
+
+    private final AccountDAO accountDAO;
+    private final TransactionDAO transactionDAO;
+    private final DatabaseConnection dbConn;
+    private final AccountSnapshotCache snapshots;
+    private final Shard[] shards;
+    // Account ids by number, so transfers resolve their counterparty without a query
+    private final Map<String, Integer> accountIds = new ConcurrentHashMap<>();
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private volatile boolean started;
+    // Accepting postings
+    private volatile boolean running;
+    // Set by stop() once no submit is in progress; shards then finish their queues and exit
+    private volatile boolean draining;
+
+    // Statistics
+    private final AtomicLong applied = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong persisted = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong writeRetries = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    // Postings applied in memory that could not be written
+    private final ConcurrentLinkedQueue<TransactionDTO> unwritten = new ConcurrentLinkedQueue<>();
+
+    // Transfer credits sent to another shard and not yet applied; shards keep running until it is 0
+    private final AtomicLong creditsInFlight = new AtomicLong();
+
+    /**
+     * @param shardCount Shards, each with its own posting thread and writer thread
+     * @param batchSize Most postings per write-behind transaction
+     * @param flushIntervalMillis Longest time an applied posting waits before it is handed to the writer
+     * @param queueCapacity Postings queued per shard before submitters block
+     */
+    public LedgerEngine(int shardCount, int batchSize, long flushIntervalMillis, int queueCapacity) {
+        if (shardCount <= 0 || batchSize <= 0 || flushIntervalMillis <= 0 || queueCapacity <= 0) {
+            throw new IllegalArgumentException("Invalid ledger settings");
+        }
+        this.accountDAO = new AccountDAO();
+        this.transactionDAO = new TransactionDAO();
+        this.dbConn = DatabaseConnection.getInstance();
+        this.snapshots = AccountSnapshotCache.getInstance();
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+        this.shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard(i, queueCapacity);
+        }
+
+        MetricsRegistry.getInstance().gauge("bank_ledger_unpersisted_postings",
+                "Ledger postings applied in memory but not yet written", null, null,
+                () -> applied.get() - persisted.get() - dropped.get());
+    }
+
+    /**
+     * Get the shared engine, configured by the db.ledger.* settings.
+     * The engine is not started; call {@link #start()} first.
+     */
+    public static LedgerEngine getInstance() {
+        if (instance == null) {
+            synchronized (LedgerEngine.class) {
+                if (instance == null) {
+                    instance = new LedgerEngine(DatabaseConfig.getLedgerShards(), DatabaseConfig.getLedgerBatchSize(),
+                            DatabaseConfig.getLedgerFlushInterval(), DatabaseConfig.getLedgerQueueCapacity());
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Load every account balance from the database and start the shard threads
+     * @return false if the balances could not be loaded
+     */
+    public synchronized boolean start() {
+        if (started) {
+            return true;
+        }
+        long begin = System.currentTimeMillis();
+        int[] loaded = new int[1];
+        try {
+            // Shard threads are not running yet, so their maps can be filled from here
+            accountDAO.streamAccounts(null, account -> {
+                shardFor(account.getAccountNumber()).accounts.put(account.getAccountNumber(), new Entry(account));
+                accountIds.put(account.getAccountNumber(), account.getAccountId());
+                loaded[0]++;
+            });
+        } catch (SQLException e) {
+            System.err.println("✗ Ledger recovery failed: " + e.getMessage());
+            for (Shard shard : shards) {
+                shard.accounts.clear();
+            }
+            accountIds.clear();
+            return false;
+        }
+
+        draining = false;
+        running = true;
+        for (Shard shard : shards) {
+            shard.start();
+        }
+        started = true;
+        System.out.println("✓ Ledger started: " + loaded[0] + " accounts in " + shards.length + " shards (" +
+                (System.currentTimeMillis() - begin) + " ms)");
+        return true;
+    }
+
+    /**
+     * Credit an account
+     * @return future of the outcome and the new balance
+     */
+    public CompletableFuture<Result> deposit(String accountNumber, double amount) {
+        long cents = positiveCents(amount);
+        if (cents <= 0) {
+            return CompletableFuture.completedFuture(INVALID);
+        }
+        return submitPosting(new Command(Kind.CREDIT, accountNumber, cents, "DEPOSIT", "Cash deposit", null, 0));
+    }
+
+    /**
+     * Debit an account if it stays at or above its withdrawal floor
+     * @return future of the outcome and the new balance
+     */
+    public CompletableFuture<Result> withdraw(String accountNumber, double amount) {
+        long cents = positiveCents(amount);
+        if (cents <= 0) {
+            return CompletableFuture.completedFuture(INVALID);
+        }
+        return submitPosting(new Command(Kind.DEBIT, accountNumber, cents, "WITHDRAWAL", "Cash withdrawal", null, 0));
+    }
+
+    /**
+     * Move money between two accounts
+     * The future completes once both legs are applied, with the source balance.
+     */
+    public CompletableFuture<Result> transfer(String fromAccountNumber, String toAccountNumber, double amount) {
+        long cents = positiveCents(amount);
+        if (cents <= 0) {
+            return CompletableFuture.completedFuture(INVALID);
+        }
+        if (fromAccountNumber.equals(toAccountNumber)) {
+            return CompletableFuture.completedFuture(SAME_ACCOUNT);
+        }
+        Integer toAccountId = accountIds.get(toAccountNumber);
+        AccountDTO toAccount = null;
+        if (toAccountId == null) {
+            toAccount = lookUp(toAccountNumber);
+            if (toAccount == null) {
+                rejected.incrementAndGet();
+                return CompletableFuture.completedFuture(NOT_FOUND);
+            }
+            toAccountId = toAccount.getAccountId();
+        }
+        Command command = new Command(Kind.TRANSFER, fromAccountNumber, cents,
+                "TRANSFER_OUT", "Transfer to " + toAccountNumber, toAccountNumber, toAccountId);
+        command.counterpartyAccount = toAccount;
+        return submitPosting(command);
+    }
+
+    /**
+     * Queue a command for its account's shard. An account not in memory yet is
+     * looked up here and travels with the command; an unknown one is rejected.
+     */
+    private CompletableFuture<Result> submitPosting(Command command) {
+        if (!accountIds.containsKey(command.accountNumber)) {
+            command.account = lookUp(command.accountNumber);
+            if (command.account == null) {
+                rejected.incrementAndGet();
+                return CompletableFuture.completedFuture(NOT_FOUND);
+            }
+        }
+        return submit(shardFor(command.accountNumber), command);
+    }
+
+    /**
+     * Read an account that is not in memory, on the caller's thread
+     * @return the account, or null if it does not exist
+     */
+    private AccountDTO lookUp(String accountNumber) {
+        if (AccountIdCache.getInstance().getAccountId(accountNumber) == -1) {
+            return null;
+        }
+        return accountDAO.getAccountByNumber(accountNumber);
+    }
+
+    /**
+     * Amount in cents, or 0 if it is not a positive finite amount
+     */
+    private static long positiveCents(double amount) {
+        return Double.isFinite(amount) && amount > 0 ? Money.fromDouble(amount) : 0L;
+    }
+
+    /**
+     * In-memory balance of an account, read on its shard thread so it reflects
+     * every posting queued before this call
+     * @return future of the balance, or of null if the account does not exist
+     */
+    public CompletableFuture<Double> getBalance(String accountNumber) {
+        Command command = new Command(Kind.READ, accountNumber, 0L, null, null, null, 0);
+        return submitPosting(command)
+                .thenApply(result -> result.getOutcome() == TransferEngine.Outcome.COMPLETED ? result.getBalance() : null);
+    }
+
+    /**
+     * Wait until every posting applied before this call is written to the database.
+     * A transfer between shards is written with its credit, which the source
+     * shard queues on the destination shard (and which may queue a reversal back
+     * on the source). So the shards are passed three times: once until every
+     * earlier transfer has queued its credit, once until those credits and
+     * reversals are applied, and once to hand the batches to the writers.
+     */
+    public CompletableFuture<Void> flush() {
+        return onEveryShard(Kind.BARRIER)
+                .thenCompose(ignored -> onEveryShard(Kind.BARRIER))
+                .thenCompose(ignored -> onEveryShard(Kind.FLUSH));
+    }
+
+    private CompletableFuture<Void> onEveryShard(Kind kind) {
+        CompletableFuture<?>[] done = new CompletableFuture<?>[shards.length];
+        for (int i = 0; i < shards.length; i++) {
+            done[i] = submit(shards[i], new Command(kind, null, 0L, null, null, null, 0));
+        }
+        return CompletableFuture.allOf(done);
+    }
+
+    /**
+     * Stop accepting postings, apply and write everything queued, and stop the threads
+     */
+    public synchronized void stop() {
+        if (!started) {
+            return;
+        }
+        running = false;
+        // A submit that saw running == true must enqueue before the shards may exit
+        for (Shard shard : shards) {
+            while (shard.submitters.get() > 0) {
+                Thread.yield();
+            }
+        }
+        draining = true;
+        for (Shard shard : shards) {
+            // Wake a shard idling in its poll so it sees draining now, not after a flush interval
+            shard.commands.add(new Command(Kind.BARRIER, null, 0L, null, null, null, 0));
+        }
+        for (Shard shard : shards) {
+            shard.join();
+        }
+        started = false;
+        System.out.println("✓ Ledger stopped (" + getPersistedCount() + " postings written" +
+                (dropped.get() > 0 ? ", " + dropped.get() + " could not be written" : "") + ")");
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    private Shard shardFor(String accountNumber) {
+        return shards[Math.floorMod(accountNumber.hashCode(), shards.length)];
+    }
+
+    private CompletableFuture<Result> submit(Shard shard, Command command) {
+        // Announce the submit before checking running; stop() waits for it to finish
+        shard.submitters.incrementAndGet();
+        try {
+            if (!running) {
+                command.done.completeExceptionally(new IllegalStateException("Ledger is not running"));
+                return command.done;
+            }
+            try {
+                shard.capacity.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                command.done.completeExceptionally(e);
+                return command.done;
+            }
+            command.admitted = true;
+            shard.commands.add(command);
+            return command.done;
+        } finally {
+            shard.submitters.decrementAndGet();
+        }
+    }
+
+    /**
+     * Transient failures are worth retrying: lock conflicts, timeouts and lost connections
+     */
+    private static boolean isTransient(SQLException e) {
+        if (DatabaseConnection.isLockConflict(e)) {
+            return true;
+        }
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLTransientException || cause instanceof SQLRecoverableException) {
+                return true;
+            }
+            if (cause instanceof SQLException) {
+                String state = ((SQLException) cause).getSQLState();
+                if (state != null && state.startsWith("08")) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    public long getAppliedCount() {
+        return applied.get();
+    }
+
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+
+    public long getPersistedCount() {
+        return persisted.get();
+    }
+
+    public long getBatchCount() {
+        return batches.get();
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * Postings that were applied and then reverted because they could not be
+     * written, oldest first, for reconciliation
+     */
+    public List<TransactionDTO> getUnwrittenPostings() {
+        return new ArrayList<>(unwritten);
+    }
+
+    /**
+     * Display ledger statistics
+     */
+    public void displayStats() {
+        long batchCount = getBatchCount();
+        System.out.println("\n=== Ledger Statistics ===");
+        System.out.println("Shards: " + shards.length + " | Running: " + running);
+        System.out.println("Postings applied: " + getAppliedCount() + " | Rejected: " + getRejectedCount());
+        System.out.println("Postings written: " + getPersistedCount() + " | Pending: " +
+                (getAppliedCount() - getPersistedCount() - getDroppedCount()) + " | Could not be written: " +
+                getDroppedCount());
+        System.out.println("Write batches: " + batchCount + " | Retries: " + writeRetries.get());
+        System.out.printf("Average batch size: %.1f%n", batchCount == 0 ? 0.0 : (double) getPersistedCount() / batchCount);
+        int queued = 0;
+        for (Shard shard : shards) {
+            queued += shard.commands.size();
+        }
+        System.out.println("Queued: " + queued);
+    }
+
+    private enum Kind {
+        CREDIT,
+        DEBIT,
+        TRANSFER,
+        TRANSFER_IN,
+        READ,
+        // Completes once every command queued before it on the shard is applied
+        BARRIER,
+        FLUSH,
+        // Take back a posting that could not be written
+        REVERT
+    }
+
+    /**
+     * Outcome of a posting and the resulting in-memory balance
+     */
+    public static class Result {
+        private final TransferEngine.Outcome outcome;
+        private final long balanceCents;
+
+        Result(TransferEngine.Outcome outcome, long balanceCents) {
+            this.outcome = outcome;
+            this.balanceCents = balanceCents;
+        }
+
+        public TransferEngine.Outcome getOutcome() { return outcome; }
+        public long getBalanceCents() { return balanceCents; }
+        public double getBalance() { return Money.toDouble(balanceCents); }
+
+        public boolean isCompleted() {
+            return outcome == TransferEngine.Outcome.COMPLETED;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s (balance $%.2f)", outcome, getBalance());
+        }
+    }
+
+    /**
+     * Balance of one account, owned by its shard thread
+     */
+    private static final class Entry {
+        private final int accountId;
+        private final long floor;
+        private long balance;
+
+        private Entry(AccountDTO account) {
+            this.accountId = account.getAccountId();
+            this.floor = AccountDAO.getWithdrawalFloorCents(account.getAccountType());
+            this.balance = account.getBalanceCents();
+        }
+    }
+
+    /**
+     * A queued posting (or read or flush request)
+     */
+    private static final class Command {
+        private final Kind kind;
+        private final String accountNumber;
+        private final long amount;
+        private final String transactionType;
+        private final String description;
+        private final String counterparty;
+        private final int counterpartyId;
+        private final CompletableFuture<Result> done;
+        private boolean admitted;
+        private boolean forwarded;
+        private int sourceAccountId;
+        private long sourceBalance;
+        // Debit leg of a transfer, written in the same batch as this credit
+        private TransactionDTO debitRow;
+        private String debitAccountNumber;
+        // Accounts read by the submitter because they were not in memory yet
+        private AccountDTO account;
+        private AccountDTO counterpartyAccount;
+
+        private Command(Kind kind, String accountNumber, long amount, String transactionType, String description,
+                        String counterparty, int counterpartyId) {
+            this(kind, accountNumber, amount, transactionType, description, counterparty, counterpartyId,
+                    new CompletableFuture<>());
+        }
+
+        private Command(Kind kind, String accountNumber, long amount, String transactionType, String description,
+                        String counterparty, int counterpartyId, CompletableFuture<Result> done) {
+            this.kind = kind;
+            this.accountNumber = accountNumber;
+            this.amount = amount;
+            this.transactionType = transactionType;
+            this.description = description;
+            this.counterparty = counterparty;
+            this.counterpartyId = counterpartyId;
+            this.done = done;
+        }
+    }
+
+    /**
+     * Postings applied in memory and waiting to be written together.
+     * Rows are grouped into postings (a transfer is one posting of two rows) so a
+     * failed batch can be written one posting at a time.
+     */
+    private static final class Batch {
+        private final List<TransactionDTO> rows = new ArrayList<>();
+        private final List<Long> deltas = new ArrayList<>();
+        private final List<String> accountNumbers = new ArrayList<>();
+        // Exclusive end row of each posting
+        private final List<Integer> postingEnds = new ArrayList<>();
+        private final List<CompletableFuture<Result>> flushWaiters = new ArrayList<>();
+        private final long startedAt = System.nanoTime();
+
+        /**
+         * Net change per account of rows [from, to), in account id order so
+         * writers of different shards lock accounts in the same order
+         */
+        private Map<Integer, Long> netChanges(int from, int to) {
+            Map<Integer, Long> net = new TreeMap<>();
+            for (int i = from; i < to; i++) {
+                net.merge(rows.get(i).getAccountId(), deltas.get(i), Long::sum);
+            }
+            return net;
+        }
+
+        private Set<String> accountNumbers(int from, int to) {
+            return new LinkedHashSet<>(accountNumbers.subList(from, to));
+        }
+    }
+
+    /**
+     * One partition of the accounts with its posting thread and writer thread
+     */
+    private final class Shard {
+        private final int index;
+        private final BlockingQueue<Command> commands = new LinkedBlockingQueue<>();
+        private final Semaphore capacity;
+        private final BlockingQueue<Batch> pendingBatches = new ArrayBlockingQueue<>(MAX_PENDING_BATCHES);
+        private final Map<String, Entry> accounts = new HashMap<>();
+        private final List<Command> drained = new ArrayList<>(DRAIN_LIMIT);
+        // Submits in progress, see stop()
+        private final AtomicInteger submitters = new AtomicInteger();
+        private Thread postingThread;
+        private Thread writerThread;
+        private Batch batch;
+        private volatile boolean writerRunning;
+
+        private Shard(int index, int queueCapacity) {
+            this.index = index;
+            this.capacity = new Semaphore(queueCapacity);
+        }
+
+        private void start() {
+            writerRunning = true;
+            writerThread = new Thread(this::runWriter, "LedgerWriter-" + index);
+            writerThread.setDaemon(true);
+            writerThread.start();
+            postingThread = new Thread(this::runPostings, "LedgerShard-" + index);
+            postingThread.setDaemon(true);
+            postingThread.start();
+        }
+
+        private void join() {
+            try {
+                postingThread.join();
+                writerThread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private void runPostings() {
+            try {
+                while (!draining || !commands.isEmpty() || creditsInFlight.get() > 0) {
+                    Command first = commands.poll(pollNanos(), TimeUnit.NANOSECONDS);
+                    if (first != null) {
+                        apply(first);
+                        commands.drainTo(drained, DRAIN_LIMIT);
+                        for (Command command : drained) {
+                            apply(command);
+                        }
+                        drained.clear();
+                    }
+                    if (batch != null && System.nanoTime() - batch.startedAt >= flushIntervalNanos) {
+                        handOff();
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                if (batch != null) {
+                    handOff();
+                }
+                writerRunning = false;
+            }
+        }
+
+        private long pollNanos() {
+            if (batch == null) {
+                return flushIntervalNanos;
+            }
+            return Math.max(0, flushIntervalNanos - (System.nanoTime() - batch.startedAt));
+        }
+
+        private void apply(Command command) {
+            if (command.admitted) {
+                capacity.release();
+            }
+            try {
+                applyPosting(command);
+            } catch (RuntimeException e) {
+                System.err.println("✗ Ledger shard " + index + " could not apply a posting: " + e.getMessage());
+                command.done.completeExceptionally(e);
+            } finally {
+                if (command.forwarded) {
+                    creditsInFlight.decrementAndGet();
+                }
+            }
+        }
+
+        private void applyPosting(Command command) {
+            if (command.kind == Kind.BARRIER) {
+                command.done.complete(null);
+                return;
+            }
+            if (command.kind == Kind.FLUSH) {
+                currentBatch().flushWaiters.add(command.done);
+                handOff();
+                return;
+            }
+
+            if (command.kind == Kind.REVERT) {
+                Entry entry = accounts.get(command.accountNumber);
+                if (entry != null) {
+                    entry.balance = Money.subtract(entry.balance, command.amount);
+                }
+                return;
+            }
+
+            Entry entry = find(command.accountNumber, command.account);
+            if (entry == null) {
+                if (command.kind == Kind.TRANSFER_IN) {
+                    // Account disappeared after the transfer was accepted; give the money back
+                    reverse(command);
+                } else {
+                    if (command.debitRow != null) {
+                        // The source account of a reversed transfer is gone too; its debit is never written
+                        unwritten.add(command.debitRow);
+                        dropped.incrementAndGet();
+                    }
+                    rejected.incrementAndGet();
+                    command.done.complete(NOT_FOUND);
+                }
+                return;
+            }
+
+            switch (command.kind) {
+                case READ:
+                    command.done.complete(new Result(TransferEngine.Outcome.COMPLETED, entry.balance));
+                    return;
+                case CREDIT:
+                    // A reversal carries the debit it gives back
+                    recordDebit(command);
+                    record(command.accountNumber, post(entry, command.amount, command.transactionType,
+                            command.description, null), command.amount);
+                    endPosting();
+                    command.done.complete(new Result(TransferEngine.Outcome.COMPLETED, entry.balance));
+                    return;
+                case TRANSFER_IN:
+                    recordDebit(command);
+                    record(command.accountNumber, post(entry, command.amount, "TRANSFER_IN",
+                            "Transfer from " + command.counterparty, command.sourceAccountId), command.amount);
+                    endPosting();
+                    command.done.complete(new Result(TransferEngine.Outcome.COMPLETED, command.sourceBalance));
+                    return;
+                default:
+                    break;
+            }
+
+            // DEBIT and TRANSFER
+            if (entry.balance - command.amount < entry.floor) {
+                rejected.incrementAndGet();
+                command.done.complete(new Result(TransferEngine.Outcome.INSUFFICIENT_FUNDS, entry.balance));
+                return;
+            }
+            Integer reference = command.kind == Kind.TRANSFER ? command.counterpartyId : null;
+            TransactionDTO debit = post(entry, -command.amount, command.transactionType, command.description,
+                    reference);
+
+            if (command.kind == Kind.DEBIT) {
+                record(command.accountNumber, debit, -command.amount);
+                endPosting();
+                command.done.complete(new Result(TransferEngine.Outcome.COMPLETED, entry.balance));
+                return;
+            }
+            Command credit = new Command(Kind.TRANSFER_IN, command.counterparty, command.amount, null, null,
+                    command.accountNumber, entry.accountId, command.done);
+            credit.sourceAccountId = entry.accountId;
+            credit.sourceBalance = entry.balance;
+            credit.debitRow = debit;
+            credit.debitAccountNumber = command.accountNumber;
+            credit.account = command.counterpartyAccount;
+            Shard target = shardFor(command.counterparty);
+            if (target == this) {
+                apply(credit);
+            } else {
+                target.forward(credit);
+            }
+        }
+
+        /**
+         * Queue the credit leg of a transfer. Only postings submitted by callers
+         * count against the queue capacity, so two shards sending credits to each
+         * other never wait on each other.
+         */
+        private void forward(Command credit) {
+            credit.forwarded = true;
+            creditsInFlight.incrementAndGet();
+            commands.add(credit);
+        }
+
+        private void reverse(Command credit) {
+            Command refund = new Command(Kind.CREDIT, credit.counterparty, credit.amount, "TRANSFER_IN",
+                    "Reversal of transfer to " + credit.accountNumber, null, 0);
+            refund.debitRow = credit.debitRow;
+            refund.debitAccountNumber = credit.debitAccountNumber;
+            Shard source = shardFor(credit.counterparty);
+            if (source == this) {
+                apply(refund);
+            } else {
+                source.forward(refund);
+            }
+            rejected.incrementAndGet();
+            credit.done.complete(NOT_FOUND);
+        }
+
+        /**
+         * Apply a change to a balance and return its transaction row
+         */
+        private TransactionDTO post(Entry entry, long delta, String transactionType, String description,
+                                    Integer referenceAccountId) {
+            entry.balance = Money.add(entry.balance, delta);
+
+            TransactionDTO row = new TransactionDTO();
+            row.setAccountId(entry.accountId);
+            row.setTransactionType(transactionType);
+            row.setAmountCents(Math.abs(delta));
+            row.setBalanceAfterCents(entry.balance);
+            row.setDescription(description);
+            row.setReferenceAccountId(referenceAccountId);
+            applied.incrementAndGet();
+            return row;
+        }
+
+        private void record(String accountNumber, TransactionDTO row, long delta) {
+            Batch current = currentBatch();
+            current.rows.add(row);
+            current.deltas.add(delta);
+            current.accountNumbers.add(accountNumber);
+        }
+
+        private void recordDebit(Command credit) {
+            if (credit.debitRow != null) {
+                record(credit.debitAccountNumber, credit.debitRow, -credit.debitRow.getAmountCents());
+            }
+        }
+
+        /**
+         * Close the posting whose rows were just recorded; batches are only cut between postings
+         */
+        private void endPosting() {
+            batch.postingEnds.add(batch.rows.size());
+            if (batch.rows.size() >= batchSize) {
+                handOff();
+            }
+        }
+
+        /**
+         * Find an account. One opened after startup is added from the copy its
+         * submitter read; an account already in memory ignores that copy, whose
+         * balance may lag behind postings not yet written.
+         */
+        private Entry find(String accountNumber, AccountDTO loaded) {
+            Entry entry = accounts.get(accountNumber);
+            if (entry == null && loaded != null) {
+                entry = new Entry(loaded);
+                accounts.put(accountNumber, entry);
+                accountIds.put(accountNumber, loaded.getAccountId());
+            }
+            return entry;
+        }
+
+        private Batch currentBatch() {
+            if (batch == null) {
+                batch = new Batch();
+            }
+            return batch;
+        }
+
+        private void handOff() {
+            Batch full = batch;
+            batch = null;
+            try {
+                pendingBatches.put(full);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                System.err.println("✗ Ledger shard " + index + " interrupted; " + full.rows.size() +
+                        " postings not written");
+            }
+        }
+
+        private void runWriter() {
+            while (writerRunning || !pendingBatches.isEmpty()) {
+                Batch next;
+                try {
+                    next = pendingBatches.poll(100, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                if (next != null) {
+                    write(next);
+                }
+            }
+        }
+
+        /**
+         * Write one batch. Memory is already ahead of the database, so transient
+         * failures are retried until the batch is written. Any other failure is
+         * narrowed down by writing the batch one posting at a time; the postings
+         * that still fail are dropped and taken back out of memory.
+         */
+        private void write(Batch batch) {
+            SQLException failure = commit(batch, 0, batch.rows.size());
+            if (failure != null && !isTransient(failure)) {
+                System.err.println("✗ Ledger shard " + index + " could not write " + batch.rows.size() +
+                        " postings, writing them one at a time: " + failure.getMessage());
+                failure = null;
+                int from = 0;
+                for (int end : batch.postingEnds) {
+                    SQLException postingFailure = commit(batch, from, end);
+                    if (postingFailure != null) {
+                        drop(batch, from, end, postingFailure);
+                        failure = postingFailure;
+                    }
+                    from = end;
+                }
+            } else if (failure != null) {
+                drop(batch, 0, batch.rows.size(), failure);
+            }
+
+            if (failure != null) {
+                failWaiters(batch, failure);
+                return;
+            }
+            for (CompletableFuture<Result> waiter : batch.flushWaiters) {
+                waiter.complete(null);
+            }
+        }
+
+        /**
+         * Commit rows [from, to) in one transaction, retrying transient failures
+         * with backoff while the engine runs and up to the retry limit once it is
+         * stopping
+         * @return null on success, otherwise the failure
+         */
+        private SQLException commit(Batch batch, int from, int to) {
+            int maxAttempts = DatabaseConfig.getRetryMaxAttempts();
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    dbConn.beginTransaction();
+                    accountDAO.applyBalanceDeltas(batch.netChanges(from, to));
+                    transactionDAO.insertTransactionBatch(batch.rows.subList(from, to));
+                    dbConn.commit();
+                    break;
+
+                } catch (SQLException e) {
+                    dbConn.rollback();
+                    if (!isTransient(e) || (!running && attempt >= maxAttempts)) {
+                        return e;
+                    }
+                    writeRetries.incrementAndGet();
+                    if (!DatabaseConnection.isLockConflict(e)) {
+                        System.err.println("✗ Ledger shard " + index + " write failed, retrying: " + e.getMessage());
+                    }
+                    if (!TransferEngine.backoff(attempt, DatabaseConfig.getRetryBackoff(),
+                            DatabaseConfig.getRetryMaxBackoff())) {
+                        return e;
+                    }
+                }
+            }
+
+            persisted.addAndGet(to - from);
+            batches.incrementAndGet();
+            for (String accountNumber : batch.accountNumbers(from, to)) {
+                snapshots.invalidate(accountNumber);
+            }
+            return null;
+        }
+
+        /**
+         * Give up on rows [from, to): keep them for reconciliation and, while the
+         * engine runs, revert them in memory so balances match the database again.
+         * Once it is stopping the in-memory balances are discarded anyway.
+         */
+        private void drop(Batch batch, int from, int to, SQLException e) {
+            System.err.println("✗ Ledger shard " + index + " could not write " + (to - from) + " postings: " +
+                    e.getMessage());
+            for (int i = from; i < to; i++) {
+                unwritten.add(batch.rows.get(i));
+                if (running) {
+                    String accountNumber = batch.accountNumbers.get(i);
+                    shardFor(accountNumber).commands.add(new Command(Kind.REVERT, accountNumber,
+                            batch.deltas.get(i), null, null, null, 0));
+                }
+            }
+            dropped.addAndGet(to - from);
+        }
+
+        private void failWaiters(Batch batch, SQLException e) {
+            for (CompletableFuture<Result> waiter : batch.flushWaiters) {
+                waiter.completeExceptionally(e);
+            }
+        }
+    }
+}
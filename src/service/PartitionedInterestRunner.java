@@ -0,0 +1,348 @@
+package service;
+
+// PartitionedInterestRunner.java
+import config.DatabaseConnection;
+import dao.InterestDAO;
+import dao.InterestJobDAO;
+import dto.InterestCheckpointDTO;
+import dto.InterestJobRunDTO;
+import model.Money;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Restartable, parallel interest run for one calculation period
+ * Splits the account_id space into ranges and posts each range with the batch
+ * engine on a bounded thread pool. Every worker runs its own transactions and
+ * therefore holds its own pooled connection. Partition checkpoints are stored in
+ * interest_job_checkpoints inside each chunk transaction, so a run interrupted by
+ * a failure or a JVM crash resumes from the last committed account_id.
+ */
+public class PartitionedInterestRunner {
+
+    public enum PartitionStatus {
+        PENDING,
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+
+    private final InterestPostingEngine engine;
+    private final InterestDAO interestDAO;
+    private final InterestJobDAO jobDAO;
+    private final int parallelism;
+    private final int partitionCount;
+    private int jobRunId = -1;
+    private List<Partition> partitions;
+
+    /**
+     * @param engine Batch engine used by every partition
+     * @param parallelism Number of partitions processed at the same time
+     * @param partitionCount Number of account_id ranges a new run is split into
+     */
+    public PartitionedInterestRunner(InterestPostingEngine engine, int parallelism, int partitionCount) {
+        if (parallelism <= 0 || partitionCount <= 0) {
+            throw new IllegalArgumentException("Parallelism and partition count must be positive");
+        }
+        this.engine = engine;
+        this.interestDAO = new InterestDAO();
+        this.jobDAO = new InterestJobDAO();
+        this.parallelism = parallelism;
+        this.partitionCount = partitionCount;
+    }
+
+    /**
+     * Run interest for the engine's period.
+     * Starts a new job, resumes the incomplete partitions of an existing one,
+     * or does nothing if the period was already completed.
+     * @return true when every partition of the period has completed
+     */
+    public boolean run() {
+        String period = engine.getCalculationPeriod();
+        String periodKey = engine.getPeriodKey();
+
+        InterestJobRunDTO job = jobDAO.getJobRun(period, periodKey);
+        if (job == null) {
+            List<InterestCheckpointDTO> planned;
+            try {
+                planned = planPartitions();
+            } catch (SQLException e) {
+                // No job row yet, so the next run plans the period again
+                System.err.println("✗ Error fetching account ID range: " + e.getMessage());
+                return false;
+            }
+            // Empty only when the range query found no active accounts; that job completes with no partitions
+            jobRunId = jobDAO.createJobRun(period, periodKey, planned);
+            if (jobRunId == -1) {
+                return false;
+            }
+            loadPartitions(planned);
+        } else {
+            jobRunId = job.getJobRunId();
+            loadPartitions(jobDAO.getCheckpoints(jobRunId));
+            if (job.isCompleted()) {
+                System.out.println("✓ Interest for " + period + " " + periodKey + " already posted");
+                return true;
+            }
+            System.out.println("Resuming interest job #" + jobRunId + " for " + period + " " + periodKey);
+        }
+
+        boolean complete = execute();
+        jobDAO.updateJobRunStatus(jobRunId, complete ? "COMPLETED" : "FAILED");
+        return complete;
+    }
+
+    /**
+     * Re-run only the partitions that did not complete, each from its last committed account_id
+     */
+    public boolean resume() {
+        return run();
+    }
+
+    /**
+     * Split [min, max] account_id into contiguous ranges of equal width
+     */
+    private List<InterestCheckpointDTO> planPartitions() throws SQLException {
+        int[] range = interestDAO.getActiveAccountIdRange();
+        List<InterestCheckpointDTO> planned = new ArrayList<>();
+        if (range[1] == 0) {
+            return planned;
+        }
+
+        long min = range[0];
+        long max = range[1];
+        long width = Math.max(1, (max - min + 1 + partitionCount - 1) / partitionCount);
+
+        int index = 0;
+        for (long lower = min - 1; lower < max; lower += width) {
+            long upper = Math.min(max, lower + width);
+            planned.add(new InterestCheckpointDTO(index++, (int) lower, (int) upper));
+        }
+        return planned;
+    }
+
+    private void loadPartitions(List<InterestCheckpointDTO> checkpoints) {
+        List<Partition> loaded = new ArrayList<>();
+        for (InterestCheckpointDTO checkpoint : checkpoints) {
+            loaded.add(new Partition(checkpoint));
+        }
+        partitions = loaded;
+    }
+
+    private boolean execute() {
+        List<Partition> todo = new ArrayList<>();
+        for (Partition partition : partitions) {
+            if (partition.status != PartitionStatus.COMPLETED) {
+                partition.status = PartitionStatus.PENDING;
+                todo.add(partition);
+            }
+        }
+        if (todo.isEmpty()) {
+            return true;
+        }
+
+        warnIfPoolTooSmall();
+
+        AtomicInteger threadCounter = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, todo.size()), r -> {
+            Thread thread = new Thread(r, "InterestPartition-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (Partition partition : todo) {
+                futures.add(executor.submit(() -> processPartition(partition)));
+            }
+            // A failed partition is recorded by processPartition; wait for the others regardless
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    System.err.println("✗ Interest partition failed: " + e.getCause());
+                }
+            }
+            executor.shutdown();
+        } catch (InterruptedException e) {
+            System.err.println("✗ Partitioned interest run interrupted");
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+
+        return isComplete();
+    }
+
+    /**
+     * Process one partition. Its checkpoint ends COMPLETED or FAILED, even if the
+     * engine throws, so a resumed run picks it up again.
+     */
+    private void processPartition(Partition partition) {
+        partition.status = PartitionStatus.RUNNING;
+        partition.attempts++;
+        try {
+            jobDAO.updateCheckpointStatus(jobRunId, partition.index, PartitionStatus.RUNNING.name());
+
+            InterestPostingEngine.RunResult result = engine.processRange(
+                    partition.lastAccountId, partition.upperAccountId,
+                    (lastAccountId, credited, interestCents) ->
+                            jobDAO.saveCheckpoint(jobRunId, partition.index, lastAccountId, credited, interestCents),
+                    progress -> partition.lastAccountId = progress.getLastAccountId());
+
+            partition.accountsScanned += result.getAccountsScanned();
+            partition.accountsCredited += result.getAccountsCredited();
+            partition.totalInterestCents = Money.add(partition.totalInterestCents, result.getTotalInterestCents());
+            partition.elapsedMillis += result.getElapsedMillis();
+            partition.lastAccountId = result.getLastAccountId();
+
+            if (result.isSuccessful()) {
+                partition.status = PartitionStatus.COMPLETED;
+                partition.failure = null;
+            } else {
+                partition.status = PartitionStatus.FAILED;
+                partition.failure = result.getFailure();
+            }
+        } catch (RuntimeException e) {
+            partition.status = PartitionStatus.FAILED;
+            partition.failure = e;
+            throw e;
+        } finally {
+            if (partition.status == PartitionStatus.RUNNING) {
+                // An Error escaped the engine
+                partition.status = PartitionStatus.FAILED;
+            }
+            jobDAO.updateCheckpointStatus(jobRunId, partition.index, partition.status.name());
+        }
+    }
+
+    private void warnIfPoolTooSmall() {
+        try {
+            int maxSize = DatabaseConnection.getInstance().getPool().getMaxSize();
+            if (parallelism > maxSize) {
+                System.out.println("⚠ Interest parallelism " + parallelism +
+                        " exceeds connection pool size " + maxSize + "; workers will wait for connections");
+            }
+        } catch (SQLException e) {
+            System.err.println("✗ " + e.getMessage());
+        }
+    }
+
+    /**
+     * Check whether every partition has completed
+     */
+    public boolean isComplete() {
+        if (partitions == null) {
+            return false;
+        }
+        for (Partition partition : partitions) {
+            if (partition.status != PartitionStatus.COMPLETED) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int getJobRunId() {
+        return jobRunId;
+    }
+
+    public List<Partition> getPartitions() {
+        return partitions == null ? Collections.emptyList() : Collections.unmodifiableList(partitions);
+    }
+
+    /**
+     * Accounts credited across all runs of this period
+     */
+    public long getAccountsCredited() {
+        long total = 0;
+        for (Partition partition : getPartitions()) {
+            total += partition.accountsCredited;
+        }
+        return total;
+    }
+
+    /**
+     * Interest paid across all runs of this period
+     */
+    public double getTotalInterest() {
+        long total = 0L;
+        for (Partition partition : getPartitions()) {
+            total = Money.add(total, partition.totalInterestCents);
+        }
+        return Money.toDouble(total);
+    }
+
+    /**
+     * Display per-partition progress
+     */
+    public void displayProgress() {
+        System.out.println("\n=== Interest Job #" + jobRunId + " Partitions (parallelism " + parallelism + ") ===");
+        for (Partition partition : getPartitions()) {
+            System.out.println(partition);
+        }
+    }
+
+    /**
+     * A contiguous account_id range processed by one worker
+     */
+    public static class Partition {
+        private final int index;
+        private final int afterAccountId;
+        private final int upperAccountId;
+        private volatile int lastAccountId;
+        private volatile PartitionStatus status;
+        private long accountsScanned;
+        private long accountsCredited;
+        private long totalInterestCents;
+        private long elapsedMillis;
+        private int attempts;
+        private Exception failure;
+
+        Partition(InterestCheckpointDTO checkpoint) {
+            this.index = checkpoint.getPartitionNo();
+            this.afterAccountId = checkpoint.getAfterAccountId();
+            this.upperAccountId = checkpoint.getUpperAccountId();
+            this.lastAccountId = checkpoint.getLastAccountId();
+            this.status = PartitionStatus.valueOf(checkpoint.getStatus());
+            this.accountsCredited = checkpoint.getAccountsCredited();
+            this.totalInterestCents = Money.fromDouble(checkpoint.getInterestPaid());
+        }
+
+        public int getIndex() { return index; }
+        public int getAfterAccountId() { return afterAccountId; }
+        public int getUpperAccountId() { return upperAccountId; }
+        public int getLastAccountId() { return lastAccountId; }
+        public PartitionStatus getStatus() { return status; }
+        public long getAccountsScanned() { return accountsScanned; }
+        public long getAccountsCredited() { return accountsCredited; }
+        public double getTotalInterest() { return Money.toDouble(totalInterestCents); }
+        public int getAttempts() { return attempts; }
+        public Exception getFailure() { return failure; }
+
+        /**
+         * Fraction of the account_id range already committed
+         */
+        public double getProgress() {
+            if (status == PartitionStatus.COMPLETED) {
+                return 1.0;
+            }
+            return (double) (lastAccountId - afterAccountId) / (upperAccountId - afterAccountId);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("#%d (%d, %d] %s %.0f%% | %d credited | $%.2f | %d ms | attempts: %d%s",
+                    index, afterAccountId, upperAccountId, status, getProgress() * 100,
+                    accountsCredited, getTotalInterest(), elapsedMillis, attempts,
+                    failure == null ? "" : " | " + failure.getMessage());
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package service;
+
+// PaymentFileLoader.java
+import dto.TransferRequestDTO;
+import model.Money;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Reads payment files into transfer requests
+ *
+ * CSV:          from_account,to_account,amount[,reference]
+ *               A header line is skipped when its amount column is not numeric.
+ * Fixed width:  columns 1-20 from account, 21-40 to account, 41-55 amount,
+ *               56- reference (optional); fields are space padded.
+ *
+ * Blank lines and lines starting with # are ignored in both formats. Amounts
+ * with fractions of a cent (e.g. 10.005) are reported as invalid lines.
+ */
+public class PaymentFileLoader {
+
+    public enum Format {
+        CSV,
+        FIXED_WIDTH
+    }
+
+    private static final int FROM_END = 20;
+    private static final int TO_END = 40;
+    private static final int AMOUNT_END = 55;
+
+    /**
+     * Load a file, choosing CSV for *.csv and fixed width otherwise
+     */
+    public LoadResult load(String path) throws IOException {
+        return load(path, path.toLowerCase().endsWith(".csv") ? Format.CSV : Format.FIXED_WIDTH);
+    }
+
+    public LoadResult load(String path, Format format) throws IOException {
+        LoadResult result = new LoadResult();
+
+        try (BufferedReader reader = Files.newBufferedReader(Paths.get(path), StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.trim().isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                if (format == Format.CSV && result.requests.isEmpty() && result.errors.isEmpty() && isHeader(line)) {
+                    continue;
+                }
+                try {
+                    TransferRequestDTO request = format == Format.CSV ? parseCsv(line) : parseFixedWidth(line);
+                    request.setLineNumber(lineNumber);
+                    result.requests.add(request);
+                } catch (IllegalArgumentException e) {
+                    result.errors.add("Line " + lineNumber + ": " + e.getMessage());
+                }
+            }
+        }
+        return result;
+    }
+
+    private static TransferRequestDTO parseCsv(String line) {
+        String[] fields = line.split(",", 4);
+        if (fields.length < 3) {
+            throw new IllegalArgumentException("Expected from_account,to_account,amount[,reference]");
+        }
+        return new TransferRequestDTO(unquote(fields[0]), unquote(fields[1]), parseAmount(unquote(fields[2])),
+                fields.length > 3 ? unquote(fields[3]) : null);
+    }
+
+    private static boolean isHeader(String line) {
+        String[] fields = line.split(",", 4);
+        if (fields.length < 3) {
+            return false;
+        }
+        try {
+            Double.parseDouble(unquote(fields[2]));
+            return false;
+        } catch (NumberFormatException e) {
+            return true;
+        }
+    }
+
+    private static TransferRequestDTO parseFixedWidth(String line) {
+        if (line.length() < AMOUNT_END) {
+            throw new IllegalArgumentException("Record shorter than " + AMOUNT_END + " characters");
+        }
+        String reference = line.length() > AMOUNT_END ? line.substring(AMOUNT_END).trim() : null;
+        return new TransferRequestDTO(line.substring(0, FROM_END).trim(), line.substring(FROM_END, TO_END).trim(),
+                parseAmount(line.substring(TO_END, AMOUNT_END).trim()), reference);
+    }
+
+    /**
+     * Amount in cents. Fractions of a cent are rejected rather than rounded, so
+     * a line is paid exactly as written or not at all.
+     */
+    private static long parseAmount(String value) {
+        BigDecimal amount;
+        try {
+            amount = new BigDecimal(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid amount: " + value);
+        }
+        if (amount.stripTrailingZeros().scale() > Money.SCALE) {
+            throw new IllegalArgumentException("Amount has fractions of a cent: " + value);
+        }
+        long cents;
+        try {
+            cents = amount.setScale(Money.SCALE, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Invalid amount: " + value);
+        }
+        if (cents <= 0) {
+            throw new IllegalArgumentException("Amount must be positive: " + value);
+        }
+        return cents;
+    }
+
+    private static String unquote(String value) {
+        String trimmed = value.trim();
+        if (trimmed.length() >= 2 && trimmed.startsWith("\"") && trimmed.endsWith("\"")) {
+            return trimmed.substring(1, trimmed.length() - 1).replace("\"\"", "\"");
+        }
+        return trimmed;
+    }
+
+    /**
+     * Parsed requests plus the lines that could not be parsed
+     */
+    public static class LoadResult {
+        private final List<TransferRequestDTO> requests = new ArrayList<>();
+        private final List<String> errors = new ArrayList<>();
+
+        public List<TransferRequestDTO> getRequests() {
+            return Collections.unmodifiableList(requests);
+        }
+
+        public List<String> getErrors() {
+            return Collections.unmodifiableList(errors);
+        }
+
+        public boolean hasErrors() {
+            return !errors.isEmpty();
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package service;
+
+// PostingNetter.java
+import dao.AccountDAO;
+import dao.TransactionDAO;
+import dto.AccountDTO;
+import dto.TransactionDTO;
+import model.Money;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Netting stage for bulk postings inside one transaction (the batch window)
+ * Postings are applied to running balances in memory; every posting still gets
+ * its own transactions row with the correct balance_after, but each affected
+ * account receives a single balance UPDATE when the window is flushed. An
+ * account credited or debited a thousand times in a window is written once.
+ * Amounts and running balances are long cents, so the net written for an
+ * account is exactly the sum of its postings. For a striped account the
+ * starting balance misses stripe credits still in flight, so its balance_after
+ * values stay provisional until stripe consolidation settles them.
+ *
+ * Usage: lock the accounts, {@link #open} each one, post, then {@link #flush}
+ * before committing. Not thread-safe; use one instance per transaction.
+ */
+public class PostingNetter {
+    private final AccountDAO accountDAO;
+    private final TransactionDAO transactionDAO;
+
+    private final Map<Integer, AccountDTO> accounts = new HashMap<>();
+    private final Map<Integer, Long> deltas = new TreeMap<>();
+    private final List<TransactionDTO> rows = new ArrayList<>();
+
+    // Statistics across flushes
+    private long postingsFlushed;
+    private long balanceUpdates;
+
+    public PostingNetter() {
+        this.accountDAO = new AccountDAO();
+        this.transactionDAO = new TransactionDAO();
+    }
+
+    /**
+     * Register an account locked by the current transaction. Its balance is the
+     * starting point for the running balance of every posting in this window.
+     */
+    public void open(AccountDTO lockedAccount) {
+        accounts.putIfAbsent(lockedAccount.getAccountId(), lockedAccount);
+    }
+
+    public boolean isOpen(int accountId) {
+        return accounts.containsKey(accountId);
+    }
+
+    public AccountDTO getAccount(int accountId) {
+        return accounts.get(accountId);
+    }
+
+    /**
+     * Running balance of an open account in cents, including postings not yet flushed
+     */
+    public long getBalanceCents(int accountId) {
+        return requireOpen(accountId).getBalanceCents();
+    }
+
+    /**
+     * Check whether a debit keeps the account at or above its withdrawal floor
+     */
+    public boolean canDebit(int accountId, long amountCents) {
+        AccountDTO account = requireOpen(accountId);
+        return account.getBalanceCents() - amountCents >= AccountDAO.getWithdrawalFloorCents(account.getAccountType());
+    }
+
+    /**
+     * Post a credit
+     * @return balance after the posting, in cents
+     */
+    public long credit(int accountId, String transactionType, long amountCents, String description,
+                       Integer referenceAccountId) {
+        return post(accountId, transactionType, amountCents, amountCents, description, referenceAccountId);
+    }
+
+    /**
+     * Post a debit. Callers check {@link #canDebit} first when the floor applies.
+     * @return balance after the posting, in cents
+     */
+    public long debit(int accountId, String transactionType, long amountCents, String description,
+                      Integer referenceAccountId) {
+        return post(accountId, transactionType, -amountCents, amountCents, description, referenceAccountId);
+    }
+
+    private long post(int accountId, String transactionType, long delta, long amount,
+                      String description, Integer referenceAccountId) {
+        AccountDTO account = requireOpen(accountId);
+        long balanceAfter = Money.add(account.getBalanceCents(), delta);
+        account.setBalanceCents(balanceAfter);
+        deltas.merge(accountId, delta, Money::add);
+
+        TransactionDTO row = new TransactionDTO();
+        row.setAccountId(accountId);
+        row.setAccountNumber(account.getAccountNumber());
+        row.setTransactionType(transactionType);
+        row.setAmountCents(amount);
+        row.setBalanceAfterCents(balanceAfter);
+        row.setDescription(description);
+        row.setReferenceAccountId(referenceAccountId);
+        rows.add(row);
+        return balanceAfter;
+    }
+
+    /**
+     * Write the window on the current transaction: one net balance UPDATE per
+     * account and one JDBC batch of transaction rows. Running balances stay
+     * valid, so further postings may follow in the same transaction.
+     * @return account numbers whose balance changed
+     */
+    public List<String> flush() throws SQLException {
+        List<String> changed = new ArrayList<>();
+        Map<Integer, Long> netDeltas = new TreeMap<>();
+        for (Map.Entry<Integer, Long> delta : deltas.entrySet()) {
+            long net = delta.getValue();
+            if (net != 0L) {
+                netDeltas.put(delta.getKey(), net);
+                changed.add(accounts.get(delta.getKey()).getAccountNumber());
+            }
+        }
+
+        accountDAO.applyBalanceDeltas(netDeltas);
+        transactionDAO.insertTransactionBatch(rows);
+
+        postingsFlushed += rows.size();
+        balanceUpdates += netDeltas.size();
+        deltas.clear();
+        rows.clear();
+        return changed;
+    }
+
+    /**
+     * Postings written since this netter was created
+     */
+    public long getPostingsFlushed() {
+        return postingsFlushed;
+    }
+
+    /**
+     * Balance UPDATE statements issued for those postings
+     */
+    public long getBalanceUpdates() {
+        return balanceUpdates;
+    }
+
+    public int getPendingPostings() {
+        return rows.size();
+    }
+
+    private AccountDTO requireOpen(int accountId) {
+        AccountDTO account = accounts.get(accountId);
+        if (account == null) {
+            throw new IllegalStateException("Account " + accountId + " is not open in this batch window");
+        }
+        return account;
+    }
+}
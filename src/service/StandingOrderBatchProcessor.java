@@ -0,0 +1,534 @@
+package service;
+
+// StandingOrderBatchProcessor.java
+import cache.AccountSnapshotCache;
+import config.DatabaseConfig;
+import config.DatabaseConnection;
+import dao.AccountDAO;
+import dao.StandingOrderDAO;
+import dto.AccountDTO;
+import dto.StandingOrderDTO;
+import model.Money;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Batched standing order execution
+ * Due orders are claimed in standing_order_id order, one chunk at a time, under
+ * this node's name with a lease, so several nodes can drain the due orders in
+ * parallel without executing one twice: a short transaction selects the due rows
+ * with FOR UPDATE SKIP LOCKED, skipping unexpired claims of other nodes, and
+ * stamps them. Each claimed chunk is then executed in one transaction: the claimed
+ * rows are locked again with FOR UPDATE OF so (rows whose claim another node took
+ * over in between are left out), the accounts are locked once in account_id order,
+ * the payments are posted through a {@link PostingNetter} (one net balance update
+ * per account and one batch of transaction rows), and the executed orders are
+ * advanced and released with one batched UPDATE. Orders that cannot be paid keep
+ * their claim until the lease expires and are retried by a later run. A chunk that
+ * fails for a database reason is executed again one order at a time; an order that
+ * still fails is recorded, its claim released, and the run carries on after it.
+ *
+ * Every executed occurrence is recorded in standing_order_executions under its
+ * (order, date) key in the same transaction, and occurrences already recorded
+ * are skipped, so an occurrence is never paid twice. By default an order runs
+ * at most once per run; in catch-up mode ({@link #setCatchUp}) every missed
+ * occurrence up to the run date (and end_date) is paid in the same pass, at a
+ * limited rate. The rate also caps the payments of one chunk transaction at
+ * about a second's worth: once a chunk reaches that budget, the order being paid
+ * keeps next_execution_date at its first unpaid date and the next chunk resumes
+ * from it after the throttle.
+ */
+public class StandingOrderBatchProcessor {
+    public static final int DEFAULT_CHUNK_SIZE = 1000;
+
+    private final StandingOrderDAO standingOrderDAO;
+    private final AccountDAO accountDAO;
+    private final DatabaseConnection dbConn;
+    private final int chunkSize;
+    private final String owner;
+    private final int leaseSeconds;
+    private int maxOccurrences = 1;
+    private double occurrencesPerSecond;
+    private int occurrenceBudget = Integer.MAX_VALUE;
+
+    public StandingOrderBatchProcessor() {
+        this(DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * @param chunkSize Orders claimed and executed per transaction
+     */
+    public StandingOrderBatchProcessor(int chunkSize) {
+        this(chunkSize, DatabaseConfig.getSchedulerNodeId(), DatabaseConfig.getSchedulerLeaseSeconds());
+    }
+
+    /**
+     * @param chunkSize Orders claimed and executed per transaction
+     * @param owner Name this node claims orders under; must differ between nodes
+     * @param leaseSeconds How long a claim lasts before other nodes may take it over
+     */
+    public StandingOrderBatchProcessor(int chunkSize, String owner, int leaseSeconds) {
+        if (chunkSize <= 0 || leaseSeconds <= 0) {
+            throw new IllegalArgumentException("Chunk size and lease must be positive");
+        }
+        this.standingOrderDAO = new StandingOrderDAO();
+        this.accountDAO = new AccountDAO();
+        this.dbConn = DatabaseConnection.getInstance();
+        this.chunkSize = chunkSize;
+        this.owner = owner;
+        this.leaseSeconds = leaseSeconds;
+    }
+
+    /**
+     * Pay every missed occurrence of an order instead of only the next one
+     * @param maxOccurrences Most occurrences paid per order in one run (1 turns catch-up off)
+     * @param occurrencesPerSecond Upper bound on the payment rate, or 0 for no limit;
+     *                             also the most payments posted in one chunk transaction
+     */
+    public void setCatchUp(int maxOccurrences, double occurrencesPerSecond) {
+        if (maxOccurrences <= 0 || occurrencesPerSecond < 0) {
+            throw new IllegalArgumentException("Invalid catch-up settings");
+        }
+        this.maxOccurrences = maxOccurrences;
+        this.occurrencesPerSecond = occurrencesPerSecond;
+        this.occurrenceBudget = occurrencesPerSecond > 0
+                ? (int) Math.max(1, Math.min(Integer.MAX_VALUE, Math.ceil(occurrencesPerSecond))) : Integer.MAX_VALUE;
+    }
+
+    /**
+     * Execute every active order due on or before asOf.
+     * Each chunk commits independently. An order whose execution still fails after
+     * lock conflict retries is counted as failed and skipped; only a failure to
+     * claim (or any failure inside an enclosing transaction) stops the run, and the
+     * result records the last id handled before it.
+     */
+    public RunResult process(LocalDate asOf) {
+        RunResult result = new RunResult();
+        long start = System.nanoTime();
+        int maxAttempts = dbConn.isInTransaction() ? 1 : DatabaseConfig.getRetryMaxAttempts();
+
+        int lastOrderId = 0;
+        ChunkResult previous = new ChunkResult();
+        while (true) {
+            List<Integer> claimed = null;
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    dbConn.beginTransaction();
+                    claimed = standingOrderDAO.claimDueChunk(owner, lastOrderId, asOf, chunkSize, leaseSeconds);
+                    dbConn.commit();
+                    break;
+
+                } catch (SQLException e) {
+                    dbConn.rollback();
+                    if (DatabaseConnection.isLockConflict(e) && attempt < maxAttempts
+                            && TransferEngine.backoff(attempt, DatabaseConfig.getRetryBackoff(),
+                            DatabaseConfig.getRetryMaxBackoff())) {
+                        continue;
+                    }
+                    result.failure = e;
+                    System.err.println("✗ Claiming standing orders after order " + lastOrderId +
+                            " failed: " + e.getMessage());
+                    break;
+                }
+            }
+            if (claimed == null || claimed.isEmpty()) {
+                break;
+            }
+
+            ChunkResult chunk = new ChunkResult();
+            chunk.claimed = claimed.size();
+            chunk.lastOrderId = claimed.get(claimed.size() - 1);
+            SQLException failure = execute(claimed, asOf, previous, chunk, maxAttempts);
+            if (failure != null && dbConn.isInTransaction()) {
+                // The failure has already doomed the enclosing transaction; nothing can be isolated
+                result.failure = failure;
+                System.err.println("✗ Standing order chunk after order " + lastOrderId +
+                        " failed: " + failure.getMessage());
+                break;
+            }
+            if (failure != null) {
+                isolateFailures(claimed, asOf, previous, chunk, failure, maxAttempts, result);
+            }
+
+            result.chunkCommitted(chunk);
+            // An order cut short by the occurrence budget is claimed again first
+            lastOrderId = chunk.resumeOrderId != 0 ? chunk.resumeOrderId - 1 : chunk.lastOrderId;
+            previous = chunk;
+            if ((chunk.resumeOrderId == 0 && chunk.claimed < chunkSize)
+                    || !throttle(result.occurrencesExecuted, start)) {
+                break;
+            }
+        }
+
+        result.elapsedNanos = System.nanoTime() - start;
+        return result;
+    }
+
+    /**
+     * Execute the orders of a failed chunk one at a time. An order that fails on its
+     * own is counted, recorded in the result and its claim released, so a later run
+     * retries it without holding up the orders after it.
+     */
+    private void isolateFailures(List<Integer> claimed, LocalDate asOf, ChunkResult previous, ChunkResult chunk,
+                                 SQLException failure, int maxAttempts, RunResult result) {
+        if (claimed.size() == 1) {
+            for (int orderId : claimed) {
+                orderFailed(orderId, failure, chunk, result);
+            }
+            return;
+        }
+
+        System.out.println("⚠ Standing order chunk after order " + claimed.get(0) + " failed (" +
+                failure.getMessage() + "); executing its orders one at a time");
+        for (int orderId : claimed) {
+            if (chunk.resumeOrderId != 0) {
+                // Budget reached; the rest stay claimed for the next chunk
+                break;
+            }
+            SQLException orderFailure = execute(Collections.singletonList(orderId), asOf, previous, chunk,
+                    maxAttempts);
+            if (orderFailure != null) {
+                orderFailed(orderId, orderFailure, chunk, result);
+            }
+        }
+    }
+
+    private void orderFailed(int orderId, SQLException failure, ChunkResult chunk, RunResult result) {
+        System.err.println("✗ Standing order #" + orderId + " failed: " + failure.getMessage());
+        chunk.scanned++;
+        chunk.failed++;
+        result.orderErrors.put(orderId, failure.getMessage());
+        try {
+            dbConn.beginTransaction();
+            standingOrderDAO.releaseClaims(Collections.singletonList(orderId), owner);
+            dbConn.commit();
+        } catch (SQLException e) {
+            // The lease still expires on its own
+            dbConn.rollback();
+            System.err.println("✗ Releasing standing order #" + orderId + " failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Execute claimed orders in one transaction, retrying lock conflicts, and add
+     * the counts to the chunk once it commits
+     * @param previous Chunk before this one, whose cut-short order may continue here
+     * @return null if the transaction committed, otherwise the final failure
+     */
+    private SQLException execute(List<Integer> claimed, LocalDate asOf, ChunkResult previous, ChunkResult chunk,
+                                 int maxAttempts) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                chunk.add(executeClaimed(claimed, asOf, previous));
+                return null;
+
+            } catch (SQLException e) {
+                dbConn.rollback();
+                if (DatabaseConnection.isLockConflict(e) && attempt < maxAttempts
+                        && TransferEngine.backoff(attempt, DatabaseConfig.getRetryBackoff(),
+                        DatabaseConfig.getRetryMaxBackoff())) {
+                    continue;
+                }
+                return e;
+            }
+        }
+    }
+
+    /**
+     * One attempt at executing claimed orders in a single transaction
+     */
+    private ChunkResult executeClaimed(List<Integer> claimed, LocalDate asOf, ChunkResult previous)
+            throws SQLException {
+        ChunkResult chunk = new ChunkResult();
+
+        dbConn.beginTransaction();
+        List<StandingOrderDTO> orders = standingOrderDAO.lockClaimedOrders(claimed, owner, asOf);
+        if (orders.isEmpty()) {
+            dbConn.commit();
+            return chunk;
+        }
+
+        TreeSet<Integer> accountIds = new TreeSet<>();
+        for (StandingOrderDTO order : orders) {
+            accountIds.add(order.getFromAccountId());
+            accountIds.add(order.getToAccountId());
+        }
+
+        PostingNetter netter = new PostingNetter();
+        for (AccountDTO account : accountDAO.lockAccounts(toArray(accountIds))) {
+            netter.open(account);
+        }
+
+        List<Integer> orderIds = new ArrayList<>(orders.size());
+        LocalDate earliest = asOf;
+        for (StandingOrderDTO order : orders) {
+            orderIds.add(order.getStandingOrderId());
+            if (order.getNextExecutionDate().isBefore(earliest)) {
+                earliest = order.getNextExecutionDate();
+            }
+        }
+        Map<Integer, Set<LocalDate>> alreadyExecuted = standingOrderDAO.getExecutedOccurrences(orderIds, earliest);
+
+        List<StandingOrderDTO> advanced = new ArrayList<>();
+        List<Integer> deferred = new ArrayList<>();
+        Map<Integer, List<LocalDate>> occurrences = new LinkedHashMap<>();
+        int budgetLeft = occurrenceBudget;
+        for (StandingOrderDTO order : orders) {
+            if (chunk.resumeOrderId != 0) {
+                deferred.add(order.getStandingOrderId());
+                continue;
+            }
+            int sourceId = order.getFromAccountId();
+            int targetId = order.getToAccountId();
+            long amount = order.getAmountCents();
+            boolean payable = sourceId != targetId && amount > 0 && netter.isOpen(sourceId) && netter.isOpen(targetId);
+            Set<LocalDate> executedDates = alreadyExecuted.getOrDefault(order.getStandingOrderId(),
+                    Collections.emptySet());
+
+            String description = order.getDescription() == null || order.getDescription().isEmpty()
+                    ? "" : " (" + order.getDescription() + ")";
+            LocalDate date = order.getNextExecutionDate();
+            // Occurrences paid earlier in this run, if the previous chunk was cut short in this order
+            int paidBefore = order.getStandingOrderId() == previous.resumeOrderId ? previous.resumePaid : 0;
+            int posted = 0;
+            boolean cutShort = false;
+            while (paidBefore + posted < maxOccurrences && !date.isAfter(asOf)
+                    && (order.getEndDate() == null || !date.isAfter(order.getEndDate()))) {
+                if (!executedDates.contains(date)) {
+                    if (!payable || !netter.canDebit(sourceId, amount)) {
+                        break;
+                    }
+                    if (budgetLeft == 0) {
+                        cutShort = true;
+                        break;
+                    }
+                    budgetLeft--;
+                    netter.debit(sourceId, "TRANSFER_OUT", amount,
+                            "Standing order to " + order.getToAccountNumber() + " for " + date + description, targetId);
+                    netter.credit(targetId, "TRANSFER_IN", amount,
+                            "Standing order from " + order.getFromAccountNumber() + " for " + date + description,
+                            sourceId);
+                    occurrences.computeIfAbsent(order.getStandingOrderId(), id -> new ArrayList<>()).add(date);
+                    posted++;
+                }
+                date = nextExecutionDate(date, order.getFrequency());
+            }
+
+            if (cutShort) {
+                chunk.resumeOrderId = order.getStandingOrderId();
+                chunk.resumePaid = paidBefore + posted;
+                if (posted == 0) {
+                    deferred.add(order.getStandingOrderId());
+                    continue;
+                }
+            }
+            chunk.scanned++;
+
+            boolean ended = order.getEndDate() != null && date.isAfter(order.getEndDate());
+            if (date.equals(order.getNextExecutionDate()) && !ended) {
+                chunk.failed++;
+                continue;
+            }
+
+            if (posted > 0) {
+                chunk.executed++;
+                chunk.occurrences += posted;
+                chunk.amountCents += amount * posted;
+                order.setLastExecutionDate(asOf);
+            }
+            order.setNextExecutionDate(date);
+            if (ended) {
+                order.setStatus("COMPLETED");
+                chunk.completed++;
+            }
+            advanced.add(order);
+        }
+
+        List<String> changed = netter.flush();
+        standingOrderDAO.insertExecutions(occurrences);
+        standingOrderDAO.advanceStandingOrders(advanced);
+        // Left for the next chunk; released in case the run stops before it
+        standingOrderDAO.releaseClaims(deferred, owner);
+        dbConn.commit();
+
+        AccountSnapshotCache snapshots = AccountSnapshotCache.getInstance();
+        for (String accountNumber : changed) {
+            snapshots.invalidate(accountNumber);
+        }
+
+        chunk.postings = netter.getPostingsFlushed();
+        chunk.balanceUpdates = netter.getBalanceUpdates();
+        return chunk;
+    }
+
+    /**
+     * Sleep between chunks (holding no locks) while the run is ahead of the rate limit
+     * @return false if the thread was interrupted
+     */
+    private boolean throttle(long occurrencesExecuted, long startNanos) {
+        if (occurrencesPerSecond <= 0) {
+            return true;
+        }
+        long aheadMillis = (long) (occurrencesExecuted * 1000.0 / occurrencesPerSecond)
+                - (System.nanoTime() - startNanos) / 1_000_000;
+        if (aheadMillis <= 0) {
+            return true;
+        }
+        try {
+            Thread.sleep(aheadMillis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Next execution date after the given one for a frequency
+     */
+    public static LocalDate nextExecutionDate(LocalDate currentDate, String frequency) {
+        switch (frequency.toUpperCase()) {
+            case "DAILY":
+                return currentDate.plusDays(1);
+            case "WEEKLY":
+                return currentDate.plusWeeks(1);
+            case "MONTHLY":
+                return currentDate.plusMonths(1);
+            case "QUARTERLY":
+                return currentDate.plusMonths(3);
+            case "YEARLY":
+                return currentDate.plusYears(1);
+            default:
+                return currentDate.plusMonths(1); // Default to monthly
+        }
+    }
+
+    private static int[] toArray(TreeSet<Integer> ids) {
+        int[] array = new int[ids.size()];
+        int index = 0;
+        for (int id : ids) {
+            array[index++] = id;
+        }
+        return array;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    /**
+     * Counts of one claimed chunk
+     */
+    private static class ChunkResult {
+        private int claimed;
+        private int scanned;
+        private int executed;
+        private int occurrences;
+        private int failed;
+        private int completed;
+        private long amountCents;
+        private long postings;
+        private long balanceUpdates;
+        private int lastOrderId;
+        // Order cut short by the occurrence budget (0 = none) and its payments so far this run
+        private int resumeOrderId;
+        private int resumePaid;
+
+        /**
+         * Add the counts of a committed execution
+         */
+        void add(ChunkResult executed) {
+            if (resumeOrderId == 0) {
+                this.resumeOrderId = executed.resumeOrderId;
+                this.resumePaid = executed.resumePaid;
+            }
+            this.scanned += executed.scanned;
+            this.executed += executed.executed;
+            this.occurrences += executed.occurrences;
+            this.failed += executed.failed;
+            this.completed += executed.completed;
+            this.amountCents += executed.amountCents;
+            this.postings += executed.postings;
+            this.balanceUpdates += executed.balanceUpdates;
+        }
+    }
+
+    /**
+     * Outcome of a run
+     */
+    public static class RunResult {
+        private long ordersScanned;
+        private long ordersExecuted;
+        private long occurrencesExecuted;
+        private long ordersFailed;
+        private long ordersCompleted;
+        private long totalAmountCents;
+        private long postings;
+        private long balanceUpdates;
+        private int chunksCommitted;
+        private int lastOrderId;
+        private long elapsedNanos;
+        private SQLException failure;
+        private final Map<Integer, String> orderErrors = new LinkedHashMap<>();
+
+        void chunkCommitted(ChunkResult chunk) {
+            this.ordersScanned += chunk.scanned;
+            this.ordersExecuted += chunk.executed;
+            this.occurrencesExecuted += chunk.occurrences;
+            this.ordersFailed += chunk.failed;
+            this.ordersCompleted += chunk.completed;
+            this.totalAmountCents += chunk.amountCents;
+            this.postings += chunk.postings;
+            this.balanceUpdates += chunk.balanceUpdates;
+            this.chunksCommitted++;
+            this.lastOrderId = chunk.lastOrderId;
+        }
+
+        public long getOrdersScanned() { return ordersScanned; }
+        public long getOrdersExecuted() { return ordersExecuted; }
+        public long getOccurrencesExecuted() { return occurrencesExecuted; }
+        public long getOrdersFailed() { return ordersFailed; }
+        public long getOrdersCompleted() { return ordersCompleted; }
+        public long getTotalAmountCents() { return totalAmountCents; }
+        public double getTotalAmount() { return Money.toDouble(totalAmountCents); }
+        public long getPostings() { return postings; }
+        public long getBalanceUpdates() { return balanceUpdates; }
+        public int getChunksCommitted() { return chunksCommitted; }
+        public int getLastOrderId() { return lastOrderId; }
+        public long getElapsedMillis() { return elapsedNanos / 1_000_000; }
+        public boolean isSuccessful() { return failure == null; }
+        public SQLException getFailure() { return failure; }
+        /** Orders skipped after a database error, with the error message, by standing_order_id */
+        public Map<Integer, String> getOrderErrors() { return Collections.unmodifiableMap(orderErrors); }
+
+        public double getOrdersPerSecond() {
+            return elapsedNanos == 0 ? 0.0 : ordersExecuted * 1_000_000_000.0 / elapsedNanos;
+        }
+
+        public double getOccurrencesPerSecond() {
+            return elapsedNanos == 0 ? 0.0 : occurrencesExecuted * 1_000_000_000.0 / elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Orders: %d due, %d executed (%d payments, $%.2f), %d failed, %d completed | " +
+                            "Postings: %d netted into %d balance updates | Chunks: %d | %d ms (%.0f payments/sec)%s",
+                    ordersScanned, ordersExecuted, occurrencesExecuted, getTotalAmount(), ordersFailed, ordersCompleted,
+                    postings, balanceUpdates, chunksCommitted, getElapsedMillis(), getOccurrencesPerSecond(),
+                    (orderErrors.isEmpty() ? "" : " | " + orderErrors.size() + " skipped after errors") +
+                            (failure == null ? "" : " | FAILED after order " + lastOrderId));
+        }
+    }
+}
@@ -0,0 +1,386 @@
+package service;
+
+// TransactionJournal.java
+import config.DatabaseConfig;
+import config.DatabaseConnection;
+import dao.AccountDAO;
+import dao.TransactionDAO;
+import dto.AccountDTO;
+import dto.TransactionDTO;
+import model.Money;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Asynchronous, group-committed transaction journal
+ * Postings are queued by the calling threads and written by one writer thread.
+ * The writer collects up to batchSize postings, waiting at most maxLatency
+ * milliseconds after the first one, and commits them in a single transaction:
+ * balance changes, then one multi-row INSERT of the transaction rows. Many
+ * postings share one commit (one log flush) instead of paying for one each.
+ *
+ * Each posting gets a future that completes after its group commits. The queue
+ * is bounded: when the writer falls behind, {@link #post} and {@link #record}
+ * block until there is room. Futures complete on the writer thread, so
+ * callbacks attached to them should be short. A group that cannot be written
+ * is retried one posting at a time, so only the postings that fail on their own
+ * fail their futures; the writer carries on with the next group. A stopped
+ * journal can be started again.
+ */
+public class TransactionJournal {
+    private static volatile TransactionJournal instance;
+    private static final long STOP_TIMEOUT_MILLIS = 30_000;
+
+    private final AccountDAO accountDAO;
+    private final TransactionDAO transactionDAO;
+    private final DatabaseConnection dbConn;
+    private final BlockingQueue<Posting> queue;
+    private final int batchSize;
+    private final long maxLatencyNanos;
+    private volatile Thread writer;
+    // Accepting postings
+    private volatile boolean running;
+    // Set by stop() once no submit is in progress; the writer then empties the queue and exits
+    private volatile boolean draining;
+    // Submits hold the read lock while they check running and enqueue; stop() takes the write lock
+    private final ReadWriteLock submitLock = new ReentrantReadWriteLock();
+
+    // Statistics
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong groups = new AtomicLong();
+
+    /**
+     * @param batchSize Maximum postings per group commit
+     * @param maxLatencyMillis Maximum time the first posting of a group waits for others
+     * @param queueCapacity Postings queued before submitters block
+     */
+    public TransactionJournal(int batchSize, long maxLatencyMillis, int queueCapacity) {
+        if (batchSize <= 0 || queueCapacity <= 0 || maxLatencyMillis < 0) {
+            throw new IllegalArgumentException("Invalid journal settings");
+        }
+        this.accountDAO = new AccountDAO();
+        this.transactionDAO = new TransactionDAO();
+        this.dbConn = DatabaseConnection.getInstance();
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.maxLatencyNanos = TimeUnit.MILLISECONDS.toNanos(maxLatencyMillis);
+        start();
+    }
+
+    /**
+     * Start the writer and accept postings; does nothing if the journal is running
+     * @throws IllegalStateException if the writer of a timed out stop() is still busy
+     */
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        if (writer != null && writer.isAlive()) {
+            throw new IllegalStateException("Transaction journal writer is still stopping");
+        }
+        draining = false;
+        writer = new Thread(this::runWriter, "TransactionJournalThread");
+        writer.setDaemon(true);
+        writer.start();
+        running = true;
+    }
+
+    /**
+     * Get the shared journal, configured by the db.journal.* settings
+     */
+    public static TransactionJournal getInstance() {
+        if (instance == null) {
+            synchronized (TransactionJournal.class) {
+                if (instance == null) {
+                    instance = new TransactionJournal(DatabaseConfig.getJournalBatchSize(),
+                            DatabaseConfig.getJournalMaxLatency(), DatabaseConfig.getJournalQueueCapacity());
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Queue a balance change together with its transaction row. Debits only apply
+     * when the account stays at or above its withdrawal floor.
+     * @param delta Signed change; the row records its absolute value
+     * @return future of the updated account, or of null if the account was not
+     *         found or funds are insufficient
+     */
+    public CompletableFuture<AccountDTO> post(String accountNumber, String transactionType, double delta,
+                                              String description) {
+        return postCents(accountNumber, transactionType, Money.fromDouble(delta), description);
+    }
+
+    /**
+     * Same as post with the change in cents
+     */
+    public CompletableFuture<AccountDTO> postCents(String accountNumber, String transactionType, long deltaCents,
+                                                   String description) {
+        TransactionDTO row = new TransactionDTO();
+        row.setAccountNumber(accountNumber);
+        row.setTransactionType(transactionType.toUpperCase());
+        row.setAmountCents(Math.abs(deltaCents));
+        row.setDescription(description);
+        return submit(new Posting(row, deltaCents, true));
+    }
+
+    /**
+     * Queue a transaction row whose balance change is already committed
+     * @return future that completes with true once the row is written
+     */
+    public CompletableFuture<Boolean> record(int accountId, String transactionType, double amount,
+                                             double balanceAfter, String description) {
+        TransactionDTO row = new TransactionDTO();
+        row.setAccountId(accountId);
+        row.setTransactionType(transactionType.toUpperCase());
+        row.setAmount(amount);
+        row.setBalanceAfter(balanceAfter);
+        row.setDescription(description);
+        return submit(new Posting(row, 0L, false)).thenApply(account -> Boolean.TRUE);
+    }
+
+    private CompletableFuture<AccountDTO> submit(Posting posting) {
+        // A submit that saw running == true enqueues before stop() lets the writer exit
+        submitLock.readLock().lock();
+        try {
+            if (!running) {
+                posting.done.completeExceptionally(new IllegalStateException("Transaction journal is stopped"));
+                return posting.done;
+            }
+            queue.put(posting);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            posting.done.completeExceptionally(e);
+        } finally {
+            submitLock.readLock().unlock();
+        }
+        return posting.done;
+    }
+
+    /**
+     * Stop accepting postings and wait, at most STOP_TIMEOUT_MILLIS, until the
+     * queued ones are written. Postings still queued after that fail.
+     */
+    public synchronized void stop() {
+        submitLock.writeLock().lock();
+        try {
+            running = false;
+        } finally {
+            submitLock.writeLock().unlock();
+        }
+        draining = true;
+        Thread current = writer;
+        try {
+            current.join(STOP_TIMEOUT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (current.isAlive()) {
+            System.err.println("⚠ Transaction journal writer did not finish within " + STOP_TIMEOUT_MILLIS + " ms");
+        }
+
+        // Only left behind if the writer did not finish in time or stop() was interrupted
+        List<Posting> leftover = new ArrayList<>();
+        queue.drainTo(leftover);
+        if (!leftover.isEmpty()) {
+            fail(leftover, new IllegalStateException("Transaction journal is stopped"));
+        }
+        System.out.println("✓ Transaction journal stopped");
+    }
+
+    private void runWriter() {
+        List<Posting> group = new ArrayList<>(batchSize);
+        while (!draining || !queue.isEmpty()) {
+            try {
+                Posting first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                group.add(first);
+                long deadline = System.nanoTime() + maxLatencyNanos;
+                while (group.size() < batchSize) {
+                    queue.drainTo(group, batchSize - group.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (group.size() >= batchSize || remaining <= 0) {
+                        break;
+                    }
+                    Posting next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    group.add(next);
+                }
+            } catch (InterruptedException e) {
+                // Write what was collected and stop accepting postings; stop() ends the writer
+                running = false;
+            }
+
+            if (!group.isEmpty()) {
+                try {
+                    writeGroup(group);
+                } catch (Throwable t) {
+                    // Keep the writer alive for the next group
+                    dbConn.rollback();
+                    System.err.println("✗ Error writing " + group.size() + " journal postings: " + t);
+                    fail(group, t);
+                }
+                group.clear();
+            }
+        }
+    }
+
+    private void fail(List<Posting> postings, Throwable cause) {
+        for (Posting posting : postings) {
+            if (posting.done.completeExceptionally(cause)) {
+                failed.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Commit one group, retrying lock conflicts like a transfer does. If the group
+     * still fails, its postings are written one at a time so a bad posting fails alone.
+     */
+    private void writeGroup(List<Posting> group) {
+        int maxAttempts = DatabaseConfig.getRetryMaxAttempts();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                AccountDTO[] accounts = applyGroup(group);
+                groups.incrementAndGet();
+                for (int i = 0; i < group.size(); i++) {
+                    Posting posting = group.get(i);
+                    if (posting.applyBalance && accounts[i] == null) {
+                        rejected.incrementAndGet();
+                    } else {
+                        written.incrementAndGet();
+                    }
+                    posting.done.complete(accounts[i]);
+                }
+                return;
+
+            } catch (SQLException | RuntimeException e) {
+                dbConn.rollback();
+                if (e instanceof SQLException && DatabaseConnection.isLockConflict((SQLException) e)
+                        && attempt < maxAttempts && TransferEngine.backoff(attempt, DatabaseConfig.getRetryBackoff(),
+                        DatabaseConfig.getRetryMaxBackoff())) {
+                    continue;
+                }
+                if (group.size() > 1) {
+                    System.err.println("⚠ Group of " + group.size() + " journal postings failed (" +
+                            e.getMessage() + "); writing them one at a time");
+                    for (Posting posting : group) {
+                        writeGroup(Collections.singletonList(posting));
+                    }
+                    return;
+                }
+                System.err.println("✗ Error writing journal posting: " + e.getMessage());
+                fail(group, e);
+                return;
+            }
+        }
+    }
+
+    /**
+     * One attempt at writing a group in a single transaction
+     * @return updated accounts by position; null for rejected and record-only postings
+     */
+    private AccountDTO[] applyGroup(List<Posting> group) throws SQLException {
+        AccountDTO[] accounts = new AccountDTO[group.size()];
+        List<TransactionDTO> rows = new ArrayList<>(group.size());
+
+        dbConn.beginTransaction();
+        for (int i = 0; i < group.size(); i++) {
+            Posting posting = group.get(i);
+            if (!posting.applyBalance) {
+                rows.add(posting.row);
+                continue;
+            }
+            AccountDTO updated = accountDAO.applyBalanceDeltaCents(posting.row.getAccountNumber(), posting.deltaCents);
+            if (updated == null) {
+                continue;
+            }
+            TransactionDTO row = copyOf(posting.row);
+            row.setAccountId(updated.getAccountId());
+            row.setBalanceAfterCents(updated.getBalanceCents());
+            rows.add(row);
+            accounts[i] = updated;
+        }
+        transactionDAO.insertTransactionBatch(rows);
+        dbConn.commit();
+        return accounts;
+    }
+
+    // A retried group must not see account ids and balances from the rolled back attempt
+    private static TransactionDTO copyOf(TransactionDTO row) {
+        TransactionDTO copy = new TransactionDTO();
+        copy.setAccountNumber(row.getAccountNumber());
+        copy.setTransactionType(row.getTransactionType());
+        copy.setAmountCents(row.getAmountCents());
+        copy.setDescription(row.getDescription());
+        return copy;
+    }
+
+    public long getWrittenCount() {
+        return written.get();
+    }
+
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+
+    public long getFailedCount() {
+        return failed.get();
+    }
+
+    public long getGroupCount() {
+        return groups.get();
+    }
+
+    public int getQueuedCount() {
+        return queue.size();
+    }
+
+    /**
+     * Display journal statistics
+     */
+    public void displayStats() {
+        long groupCount = getGroupCount();
+        System.out.println("\n=== Transaction Journal Statistics ===");
+        System.out.println("Postings written: " + getWrittenCount());
+        System.out.println("Postings rejected: " + getRejectedCount());
+        System.out.println("Postings failed: " + getFailedCount());
+        System.out.println("Group commits: " + groupCount);
+        System.out.printf("Average group size: %.1f%n",
+                groupCount == 0 ? 0.0 : (double) (getWrittenCount() + getRejectedCount()) / groupCount);
+        System.out.println("Queued: " + getQueuedCount());
+    }
+
+    /**
+     * A queued posting
+     */
+    private static class Posting {
+        private final TransactionDTO row;
+        private final long deltaCents;
+        private final boolean applyBalance;
+        private final CompletableFuture<AccountDTO> done = new CompletableFuture<>();
+
+        Posting(TransactionDTO row, long deltaCents, boolean applyBalance) {
+            this.row = row;
+            this.deltaCents = deltaCents;
+            this.applyBalance = applyBalance;
+        }
+    }
+}
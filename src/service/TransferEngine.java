@@ -0,0 +1,272 @@
+package service;
+
+// TransferEngine.java
+import config.DatabaseConfig;
+import config.DatabaseConnection;
+import dao.AccountDAO;
+import dao.AccountIdCache;
+import dao.BalanceStripeDAO;
+import dao.TransactionDAO;
+import dto.AccountDTO;
+import model.Money;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Concurrent-safe account-to-account transfers
+ * Both account rows are locked up front in account_id order, so two transfers
+ * over the same pair of accounts (in either direction) queue behind each other
+ * instead of deadlocking. A transaction that still loses a lock conflict, e.g.
+ * against a writer that locks in a different order, is retried with bounded
+ * exponential backoff.
+ */
+public class TransferEngine {
+
+    public enum Outcome {
+        COMPLETED,
+        INVALID,
+        ACCOUNT_NOT_FOUND,
+        SAME_ACCOUNT,
+        INSUFFICIENT_FUNDS,
+        FAILED
+    }
+
+    private final AccountDAO accountDAO;
+    private final TransactionDAO transactionDAO;
+    private final BalanceStripeDAO stripeDAO;
+    private final DatabaseConnection dbConn;
+    private final int maxAttempts;
+    private final long backoffMillis;
+    private final long maxBackoffMillis;
+
+    // Statistics
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong retries = new AtomicLong();
+
+    public TransferEngine() {
+        this(DatabaseConfig.getRetryMaxAttempts(), DatabaseConfig.getRetryBackoff(),
+                DatabaseConfig.getRetryMaxBackoff());
+    }
+
+    /**
+     * @param maxAttempts Attempts per transfer, including the first
+     * @param backoffMillis Backoff before the first retry; doubles on each further retry
+     * @param maxBackoffMillis Upper bound of the backoff
+     */
+    public TransferEngine(int maxAttempts, long backoffMillis, long maxBackoffMillis) {
+        if (maxAttempts <= 0) {
+            throw new IllegalArgumentException("Max attempts must be positive");
+        }
+        this.accountDAO = new AccountDAO();
+        this.transactionDAO = new TransactionDAO();
+        this.stripeDAO = new BalanceStripeDAO();
+        this.dbConn = DatabaseConnection.getInstance();
+        this.maxAttempts = maxAttempts;
+        this.backoffMillis = backoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+    }
+
+    /**
+     * Move money between two accounts and record both legs in one transaction.
+     * Inside an enclosing transaction a lock conflict cannot be retried here (the
+     * database has already rolled the whole transaction back), so it fails at once.
+     */
+    public TransferResult transfer(String fromAccountNumber, String toAccountNumber, double amount) {
+        return transferCents(fromAccountNumber, toAccountNumber, Money.fromDouble(amount));
+    }
+
+    /**
+     * Same as transfer with the amount in cents
+     */
+    public TransferResult transferCents(String fromAccountNumber, String toAccountNumber, long amountCents) {
+        AccountIdCache idCache = AccountIdCache.getInstance();
+        int fromId = idCache.getAccountId(fromAccountNumber);
+        int toId = idCache.getAccountId(toAccountNumber);
+
+        if (fromId == -1 || toId == -1) {
+            rejected.incrementAndGet();
+            return new TransferResult(Outcome.ACCOUNT_NOT_FOUND, 0);
+        }
+        if (fromId == toId) {
+            rejected.incrementAndGet();
+            return new TransferResult(Outcome.SAME_ACCOUNT, 0);
+        }
+
+        int attempts = dbConn.isInTransaction() ? 1 : maxAttempts;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                TransferResult result = attemptTransfer(fromId, fromAccountNumber, toId, toAccountNumber,
+                        amountCents, attempt);
+                if (result.getOutcome() == Outcome.COMPLETED) {
+                    completed.incrementAndGet();
+                } else {
+                    rejected.incrementAndGet();
+                }
+                return result;
+
+            } catch (SQLException e) {
+                dbConn.rollback();
+                if (DatabaseConnection.isLockConflict(e) && attempt < attempts) {
+                    retries.incrementAndGet();
+                    if (!backoff(attempt, backoffMillis, maxBackoffMillis)) {
+                        failed.incrementAndGet();
+                        return new TransferResult(Outcome.FAILED, attempt, e);
+                    }
+                    continue;
+                }
+                failed.incrementAndGet();
+                return new TransferResult(Outcome.FAILED, attempt, e);
+
+            } catch (RuntimeException e) {
+                // Unbind the transaction, or every later one on this thread joins it and never commits
+                dbConn.rollback();
+                failed.incrementAndGet();
+                throw e;
+            }
+        }
+    }
+
+    private TransferResult attemptTransfer(int fromId, String fromAccountNumber, int toId, String toAccountNumber,
+                                           long amountCents, int attempt) throws SQLException {
+        // A striped (hot) destination is credited through a stripe, so its row is not locked
+        boolean stripedTarget = stripeDAO.isStriped(toId);
+
+        dbConn.beginTransaction();
+
+        List<AccountDTO> locked = stripedTarget ? accountDAO.lockAccounts(fromId) : accountDAO.lockAccounts(fromId, toId);
+        AccountDTO fromAccount = find(locked, fromId);
+        AccountDTO toAccount = stripedTarget ? null : find(locked, toId);
+        if (fromAccount == null || (!stripedTarget && toAccount == null)) {
+            dbConn.rollback();
+            return new TransferResult(Outcome.ACCOUNT_NOT_FOUND, attempt);
+        }
+
+        if (!accountDAO.adjustLockedBalanceCents(fromId, -amountCents)) {
+            dbConn.rollback();
+            return new TransferResult(Outcome.INSUFFICIENT_FUNDS, attempt);
+        }
+        if (!accountDAO.adjustLockedBalanceCents(toId, amountCents)) {
+            dbConn.rollback();
+            return new TransferResult(Outcome.ACCOUNT_NOT_FOUND, attempt);
+        }
+
+        // Locked rows: the new balances follow from the values just read
+        fromAccount.setBalanceCents(Money.subtract(fromAccount.getBalanceCents(), amountCents));
+        if (stripedTarget) {
+            // Other stripes change concurrently; the total seen by this transaction is
+            // provisional until consolidation settles the account's balance_after
+            toAccount = accountDAO.findAccountByNumber(toAccountNumber);
+            if (toAccount == null) {
+                dbConn.rollback();
+                return new TransferResult(Outcome.ACCOUNT_NOT_FOUND, attempt);
+            }
+        } else {
+            toAccount.setBalanceCents(Money.add(toAccount.getBalanceCents(), amountCents));
+        }
+
+        transactionDAO.insertTransferLegs(fromId, fromAccountNumber, toId, toAccountNumber,
+                amountCents, fromAccount.getBalanceCents(), toAccount.getBalanceCents());
+
+        dbConn.commit();
+        return new TransferResult(Outcome.COMPLETED, attempt, fromAccount, toAccount);
+    }
+
+    /**
+     * Sleep before the next attempt: exponential with jitter, capped at maxBackoffMillis
+     * @return false if the thread was interrupted
+     */
+    static boolean backoff(int attempt, long backoffMillis, long maxBackoffMillis) {
+        long ceiling = Math.min(maxBackoffMillis, backoffMillis << Math.min(attempt - 1, 20));
+        if (ceiling <= 0) {
+            return true;
+        }
+        try {
+            Thread.sleep(ceiling / 2 + ThreadLocalRandom.current().nextLong(ceiling / 2 + 1));
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static AccountDTO find(List<AccountDTO> accounts, int accountId) {
+        for (AccountDTO account : accounts) {
+            if (account.getAccountId() == accountId) {
+                return account;
+            }
+        }
+        return null;
+    }
+
+    public long getCompletedCount() {
+        return completed.get();
+    }
+
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+
+    public long getFailedCount() {
+        return failed.get();
+    }
+
+    public long getRetryCount() {
+        return retries.get();
+    }
+
+    /**
+     * Display transfer statistics
+     */
+    public void displayStats() {
+        System.out.println("\n=== Transfer Statistics ===");
+        System.out.println("Completed: " + getCompletedCount());
+        System.out.println("Rejected: " + getRejectedCount());
+        System.out.println("Failed: " + getFailedCount());
+        System.out.println("Lock conflict retries: " + getRetryCount());
+    }
+
+    /**
+     * Outcome of one transfer
+     */
+    public static class TransferResult {
+        private final Outcome outcome;
+        private final int attempts;
+        private final AccountDTO fromAccount;
+        private final AccountDTO toAccount;
+        private final SQLException failure;
+
+        TransferResult(Outcome outcome, int attempts) {
+            this(outcome, attempts, null, null, null);
+        }
+
+        TransferResult(Outcome outcome, int attempts, SQLException failure) {
+            this(outcome, attempts, null, null, failure);
+        }
+
+        TransferResult(Outcome outcome, int attempts, AccountDTO fromAccount, AccountDTO toAccount) {
+            this(outcome, attempts, fromAccount, toAccount, null);
+        }
+
+        private TransferResult(Outcome outcome, int attempts, AccountDTO fromAccount, AccountDTO toAccount,
+                               SQLException failure) {
+            this.outcome = outcome;
+            this.attempts = attempts;
+            this.fromAccount = fromAccount;
+            this.toAccount = toAccount;
+            this.failure = failure;
+        }
+
+        public Outcome getOutcome() { return outcome; }
+        public boolean isCompleted() { return outcome == Outcome.COMPLETED; }
+        public int getAttempts() { return attempts; }
+        public int getRetries() { return Math.max(0, attempts - 1); }
+        public AccountDTO getFromAccount() { return fromAccount; }
+        public AccountDTO getToAccount() { return toAccount; }
+        public SQLException getFailure() { return failure; }
+    }
+}
@@ -0,0 +1,162 @@
+// AccountNumberGeneratorTest.java
+import service.AccountNumberGenerator;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Uniqueness and check digit tests for AccountNumberGenerator.
+ * The generators run without a block table (clock only), so no database is needed.
+ */
+public class AccountNumberGeneratorTest {
+    public static void main(String[] args) throws Exception {
+        luhnCheckDigit();
+        validationRejectsCorruptNumbers();
+        numbersAreUniqueAcrossThreads();
+        batchesAreConsecutive();
+        nodesNeverCollide();
+        invalidSettingsAreRejected();
+
+        Checks.finish("account number generator");
+    }
+
+    private static void luhnCheckDigit() {
+        String number = AccountNumberGenerator.format(7_992_739_871L);
+        Checks.check(number.equals("00000000079927398713"), "7992739871 gets the Luhn check digit 3");
+        Checks.check(AccountNumberGenerator.format(0).equals("00000000000000000000"), "id 0 formats as all zeros");
+        Checks.check(AccountNumberGenerator.format(Long.MAX_VALUE).length() == AccountNumberGenerator.LENGTH,
+                "the largest id still fits the column");
+
+        boolean valid = true;
+        for (long id = 1; id > 0 && id < Long.MAX_VALUE / 3; id = id * 3 + 7) {
+            valid &= AccountNumberGenerator.isValid(AccountNumberGenerator.format(id));
+        }
+        Checks.check(valid, "every formatted number passes isValid");
+
+        try {
+            AccountNumberGenerator.format(-1);
+            Checks.check(false, "a negative id is rejected");
+        } catch (IllegalArgumentException e) {
+            Checks.check(true, "a negative id is rejected");
+        }
+    }
+
+    private static void validationRejectsCorruptNumbers() {
+        String number = AccountNumberGenerator.format(123_456_789_012_345L);
+        int undetected = 0;
+        for (int i = 0; i < number.length(); i++) {
+            for (char digit = '0'; digit <= '9'; digit++) {
+                if (digit == number.charAt(i)) {
+                    continue;
+                }
+                String corrupt = number.substring(0, i) + digit + number.substring(i + 1);
+                if (AccountNumberGenerator.isValid(corrupt)) {
+                    undetected++;
+                }
+            }
+        }
+        Checks.check(undetected == 0, "every single-digit error is detected");
+        Checks.check(!AccountNumberGenerator.isValid(null), "null is not a valid number");
+        Checks.check(!AccountNumberGenerator.isValid("ACC1234567890"), "legacy ACC numbers are not generated numbers");
+        Checks.check(!AccountNumberGenerator.isValid(number.substring(1)), "a short number is rejected");
+        Checks.check(!AccountNumberGenerator.isValid(number.substring(0, 19) + "X"), "a non-digit is rejected");
+    }
+
+    private static void numbersAreUniqueAcrossThreads() throws InterruptedException {
+        AccountNumberGenerator generator = new AccountNumberGenerator(7, 1_000, null);
+        int threads = 8;
+        int perThread = 50_000;
+        Set<String> numbers = ConcurrentHashMap.newKeySet();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < perThread; i++) {
+                    numbers.add(generator.next());
+                }
+            });
+            worker.start();
+            workers.add(worker);
+        }
+        Instant before = Instant.now();
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        Checks.check(numbers.size() == threads * perThread,
+                (threads * perThread) + " numbers from " + threads + " threads are all distinct");
+        Checks.check(generator.getIssuedCount() == threads * perThread, "every number is counted as issued");
+
+        boolean decoded = true;
+        for (String number : numbers) {
+            decoded &= AccountNumberGenerator.isValid(number) && AccountNumberGenerator.nodeOf(number) == 7;
+        }
+        Checks.check(decoded, "every number is valid and carries its node id");
+
+        String sample = numbers.iterator().next();
+        Duration skew = Duration.between(before, AccountNumberGenerator.issuedAt(sample)).abs();
+        Checks.check(skew.toMillis() < 60_000, "the issue time decodes to roughly now");
+    }
+
+    private static void batchesAreConsecutive() {
+        AccountNumberGenerator generator = new AccountNumberGenerator(3, 1_000, null);
+        // More than one millisecond's 4096 sequence numbers, so the batch carries into later ticks
+        String[] batch = generator.next(10_000);
+        Set<String> distinct = new HashSet<>();
+        boolean ordered = true;
+        for (int i = 0; i < batch.length; i++) {
+            distinct.add(batch[i]);
+            if (i > 0) {
+                ordered &= batch[i].compareTo(batch[i - 1]) > 0;
+            }
+        }
+        Checks.check(distinct.size() == batch.length && ordered, "a batch is distinct and increasing");
+
+        String after = generator.next();
+        Checks.check(after.compareTo(batch[batch.length - 1]) > 0, "a number after a batch comes after all of it");
+
+        try {
+            generator.next(0);
+            Checks.check(false, "an empty batch is rejected");
+        } catch (IllegalArgumentException e) {
+            Checks.check(true, "an empty batch is rejected");
+        }
+    }
+
+    private static void nodesNeverCollide() {
+        AccountNumberGenerator first = new AccountNumberGenerator(1, 1_000, null);
+        AccountNumberGenerator second = new AccountNumberGenerator(2, 1_000, null);
+        Set<String> numbers = new HashSet<>();
+        for (int i = 0; i < 20_000; i++) {
+            numbers.add(first.next());
+            numbers.add(second.next());
+        }
+        Checks.check(numbers.size() == 40_000, "two nodes issuing in the same milliseconds never collide");
+    }
+
+    private static void invalidSettingsAreRejected() {
+        int accepted = 0;
+        int[][] settings = {{-1, 1_000}, {AccountNumberGenerator.MAX_NODE_ID + 1, 1_000}, {0, 0}};
+        for (int[] setting : settings) {
+            try {
+                new AccountNumberGenerator(setting[0], setting[1], null);
+                accepted++;
+            } catch (IllegalArgumentException e) {
+                // expected
+            }
+        }
+        Checks.check(accepted == 0, "out-of-range node ids and empty blocks are rejected");
+    }
+}
@@ -0,0 +1,113 @@
+// BalanceStripeDAOTest.java
+import dao.BalanceStripeDAO;
+import model.Money;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Consolidation of striped balances and settling of the balance_after values
+ * that concurrent stripe credits recorded.
+ * Runs the DAO against StubDatabase, which records the statements instead of executing them.
+ */
+public class BalanceStripeDAOTest {
+    private static final int ACCOUNT_ID = 7;
+    private static final String REWRITE = "UPDATE transactions SET balance_after = ?";
+    private static final String MARK = "UPDATE accounts SET stripes_settled_through = ?";
+
+    public static void main(String[] args) throws SQLException {
+        StubDatabase.install();
+
+        concurrentCreditsAreSettled();
+        settledAccountIsLeftAlone();
+        unstripedAccountHistoryIsNotRewritten();
+
+        Checks.finish("balance stripe");
+    }
+
+    /**
+     * Account settled at 100.00 through transaction 5. Deposits 6 and 7 of 10.00 ran
+     * concurrently on different stripes and both recorded 110.00; withdrawal 8 of 5.00
+     * and deposit 9 of 10.00 came after them and saw both.
+     */
+    private static void concurrentCreditsAreSettled() throws SQLException {
+        StubDatabase.reset();
+        answerAccount(9_500, 4, 5, 3_000);
+        List<Map<String, Object>> rows = new ArrayList<>();
+        rows.add(transaction(9, "DEPOSIT", 1_000, 12_500));
+        rows.add(transaction(8, "WITHDRAWAL", 500, 11_500));
+        rows.add(transaction(7, "DEPOSIT", 1_000, 11_000));
+        rows.add(transaction(6, "DEPOSIT", 1_000, 11_000));
+        StubDatabase.answer("FROM transactions WHERE account_id = ? AND transaction_id > ?", parameters -> rows);
+
+        long moved = new BalanceStripeDAO().consolidate(ACCOUNT_ID);
+        Checks.check(moved == 3_000, "the stripe total is moved into accounts.balance");
+
+        List<StubDatabase.Execution> selects = StubDatabase.executed("SELECT transaction_id");
+        Checks.check(selects.size() == 1 && selects.get(0).rows.get(0)[1].equals(5),
+                "only rows after the settled mark are read");
+
+        List<StubDatabase.Execution> rewrites = StubDatabase.executed(REWRITE);
+        Checks.check(rewrites.size() == 1 && rewrites.get(0).rows.size() == 1,
+                "only the row that disagrees with the running balance is rewritten");
+        if (rewrites.size() == 1 && rewrites.get(0).rows.size() == 1) {
+            Object[] rewrite = rewrites.get(0).rows.get(0);
+            Checks.check(decimalEquals(rewrite[0], 12_000) && rewrite[1].equals(7),
+                    "the second concurrent deposit is settled to 120.00");
+        }
+
+        List<StubDatabase.Execution> marks = StubDatabase.executed(MARK);
+        Checks.check(marks.size() == 1 && marks.get(0).rows.get(0)[0].equals(9),
+                "the settled mark moves to the newest row");
+    }
+
+    private static void settledAccountIsLeftAlone() throws SQLException {
+        StubDatabase.reset();
+        answerAccount(10_000, 4, 5, 0);
+
+        long moved = new BalanceStripeDAO().consolidate(ACCOUNT_ID);
+        Checks.check(moved == 0L && StubDatabase.executed("UPDATE accounts SET balance").isEmpty(),
+                "empty stripes move nothing");
+        Checks.check(StubDatabase.executed(REWRITE).isEmpty() && StubDatabase.executed(MARK).isEmpty(),
+                "without new rows nothing is rewritten and the mark stays");
+    }
+
+    private static void unstripedAccountHistoryIsNotRewritten() throws SQLException {
+        StubDatabase.reset();
+        answerAccount(10_000, 0, 0, 0);
+        StubDatabase.answer("FROM transactions WHERE account_id = ? AND transaction_id > ?",
+                parameters -> List.of(transaction(1, "DEPOSIT", 1_000, 5_000)));
+
+        new BalanceStripeDAO().consolidate(ACCOUNT_ID);
+        Checks.check(StubDatabase.executed("SELECT transaction_id").isEmpty()
+                        && StubDatabase.executed(REWRITE).isEmpty(),
+                "the history of an account that is not striped is not read or rewritten");
+    }
+
+    private static void answerAccount(long balanceCents, int stripes, int settledThrough, long stripeTotalCents) {
+        Map<String, Object> account = new LinkedHashMap<>();
+        account.put("balance", Money.toDecimal(balanceCents));
+        account.put("stripe_count", stripes);
+        account.put("stripes_settled_through", settledThrough);
+        StubDatabase.answer("SELECT balance, stripe_count", parameters -> List.of(account));
+        StubDatabase.answer("FROM account_balance_stripes",
+                parameters -> List.of(Map.of("total", Money.toDecimal(stripeTotalCents))));
+    }
+
+    private static Map<String, Object> transaction(int id, String type, long amountCents, long balanceAfterCents) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("transaction_id", id);
+        row.put("transaction_type", type);
+        row.put("amount", Money.toDecimal(amountCents));
+        row.put("balance_after", Money.toDecimal(balanceAfterCents));
+        return row;
+    }
+
+    private static boolean decimalEquals(Object value, long cents) {
+        return value instanceof BigDecimal && ((BigDecimal) value).compareTo(Money.toDecimal(cents)) == 0;
+    }
+}
@@ -0,0 +1,39 @@
+// Checks.java
+
+/**
+ * Shared pass/fail reporting for the test mains. Each test calls {@link #check}
+ * for its cases and {@link #finish} at the end of main.
+ */
+final class Checks {
+    private static int failures;
+
+    private Checks() {
+    }
+
+    /**
+     * Print the outcome of one check and count it if it failed
+     */
+    static void check(boolean condition, String description) {
+        if (condition) {
+            System.out.println("✓ " + description);
+        } else {
+            failures++;
+            System.out.println("✗ " + description);
+        }
+    }
+
+    static int getFailures() {
+        return failures;
+    }
+
+    /**
+     * Print the summary and exit, with status 1 if any check failed. Exiting also
+     * stops pool and writer threads a test left running.
+     * @param subject What was tested, e.g. "connection pool"
+     */
+    static void finish(String subject) {
+        System.out.println(failures == 0 ? "\n✓ All " + subject + " tests passed"
+                : "\n✗ " + failures + " " + subject + " check(s) failed");
+        System.exit(failures > 0 ? 1 : 0);
+    }
+}
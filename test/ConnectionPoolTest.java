@@ -0,0 +1,250 @@
+// ConnectionPoolTest.java
+import config.ConnectionPool;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.DriverManager;
+import java.sql.DriverPropertyInfo;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.logging.Logger;
+
+/**
+ * Behaviour tests for ConnectionPool: borrow, release and leak detection.
+ * Runs against an in-memory stub driver, so no database is needed.
+ */
+public class ConnectionPoolTest {
+    private static final String URL = "jdbc:stub:pool";
+
+    public static void main(String[] args) throws Exception {
+        DriverManager.registerDriver(new StubDriver());
+
+        borrowAndReleaseReusesConnection();
+        releaseRollsBackOpenTransaction();
+        closedHandleRejectsUse();
+        exhaustedPoolTimesOut();
+        doubleCloseReleasesOnce();
+        leakIsReportedOnce();
+        shutdownClosesReturnedConnections();
+
+        Checks.finish("connection pool");
+    }
+
+    private static ConnectionPool newPool(int maxSize, long acquireTimeoutMillis, long leakThresholdMillis) {
+        StubDriver.opened.clear();
+        return new ConnectionPool(URL, "user", "secret", 0, maxSize, acquireTimeoutMillis, 0, 1,
+                leakThresholdMillis);
+    }
+
+    private static void borrowAndReleaseReusesConnection() throws SQLException {
+        ConnectionPool pool = newPool(2, 1000, 0);
+        Connection first = pool.borrow();
+        Checks.check(pool.getActiveConnections() == 1 && pool.getIdleConnections() == 0,
+                "a borrowed connection counts as active");
+        first.close();
+        Checks.check(pool.getActiveConnections() == 0 && pool.getIdleConnections() == 1,
+                "closing the handle returns the connection to the idle list");
+
+        Connection second = pool.borrow();
+        Checks.check(pool.getCreatedCount() == 1 && StubDriver.opened.size() == 1,
+                "the next borrow reuses the idle connection");
+        second.close();
+        pool.shutdown();
+    }
+
+    private static void releaseRollsBackOpenTransaction() throws SQLException {
+        ConnectionPool pool = newPool(1, 1000, 0);
+        Connection connection = pool.borrow();
+        connection.setAutoCommit(false);
+        connection.close();
+
+        StubConnection physical = StubDriver.opened.get(0);
+        Checks.check(physical.rollbacks == 1, "release rolls back an unfinished transaction");
+        Checks.check(physical.autoCommit, "release restores auto-commit");
+        pool.shutdown();
+    }
+
+    private static void closedHandleRejectsUse() throws SQLException {
+        ConnectionPool pool = newPool(1, 1000, 0);
+        Connection connection = pool.borrow();
+        connection.close();
+        Checks.check(connection.isClosed(), "a returned handle reports closed");
+        try {
+            connection.commit();
+            Checks.check(false, "a returned handle rejects further use");
+        } catch (SQLException e) {
+            Checks.check(true, "a returned handle rejects further use");
+        }
+        pool.shutdown();
+    }
+
+    private static void exhaustedPoolTimesOut() throws SQLException {
+        ConnectionPool pool = newPool(2, 50, 0);
+        Connection a = pool.borrow();
+        Connection b = pool.borrow();
+        long start = System.nanoTime();
+        try {
+            pool.borrow().close();
+            Checks.check(false, "borrowing from an exhausted pool times out");
+        } catch (SQLTransientConnectionException e) {
+            long waitedMillis = (System.nanoTime() - start) / 1_000_000;
+            Checks.check(waitedMillis >= 40, "borrowing from an exhausted pool times out");
+        }
+        Checks.check(pool.getTimeoutCount() == 1, "the timeout is counted");
+        a.close();
+        b.close();
+        pool.shutdown();
+    }
+
+    private static void doubleCloseReleasesOnce() throws SQLException {
+        ConnectionPool pool = newPool(2, 50, 0);
+        Connection connection = pool.borrow();
+        connection.close();
+        connection.close();
+
+        // Two permits, not three: both borrows succeed and a third one times out
+        Connection a = pool.borrow();
+        Connection b = pool.borrow();
+        try {
+            pool.borrow().close();
+            Checks.check(false, "closing a handle twice releases its permit once");
+        } catch (SQLTransientConnectionException e) {
+            Checks.check(true, "closing a handle twice releases its permit once");
+        }
+        a.close();
+        b.close();
+        pool.shutdown();
+    }
+
+    private static void leakIsReportedOnce() throws Exception {
+        ConnectionPool pool = newPool(1, 1000, 1);
+        Connection connection = pool.borrow();
+        Thread.sleep(20);
+
+        // Housekeeping runs every 30 seconds; call it directly
+        Method housekeep = ConnectionPool.class.getDeclaredMethod("housekeep");
+        housekeep.setAccessible(true);
+        housekeep.invoke(pool);
+        Checks.check(pool.getLeakCount() == 1, "a connection held past the threshold is reported as a leak");
+        housekeep.invoke(pool);
+        Checks.check(pool.getLeakCount() == 1, "a leak is reported once per borrow");
+
+        connection.close();
+        Checks.check(pool.getActiveConnections() == 0, "a leaked connection can still be returned");
+        pool.shutdown();
+    }
+
+    private static void shutdownClosesReturnedConnections() throws SQLException {
+        ConnectionPool pool = newPool(2, 1000, 0);
+        Connection idle = pool.borrow();
+        Connection held = pool.borrow();
+        idle.close();
+        pool.shutdown();
+
+        Checks.check(StubDriver.opened.get(0).closed, "shutdown closes idle connections");
+        Checks.check(!StubDriver.opened.get(1).closed, "shutdown leaves borrowed connections open");
+        held.close();
+        Checks.check(StubDriver.opened.get(1).closed, "a connection returned after shutdown is closed");
+        try {
+            pool.borrow().close();
+            Checks.check(false, "a shut down pool refuses to lend");
+        } catch (SQLException e) {
+            Checks.check(true, "a shut down pool refuses to lend");
+        }
+    }
+
+    /**
+     * State of one physical stub connection
+     */
+    private static final class StubConnection {
+        private boolean autoCommit = true;
+        private boolean closed;
+        private int rollbacks;
+
+        private Connection proxy() {
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                        switch (method.getName()) {
+                            case "getAutoCommit":
+                                return autoCommit;
+                            case "setAutoCommit":
+                                autoCommit = (Boolean) args[0];
+                                return null;
+                            case "rollback":
+                                rollbacks++;
+                                return null;
+                            case "close":
+                                closed = true;
+                                return null;
+                            case "isClosed":
+                                return closed;
+                            case "isValid":
+                                return !closed;
+                            case "equals":
+                                return proxy == args[0];
+                            case "hashCode":
+                                return System.identityHashCode(proxy);
+                            case "toString":
+                                return "StubConnection";
+                            default:
+                                if (method.getReturnType() == boolean.class) {
+                                    return false;
+                                }
+                                return method.getReturnType() == int.class ? 0 : null;
+                        }
+                    });
+        }
+    }
+
+    /**
+     * JDBC driver for jdbc:stub: URLs that opens stub connections
+     */
+    private static final class StubDriver implements Driver {
+        private static final List<StubConnection> opened = new ArrayList<>();
+
+        @Override
+        public Connection connect(String url, Properties info) {
+            if (!acceptsURL(url)) {
+                return null;
+            }
+            StubConnection connection = new StubConnection();
+            opened.add(connection);
+            return connection.proxy();
+        }
+
+        @Override
+        public boolean acceptsURL(String url) {
+            return url.startsWith("jdbc:stub:");
+        }
+
+        @Override
+        public DriverPropertyInfo[] getPropertyInfo(String url, Properties info) {
+            return new DriverPropertyInfo[0];
+        }
+
+        @Override
+        public int getMajorVersion() {
+            return 1;
+        }
+
+        @Override
+        public int getMinorVersion() {
+            return 0;
+        }
+
+        @Override
+        public boolean jdbcCompliant() {
+            return false;
+        }
+
+        @Override
+        public Logger getParentLogger() {
+            return Logger.getGlobal();
+        }
+    }
+}
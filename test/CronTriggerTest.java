@@ -0,0 +1,89 @@
+// CronTriggerTest.java
+import scheduler.CronTrigger;
+
+import java.time.LocalDateTime;
+
+/**
+ * Tests for CronTrigger.nextFireTime
+ */
+public class CronTriggerTest {
+    public static void main(String[] args) {
+        nextMinuteAndHour();
+        stepsRangesAndLists();
+        dayAndMonthRollover();
+        dayFieldsCombine();
+        impossibleScheduleNeverFires();
+        invalidExpressionsAreRejected();
+
+        Checks.finish("cron trigger");
+    }
+
+    private static void nextMinuteAndHour() {
+        expect("* * * * *", "2025-03-10T10:15:42", "2025-03-10T10:16",
+                "every minute fires at the next whole minute");
+        expect("30 * * * *", "2025-03-10T10:15", "2025-03-10T10:30", "a later minute fires within the hour");
+        expect("30 * * * *", "2025-03-10T10:30", "2025-03-10T11:30",
+                "the fire time itself is excluded from the search");
+        expect("0 2 * * *", "2025-03-10T01:59:59", "2025-03-10T02:00", "a daily job fires later the same day");
+        expect("0 2 * * *", "2025-03-10T02:00", "2025-03-11T02:00", "a daily job moves to the next day");
+        expect("45 23 * * *", "2025-03-10T23:50", "2025-03-11T23:45",
+                "a minute already passed in the last hour moves to the next day");
+    }
+
+    private static void stepsRangesAndLists() {
+        expect("*/15 * * * *", "2025-03-10T10:16", "2025-03-10T10:30", "a step fires on its multiples");
+        expect("*/15 * * * *", "2025-03-10T10:50", "2025-03-10T11:00", "a step wraps into the next hour");
+        expect("0-30/10 9-17 * * *", "2025-03-10T17:31", "2025-03-11T09:00",
+                "a stepped range stops at its upper bound");
+        expect("5,50 8,20 * * *", "2025-03-10T08:06", "2025-03-10T08:50", "lists pick the next listed minute");
+        expect("5,50 8,20 * * *", "2025-03-10T08:51", "2025-03-10T20:05", "lists move to the next listed hour");
+    }
+
+    private static void dayAndMonthRollover() {
+        expect("0 2 1 * *", "2025-01-31T03:00", "2025-02-01T02:00", "the 1st of the month follows the 31st");
+        expect("0 0 31 * *", "2025-04-01T00:00", "2025-05-31T00:00", "months without a 31st are skipped");
+        expect("0 0 29 2 *", "2025-03-01T00:00", "2028-02-29T00:00", "29 February waits for a leap year");
+        expect("0 0 1 1 *", "2025-12-31T23:59", "2026-01-01T00:00", "a yearly job crosses the year end");
+    }
+
+    private static void dayFieldsCombine() {
+        // 2025-03-10 is a Monday
+        expect("0 9 * * 1-5", "2025-03-14T09:00", "2025-03-17T09:00", "weekdays skip the weekend");
+        expect("0 9 * * 0", "2025-03-10T00:00", "2025-03-16T09:00", "0 is Sunday");
+        expect("0 9 * * 7", "2025-03-10T00:00", "2025-03-16T09:00", "7 is also Sunday");
+        expect("0 9 15 * 1", "2025-03-10T09:00", "2025-03-15T09:00",
+                "with both day fields restricted either may match (the 15th)");
+        expect("0 9 20 * 1", "2025-03-14T00:00", "2025-03-17T09:00",
+                "with both day fields restricted either may match (a Monday)");
+        expect("0 9 */2 * 1", "2025-03-10T10:00", "2025-03-11T09:00",
+                "a stepped day of month counts as restricted");
+    }
+
+    private static void impossibleScheduleNeverFires() {
+        CronTrigger trigger = new CronTrigger("0 0 31 2 *");
+        Checks.check(trigger.nextFireTime(LocalDateTime.parse("2025-01-01T00:00")) == null,
+                "31 February never fires");
+    }
+
+    private static void invalidExpressionsAreRejected() {
+        String[] invalid = {"* * * *", "60 * * * *", "* 24 * * *", "* * 0 * *", "* * * 13 *", "* * * * 8",
+                "30-10 * * * *", "a * * * *", "*/0 * * * *"};
+        int accepted = 0;
+        for (String expression : invalid) {
+            try {
+                new CronTrigger(expression);
+                accepted++;
+                System.out.println("  accepted: " + expression);
+            } catch (IllegalArgumentException e) {
+                // expected
+            }
+        }
+        Checks.check(accepted == 0, "invalid expressions are rejected");
+    }
+
+    private static void expect(String expression, String last, String expected, String description) {
+        LocalDateTime next = new CronTrigger(expression).nextFireTime(LocalDateTime.parse(last));
+        boolean matches = LocalDateTime.parse(expected).equals(next);
+        Checks.check(matches, description + (matches ? "" : " (got " + next + ", expected " + expected + ")"));
+    }
+}
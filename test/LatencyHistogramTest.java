@@ -0,0 +1,105 @@
+// LatencyHistogramTest.java
+import metrics.LatencyHistogram;
+
+import java.lang.reflect.Method;
+
+/**
+ * Bucket bound and percentile tests for LatencyHistogram
+ */
+public class LatencyHistogramTest {
+    // 32 sub-buckets per power of two, powers up to 2^40
+    private static final int BUCKETS = 37 * 32;
+    private static final long TRACKED_LIMIT = 1L << 41;
+
+    private static Method indexOf;
+    private static Method upperBoundOf;
+
+    public static void main(String[] args) throws Exception {
+        // The bucket helpers are package-private; call them directly
+        indexOf = LatencyHistogram.class.getDeclaredMethod("indexOf", long.class);
+        upperBoundOf = LatencyHistogram.class.getDeclaredMethod("upperBoundOf", int.class);
+        indexOf.setAccessible(true);
+        upperBoundOf.setAccessible(true);
+
+        bucketsAreContiguous();
+        bucketsAreNarrow();
+        largeValuesLandInLastBucket();
+        quantilesReportBucketUpperBounds();
+        emptyHistogramReportsZero();
+
+        Checks.finish("latency histogram");
+    }
+
+    private static void bucketsAreContiguous() throws Exception {
+        boolean exact = true;
+        for (long value = 0; value < 32; value++) {
+            exact &= indexOf(value) == value && upperBoundOf((int) value) == value;
+        }
+        Checks.check(exact, "values below 32 ns get a bucket each");
+
+        int gaps = 0;
+        for (int i = 0; i < BUCKETS - 1; i++) {
+            long upper = upperBoundOf(i);
+            if (indexOf(upper) != i || indexOf(upper + 1) != i + 1) {
+                gaps++;
+            }
+        }
+        Checks.check(gaps == 0, "each bucket ends one below where the next one starts (" + gaps + " gaps)");
+        Checks.check(upperBoundOf(BUCKETS - 1) == TRACKED_LIMIT - 1, "the last bucket ends at 2^41 - 1 ns");
+    }
+
+    private static void bucketsAreNarrow() throws Exception {
+        double widest = 0;
+        for (int i = 32; i < BUCKETS; i++) {
+            long lower = upperBoundOf(i - 1) + 1;
+            long width = upperBoundOf(i) - lower + 1;
+            widest = Math.max(widest, (double) width / lower);
+        }
+        Checks.check(widest <= 1.0 / 32, "no bucket is wider than 1/32 of its lower bound (widest " + widest + ")");
+
+        boolean within = true;
+        for (long value = 1; value < TRACKED_LIMIT; value = value * 3 + 1) {
+            long upper = upperBoundOf(indexOf(value));
+            within &= upper >= value && upper - value <= value / 32;
+        }
+        Checks.check(within, "a value's bucket bound is at most 1/32 above it");
+    }
+
+    private static void largeValuesLandInLastBucket() throws Exception {
+        Checks.check(indexOf(TRACKED_LIMIT - 1) == BUCKETS - 1, "2^41 - 1 ns is in the last bucket");
+        Checks.check(indexOf(TRACKED_LIMIT) == BUCKETS - 1 && indexOf(Long.MAX_VALUE) == BUCKETS - 1,
+                "values from 2^41 ns up land in the last bucket");
+    }
+
+    private static void quantilesReportBucketUpperBounds() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 100; value++) {
+            histogram.record(value * 1_000);
+        }
+        long median = histogram.getValueAtQuantile(0.5);
+        Checks.check(median == upperBoundOf(indexOf(50_000)),
+                "the median is the upper bound of the 50th value's bucket");
+        long p99 = histogram.getValueAtQuantile(0.99);
+        Checks.check(p99 >= 99_000 && p99 <= 99_000 + 99_000 / 32, "p99 is within 1/32 of the 99th value");
+        Checks.check(histogram.getValueAtQuantile(1.0) == 100_000, "p100 is capped at the recorded maximum");
+        Checks.check(histogram.getCount() == 100 && histogram.getSumNanos() == 5_050_000,
+                "count and sum are exact");
+
+        histogram.record(-5);
+        Checks.check(histogram.getValueAtQuantile(0.0) == 0, "negative values are recorded as zero");
+    }
+
+    private static void emptyHistogramReportsZero() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        Checks.check(histogram.getValueAtQuantile(0.99) == 0 && histogram.getMeanNanos() == 0.0,
+                "an empty histogram reports zero");
+    }
+
+    private static int indexOf(long value) throws Exception {
+        return (Integer) indexOf.invoke(null, value);
+    }
+
+    private static long upperBoundOf(int index) throws Exception {
+        return (Long) upperBoundOf.invoke(null, index);
+    }
+}
@@ -0,0 +1,139 @@
+// LedgerEngineTest.java
+import service.LedgerEngine;
+import service.TransferEngine;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Durability of LedgerEngine.flush for transfers between shards, and lookups
+ * of accounts opened after start.
+ * Runs the DAOs against StubDatabase, which records the statements instead of executing them.
+ */
+public class LedgerEngineTest {
+    private static final int SHARDS = 2;
+
+    public static void main(String[] args) {
+        StubDatabase.install();
+        StubDatabase.reset();
+
+        // Two accounts on different shards
+        String first = "ACC1001";
+        String second = accountOnOtherShard(first);
+        List<Map<String, Object>> accounts = Arrays.asList(account(1, first), account(2, second));
+        StubDatabase.answer("ORDER BY a.account_id", parameters -> accounts);
+
+        // Nothing is written before the flush: batches are large and the interval long
+        LedgerEngine ledger = new LedgerEngine(SHARDS, 100_000, 60_000, 100_000);
+        Checks.check(ledger.start(), "the ledger starts from the accounts table");
+
+        flushWritesCrossShardTransfer(ledger, first, second);
+        flushWaitsForCreditsInFlight(ledger, first, second);
+        accountsOpenedLaterAreLookedUpBeforeQueuing(ledger, first);
+
+        ledger.stop();
+        Checks.finish("ledger engine");
+    }
+
+    private static void flushWritesCrossShardTransfer(LedgerEngine ledger, String first, String second) {
+        LedgerEngine.Result result = ledger.transfer(first, second, 25.00).join();
+        ledger.flush().join();
+        Checks.check(result.isCompleted(), "a transfer between shards completes");
+        Checks.check(count("TRANSFER_OUT") == 1 && count("TRANSFER_IN") == 1,
+                "a flush right after a transfer between shards writes both legs");
+    }
+
+    private static void flushWaitsForCreditsInFlight(LedgerEngine ledger, String first, String second) {
+        int transfers = 2_000;
+        List<CompletableFuture<LedgerEngine.Result>> results = new ArrayList<>();
+        for (int i = 0; i < transfers; i++) {
+            results.add(i % 2 == 0 ? ledger.transfer(first, second, 1.00) : ledger.transfer(second, first, 1.00));
+        }
+        // Flush without waiting for the transfers: their credits may still be queued on the other shard
+        ledger.flush().join();
+
+        Checks.check(count("TRANSFER_OUT") == transfers + 1 && count("TRANSFER_IN") == transfers + 1,
+                "a flush issued behind " + transfers + " transfers writes every debit and credit (" +
+                        count("TRANSFER_OUT") + " debits, " + count("TRANSFER_IN") + " credits)");
+        Checks.check(ledger.getPersistedCount() == ledger.getAppliedCount(), "nothing applied is left unwritten");
+        boolean completed = true;
+        for (CompletableFuture<LedgerEngine.Result> result : results) {
+            completed &= result.isDone() && result.join().isCompleted();
+        }
+        Checks.check(completed, "every transfer completed before the flush did");
+    }
+
+    private static void accountsOpenedLaterAreLookedUpBeforeQueuing(LedgerEngine ledger, String first) {
+        String opened = "ACC2001";
+        String unknown = "ACC9999";
+        Map<String, Object> openedRow = account(3, opened);
+        List<String> lookupThreads = Collections.synchronizedList(new ArrayList<>());
+        StubDatabase.answer("SELECT account_id FROM accounts WHERE account_number = ?", parameters -> {
+            lookupThreads.add(Thread.currentThread().getName());
+            return opened.equals(parameters[0]) ? List.of(Map.of("account_id", 3)) : List.of();
+        });
+        StubDatabase.answer("WHERE a.account_number = ?", parameters -> {
+            lookupThreads.add(Thread.currentThread().getName());
+            return opened.equals(parameters[0]) ? List.of(openedRow) : List.of();
+        });
+
+        Checks.check(ledger.deposit(unknown, 10.00).join().getOutcome() == TransferEngine.Outcome.ACCOUNT_NOT_FOUND,
+                "a deposit to an unknown account is rejected");
+        Checks.check(ledger.transfer(first, unknown, 10.00).join().getOutcome()
+                        == TransferEngine.Outcome.ACCOUNT_NOT_FOUND,
+                "a transfer to an unknown account is rejected");
+        Checks.check(ledger.transfer(first, opened, 10.00).join().isCompleted(),
+                "a transfer to an account opened after start completes");
+        Double balance = ledger.getBalance(opened).join();
+        Checks.check(balance != null && balance == 1_000_010.00,
+                "the new account starts from the balance its submitter read");
+
+        boolean submitterOnly = !lookupThreads.isEmpty();
+        for (String thread : lookupThreads) {
+            submitterOnly &= !thread.startsWith("LedgerShard");
+        }
+        Checks.check(submitterOnly, "accounts are looked up on the submitting thread, never on a shard thread: " +
+                lookupThreads);
+    }
+
+    private static int count(String transactionType) {
+        int rows = 0;
+        for (StubDatabase.Execution insert : StubDatabase.executed("INSERT INTO transactions")) {
+            for (Object[] row : insert.rows) {
+                if (transactionType.equals(row[1])) {
+                    rows++;
+                }
+            }
+        }
+        return rows;
+    }
+
+    private static String accountOnOtherShard(String accountNumber) {
+        int shard = Math.floorMod(accountNumber.hashCode(), SHARDS);
+        for (int i = 1002; ; i++) {
+            String candidate = "ACC" + i;
+            if (Math.floorMod(candidate.hashCode(), SHARDS) != shard) {
+                return candidate;
+            }
+        }
+    }
+
+    private static Map<String, Object> account(int id, String accountNumber) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("account_id", id);
+        row.put("account_number", accountNumber);
+        row.put("account_holder", "Holder " + id);
+        row.put("account_type", "CHECKING");
+        row.put("balance", new BigDecimal("1000000.00"));
+        row.put("stripe_balance", BigDecimal.ZERO);
+        row.put("interest_rate", 0.0);
+        row.put("status", "ACTIVE");
+        return Collections.unmodifiableMap(row);
+    }
+}
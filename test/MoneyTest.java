@@ -0,0 +1,151 @@
+// MoneyTest.java
+import model.Money;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Rounding tests for Money.divide and Money.applyRate.
+ * The integer paths are checked against BigDecimal, which is the reference for every RoundingMode.
+ */
+public class MoneyTest {
+    private static final RoundingMode[] INEXACT_MODES = {
+            RoundingMode.UP, RoundingMode.DOWN, RoundingMode.CEILING, RoundingMode.FLOOR,
+            RoundingMode.HALF_UP, RoundingMode.HALF_DOWN, RoundingMode.HALF_EVEN
+    };
+
+    public static void main(String[] args) {
+        divideRoundsHalves();
+        divideMatchesBigDecimal();
+        divideRejectsBadInput();
+        applyRateRoundsInterest();
+        applyRateMatchesBigDecimalBeyond64Bits();
+        fromDoubleRoundsHalfUp();
+
+        Checks.finish("money");
+    }
+
+    private static void divideRoundsHalves() {
+        Checks.check(Money.divide(5, 2, RoundingMode.HALF_UP) == 3, "HALF_UP rounds 2.5 up");
+        Checks.check(Money.divide(-5, 2, RoundingMode.HALF_UP) == -3, "HALF_UP rounds -2.5 away from zero");
+        Checks.check(Money.divide(5, 2, RoundingMode.HALF_DOWN) == 2, "HALF_DOWN rounds 2.5 down");
+        Checks.check(Money.divide(5, 2, RoundingMode.HALF_EVEN) == 2, "HALF_EVEN rounds 2.5 to 2");
+        Checks.check(Money.divide(7, 2, RoundingMode.HALF_EVEN) == 4, "HALF_EVEN rounds 3.5 to 4");
+        Checks.check(Money.divide(-7, 2, RoundingMode.FLOOR) == -4, "FLOOR rounds -3.5 to -4");
+        Checks.check(Money.divide(-7, 2, RoundingMode.CEILING) == -3, "CEILING rounds -3.5 to -3");
+        Checks.check(Money.divide(10, 5, RoundingMode.UNNECESSARY) == 2, "UNNECESSARY accepts an exact quotient");
+    }
+
+    private static void divideMatchesBigDecimal() {
+        long[] divisors = {1, 2, 3, 7, 10, 120, 10_000, 120_000, 3_650_000};
+        int mismatches = 0;
+        for (long divisor : divisors) {
+            for (long dividend = -2_500; dividend <= 2_500; dividend++) {
+                for (RoundingMode mode : INEXACT_MODES) {
+                    long scaled = dividend * (divisor / 7 + 1);
+                    if (Money.divide(scaled, divisor, mode) != reference(scaled, divisor, mode)) {
+                        mismatches++;
+                    }
+                }
+            }
+        }
+        Checks.check(mismatches == 0,
+                "divide agrees with BigDecimal for every rounding mode (" + mismatches + " mismatches)");
+
+        long big = Long.MAX_VALUE - 3;
+        boolean extremes = true;
+        for (RoundingMode mode : INEXACT_MODES) {
+            extremes &= Money.divide(big, 10, mode) == reference(big, 10, mode);
+            extremes &= Money.divide(-big, 10, mode) == reference(-big, 10, mode);
+        }
+        Checks.check(extremes, "divide agrees with BigDecimal near Long.MAX_VALUE");
+    }
+
+    private static void divideRejectsBadInput() {
+        try {
+            Money.divide(1, 3, RoundingMode.UNNECESSARY);
+            Checks.check(false, "UNNECESSARY rejects an inexact quotient");
+        } catch (ArithmeticException e) {
+            Checks.check(true, "UNNECESSARY rejects an inexact quotient");
+        }
+        try {
+            Money.divide(1, 0, RoundingMode.HALF_UP);
+            Checks.check(false, "divide rejects a zero divisor");
+        } catch (IllegalArgumentException e) {
+            Checks.check(true, "divide rejects a zero divisor");
+        }
+    }
+
+    private static void applyRateRoundsInterest() {
+        // $1,000.00 at 3.50% for one month: 291.666... cents
+        Checks.check(Money.applyRate(100_000, 350, 12, RoundingMode.HALF_UP) == 292, "monthly interest rounds half-up");
+        Checks.check(Money.applyRate(100_000, 350, 12, RoundingMode.DOWN) == 291,
+                "monthly interest truncates with DOWN");
+        // $10.00 at 3.00% for one month: exactly 2.5 cents
+        Checks.check(Money.applyRate(1_000, 300, 12, RoundingMode.HALF_EVEN) == 2, "an exact half cent rounds to even");
+        Checks.check(Money.applyRate(1_000, 300, 12, RoundingMode.HALF_UP) == 3,
+                "an exact half cent rounds up with HALF_UP");
+        Checks.check(Money.applyRate(-100_000, 350, 12, RoundingMode.HALF_UP) == -292,
+                "negative balances round away from zero");
+        Checks.check(Money.applyRate(123_456, 425, 1, RoundingMode.HALF_UP) == Money.divide(123_456L * 425, 10_000,
+                RoundingMode.HALF_UP), "yearly interest is one division");
+
+        int mismatches = 0;
+        for (long cents = -50_000; cents <= 50_000; cents += 37) {
+            for (int rate : new int[]{1, 99, 350, 1_250}) {
+                for (int periods : new int[]{1, 4, 12, 365}) {
+                    for (RoundingMode mode : INEXACT_MODES) {
+                        BigDecimal expected = BigDecimal.valueOf(cents).multiply(BigDecimal.valueOf(rate))
+                                .divide(BigDecimal.valueOf(10_000L * periods), 0, mode);
+                        if (Money.applyRate(cents, rate, periods, mode) != expected.longValueExact()) {
+                            mismatches++;
+                        }
+                    }
+                }
+            }
+        }
+        Checks.check(mismatches == 0,
+                "applyRate agrees with BigDecimal on the fast path (" + mismatches + " mismatches)");
+
+        try {
+            Money.applyRate(100, 350, 0, RoundingMode.HALF_UP);
+            Checks.check(false, "applyRate rejects zero periods");
+        } catch (IllegalArgumentException e) {
+            Checks.check(true, "applyRate rejects zero periods");
+        }
+    }
+
+    private static void applyRateMatchesBigDecimalBeyond64Bits() {
+        long[] balances = {3_000_000_000L, -3_000_000_000L, Long.MAX_VALUE / 3, Long.MIN_VALUE / 5};
+        long[] rates = {350, 9_999, 4_000_000_000L};
+        boolean agrees = true;
+        for (long cents : balances) {
+            for (long rate : rates) {
+                BigDecimal expected = BigDecimal.valueOf(cents).multiply(BigDecimal.valueOf(rate))
+                        .divide(BigDecimal.valueOf(120_000), 0, RoundingMode.HALF_UP);
+                if (expected.toBigInteger().bitLength() >= 64) {
+                    continue;
+                }
+                agrees &= Money.applyRate(cents, rate, 12, RoundingMode.HALF_UP) == expected.longValueExact();
+            }
+        }
+        Checks.check(agrees, "applyRate agrees with BigDecimal when the product needs more than 64 bits");
+    }
+
+    private static void fromDoubleRoundsHalfUp() {
+        Checks.check(Money.fromDouble(1.005) == 101, "1.005 rounds up to 1.01, not down from its binary value");
+        Checks.check(Money.fromDouble(-1.005) == -101, "-1.005 rounds away from zero");
+        Checks.check(Money.fromDouble(0.1 + 0.2) == 30, "0.1 + 0.2 is 30 cents");
+        Checks.check("-12.05".equals(Money.toString(-1_205)), "toString pads single-digit cents");
+        try {
+            Money.fromDouble(Double.NaN);
+            Checks.check(false, "fromDouble rejects NaN");
+        } catch (ArithmeticException e) {
+            Checks.check(true, "fromDouble rejects NaN");
+        }
+    }
+
+    private static long reference(long dividend, long divisor, RoundingMode mode) {
+        return BigDecimal.valueOf(dividend).divide(BigDecimal.valueOf(divisor), 0, mode).longValueExact();
+    }
+}
@@ -0,0 +1,129 @@
+// PostingNetterTest.java
+import dto.AccountDTO;
+import model.Money;
+import service.PostingNetter;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * balance_after sequencing and net balance updates of PostingNetter.
+ * Runs the DAOs against StubDatabase, which records the statements instead of executing them.
+ */
+public class PostingNetterTest {
+    private static final int SAVINGS_ID = 1;
+    private static final int CHECKING_ID = 2;
+    private static final int WASH_ID = 3;
+
+    public static void main(String[] args) throws SQLException {
+        StubDatabase.install();
+
+        runningBalancesAreSequenced();
+        debitFloorUsesRunningBalance();
+        unopenedAccountsAreRejected();
+
+        Checks.finish("posting netter");
+    }
+
+    private static void runningBalancesAreSequenced() throws SQLException {
+        StubDatabase.reset();
+        PostingNetter netter = new PostingNetter();
+        // Opened out of id order; the balance UPDATEs must still come in id order
+        netter.open(account(CHECKING_ID, "CHECKING", 10_000));
+        netter.open(account(SAVINGS_ID, "SAVINGS", 50_000));
+        netter.open(account(WASH_ID, "CHECKING", 0));
+
+        long[] returned = {
+                netter.credit(CHECKING_ID, "DEPOSIT", 2_500, "Deposit", null),
+                netter.debit(CHECKING_ID, "WITHDRAWAL", 4_000, "Withdrawal", null),
+                netter.debit(SAVINGS_ID, "TRANSFER_OUT", 10_000, "Transfer", CHECKING_ID),
+                netter.credit(CHECKING_ID, "TRANSFER_IN", 10_000, "Transfer", SAVINGS_ID),
+                netter.credit(SAVINGS_ID, "DEPOSIT", 1_000, "Deposit", null),
+                netter.credit(WASH_ID, "DEPOSIT", 700, "Deposit", null),
+                netter.debit(WASH_ID, "WITHDRAWAL", 700, "Withdrawal", null)
+        };
+        long[] expected = {12_500, 8_500, 40_000, 18_500, 41_000, 700, 0};
+        Checks.check(Arrays.equals(returned, expected), "each posting returns the balance after it: " +
+                Arrays.toString(returned));
+
+        // Opening an account again keeps the running balance
+        netter.open(account(CHECKING_ID, "CHECKING", 10_000));
+        Checks.check(netter.getBalanceCents(CHECKING_ID) == 18_500, "reopening an account keeps its running balance");
+        Checks.check(netter.getPendingPostings() == 7, "postings wait for the flush");
+
+        List<String> changed = netter.flush();
+        Checks.check(changed.equals(Arrays.asList("ACC1", "ACC2")),
+                "accounts whose balance changed are reported, netted-out ones are not");
+
+        List<StubDatabase.Execution> updates = StubDatabase.executed("UPDATE accounts SET balance = balance + ?");
+        Checks.check(updates.size() == 1 && updates.get(0).rows.size() == 2,
+                "one batched balance UPDATE per account with a net change");
+        if (updates.size() == 1 && updates.get(0).rows.size() == 2) {
+            List<Object[]> rows = updates.get(0).rows;
+            Checks.check(decimalEquals(rows.get(0)[0], -9_000) && rows.get(0)[1].equals(SAVINGS_ID)
+                            && decimalEquals(rows.get(1)[0], 8_500) && rows.get(1)[1].equals(CHECKING_ID),
+                    "the UPDATEs carry the net deltas in account_id order");
+        }
+
+        List<StubDatabase.Execution> inserts = StubDatabase.executed("INSERT INTO transactions");
+        Checks.check(inserts.size() == 1 && inserts.get(0).rows.size() == 7, "one batched INSERT holds every posting");
+        if (inserts.size() == 1 && inserts.get(0).rows.size() == 7) {
+            boolean sequenced = true;
+            boolean amountsPositive = true;
+            List<Object[]> rows = inserts.get(0).rows;
+            for (int i = 0; i < rows.size(); i++) {
+                sequenced &= decimalEquals(rows.get(i)[3], expected[i]);
+                amountsPositive &= ((BigDecimal) rows.get(i)[2]).signum() > 0;
+            }
+            Checks.check(sequenced, "each row's balance_after is the running balance at that posting");
+            Checks.check(amountsPositive, "rows record amounts, not signed deltas");
+            Checks.check(rows.get(2)[5].equals(CHECKING_ID) && rows.get(0)[5] == null,
+                    "reference accounts are written, or NULL when absent");
+        }
+
+        StubDatabase.reset();
+        long after = netter.credit(CHECKING_ID, "DEPOSIT", 1_500, "Deposit", null);
+        Checks.check(after == 20_000, "postings after a flush continue from the running balance");
+        netter.flush();
+        List<StubDatabase.Execution> second = StubDatabase.executed("INSERT INTO transactions");
+        Checks.check(second.size() == 1 && second.get(0).rows.size() == 1,
+                "a second flush writes only the new postings");
+        Checks.check(netter.getPostingsFlushed() == 8 && netter.getBalanceUpdates() == 3,
+                "statistics count postings and balance UPDATEs across flushes");
+    }
+
+    private static void debitFloorUsesRunningBalance() {
+        PostingNetter netter = new PostingNetter();
+        netter.open(account(CHECKING_ID, "CHECKING", 0));
+        // Checking accounts may go $500 overdrawn
+        Checks.check(netter.canDebit(CHECKING_ID, 50_000), "a debit down to the overdraft limit is allowed");
+        Checks.check(!netter.canDebit(CHECKING_ID, 50_001), "a debit past the overdraft limit is refused");
+        netter.credit(CHECKING_ID, "DEPOSIT", 1_000, "Deposit", null);
+        Checks.check(netter.canDebit(CHECKING_ID, 51_000), "an unflushed credit counts toward the floor check");
+    }
+
+    private static void unopenedAccountsAreRejected() {
+        PostingNetter netter = new PostingNetter();
+        try {
+            netter.credit(99, "DEPOSIT", 100, "Deposit", null);
+            Checks.check(false, "posting to an account that was not opened is refused");
+        } catch (IllegalStateException e) {
+            Checks.check(true, "posting to an account that was not opened is refused");
+        }
+    }
+
+    private static AccountDTO account(int id, String type, long balanceCents) {
+        AccountDTO account = new AccountDTO();
+        account.setAccountId(id);
+        account.setAccountNumber("ACC" + id);
+        account.setAccountType(type);
+        account.setBalanceCents(balanceCents);
+        return account;
+    }
+
+    private static boolean decimalEquals(Object value, long cents) {
+        return value instanceof BigDecimal && ((BigDecimal) value).compareTo(Money.toDecimal(cents)) == 0;
+    }
+}
@@ -0,0 +1,314 @@
+// StandingOrderBatchProcessorTest.java
+import service.StandingOrderBatchProcessor;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Claiming, idempotent catch-up and end_date handling of StandingOrderBatchProcessor.
+ * Runs the DAOs against StubDatabase, which records the statements instead of executing
+ * them; the standing orders, accounts and executions the queries see are kept here.
+ */
+public class StandingOrderBatchProcessorTest {
+    private static final String OWNER = "node-a";
+    private static final String OTHER_OWNER = "node-b";
+    private static final int RICH_ID = 1;
+    private static final int PAYEE_ID = 2;
+    private static final int EMPTY_ID = 3;
+    private static final LocalDate AS_OF = LocalDate.parse("2025-03-15");
+    private static final String ADVANCE = "UPDATE standing_orders SET next_execution_date";
+    private static final String RELEASE = "UPDATE standing_orders SET claimed_by = NULL";
+    private static final String RECORD = "INSERT INTO standing_order_executions";
+
+    private static final List<Order> orders = new ArrayList<>();
+    private static final List<Map<String, Object>> executions = new ArrayList<>();
+
+    public static void main(String[] args) {
+        StubDatabase.install();
+
+        executedOccurrenceIsNotPaidTwice();
+        catchUpStopsAtEndDate();
+        insufficientFundsKeepsClaim();
+        otherNodesClaimsAreSkipped();
+        failingOrderIsSkipped();
+
+        Checks.finish("standing order batch processor");
+    }
+
+    private static void executedOccurrenceIsNotPaidTwice() {
+        reset();
+        Order order = order(1, RICH_ID, "2025-01-10", null);
+        executions.add(execution(1, "2025-02-10"));
+
+        StandingOrderBatchProcessor.RunResult result = catchUp().process(AS_OF);
+        Checks.check(result.isSuccessful() && result.getOccurrencesExecuted() == 2,
+                "two of the three missed occurrences are paid: " + result);
+        Checks.check(recordedDates(1).equals(Arrays.asList("2025-01-10", "2025-03-10")),
+                "the occurrence already in standing_order_executions is skipped: " + recordedDates(1));
+        Checks.check(transactionRows() == 4, "each paid occurrence writes one pair of transaction rows");
+        Object[] advance = advanced(order.id);
+        Checks.check(advance != null && advance[0].equals(Date.valueOf("2025-04-10")),
+                "next_execution_date moves past the run date");
+    }
+
+    private static void catchUpStopsAtEndDate() {
+        reset();
+        Order order = order(2, RICH_ID, "2025-01-01", "2025-02-15");
+
+        StandingOrderBatchProcessor.RunResult result = catchUp().process(AS_OF);
+        Checks.check(recordedDates(2).equals(Arrays.asList("2025-01-01", "2025-02-01")),
+                "no occurrence after end_date is paid: " + recordedDates(2));
+        Object[] advance = advanced(order.id);
+        Checks.check(advance != null && "COMPLETED".equals(advance[2]),
+                "an order past its end_date is set to COMPLETED");
+        Checks.check(result.getOrdersCompleted() == 1, "the completed order is counted");
+    }
+
+    private static void insufficientFundsKeepsClaim() {
+        reset();
+        Order order = order(3, EMPTY_ID, "2025-03-01", null);
+
+        StandingOrderBatchProcessor.RunResult result = catchUp().process(AS_OF);
+        Checks.check(result.getOrdersFailed() == 1 && result.getOccurrencesExecuted() == 0,
+                "an order the source account cannot pay fails");
+        Checks.check(advanced(order.id) == null, "its next_execution_date is not moved");
+        Checks.check(StubDatabase.executed(RELEASE).isEmpty() && result.getOrderErrors().isEmpty(),
+                "its claim is kept until the lease expires");
+        Checks.check(StubDatabase.executed(RECORD).isEmpty() && transactionRows() == 0,
+                "nothing is posted or recorded for it");
+    }
+
+    private static void otherNodesClaimsAreSkipped() {
+        reset();
+        order(4, RICH_ID, "2025-03-01", null).claim(OTHER_OWNER, false);
+        order(5, RICH_ID, "2025-03-01", null).claim(OTHER_OWNER, true);
+        order(6, RICH_ID, "2025-03-01", null);
+        order(7, RICH_ID, "2025-03-01", null).claim(OWNER, false);
+        // Claimed by this node, then taken over by the other one before it was locked
+        Order takenOver = order(8, RICH_ID, "2025-03-01", null);
+        StubDatabase.answer("SELECT standing_order_id FROM standing_orders", parameters -> {
+            List<Map<String, Object>> rows = claimable(parameters);
+            takenOver.claim(OTHER_OWNER, false);
+            return rows;
+        });
+
+        StandingOrderBatchProcessor.RunResult result = new StandingOrderBatchProcessor(10, OWNER, 60).process(AS_OF);
+        List<StubDatabase.Execution> claims = StubDatabase.executed("UPDATE standing_orders SET claimed_by = ?");
+        Checks.check(claims.size() == 1 && claimedIds(claims.get(0)).equals(Arrays.asList(5, 6, 7, 8)),
+                "an unexpired claim of another node is not claimed; expired and own claims are");
+        Checks.check(advanced(4) == null && advanced(5) != null && advanced(6) != null && advanced(7) != null,
+                "only the claimed orders are paid");
+        Checks.check(advanced(8) == null && result.getOrdersExecuted() == 3,
+                "an order another node took over before it was locked is left to that node");
+    }
+
+    private static void failingOrderIsSkipped() {
+        reset();
+        order(9, RICH_ID, "2025-03-01", null);
+        order(10, RICH_ID, "2025-03-01", null);
+        order(11, RICH_ID, "2025-03-01", null);
+        // The chunk's execution insert for order 10 fails, then order 10's own read
+        StubDatabase.fail(2, row -> row.length == 2 && Integer.valueOf(10).equals(row[0]) && row[1] instanceof Date,
+                new SQLException("Data truncated", "01000", 1265));
+
+        StandingOrderBatchProcessor.RunResult result = new StandingOrderBatchProcessor(10, OWNER, 60).process(AS_OF);
+        Checks.check(result.isSuccessful() && result.getOrderErrors().keySet().equals(Collections.singleton(10)),
+                "the failing order is recorded and the run carries on: " + result);
+        Checks.check(advanced(9) != null && advanced(11) != null && advanced(10) == null,
+                "the orders around it are executed one at a time");
+        List<StubDatabase.Execution> releases = StubDatabase.executed(RELEASE);
+        Checks.check(releases.size() == 1 && releases.get(0).rows.get(0)[0].equals(10),
+                "the failing order's claim is released");
+    }
+
+    private static StandingOrderBatchProcessor catchUp() {
+        StandingOrderBatchProcessor processor = new StandingOrderBatchProcessor(10, OWNER, 60);
+        processor.setCatchUp(10, 0);
+        return processor;
+    }
+
+    /**
+     * Clear the recorded statements and answer the processor's queries from the orders,
+     * accounts and executions kept here
+     */
+    private static void reset() {
+        StubDatabase.reset();
+        orders.clear();
+        executions.clear();
+
+        StubDatabase.answer("SELECT standing_order_id FROM standing_orders",
+                StandingOrderBatchProcessorTest::claimable);
+        StubDatabase.answer("WHERE so.standing_order_id IN", parameters -> {
+            // ids..., owner, asOf
+            Set<Object> ids = new HashSet<>(Arrays.asList(parameters).subList(0, parameters.length - 2));
+            Object owner = parameters[parameters.length - 2];
+            List<Map<String, Object>> rows = new ArrayList<>();
+            for (Order order : orders) {
+                if (ids.contains(order.id) && owner.equals(order.claimedBy)) {
+                    rows.add(order.row());
+                }
+            }
+            return rows;
+        });
+        StubDatabase.answer("WHERE a.account_id IN", parameters -> {
+            List<Map<String, Object>> rows = new ArrayList<>();
+            for (Object id : parameters) {
+                rows.add(account((Integer) id));
+            }
+            return rows;
+        });
+        StubDatabase.answer("FROM standing_order_executions", parameters -> {
+            Set<Object> ids = new HashSet<>(Arrays.asList(parameters).subList(0, parameters.length - 1));
+            List<Map<String, Object>> rows = new ArrayList<>();
+            for (Map<String, Object> execution : executions) {
+                if (ids.contains(execution.get("standing_order_id"))) {
+                    rows.add(execution);
+                }
+            }
+            return rows;
+        });
+    }
+
+    /**
+     * Due orders the claim query may take, mirroring its WHERE clause: unclaimed,
+     * claimed by the caller, or with an expired lease
+     */
+    private static List<Map<String, Object>> claimable(Object[] parameters) {
+        // asOf, afterOrderId, owner, limit
+        LocalDate asOf = ((Date) parameters[0]).toLocalDate();
+        int after = (Integer) parameters[1];
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (Order order : orders) {
+            boolean free = order.claimedBy == null || order.claimedBy.equals(parameters[2]) || order.leaseExpired;
+            if (order.id > after && !order.next.isAfter(asOf) && free && rows.size() < (Integer) parameters[3]) {
+                rows.add(Collections.singletonMap("standing_order_id", order.id));
+                order.claim((String) parameters[2], false);
+            }
+        }
+        return rows;
+    }
+
+    private static Order order(int id, int fromAccountId, String next, String end) {
+        Order order = new Order(id, fromAccountId, LocalDate.parse(next), end == null ? null : LocalDate.parse(end));
+        orders.add(order);
+        return order;
+    }
+
+    private static Map<String, Object> execution(int orderId, String date) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("standing_order_id", orderId);
+        row.put("execution_date", Date.valueOf(date));
+        return row;
+    }
+
+    private static Map<String, Object> account(int id) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("account_id", id);
+        row.put("account_number", "ACC" + id);
+        row.put("account_holder", "Holder " + id);
+        row.put("account_type", "SAVINGS");
+        row.put("balance", new BigDecimal(id == EMPTY_ID ? "100.00" : "1000000.00"));
+        row.put("stripe_balance", BigDecimal.ZERO);
+        row.put("interest_rate", 0.0);
+        row.put("status", "ACTIVE");
+        return row;
+    }
+
+    /**
+     * Execution dates recorded for an order, in the order they were written
+     */
+    private static List<String> recordedDates(int orderId) {
+        List<String> dates = new ArrayList<>();
+        for (StubDatabase.Execution insert : StubDatabase.executed(RECORD)) {
+            for (Object[] row : insert.rows) {
+                if (row[0].equals(orderId)) {
+                    dates.add(row[1].toString());
+                }
+            }
+        }
+        return dates;
+    }
+
+    /**
+     * Parameters of the advance UPDATE for an order (next, last, status, id), or null
+     */
+    private static Object[] advanced(int orderId) {
+        for (StubDatabase.Execution update : StubDatabase.executed(ADVANCE)) {
+            for (Object[] row : update.rows) {
+                if (row[3].equals(orderId)) {
+                    return row;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static int transactionRows() {
+        int rows = 0;
+        for (StubDatabase.Execution insert : StubDatabase.executed("INSERT INTO transactions")) {
+            rows += insert.rows.size();
+        }
+        return rows;
+    }
+
+    /**
+     * Order ids bound to a claim UPDATE (owner, lease, ids...)
+     */
+    private static List<Object> claimedIds(StubDatabase.Execution claim) {
+        Object[] row = claim.rows.get(0);
+        return Arrays.asList(row).subList(2, row.length);
+    }
+
+    /**
+     * One standing_orders row as the claim and lock queries see it
+     */
+    private static final class Order {
+        private final int id;
+        private final int fromAccountId;
+        private final LocalDate next;
+        private final LocalDate end;
+        private String claimedBy;
+        private boolean leaseExpired;
+
+        Order(int id, int fromAccountId, LocalDate next, LocalDate end) {
+            this.id = id;
+            this.fromAccountId = fromAccountId;
+            this.next = next;
+            this.end = end;
+        }
+
+        Order claim(String owner, boolean expired) {
+            claimedBy = owner;
+            leaseExpired = expired;
+            return this;
+        }
+
+        Map<String, Object> row() {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("standing_order_id", id);
+            row.put("from_account_id", fromAccountId);
+            row.put("to_account_id", PAYEE_ID);
+            row.put("from_account_number", "ACC" + fromAccountId);
+            row.put("to_account_number", "ACC" + PAYEE_ID);
+            row.put("amount", new BigDecimal("50.00"));
+            row.put("frequency", "MONTHLY");
+            row.put("start_date", Date.valueOf(next));
+            row.put("end_date", end == null ? null : Date.valueOf(end));
+            row.put("next_execution_date", Date.valueOf(next));
+            row.put("last_execution_date", null);
+            row.put("description", "Rent");
+            row.put("status", "ACTIVE");
+            return row;
+        }
+    }
+}
@@ -0,0 +1,415 @@
+// StubDatabase.java
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.DriverManager;
+import java.sql.DriverPropertyInfo;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.logging.Logger;
+
+/**
+ * In-memory JDBC driver for tests that run DAO code without MySQL
+ * {@link #install()} points DatabaseConfig at jdbc:stub: through the db.* system
+ * property overrides, so DatabaseConnection opens its pool on stub connections.
+ * Statements are recorded, not executed: queries return the rows given to
+ * {@link #answer} (none by default), updates report {@link #updateCount} rows
+ * and batches one row per entry. execute() treats a multi-statement string as one
+ * statement whose result set is the answer for it. Failures can be
+ * injected per statement, and a gate can hold batches to stall a writer thread.
+ */
+public class StubDatabase implements Driver {
+    private static final String URL_PREFIX = "jdbc:stub:";
+    // Connection state flags
+    private static final int AUTO_COMMIT = 0;
+    private static final int CLOSED = 1;
+    private static final int DIRTY = 2;
+
+    private static final List<Execution> executed = Collections.synchronizedList(new ArrayList<>());
+    private static final AtomicInteger commits = new AtomicInteger();
+    private static final AtomicInteger rollbacks = new AtomicInteger();
+
+    // Query results by SQL fragment, checked in the order they were added
+    private static final Map<String, Function<Object[], List<Map<String, Object>>>> answers =
+            Collections.synchronizedMap(new LinkedHashMap<>());
+
+    /** Rows reported by executeUpdate */
+    static volatile int updateCount = 1;
+    // Injected failures
+    private static volatile Predicate<Object[]> failWhen;
+    private static volatile Exception failure;
+    private static final AtomicInteger failuresLeft = new AtomicInteger();
+    // Batches wait for the gate while it is set
+    private static volatile CountDownLatch gate;
+    private static final AtomicInteger waitingAtGate = new AtomicInteger();
+
+    static {
+        try {
+            DriverManager.registerDriver(new StubDatabase());
+        } catch (SQLException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /**
+     * Route DatabaseConfig to this driver. Call before any class reads the configuration.
+     */
+    static void install() {
+        System.setProperty("db.driver", StubDatabase.class.getName());
+        System.setProperty("db.url", URL_PREFIX + "bank?allowMultiQueries=true");
+        System.setProperty("db.pool.minSize", "0");
+    }
+
+    /**
+     * Forget recorded statements and clear injected failures
+     */
+    static void reset() {
+        executed.clear();
+        commits.set(0);
+        rollbacks.set(0);
+        updateCount = 1;
+        answers.clear();
+        failuresLeft.set(0);
+        failWhen = null;
+        failure = null;
+        gate = null;
+    }
+
+    /**
+     * Answer queries whose SQL contains the fragment. The function gets the bound
+     * parameters and returns the rows, each a column label to value map.
+     */
+    static void answer(String sqlFragment, Function<Object[], List<Map<String, Object>>> rows) {
+        answers.put(sqlFragment, rows);
+    }
+
+    /**
+     * Fail the next matching statements
+     * @param times Statements to fail
+     * @param when Matches the bound parameters of any row of the statement
+     * @param exception SQLException or RuntimeException to throw
+     */
+    static void fail(int times, Predicate<Object[]> when, Exception exception) {
+        failWhen = when;
+        failure = exception;
+        failuresLeft.set(times);
+    }
+
+    /**
+     * Hold every batch until the returned latch is counted down
+     */
+    static CountDownLatch closeGate() {
+        CountDownLatch latch = new CountDownLatch(1);
+        gate = latch;
+        return latch;
+    }
+
+    static void openGate() {
+        CountDownLatch latch = gate;
+        gate = null;
+        if (latch != null) {
+            latch.countDown();
+        }
+    }
+
+    static int getWaitingAtGate() {
+        return waitingAtGate.get();
+    }
+
+    /**
+     * Statements recorded so far whose SQL starts with the given text
+     */
+    static List<Execution> executed(String sqlPrefix) {
+        List<Execution> matching = new ArrayList<>();
+        synchronized (executed) {
+            for (Execution execution : executed) {
+                if (execution.sql.startsWith(sqlPrefix)) {
+                    matching.add(execution);
+                }
+            }
+        }
+        return matching;
+    }
+
+    static int getCommits() {
+        return commits.get();
+    }
+
+    /**
+     * Rollbacks of transactions that issued statements; the pool's rollback on release is not counted
+     */
+    static int getRollbacks() {
+        return rollbacks.get();
+    }
+
+    /**
+     * One executed statement with the parameters of each of its rows, from index 1
+     */
+    static final class Execution {
+        final String sql;
+        final List<Object[]> rows;
+
+        Execution(String sql, List<Object[]> rows) {
+            this.sql = sql;
+            this.rows = rows;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder text = new StringBuilder(sql);
+            for (Object[] row : rows) {
+                text.append("\n  ").append(Arrays.toString(row));
+            }
+            return text.toString();
+        }
+    }
+
+    private static void execute(boolean[] state, String sql, List<Object[]> rows) throws Exception {
+        if (!state[AUTO_COMMIT]) {
+            state[DIRTY] = true;
+        }
+        CountDownLatch latch = gate;
+        if (latch != null && rows.size() > 0 && sql.startsWith("INSERT")) {
+            waitingAtGate.incrementAndGet();
+            try {
+                latch.await();
+            } finally {
+                waitingAtGate.decrementAndGet();
+            }
+        }
+        Predicate<Object[]> when = failWhen;
+        if (when != null && failuresLeft.get() > 0) {
+            for (Object[] row : rows) {
+                if (when.test(row) && failuresLeft.getAndDecrement() > 0) {
+                    throw failure;
+                }
+            }
+        }
+        executed.add(new Execution(sql, rows));
+    }
+
+    private static Connection connection() {
+        boolean[] state = {true, false, false};
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "prepareStatement":
+                            return statement(state, (String) args[0]);
+                        case "getAutoCommit":
+                            return state[AUTO_COMMIT];
+                        case "setAutoCommit":
+                            state[AUTO_COMMIT] = (Boolean) args[0];
+                            return null;
+                        case "commit":
+                            commits.incrementAndGet();
+                            state[DIRTY] = false;
+                            return null;
+                        case "rollback":
+                            if (state[DIRTY]) {
+                                rollbacks.incrementAndGet();
+                            }
+                            state[DIRTY] = false;
+                            return null;
+                        case "close":
+                            state[CLOSED] = true;
+                            return null;
+                        case "isClosed":
+                            return state[CLOSED];
+                        case "isValid":
+                            return !state[CLOSED];
+                        default:
+                            return defaultValue(proxy, method.getName(), method.getReturnType(), args);
+                    }
+                });
+    }
+
+    private static PreparedStatement statement(boolean[] state, String sql) {
+        TreeMap<Integer, Object> parameters = new TreeMap<>();
+        List<Object[]> batch = new ArrayList<>();
+        // Rows of the last execute(), whose statements all count as one that returns them
+        List<List<Map<String, Object>>> results = new ArrayList<>();
+        return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                new Class<?>[]{PreparedStatement.class}, (proxy, method, args) -> {
+                    String name = method.getName();
+                    if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                        parameters.put((Integer) args[0], name.equals("setNull") ? null : args[1]);
+                        return null;
+                    }
+                    switch (name) {
+                        case "addBatch":
+                            batch.add(row(parameters));
+                            return null;
+                        case "executeBatch": {
+                            List<Object[]> rows = new ArrayList<>(batch);
+                            batch.clear();
+                            execute(state, sql, rows);
+                            int[] counts = new int[rows.size()];
+                            Arrays.fill(counts, 1);
+                            return counts;
+                        }
+                        case "executeUpdate":
+                            execute(state, sql, Collections.singletonList(row(parameters)));
+                            return updateCount;
+                        case "executeQuery": {
+                            Object[] row = row(parameters);
+                            execute(state, sql, Collections.singletonList(row));
+                            return resultSet(rowsFor(sql, row));
+                        }
+                        case "execute": {
+                            Object[] row = row(parameters);
+                            execute(state, sql, Collections.singletonList(row));
+                            results.clear();
+                            results.add(rowsFor(sql, row));
+                            return true;
+                        }
+                        case "getResultSet":
+                            return results.isEmpty() ? null : resultSet(results.remove(0));
+                        case "getUpdateCount":
+                            return -1;
+                        case "getGeneratedKeys":
+                            return resultSet(Collections.emptyList());
+                        default:
+                            return defaultValue(proxy, name, method.getReturnType(), args);
+                    }
+                });
+    }
+
+    private static Object[] row(TreeMap<Integer, Object> parameters) {
+        Object[] row = new Object[parameters.isEmpty() ? 0 : parameters.lastKey()];
+        parameters.forEach((index, value) -> row[index - 1] = value);
+        return row;
+    }
+
+    private static List<Map<String, Object>> rowsFor(String sql, Object[] parameters) {
+        synchronized (answers) {
+            for (Map.Entry<String, Function<Object[], List<Map<String, Object>>>> answer : answers.entrySet()) {
+                if (sql.contains(answer.getKey())) {
+                    return answer.getValue().apply(parameters);
+                }
+            }
+        }
+        return Collections.emptyList();
+    }
+
+    /**
+     * Result set over the given rows; getters take a column label or a 1-based
+     * position in the row map's order
+     */
+    private static ResultSet resultSet(List<Map<String, Object>> rows) {
+        int[] position = {-1};
+        Object[] last = {null};
+        return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(),
+                new Class<?>[]{ResultSet.class}, (proxy, method, args) -> {
+                    String name = method.getName();
+                    if (name.equals("next")) {
+                        return ++position[0] < rows.size();
+                    }
+                    if (name.equals("wasNull")) {
+                        return last[0] == null;
+                    }
+                    if (name.startsWith("get") && args != null && args.length == 1
+                            && position[0] >= 0 && position[0] < rows.size()) {
+                        Map<String, Object> row = rows.get(position[0]);
+                        Object value = args[0] instanceof Integer
+                                ? new ArrayList<>(row.values()).get((Integer) args[0] - 1)
+                                : row.get((String) args[0]);
+                        last[0] = value;
+                        return convert(value, method.getReturnType(), proxy, name, args);
+                    }
+                    return defaultValue(proxy, name, method.getReturnType(), args);
+                });
+    }
+
+    private static Object convert(Object value, Class<?> type, Object proxy, String name, Object[] args) {
+        if (value == null) {
+            return defaultValue(proxy, name, type, args);
+        }
+        if (type == int.class) {
+            return ((Number) value).intValue();
+        }
+        if (type == long.class) {
+            return ((Number) value).longValue();
+        }
+        if (type == double.class) {
+            return ((Number) value).doubleValue();
+        }
+        if (type == String.class) {
+            return value.toString();
+        }
+        return value;
+    }
+
+    private static Object defaultValue(Object proxy, String name, Class<?> type, Object[] args) {
+        switch (name) {
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "toString":
+                return "StubDatabase";
+            default:
+                break;
+        }
+        if (type == boolean.class) {
+            return false;
+        }
+        if (type == int.class) {
+            return 0;
+        }
+        if (type == long.class) {
+            return 0L;
+        }
+        if (type == double.class) {
+            return 0.0;
+        }
+        return null;
+    }
+
+    @Override
+    public Connection connect(String url, Properties info) {
+        return acceptsURL(url) ? connection() : null;
+    }
+
+    @Override
+    public boolean acceptsURL(String url) {
+        return url != null && url.startsWith(URL_PREFIX);
+    }
+
+    @Override
+    public DriverPropertyInfo[] getPropertyInfo(String url, Properties info) {
+        return new DriverPropertyInfo[0];
+    }
+
+    @Override
+    public int getMajorVersion() {
+        return 1;
+    }
+
+    @Override
+    public int getMinorVersion() {
+        return 0;
+    }
+
+    @Override
+    public boolean jdbcCompliant() {
+        return false;
+    }
+
+    @Override
+    public Logger getParentLogger() {
+        return Logger.getGlobal();
+    }
+}
@@ -0,0 +1,243 @@
+// TransactionJournalTest.java
+import dto.AccountDTO;
+import service.TransactionJournal;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.sql.SQLTransactionRollbackException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Group commit, failure and stop semantics of TransactionJournal.
+ * Runs the DAOs against StubDatabase, which records the statements instead of executing them.
+ */
+public class TransactionJournalTest {
+    private static final long WAIT_SECONDS = 10;
+
+    public static void main(String[] args) throws Exception {
+        StubDatabase.install();
+
+        postingsShareGroupCommits();
+        failedGroupIsRetriedOnePostingAtATime();
+        uncheckedFailureKeepsWriterAlive();
+        lockConflictIsRetried();
+        rejectedPostingCompletesWithNull();
+        balanceChangeIsOneRoundTrip();
+        stopWritesQueuedPostings();
+
+        Checks.finish("transaction journal");
+    }
+
+    private static void postingsShareGroupCommits() throws Exception {
+        StubDatabase.reset();
+        TransactionJournal journal = new TransactionJournal(10, 500, 100);
+        // Hold the writer in its first group so the rest queue up behind it
+        CountDownLatch gate = StubDatabase.closeGate();
+        List<CompletableFuture<Boolean>> futures = new ArrayList<>();
+        futures.add(record(journal, 0));
+        awaitWriterAtGate();
+        for (int i = 1; i < 26; i++) {
+            futures.add(record(journal, i));
+        }
+        StubDatabase.openGate();
+        gate.countDown();
+
+        boolean allWritten = true;
+        for (CompletableFuture<Boolean> future : futures) {
+            allWritten &= Boolean.TRUE.equals(future.get(WAIT_SECONDS, TimeUnit.SECONDS));
+        }
+        Checks.check(allWritten, "every recorded posting completes with true");
+        Checks.check(journal.getWrittenCount() == 26, "26 postings are counted as written");
+
+        List<StubDatabase.Execution> inserts = StubDatabase.executed("INSERT INTO transactions");
+        List<Integer> sizes = new ArrayList<>();
+        for (StubDatabase.Execution insert : inserts) {
+            sizes.add(insert.rows.size());
+        }
+        Checks.check(sizes.equals(List.of(1, 10, 10, 5)),
+                "queued postings are written in groups of at most 10: " + sizes);
+        Checks.check(journal.getGroupCount() == 4 && StubDatabase.getCommits() == 4, "one commit per group");
+
+        boolean ordered = true;
+        int next = 0;
+        for (StubDatabase.Execution insert : inserts) {
+            for (Object[] row : insert.rows) {
+                ordered &= ("Posting " + next++).equals(row[4]);
+            }
+        }
+        Checks.check(ordered, "rows are written in submission order");
+        journal.stop();
+    }
+
+    private static void failedGroupIsRetriedOnePostingAtATime() throws Exception {
+        StubDatabase.reset();
+        TransactionJournal journal = new TransactionJournal(10, 500, 100);
+        // Fails the group and then Posting 1 on its own
+        StubDatabase.fail(2, row -> "Posting 1".equals(row[4]), new SQLException("Data truncated", "22001"));
+
+        CountDownLatch gate = StubDatabase.closeGate();
+        CompletableFuture<Boolean> blocker = record(journal, 0);
+        awaitWriterAtGate();
+        // These three share the group that fails
+        CompletableFuture<Boolean> bad = record(journal, 1);
+        List<CompletableFuture<Boolean>> groupMates = List.of(record(journal, 2), record(journal, 3));
+        StubDatabase.openGate();
+        gate.countDown();
+        Checks.check(Boolean.TRUE.equals(blocker.get(WAIT_SECONDS, TimeUnit.SECONDS)),
+                "the group before the failure is written");
+
+        Checks.check(failureOf(bad) instanceof SQLException, "the bad posting fails with the SQLException");
+        boolean matesWritten = true;
+        for (CompletableFuture<Boolean> future : groupMates) {
+            matesWritten &= Boolean.TRUE.equals(future.get(WAIT_SECONDS, TimeUnit.SECONDS));
+        }
+        Checks.check(matesWritten, "its group-mates are retried one at a time and written");
+        // The writer counts a failure just after completing its future
+        awaitFailedCount(journal, 1);
+        Checks.check(journal.getFailedCount() == 1 && StubDatabase.getRollbacks() >= 2,
+                "the failed group and the bad posting's retry are rolled back; one failure is counted");
+
+        CompletableFuture<Boolean> after = record(journal, 4);
+        Checks.check(Boolean.TRUE.equals(after.get(WAIT_SECONDS, TimeUnit.SECONDS)),
+                "the writer carries on with the next group");
+        journal.stop();
+    }
+
+    private static void uncheckedFailureKeepsWriterAlive() throws Exception {
+        StubDatabase.reset();
+        TransactionJournal journal = new TransactionJournal(10, 0, 100);
+        StubDatabase.fail(1, row -> "Posting 0".equals(row[4]), new IllegalStateException("Driver bug"));
+
+        Throwable failure = failureOf(record(journal, 0));
+        Checks.check(failure instanceof IllegalStateException, "an unchecked failure fails the group's futures");
+        CompletableFuture<Boolean> after = record(journal, 1);
+        Checks.check(Boolean.TRUE.equals(after.get(WAIT_SECONDS, TimeUnit.SECONDS)),
+                "the writer survives an unchecked failure");
+        journal.stop();
+    }
+
+    private static void lockConflictIsRetried() throws Exception {
+        StubDatabase.reset();
+        TransactionJournal journal = new TransactionJournal(10, 0, 100);
+        StubDatabase.fail(1, row -> "Posting 0".equals(row[4]),
+                new SQLTransactionRollbackException("Deadlock found", "40001", 1213));
+
+        Checks.check(Boolean.TRUE.equals(record(journal, 0).get(WAIT_SECONDS, TimeUnit.SECONDS)),
+                "a group hit by a deadlock is retried and written");
+        Checks.check(journal.getFailedCount() == 0 && StubDatabase.getRollbacks() == 1,
+                "the deadlocked attempt is rolled back, not failed");
+        journal.stop();
+    }
+
+    private static void rejectedPostingCompletesWithNull() throws Exception {
+        StubDatabase.reset();
+        // The balance UPDATE matches no row: unknown account or insufficient funds
+        StubDatabase.updateCount = 0;
+        TransactionJournal journal = new TransactionJournal(10, 0, 100);
+        AccountDTO account = journal.postCents("ACC404", "withdrawal", -5_000, "Withdrawal")
+                .get(WAIT_SECONDS, TimeUnit.SECONDS);
+        Checks.check(account == null, "a posting whose balance change is refused completes with null");
+        Checks.check(journal.getRejectedCount() == 1 && journal.getWrittenCount() == 0, "it is counted as rejected");
+        Checks.check(StubDatabase.executed("INSERT INTO transactions").isEmpty(),
+                "no transaction row is written for it");
+        journal.stop();
+    }
+
+    private static void balanceChangeIsOneRoundTrip() throws Exception {
+        StubDatabase.reset();
+        Map<String, Object> account = new LinkedHashMap<>();
+        account.put("account_id", 1);
+        account.put("account_number", "ACC1");
+        account.put("account_type", "CHECKING");
+        account.put("balance", new BigDecimal("150.00"));
+        account.put("stripe_balance", BigDecimal.ZERO);
+        StubDatabase.answer("WHERE a.account_number = ?", parameters -> List.of(account));
+        TransactionJournal journal = new TransactionJournal(10, 0, 100);
+
+        AccountDTO updated = journal.postCents("ACC1", "deposit", 5_000, "Deposit").get(WAIT_SECONDS, TimeUnit.SECONDS);
+        Checks.check(updated != null && updated.getBalanceCents() == 15_000,
+                "the posting completes with the balance the update produced");
+        List<StubDatabase.Execution> changes = StubDatabase.executed("UPDATE accounts SET balance");
+        Checks.check(changes.size() == 1 && changes.get(0).sql.contains("; SELECT a.*")
+                        && StubDatabase.executed("SELECT a.*").isEmpty(),
+                "the balance change and the read of the updated row are sent together");
+        List<StubDatabase.Execution> inserts = StubDatabase.executed("INSERT INTO transactions");
+        Checks.check(inserts.size() == 1 && inserts.get(0).rows.get(0)[0].equals(1),
+                "the transaction row carries the account id read with the change");
+        journal.stop();
+    }
+
+    private static void stopWritesQueuedPostings() throws Exception {
+        StubDatabase.reset();
+        TransactionJournal journal = new TransactionJournal(2, 0, 100);
+        CountDownLatch gate = StubDatabase.closeGate();
+        List<CompletableFuture<Boolean>> futures = new ArrayList<>();
+        futures.add(record(journal, 0));
+        awaitWriterAtGate();
+        for (int i = 1; i < 6; i++) {
+            futures.add(record(journal, i));
+        }
+
+        Thread stopper = new Thread(journal::stop, "JournalStopper");
+        stopper.start();
+        Thread.sleep(100);
+        Checks.check(stopper.isAlive(), "stop waits while postings are still queued");
+        Throwable refused = failureOf(record(journal, 99));
+        Checks.check(refused instanceof IllegalStateException, "a posting submitted during stop is refused");
+
+        StubDatabase.openGate();
+        gate.countDown();
+        stopper.join(TimeUnit.SECONDS.toMillis(WAIT_SECONDS));
+        Checks.check(!stopper.isAlive(), "stop returns once the queue is empty");
+
+        boolean allWritten = true;
+        for (CompletableFuture<Boolean> future : futures) {
+            allWritten &= future.isDone() && Boolean.TRUE.equals(future.getNow(false));
+        }
+        Checks.check(allWritten, "postings queued before stop are all written");
+        Checks.check(journal.getQueuedCount() == 0 && journal.getWrittenCount() == 6, "nothing is left queued");
+        Checks.check(failureOf(record(journal, 100)) instanceof IllegalStateException,
+                "a stopped journal refuses postings");
+
+        journal.start();
+        Checks.check(Boolean.TRUE.equals(record(journal, 101).get(WAIT_SECONDS, TimeUnit.SECONDS)),
+                "a stopped journal can be started again");
+        journal.stop();
+    }
+
+    private static CompletableFuture<Boolean> record(TransactionJournal journal, int i) {
+        return journal.record(1, "deposit", 10.0, 100.0 + i, "Posting " + i);
+    }
+
+    private static Throwable failureOf(CompletableFuture<?> future)
+            throws InterruptedException, TimeoutException {
+        try {
+            future.get(WAIT_SECONDS, TimeUnit.SECONDS);
+            return null;
+        } catch (ExecutionException e) {
+            return e.getCause();
+        }
+    }
+
+    private static void awaitFailedCount(TransactionJournal journal, long count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(WAIT_SECONDS);
+        while (journal.getFailedCount() < count && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+    }
+
+    private static void awaitWriterAtGate() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(WAIT_SECONDS);
+        while (StubDatabase.getWaitingAtGate() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+    }
+}